@@ -0,0 +1,350 @@
+package io.github.kaltrinabajramii.urbantransitbackend.analytics;
+
+import io.github.kaltrinabajramii.urbantransitbackend.event.TapsRecordedEvent;
+import io.github.kaltrinabajramii.urbantransitbackend.event.TicketPurchasedEvent;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TransportType;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.RiderSketchJdbcRepository;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.RiderSketchJdbcRepository.SketchRow;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketRepository;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketUsageJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Distinct riders per day, overall and per route and transport type, as HyperLogLog sketches.
+ *
+ * A rider is a user who bought a ticket or tapped on that day; route and transport type
+ * sketches only count taps. Sketches for the last memory-days days are kept in memory and
+ * updated as purchases and taps commit. Any period is answered by merging the daily sketches
+ * it covers into one, so weekly and monthly active riders cost one 4 KiB register array
+ * however many riders there are. Days before the in-memory window are merged straight from
+ * rider_sketch.
+ *
+ * Changed sketches are merged into rider_sketch periodically under row locks; the merge also
+ * pulls in riders counted by other instances for the same days. Riders counted since the last
+ * persist are lost on a crash.
+ */
+@Component
+@Slf4j
+public class DistinctRiderSketches {
+
+    // Changing the precision makes stored sketches unreadable; 12 gives about 1.6% error
+    public static final int PRECISION = 12;
+
+    private static final String ALL_SCOPE = "ALL";
+    private static final String ROUTE_SCOPE = "ROUTE";
+    private static final String TRANSPORT_TYPE_SCOPE = "TRANSPORT_TYPE";
+
+    private final RiderSketchJdbcRepository riderSketchJdbcRepository;
+    private final TicketRepository ticketRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate lookupTransaction;
+
+    private final Map<SketchKey, Sketch> sketches = new ConcurrentHashMap<>();
+
+    // Persisting before the first load would make the table look populated and skip the backfill
+    private volatile boolean loaded;
+
+    @Value("${app.analytics.riders.memory-days:35}")
+    private int memoryDays;
+
+    @Value("${app.analytics.riders.backfill-days:90}")
+    private int backfillDays;
+
+    public DistinctRiderSketches(RiderSketchJdbcRepository riderSketchJdbcRepository,
+                                 TicketRepository ticketRepository,
+                                 PlatformTransactionManager transactionManager) {
+        this.riderSketchJdbcRepository = riderSketchJdbcRepository;
+        this.ticketRepository = ticketRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Listeners run after the tap transaction committed, so owner lookups need their own
+        this.lookupTransaction = new TransactionTemplate(transactionManager);
+        this.lookupTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.lookupTransaction.setReadOnly(true);
+    }
+
+    private record SketchKey(LocalDate day, String scope, String scopeKey) {
+    }
+
+    /**
+     * One day's sketch plus whether it changed since the last persist
+     */
+    private static final class Sketch {
+        private final HyperLogLog hll = new HyperLogLog(PRECISION);
+        private boolean dirty;
+
+        synchronized void add(long userId) {
+            if (hll.add(userId)) {
+                dirty = true;
+            }
+        }
+
+        synchronized void merge(byte[] registers) {
+            hll.merge(registers);
+        }
+
+        synchronized void mergeInto(HyperLogLog target) {
+            target.merge(hll);
+        }
+
+        synchronized byte[] takeIfDirty() {
+            if (!dirty) {
+                return null;
+            }
+            dirty = false;
+            return hll.toBytes();
+        }
+
+        synchronized void markDirty() {
+            dirty = true;
+        }
+
+        synchronized boolean isDirty() {
+            return dirty;
+        }
+    }
+
+    // ===== RECORDING =====
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTicketPurchased(TicketPurchasedEvent event) {
+        add(event.purchasedAt().toLocalDate(), ALL_SCOPE, "", event.userId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTapsRecorded(TapsRecordedEvent event) {
+        Set<Long> ticketIds = new HashSet<>();
+        for (TicketUsageJdbcRepository.UsageRow tap : event.taps()) {
+            ticketIds.add(tap.ticketId());
+        }
+
+        Map<Long, Long> owners = new HashMap<>();
+        try {
+            lookupTransaction.executeWithoutResult(status -> {
+                for (Object[] row : ticketRepository.findOwnerIdsByIdIn(ticketIds)) {
+                    owners.put((Long) row[0], (Long) row[1]);
+                }
+            });
+        } catch (RuntimeException e) {
+            // The taps are committed; failing here would only turn them into an error response
+            log.warn("Rider lookup for {} taps failed: {}", event.taps().size(), e.getMessage());
+            return;
+        }
+
+        for (TicketUsageJdbcRepository.UsageRow tap : event.taps()) {
+            Long userId = owners.get(tap.ticketId());
+            if (userId != null) {
+                recordTap(tap.usedAt().toLocalDate(), tap.routeId(), tap.transportType(), userId);
+            }
+        }
+    }
+
+    // ===== PERSISTENCE =====
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void loadOnStartup() {
+        if (riderSketchJdbcRepository.isEmpty()) {
+            backfill();
+        }
+        for (SketchRow row : riderSketchJdbcRepository.findSince(windowStart())) {
+            sketchFor(new SketchKey(row.day(), row.scope(), row.scopeKey())).merge(row.registers());
+        }
+        loaded = true;
+        log.info("Rider sketches loaded ({} day sketches in memory)", sketches.size());
+    }
+
+    /**
+     * Merge sketches changed since the last run into the table, then drop days that left the window
+     */
+    @Scheduled(fixedDelayString = "${app.analytics.riders.persist-interval-ms:60000}",
+            initialDelayString = "${app.analytics.riders.persist-interval-ms:60000}")
+    public synchronized void persist() {
+        if (loaded) {
+            persistDirty();
+        }
+    }
+
+    // ===== QUERIES =====
+
+    /**
+     * Distinct riders (buyers or tappers) over the days in [from, to]
+     */
+    public long distinctRiders(LocalDate from, LocalDate to) {
+        return union(ALL_SCOPE, from, to).getOrDefault("", new HyperLogLog(PRECISION)).estimate();
+    }
+
+    /**
+     * Distinct riders over the {@code days} days ending with {@code day}, e.g. 1, 7 and 30 for DAU, WAU and MAU
+     */
+    public long activeRiders(LocalDate day, int days) {
+        return distinctRiders(day.minusDays(days - 1L), day);
+    }
+
+    /**
+     * Riders active in both periods, by inclusion-exclusion over the two unions
+     */
+    public long ridersInBoth(LocalDate firstFrom, LocalDate firstTo, LocalDate secondFrom, LocalDate secondTo) {
+        HyperLogLog first = union(ALL_SCOPE, firstFrom, firstTo).getOrDefault("", new HyperLogLog(PRECISION));
+        HyperLogLog second = union(ALL_SCOPE, secondFrom, secondTo).getOrDefault("", new HyperLogLog(PRECISION));
+        long firstCount = first.estimate();
+        long secondCount = second.estimate();
+        first.merge(second);
+        return Math.max(0, Math.min(Math.min(firstCount, secondCount), firstCount + secondCount - first.estimate()));
+    }
+
+    /**
+     * Distinct riders per route over the days in [from, to]; routes without taps are absent
+     */
+    public Map<Long, Long> distinctRidersByRoute(LocalDate from, LocalDate to) {
+        Map<Long, Long> riders = new HashMap<>();
+        union(ROUTE_SCOPE, from, to).forEach((routeId, sketch) -> riders.put(Long.valueOf(routeId), sketch.estimate()));
+        return riders;
+    }
+
+    /**
+     * Distinct riders per transport type over the days in [from, to]; zero for types without taps
+     */
+    public Map<TransportType, Long> distinctRidersByTransportType(LocalDate from, LocalDate to) {
+        Map<TransportType, Long> riders = new EnumMap<>(TransportType.class);
+        for (TransportType type : TransportType.values()) {
+            riders.put(type, 0L);
+        }
+        union(TRANSPORT_TYPE_SCOPE, from, to).forEach((type, sketch) -> riders.put(TransportType.valueOf(type), sketch.estimate()));
+        return riders;
+    }
+
+    public double relativeStandardError() {
+        return HyperLogLog.relativeStandardError(PRECISION);
+    }
+
+    // ===== PRIVATE HELPER METHODS =====
+
+    private void recordTap(LocalDate day, long routeId, TransportType transportType, long userId) {
+        add(day, ALL_SCOPE, "", userId);
+        add(day, ROUTE_SCOPE, String.valueOf(routeId), userId);
+        add(day, TRANSPORT_TYPE_SCOPE, transportType.name(), userId);
+    }
+
+    private void add(LocalDate day, String scope, String scopeKey, long userId) {
+        sketchFor(new SketchKey(day, scope, scopeKey)).add(userId);
+    }
+
+    private Sketch sketchFor(SketchKey key) {
+        return sketches.computeIfAbsent(key, k -> new Sketch());
+    }
+
+    private LocalDate windowStart() {
+        return LocalDate.now().minusDays(memoryDays - 1L);
+    }
+
+    /**
+     * One merged sketch per scope key over the days in [from, to]: in-memory days from the map, older days from the table
+     */
+    private Map<String, HyperLogLog> union(String scope, LocalDate from, LocalDate to) {
+        Map<String, HyperLogLog> unions = new HashMap<>();
+        LocalDate windowStart = windowStart();
+
+        if (from.isBefore(windowStart)) {
+            LocalDate storedTo = to.isBefore(windowStart) ? to : windowStart.minusDays(1);
+            lookupTransaction.executeWithoutResult(status -> riderSketchJdbcRepository.forEachInRange(scope, from, storedTo,
+                    row -> unions.computeIfAbsent(row.scopeKey(), k -> new HyperLogLog(PRECISION)).merge(row.registers())));
+        }
+
+        sketches.forEach((key, sketch) -> {
+            if (key.scope().equals(scope) && !key.day().isBefore(from) && !key.day().isAfter(to)
+                    && !key.day().isBefore(windowStart)) {
+                sketch.mergeInto(unions.computeIfAbsent(key.scopeKey(), k -> new HyperLogLog(PRECISION)));
+            }
+        });
+        return unions;
+    }
+
+    private void backfill() {
+        LocalDate from = LocalDate.now().minusDays(backfillDays - 1L);
+        transactionTemplate.executeWithoutResult(status -> {
+            riderSketchJdbcRepository.forEachTapRiderSince(from.atStartOfDay(), rider ->
+                    recordTap(rider.day(), rider.routeId(), TransportType.valueOf(rider.transportType()), rider.userId()));
+            riderSketchJdbcRepository.forEachBuyerSince(from.atStartOfDay(), buyer ->
+                    add(buyer.day(), ALL_SCOPE, "", buyer.userId()));
+        });
+        int persisted = persistDirty();
+        log.info("Rider sketches backfilled from the last {} days ({} day sketches)", backfillDays, persisted);
+    }
+
+    /**
+     * @return the number of sketches written
+     */
+    private int persistDirty() {
+        Map<SketchKey, byte[]> dirty = new HashMap<>();
+        sketches.forEach((key, sketch) -> {
+            byte[] registers = sketch.takeIfDirty();
+            if (registers != null) {
+                dirty.put(key, registers);
+            }
+        });
+
+        if (!dirty.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> mergeIntoTable(dirty));
+            } catch (RuntimeException e) {
+                // Flag them again so the next run retries
+                dirty.keySet().forEach(key -> sketches.get(key).markDirty());
+                log.warn("Persisting {} rider sketches failed: {}", dirty.size(), e.getMessage());
+                return 0;
+            }
+        }
+
+        LocalDate windowStart = windowStart();
+        sketches.entrySet().removeIf(entry -> entry.getKey().day().isBefore(windowStart) && !entry.getValue().isDirty());
+        return dirty.size();
+    }
+
+    private void mergeIntoTable(Map<SketchKey, byte[]> dirty) {
+        List<SketchRow> rows = new ArrayList<>(dirty.size());
+        LocalDate minDay = null;
+        LocalDate maxDay = null;
+        for (Map.Entry<SketchKey, byte[]> entry : dirty.entrySet()) {
+            SketchKey key = entry.getKey();
+            rows.add(new SketchRow(key.day(), key.scope(), key.scopeKey(), entry.getValue()));
+            minDay = minDay == null || key.day().isBefore(minDay) ? key.day() : minDay;
+            maxDay = maxDay == null || key.day().isAfter(maxDay) ? key.day() : maxDay;
+        }
+        riderSketchJdbcRepository.insertIfAbsent(rows);
+
+        LocalDate windowStart = windowStart();
+        List<SketchRow> updates = new ArrayList<>();
+        for (SketchRow stored : riderSketchJdbcRepository.lockDays(minDay, maxDay)) {
+            SketchKey key = new SketchKey(stored.day(), stored.scope(), stored.scopeKey());
+            byte[] local = dirty.get(key);
+            if (local != null) {
+                HyperLogLog merged = HyperLogLog.fromBytes(stored.registers());
+                if (merged.merge(local)) {
+                    updates.add(new SketchRow(stored.day(), stored.scope(), stored.scopeKey(), merged.toBytes()));
+                }
+            }
+            // Pick up riders other instances counted for the same days
+            if (!stored.day().isBefore(windowStart)) {
+                sketchFor(key).merge(stored.registers());
+            }
+        }
+        riderSketchJdbcRepository.updateRegisters(updates);
+    }
+}
@@ -0,0 +1,126 @@
+package io.github.kaltrinabajramii.urbantransitbackend.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Quantile sketch of durations in seconds with a relative accuracy guarantee (DDSketch).
+ *
+ * A duration d falls into bucket ceil(log_gamma(d)) with gamma = (1 + a) / (1 - a), so
+ * every quantile it reports is within a = 1% of the true value, whatever the distribution.
+ * Buckets are plain counts: sketches merge by adding counts, which lets them be persisted
+ * as additive deltas like the other usage aggregates. Counts live in a dense array that
+ * only spans the buckets seen so far; one day's range of durations needs under 600.
+ *
+ * Not thread-safe: callers synchronize.
+ */
+public final class DurationSketch {
+
+    public static final double RELATIVE_ACCURACY = 0.01;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    private long[] counts = new long[0];
+    private int offset;
+    private long total;
+
+    /**
+     * Bucket holding a duration; durations under a second share bucket 0
+     */
+    public static int bucketIndex(long seconds) {
+        return (int) Math.ceil(Math.log(Math.max(seconds, 1)) / LOG_GAMMA);
+    }
+
+    /**
+     * Natural log of gamma, for computing bucket indexes in SQL
+     */
+    public static double logGamma() {
+        return LOG_GAMMA;
+    }
+
+    public void add(long seconds) {
+        addToBucket(bucketIndex(seconds), 1);
+    }
+
+    public void addToBucket(int index, long count) {
+        if (count == 0) {
+            return;
+        }
+        ensureCovers(index);
+        counts[index - offset] += count;
+        total += count;
+    }
+
+    public void merge(DurationSketch other) {
+        for (int i = 0; i < other.counts.length; i++) {
+            addToBucket(other.offset + i, other.counts[i]);
+        }
+    }
+
+    public void clear() {
+        counts = new long[0];
+        offset = 0;
+        total = 0;
+    }
+
+    public long count() {
+        return total;
+    }
+
+    /**
+     * Duration in seconds at quantile q (0..1), or null when the sketch is empty
+     */
+    public Double quantile(double q) {
+        if (total == 0) {
+            return null;
+        }
+        long rank = (long) Math.floor(q * (total - 1));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                return bucketValue(offset + i);
+            }
+        }
+        return bucketValue(offset + counts.length - 1);
+    }
+
+    /**
+     * Visit every non-empty bucket as (index, count)
+     */
+    public void forEachBucket(BucketConsumer consumer) {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                consumer.accept(offset + i, counts[i]);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface BucketConsumer {
+        void accept(int index, long count);
+    }
+
+    // ===== PRIVATE HELPER METHODS =====
+
+    /**
+     * Representative value of a bucket: within RELATIVE_ACCURACY of every duration it holds
+     */
+    private static double bucketValue(int index) {
+        return index == 0 ? 1.0 : 2 * Math.pow(GAMMA, index) / (GAMMA + 1);
+    }
+
+    private void ensureCovers(int index) {
+        if (counts.length == 0) {
+            counts = new long[1];
+            offset = index;
+        } else if (index < offset) {
+            long[] grown = new long[counts.length + (offset - index)];
+            System.arraycopy(counts, 0, grown, offset - index, counts.length);
+            counts = grown;
+            offset = index;
+        } else if (index >= offset + counts.length) {
+            counts = Arrays.copyOf(counts, index - offset + 1);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package io.github.kaltrinabajramii.urbantransitbackend.analytics;
+
+import io.github.kaltrinabajramii.urbantransitbackend.event.TapsRecordedEvent;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TransportType;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketUsageJdbcRepository;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.UsageHistogramJdbcRepository;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.UsageHistogramJdbcRepository.HistogramDelta;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 24x7 histograms of taps by hour of week, one per route and one per transport type.
+ *
+ * Committed taps are counted in memory as they are recorded, so a histogram is read in
+ * constant time. Counts accumulated since the last persist are added to usage_hour_of_week
+ * periodically; each persist then reloads the table, which also picks up taps counted by
+ * other instances. Taps counted but not yet persisted are lost on a crash, so the stored
+ * histograms can trail ticket_usage by up to one persist interval.
+ *
+ * An empty table is backfilled from ticket_usage on startup under an advisory lock, so
+ * instances starting together backfill it once. The backfill already includes the taps
+ * counted before it, so the instance that ran it drops those counts instead of persisting
+ * them a second time.
+ *
+ * Hour 0 is Monday 00:00-01:00, hour 167 is Sunday 23:00-24:00, in server local time.
+ */
+@Component
+@Slf4j
+public class HourOfWeekHistograms {
+
+    public static final int HOURS_PER_WEEK = 7 * 24;
+
+    private static final String ROUTE_SCOPE = "ROUTE";
+    private static final String TRANSPORT_TYPE_SCOPE = "TRANSPORT_TYPE";
+
+    private final UsageHistogramJdbcRepository usageHistogramJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Long, Histogram> byRoute = new ConcurrentHashMap<>();
+    private final Map<TransportType, Histogram> byTransportType;
+
+    // Persisting before the first load would make the table look populated and skip the backfill
+    private volatile boolean loaded;
+
+    public HourOfWeekHistograms(UsageHistogramJdbcRepository usageHistogramJdbcRepository,
+                                PlatformTransactionManager transactionManager) {
+        this.usageHistogramJdbcRepository = usageHistogramJdbcRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        Map<TransportType, Histogram> transportTypes = new EnumMap<>(TransportType.class);
+        for (TransportType type : TransportType.values()) {
+            transportTypes.put(type, new Histogram());
+        }
+        this.byTransportType = Collections.unmodifiableMap(transportTypes);
+    }
+
+    /**
+     * In-memory totals plus the part not yet persisted
+     */
+    private static final class Histogram {
+        private final AtomicLongArray totals = new AtomicLongArray(HOURS_PER_WEEK);
+        private final AtomicLongArray pending = new AtomicLongArray(HOURS_PER_WEEK);
+
+        void add(int hourOfWeek) {
+            totals.incrementAndGet(hourOfWeek);
+            pending.incrementAndGet(hourOfWeek);
+        }
+
+        void clearPending() {
+            for (int hour = 0; hour < HOURS_PER_WEEK; hour++) {
+                pending.set(hour, 0);
+            }
+        }
+
+        long[] snapshot() {
+            long[] counts = new long[HOURS_PER_WEEK];
+            for (int hour = 0; hour < HOURS_PER_WEEK; hour++) {
+                counts[hour] = totals.get(hour);
+            }
+            return counts;
+        }
+    }
+
+    // ===== RECORDING =====
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTapsRecorded(TapsRecordedEvent event) {
+        for (TicketUsageJdbcRepository.UsageRow tap : event.taps()) {
+            int hourOfWeek = hourOfWeek(tap.usedAt());
+            byRoute.computeIfAbsent(tap.routeId(), id -> new Histogram()).add(hourOfWeek);
+            byTransportType.get(tap.transportType()).add(hourOfWeek);
+        }
+    }
+
+    // ===== PERSISTENCE =====
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        Integer cells = transactionTemplate.execute(status -> {
+            usageHistogramJdbcRepository.lockBackfill();
+            return usageHistogramJdbcRepository.isEmpty() ? usageHistogramJdbcRepository.backfillFromUsage() : null;
+        });
+        if (cells != null) {
+            // Taps counted so far were committed before the backfill read ticket_usage, so it already has them
+            byRoute.values().forEach(Histogram::clearPending);
+            byTransportType.values().forEach(Histogram::clearPending);
+            log.info("Hour-of-week histograms backfilled from ticket_usage ({} cells)", cells);
+        }
+        reload();
+        loaded = true;
+    }
+
+    /**
+     * Add counts gathered since the last run to the table, then reload it
+     */
+    @Scheduled(fixedDelayString = "${app.analytics.histograms.persist-interval-ms:60000}",
+            initialDelayString = "${app.analytics.histograms.persist-interval-ms:60000}")
+    public synchronized void persist() {
+        if (!loaded) {
+            return;
+        }
+
+        Map<String, Histogram> drained = new HashMap<>();
+        List<HistogramDelta> deltas = new ArrayList<>();
+        byRoute.forEach((routeId, histogram) -> drain(ROUTE_SCOPE, String.valueOf(routeId), histogram, drained, deltas));
+        byTransportType.forEach((type, histogram) -> drain(TRANSPORT_TYPE_SCOPE, type.name(), histogram, drained, deltas));
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> usageHistogramJdbcRepository.addCounts(deltas));
+        } catch (RuntimeException e) {
+            // Put the counts back so the next run retries them
+            for (HistogramDelta delta : deltas) {
+                drained.get(delta.scope() + ":" + delta.scopeKey()).pending.addAndGet(delta.hourOfWeek(), delta.taps());
+            }
+            log.warn("Persisting hour-of-week histograms failed: {}", e.getMessage());
+            return;
+        }
+        reload();
+    }
+
+    // ===== QUERIES =====
+
+    /**
+     * Counts for one route, indexed by hour of week; all zero for a route without taps
+     */
+    public long[] forRoute(long routeId) {
+        Histogram histogram = byRoute.get(routeId);
+        return histogram != null ? histogram.snapshot() : new long[HOURS_PER_WEEK];
+    }
+
+    public long[] forTransportType(TransportType transportType) {
+        return byTransportType.get(transportType).snapshot();
+    }
+
+    /**
+     * Counts over all taps; every tap has exactly one transport type, so this is their sum
+     */
+    public long[] overall() {
+        long[] counts = new long[HOURS_PER_WEEK];
+        for (Histogram histogram : byTransportType.values()) {
+            for (int hour = 0; hour < HOURS_PER_WEEK; hour++) {
+                counts[hour] += histogram.totals.get(hour);
+            }
+        }
+        return counts;
+    }
+
+    public static int hourOfWeek(LocalDateTime time) {
+        return (time.getDayOfWeek().getValue() - 1) * 24 + time.getHour();
+    }
+
+    // ===== PRIVATE HELPER METHODS =====
+
+    private static void drain(String scope, String scopeKey, Histogram histogram,
+                              Map<String, Histogram> drained, List<HistogramDelta> deltas) {
+        for (int hour = 0; hour < HOURS_PER_WEEK; hour++) {
+            long taps = histogram.pending.getAndSet(hour, 0);
+            if (taps != 0) {
+                deltas.add(new HistogramDelta(scope, scopeKey, hour, taps));
+                drained.put(scope + ":" + scopeKey, histogram);
+            }
+        }
+    }
+
+    /**
+     * Replace in-memory totals with the persisted counts plus whatever has not been persisted yet
+     */
+    private void reload() {
+        Map<Long, long[]> routeCounts = new HashMap<>();
+        Map<TransportType, long[]> typeCounts = new EnumMap<>(TransportType.class);
+        for (HistogramDelta row : usageHistogramJdbcRepository.findAll()) {
+            if (ROUTE_SCOPE.equals(row.scope())) {
+                routeCounts.computeIfAbsent(Long.valueOf(row.scopeKey()), id -> new long[HOURS_PER_WEEK])[row.hourOfWeek()] = row.taps();
+            } else if (TRANSPORT_TYPE_SCOPE.equals(row.scope())) {
+                typeCounts.computeIfAbsent(TransportType.valueOf(row.scopeKey()), type -> new long[HOURS_PER_WEEK])[row.hourOfWeek()] = row.taps();
+            }
+        }
+
+        routeCounts.forEach((routeId, counts) -> byRoute.computeIfAbsent(routeId, id -> new Histogram()));
+        byRoute.forEach((routeId, histogram) -> overwrite(histogram, routeCounts.get(routeId)));
+        byTransportType.forEach((type, histogram) -> overwrite(histogram, typeCounts.get(type)));
+    }
+
+    private static void overwrite(Histogram histogram, long[] persisted) {
+        for (int hour = 0; hour < HOURS_PER_WEEK; hour++) {
+            long stored = persisted != null ? persisted[hour] : 0;
+            histogram.totals.set(hour, stored + histogram.pending.get(hour));
+        }
+    }
+}
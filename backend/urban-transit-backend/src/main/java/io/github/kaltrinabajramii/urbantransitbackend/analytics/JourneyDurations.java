@@ -0,0 +1,221 @@
+package io.github.kaltrinabajramii.urbantransitbackend.analytics;
+
+import io.github.kaltrinabajramii.urbantransitbackend.event.JourneyCompletedEvent;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.JourneyDurationJdbcRepository;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.JourneyDurationJdbcRepository.BucketDelta;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Journey duration distributions (tap-on to tap-off) as {@link DurationSketch}es: one overall,
+ * one per route and one per route and stop pair.
+ *
+ * Completed journeys are added in memory as their tap-off commits, so quantiles are read
+ * without touching ticket_usage. Counts gathered since the last persist are added to
+ * journey_duration_bucket periodically and the table is reloaded, which also picks up
+ * journeys recorded by other instances. Journeys not yet persisted are lost on a crash.
+ */
+@Component
+@Slf4j
+public class JourneyDurations {
+
+    private static final String ALL_SCOPE = "ALL";
+    private static final String ROUTE_SCOPE = "ROUTE";
+    private static final String STOP_PAIR_SCOPE = "STOP_PAIR";
+
+    private final JourneyDurationJdbcRepository journeyDurationJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Keyed by scope + ":" + scope key
+    private final Map<String, Sketch> sketches = new ConcurrentHashMap<>();
+
+    // Persisting before the first load would make the table look populated and skip the backfill
+    private volatile boolean loaded;
+
+    public JourneyDurations(JourneyDurationJdbcRepository journeyDurationJdbcRepository,
+                            PlatformTransactionManager transactionManager) {
+        this.journeyDurationJdbcRepository = journeyDurationJdbcRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Duration quantiles in seconds; null quantiles when there are no journeys
+     */
+    public record Quantiles(long journeys, Double p50, Double p90, Double p99) {
+    }
+
+    /**
+     * In-memory totals plus the part not yet persisted
+     */
+    private static final class Sketch {
+        private final String scope;
+        private final String scopeKey;
+        private final DurationSketch totals = new DurationSketch();
+        private final DurationSketch pending = new DurationSketch();
+
+        Sketch(String scope, String scopeKey) {
+            this.scope = scope;
+            this.scopeKey = scopeKey;
+        }
+
+        synchronized void add(long seconds) {
+            totals.add(seconds);
+            pending.add(seconds);
+        }
+
+        synchronized Quantiles quantiles() {
+            return new Quantiles(totals.count(), totals.quantile(0.5), totals.quantile(0.9), totals.quantile(0.99));
+        }
+
+        synchronized void drainTo(List<BucketDelta> deltas) {
+            pending.forEachBucket((index, count) -> deltas.add(new BucketDelta(scope, scopeKey, index, count)));
+            pending.clear();
+        }
+
+        synchronized void restore(List<BucketDelta> deltas) {
+            for (BucketDelta delta : deltas) {
+                pending.addToBucket(delta.bucketIndex(), delta.journeys());
+            }
+        }
+
+        synchronized void overwrite(List<BucketDelta> persisted) {
+            totals.clear();
+            if (persisted != null) {
+                for (BucketDelta bucket : persisted) {
+                    totals.addToBucket(bucket.bucketIndex(), bucket.journeys());
+                }
+            }
+            totals.merge(pending);
+        }
+    }
+
+    // ===== RECORDING =====
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onJourneyCompleted(JourneyCompletedEvent event) {
+        long seconds = event.durationSeconds();
+        if (seconds < 0) {
+            return;
+        }
+        sketchFor(ALL_SCOPE, "").add(seconds);
+        sketchFor(ROUTE_SCOPE, String.valueOf(event.routeId())).add(seconds);
+        if (event.boardingStop() != null && event.alightingStop() != null) {
+            sketchFor(STOP_PAIR_SCOPE, stopPairKey(event.routeId(), event.boardingStop(), event.alightingStop())).add(seconds);
+        }
+    }
+
+    // ===== PERSISTENCE =====
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (journeyDurationJdbcRepository.isEmpty()) {
+            Integer buckets = transactionTemplate.execute(status ->
+                    journeyDurationJdbcRepository.backfillFromUsage(DurationSketch.logGamma()));
+            log.info("Journey duration sketches backfilled from ticket_usage ({} buckets)", buckets);
+        }
+        reload();
+        loaded = true;
+    }
+
+    /**
+     * Add journeys gathered since the last run to the table, then reload it
+     */
+    @Scheduled(fixedDelayString = "${app.analytics.journeys.persist-interval-ms:60000}",
+            initialDelayString = "${app.analytics.journeys.persist-interval-ms:60000}")
+    public synchronized void persist() {
+        if (!loaded) {
+            return;
+        }
+
+        Map<Sketch, List<BucketDelta>> drained = new HashMap<>();
+        List<BucketDelta> deltas = new ArrayList<>();
+        for (Sketch sketch : sketches.values()) {
+            List<BucketDelta> sketchDeltas = new ArrayList<>();
+            sketch.drainTo(sketchDeltas);
+            if (!sketchDeltas.isEmpty()) {
+                drained.put(sketch, sketchDeltas);
+                deltas.addAll(sketchDeltas);
+            }
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> journeyDurationJdbcRepository.addCounts(deltas));
+        } catch (RuntimeException e) {
+            // Put the journeys back so the next run retries them
+            drained.forEach(Sketch::restore);
+            log.warn("Persisting journey duration sketches failed: {}", e.getMessage());
+            return;
+        }
+        reload();
+    }
+
+    // ===== QUERIES =====
+
+    public Quantiles overall() {
+        return quantiles(ALL_SCOPE, "");
+    }
+
+    public Quantiles forRoute(long routeId) {
+        return quantiles(ROUTE_SCOPE, String.valueOf(routeId));
+    }
+
+    public Quantiles forStopPair(long routeId, String boardingStop, String alightingStop) {
+        return quantiles(STOP_PAIR_SCOPE, stopPairKey(routeId, boardingStop, alightingStop));
+    }
+
+    /**
+     * Quantiles of every route with at least one completed journey, keyed by route id
+     */
+    public Map<Long, Quantiles> byRoute() {
+        Map<Long, Quantiles> result = new HashMap<>();
+        for (Sketch sketch : sketches.values()) {
+            if (ROUTE_SCOPE.equals(sketch.scope)) {
+                Quantiles quantiles = sketch.quantiles();
+                if (quantiles.journeys() > 0) {
+                    result.put(Long.valueOf(sketch.scopeKey), quantiles);
+                }
+            }
+        }
+        return result;
+    }
+
+    // ===== PRIVATE HELPER METHODS =====
+
+    private Quantiles quantiles(String scope, String scopeKey) {
+        Sketch sketch = sketches.get(scope + ":" + scopeKey);
+        return sketch != null ? sketch.quantiles() : new Quantiles(0, null, null, null);
+    }
+
+    private Sketch sketchFor(String scope, String scopeKey) {
+        return sketches.computeIfAbsent(scope + ":" + scopeKey, key -> new Sketch(scope, scopeKey));
+    }
+
+    private static String stopPairKey(long routeId, String boardingStop, String alightingStop) {
+        return routeId + "|" + boardingStop + "|" + alightingStop;
+    }
+
+    /**
+     * Replace in-memory totals with the persisted counts plus whatever has not been persisted yet
+     */
+    private void reload() {
+        Map<String, List<BucketDelta>> persisted = new HashMap<>();
+        for (BucketDelta bucket : journeyDurationJdbcRepository.findAll()) {
+            persisted.computeIfAbsent(bucket.scope() + ":" + bucket.scopeKey(), key -> new ArrayList<>()).add(bucket);
+        }
+
+        persisted.forEach((key, buckets) -> sketchFor(buckets.get(0).scope(), buckets.get(0).scopeKey()));
+        sketches.forEach((key, sketch) -> sketch.overwrite(persisted.get(key)));
+    }
+}
@@ -0,0 +1,286 @@
+package io.github.kaltrinabajramii.urbantransitbackend.analytics;
+
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TicketType;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.RevenueLedgerJdbcRepository;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.RevenueLedgerJdbcRepository.DaySales;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ticket sales per day and ticket type, finalized once a day has closed.
+ *
+ * Tickets are never deleted and their price never changes, so the sales of a past day are
+ * fixed once late purchases can no longer commit. A periodic job writes every such day to
+ * revenue_ledger_day, one row per ticket type (zero rows included) with the running totals up
+ * to that day, and keeps the running totals in memory. Finalized days are never recomputed.
+ *
+ * Sales for [from, to) are then the difference of two running totals for the whole closed
+ * days in the range, plus one grouped query on ticket for a partial first day and one for
+ * the days not closed yet, so the cost no longer grows with the length of the range.
+ */
+@Component
+@Slf4j
+public class RevenueLedger {
+
+    private static final int FINALIZE_BATCH_DAYS = 31;
+    private static final LocalDate EPOCH = LocalDate.of(1970, 1, 1);
+    private static final TicketType[] TICKET_TYPES = TicketType.values();
+
+    private final RevenueLedgerJdbcRepository revenueLedgerJdbcRepository;
+    private final TicketRepository ticketRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration closeAfter;
+
+    // Replaced as a whole whenever days are added, so readers never see a half-appended day
+    private volatile Ledger ledger;
+
+    public RevenueLedger(RevenueLedgerJdbcRepository revenueLedgerJdbcRepository,
+                         TicketRepository ticketRepository,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${app.analytics.revenue-ledger.close-after-minutes:10}") long closeAfterMinutes) {
+        this.revenueLedgerJdbcRepository = revenueLedgerJdbcRepository;
+        this.ticketRepository = ticketRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.closeAfter = Duration.ofMinutes(closeAfterMinutes);
+    }
+
+    /**
+     * Tickets sold and their revenue
+     */
+    public record Sales(long tickets, BigDecimal revenue) {
+    }
+
+    /**
+     * Running totals per ticket type; index i covers the days [firstDay, firstDay + i)
+     */
+    private record Ledger(LocalDate firstDay, int days, long[][] cumulativeTickets, BigDecimal[][] cumulativeRevenue) {
+
+        LocalDate endDay() {
+            return firstDay.plusDays(days);
+        }
+    }
+
+    // ===== QUERIES =====
+
+    /**
+     * Sales in [from, to), summed over all ticket types
+     */
+    public Sales sales(LocalDateTime from, LocalDateTime to) {
+        long tickets = 0;
+        BigDecimal revenue = BigDecimal.ZERO;
+        for (Sales sales : salesByType(from, to).values()) {
+            tickets += sales.tickets();
+            revenue = revenue.add(sales.revenue());
+        }
+        return new Sales(tickets, revenue);
+    }
+
+    /**
+     * Sales in [from, to) per ticket type, in enum order; types without sales have zero totals
+     */
+    public Map<TicketType, Sales> salesByType(LocalDateTime from, LocalDateTime to) {
+        long[] tickets = new long[TICKET_TYPES.length];
+        BigDecimal[] revenue = new BigDecimal[TICKET_TYPES.length];
+        Arrays.fill(revenue, BigDecimal.ZERO);
+
+        if (from.isBefore(to)) {
+            Ledger current = ledger;
+            LocalDate firstWholeDay = from.equals(from.toLocalDate().atStartOfDay())
+                    ? from.toLocalDate() : from.toLocalDate().plusDays(1);
+            LocalDate ledgerFrom = current != null ? max(firstWholeDay, current.firstDay()) : null;
+            LocalDate ledgerTo = current != null ? min(to.toLocalDate(), current.endDay()) : null;
+
+            if (ledgerFrom == null || !ledgerFrom.isBefore(ledgerTo)) {
+                addRaw(from, to, tickets, revenue);
+            } else {
+                int i = (int) ChronoUnit.DAYS.between(current.firstDay(), ledgerFrom);
+                int j = (int) ChronoUnit.DAYS.between(current.firstDay(), ledgerTo);
+                for (int type = 0; type < TICKET_TYPES.length; type++) {
+                    tickets[type] += current.cumulativeTickets()[type][j] - current.cumulativeTickets()[type][i];
+                    revenue[type] = revenue[type].add(
+                            current.cumulativeRevenue()[type][j].subtract(current.cumulativeRevenue()[type][i]));
+                }
+                // Nothing was sold before the first ledger day
+                if (ledgerFrom.isAfter(current.firstDay()) && from.isBefore(ledgerFrom.atStartOfDay())) {
+                    addRaw(from, ledgerFrom.atStartOfDay(), tickets, revenue);
+                }
+                if (to.isAfter(ledgerTo.atStartOfDay())) {
+                    addRaw(ledgerTo.atStartOfDay(), to, tickets, revenue);
+                }
+            }
+        }
+
+        Map<TicketType, Sales> byType = new EnumMap<>(TicketType.class);
+        for (int type = 0; type < TICKET_TYPES.length; type++) {
+            byType.put(TICKET_TYPES[type], new Sales(tickets[type], revenue[type]));
+        }
+        return byType;
+    }
+
+    // ===== FINALIZATION =====
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        finalizeClosedDays();
+    }
+
+    /**
+     * Write every day that closed since the last run to the ledger, oldest first
+     */
+    @Scheduled(fixedDelayString = "${app.analytics.revenue-ledger.finalize-interval-ms:300000}",
+            initialDelayString = "${app.analytics.revenue-ledger.finalize-interval-ms:300000}")
+    public synchronized void finalizeClosedDays() {
+        try {
+            // Picks up days finalized by other instances first
+            reload();
+            LocalDate closedBefore = LocalDateTime.now().minus(closeAfter).toLocalDate();
+            LocalDate next = ledger != null ? ledger.endDay() : revenueLedgerJdbcRepository.findFirstPurchaseDay();
+            int finalized = 0;
+
+            while (next != null && next.isBefore(closedBefore)) {
+                LocalDate batchEnd = min(next.plusDays(FINALIZE_BATCH_DAYS), closedBefore);
+                List<DaySales> days = finalizedDays(next, batchEnd);
+                transactionTemplate.executeWithoutResult(status ->
+                        revenueLedgerJdbcRepository.insertDays(days, LocalDateTime.now()));
+                reload();
+                if (ledger == null || !ledger.endDay().isAfter(next)) {
+                    break;
+                }
+                finalized += (int) ChronoUnit.DAYS.between(next, ledger.endDay());
+                next = ledger.endDay();
+            }
+            if (finalized > 0) {
+                log.info("Revenue ledger finalized {} days, now closed up to {}", finalized, next);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Finalizing the revenue ledger failed: {}", e.getMessage());
+        }
+    }
+
+    // ===== PRIVATE HELPER METHODS =====
+
+    /**
+     * Rows for every day in [from, to) and every ticket type, continuing the in-memory running totals
+     */
+    private List<DaySales> finalizedDays(LocalDate from, LocalDate to) {
+        Map<LocalDate, Map<TicketType, DaySales>> sold = new HashMap<>();
+        for (DaySales sales : revenueLedgerJdbcRepository.sumSalesPerDay(from, to)) {
+            sold.computeIfAbsent(sales.day(), day -> new EnumMap<>(TicketType.class)).put(sales.ticketType(), sales);
+        }
+
+        long[] cumulativeTickets = new long[TICKET_TYPES.length];
+        BigDecimal[] cumulativeRevenue = new BigDecimal[TICKET_TYPES.length];
+        Ledger current = ledger;
+        for (int type = 0; type < TICKET_TYPES.length; type++) {
+            cumulativeTickets[type] = current != null ? current.cumulativeTickets()[type][current.days()] : 0;
+            cumulativeRevenue[type] = current != null ? current.cumulativeRevenue()[type][current.days()] : BigDecimal.ZERO;
+        }
+
+        List<DaySales> rows = new ArrayList<>();
+        for (LocalDate day = from; day.isBefore(to); day = day.plusDays(1)) {
+            Map<TicketType, DaySales> daySales = sold.getOrDefault(day, Map.of());
+            for (int type = 0; type < TICKET_TYPES.length; type++) {
+                DaySales sales = daySales.get(TICKET_TYPES[type]);
+                long tickets = sales != null ? sales.ticketsSold() : 0;
+                BigDecimal revenue = sales != null ? sales.revenue() : BigDecimal.ZERO;
+                cumulativeTickets[type] += tickets;
+                cumulativeRevenue[type] = cumulativeRevenue[type].add(revenue);
+                rows.add(new DaySales(day, TICKET_TYPES[type], tickets, revenue,
+                        cumulativeTickets[type], cumulativeRevenue[type]));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Append the days finalized since the last load to a copy of the in-memory running totals
+     */
+    private void reload() {
+        Ledger current = ledger;
+        List<DaySales> rows = revenueLedgerJdbcRepository.findFrom(current != null ? current.endDay() : EPOCH);
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        LocalDate firstDay = current != null ? current.firstDay() : rows.get(0).day();
+        int days = current != null ? current.days() : 0;
+        int capacity = days + (int) ChronoUnit.DAYS.between(firstDay.plusDays(days), rows.get(rows.size() - 1).day()) + 1;
+        long[][] cumulativeTickets = new long[TICKET_TYPES.length][];
+        BigDecimal[][] cumulativeRevenue = new BigDecimal[TICKET_TYPES.length][];
+        for (int type = 0; type < TICKET_TYPES.length; type++) {
+            cumulativeTickets[type] = current != null
+                    ? Arrays.copyOf(current.cumulativeTickets()[type], capacity + 1) : new long[capacity + 1];
+            cumulativeRevenue[type] = current != null
+                    ? Arrays.copyOf(current.cumulativeRevenue()[type], capacity + 1) : new BigDecimal[capacity + 1];
+            if (current == null) {
+                cumulativeRevenue[type][0] = BigDecimal.ZERO;
+            }
+        }
+
+        int index = 0;
+        while (index < rows.size()) {
+            LocalDate day = rows.get(index).day();
+            // A gap would break the running totals; stop at it until the missing day is written
+            if (!day.equals(firstDay.plusDays(days))) {
+                log.warn("Revenue ledger has no rows for {}, loaded up to there", firstDay.plusDays(days));
+                break;
+            }
+            for (int type = 0; type < TICKET_TYPES.length; type++) {
+                cumulativeTickets[type][days + 1] = cumulativeTickets[type][days];
+                cumulativeRevenue[type][days + 1] = cumulativeRevenue[type][days];
+            }
+            for (; index < rows.size() && rows.get(index).day().equals(day); index++) {
+                DaySales row = rows.get(index);
+                cumulativeTickets[row.ticketType().ordinal()][days + 1] = row.cumulativeTickets();
+                cumulativeRevenue[row.ticketType().ordinal()][days + 1] = row.cumulativeRevenue();
+            }
+            days++;
+        }
+
+        if (current == null || days > current.days()) {
+            ledger = new Ledger(firstDay, days, cumulativeTickets, cumulativeRevenue);
+        }
+    }
+
+    private void addRaw(LocalDateTime from, LocalDateTime to, long[] tickets, BigDecimal[] revenue) {
+        for (Object[] row : ticketRepository.summarizeSalesByTicketTypeInPeriod(from, to)) {
+            int type = ((TicketType) row[0]).ordinal();
+            tickets[type] += ((Number) row[1]).longValue();
+            revenue[type] = revenue[type].add(toBigDecimal(row[2]));
+        }
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString());
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
@@ -0,0 +1,57 @@
+package io.github.kaltrinabajramii.urbantransitbackend.analytics;
+
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.SalesAnalyticsResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TicketType;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sales totals per ticket type from one grouped query.
+ *
+ * The database returns one row per ticket type, so memory use does not depend on how many
+ * tickets have been sold. Types without any sales are reported with zero totals.
+ */
+@Component
+public class SalesAggregates {
+
+    private final TicketRepository ticketRepository;
+
+    public SalesAggregates(TicketRepository ticketRepository) {
+        this.ticketRepository = ticketRepository;
+    }
+
+    /**
+     * Ticket count, revenue and distinct buyers per ticket type, in enum order
+     */
+    @Transactional(readOnly = true)
+    public List<SalesAnalyticsResponse> byTicketType() {
+        Map<TicketType, SalesAnalyticsResponse> byType = new EnumMap<>(TicketType.class);
+        for (TicketType type : TicketType.values()) {
+            byType.put(type, new SalesAnalyticsResponse(type, 0L, BigDecimal.ZERO, 0L));
+        }
+
+        for (Object[] row : ticketRepository.summarizeSalesByTicketType()) {
+            SalesAnalyticsResponse sales = byType.get((TicketType) row[0]);
+            sales.setTicketCount(((Number) row[1]).longValue());
+            sales.setTotalRevenue(toBigDecimal(row[2]));
+            sales.setDistinctBuyers(((Number) row[3]).longValue());
+        }
+        return new ArrayList<>(byType.values());
+    }
+
+    // ===== PRIVATE HELPER METHODS =====
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString());
+    }
+}
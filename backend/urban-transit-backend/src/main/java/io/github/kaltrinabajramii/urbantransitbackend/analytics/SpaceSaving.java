@@ -0,0 +1,197 @@
+package io.github.kaltrinabajramii.urbantransitbackend.analytics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving summary of the most frequent keys in a weighted stream.
+ *
+ * At most {@code capacity} counters are kept in an indexed min-heap. A key that is not
+ * tracked takes over the smallest counter and inherits its count as error, so an estimate
+ * never undercounts, overcounts by at most its error, and every error is at most
+ * total / capacity. Any key with a true count above total / capacity is always tracked.
+ * Updates cost O(log capacity).
+ *
+ * Summaries merge (see {@link #merge}) with the same guarantees, which is how windows
+ * made of several time slots are answered.
+ *
+ * Not thread-safe: callers synchronize.
+ */
+public final class SpaceSaving {
+
+    private final int capacity;
+    private final String[] keys;
+    private final long[] counts;
+    private final long[] errors;
+    private final Map<String, Integer> positions;
+    private int size;
+    private long total;
+
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Space-Saving capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.keys = new String[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.positions = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * One tracked key; the true count lies in [count - error, count]
+     */
+    public record Item(String key, long count, long error) {
+    }
+
+    public void add(String key, long weight) {
+        if (weight <= 0) {
+            return;
+        }
+        total += weight;
+
+        Integer position = positions.get(key);
+        if (position != null) {
+            counts[position] += weight;
+            siftDown(position);
+        } else if (size < capacity) {
+            keys[size] = key;
+            counts[size] = weight;
+            errors[size] = 0;
+            positions.put(key, size);
+            siftUp(size++);
+        } else {
+            // Evict the smallest counter; the newcomer may have occurred that often unseen
+            positions.remove(keys[0]);
+            keys[0] = key;
+            errors[0] = counts[0];
+            counts[0] += weight;
+            positions.put(key, 0);
+            siftDown(0);
+        }
+    }
+
+    public void clear() {
+        positions.clear();
+        for (int i = 0; i < size; i++) {
+            keys[i] = null;
+        }
+        size = 0;
+        total = 0;
+    }
+
+    public long total() {
+        return total;
+    }
+
+    /**
+     * Upper bound on the count of any key this summary does not track
+     */
+    public long untrackedBound() {
+        return size < capacity ? 0 : counts[0];
+    }
+
+    /**
+     * Tracked keys, highest estimated count first
+     */
+    public List<Item> top(int limit) {
+        List<Item> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(new Item(keys[i], counts[i], errors[i]));
+        }
+        items.sort(Comparator.comparingLong(Item::count).reversed().thenComparing(Item::key));
+        return items.size() > limit ? new ArrayList<>(items.subList(0, limit)) : items;
+    }
+
+    /**
+     * Combine summaries into one of the given capacity.
+     *
+     * A key missing from a summary may still have occurred up to that summary's
+     * {@link #untrackedBound()} times, so that bound is added to both its count and its error.
+     */
+    public static SpaceSaving merge(List<SpaceSaving> parts, int capacity) {
+        long boundSum = 0;
+        long total = 0;
+        Map<String, long[]> combined = new HashMap<>();
+        for (SpaceSaving part : parts) {
+            long bound = part.untrackedBound();
+            boundSum += bound;
+            total += part.total;
+            for (int i = 0; i < part.size; i++) {
+                long[] acc = combined.computeIfAbsent(part.keys[i], k -> new long[2]);
+                acc[0] += part.counts[i] - bound;
+                acc[1] += part.errors[i] - bound;
+            }
+        }
+
+        List<Item> items = new ArrayList<>(combined.size());
+        long finalBoundSum = boundSum;
+        combined.forEach((key, acc) -> items.add(new Item(key, acc[0] + finalBoundSum, acc[1] + finalBoundSum)));
+        items.sort(Comparator.comparingLong(Item::count).reversed().thenComparing(Item::key));
+
+        SpaceSaving merged = new SpaceSaving(capacity);
+        for (int i = 0; i < items.size() && i < capacity; i++) {
+            Item item = items.get(i);
+            merged.keys[i] = item.key();
+            merged.counts[i] = item.count();
+            merged.errors[i] = item.error();
+            merged.positions.put(item.key(), i);
+            merged.size++;
+        }
+        // Descending order is the reverse of a min-heap; rebuild it bottom-up
+        for (int i = merged.size / 2 - 1; i >= 0; i--) {
+            merged.siftDown(i);
+        }
+        merged.total = total;
+        return merged;
+    }
+
+    // ===== PRIVATE HELPER METHODS =====
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (counts[parent] <= counts[position]) {
+                return;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int smallest = position;
+            int left = 2 * position + 1;
+            int right = left + 1;
+            if (left < size && counts[left] < counts[smallest]) {
+                smallest = left;
+            }
+            if (right < size && counts[right] < counts[smallest]) {
+                smallest = right;
+            }
+            if (smallest == position) {
+                return;
+            }
+            swap(position, smallest);
+            position = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        String key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        long count = counts[a];
+        counts[a] = counts[b];
+        counts[b] = count;
+        long error = errors[a];
+        errors[a] = errors[b];
+        errors[b] = error;
+        positions.put(keys[a], a);
+        positions.put(keys[b], b);
+    }
+}
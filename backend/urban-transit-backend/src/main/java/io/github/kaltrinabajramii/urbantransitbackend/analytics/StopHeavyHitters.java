@@ -0,0 +1,208 @@
+package io.github.kaltrinabajramii.urbantransitbackend.analytics;
+
+import io.github.kaltrinabajramii.urbantransitbackend.event.TapsRecordedEvent;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.UsageWindow;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketUsageJdbcRepository;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketUsageJdbcRepository.StopColumn;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketUsageJdbcRepository.StopCount;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Busiest boarding and destination stops over rolling windows, kept in memory as
+ * {@link SpaceSaving} summaries so rankings never scan ticket_usage.
+ *
+ * Each stop column has a ring of five-minute slots (last hour), a ring of hourly slots
+ * (today and the last 7 days) and an all-time summary. A window is answered by merging the
+ * slots it covers, so its edges are as coarse as its slots: the last hour is the current
+ * five-minute slot plus the eleven before it. Every reported count is an upper bound that
+ * overcounts by at most its reported error.
+ *
+ * Counts come from committed taps on this instance plus a warm-up from ticket_usage at
+ * startup; taps recorded by other instances show up here after the next restart.
+ */
+@Component
+@Slf4j
+public class StopHeavyHitters {
+
+    private static final int FIVE_MINUTE_SLOTS = 12;
+    private static final int HOURLY_SLOTS = 7 * 24;
+
+    private final TicketUsageJdbcRepository ticketUsageJdbcRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int capacity;
+    private final Map<StopColumn, Rankings> rankings = new EnumMap<>(StopColumn.class);
+
+    public StopHeavyHitters(TicketUsageJdbcRepository ticketUsageJdbcRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.analytics.top-stops.capacity:200}") int capacity) {
+        this.ticketUsageJdbcRepository = ticketUsageJdbcRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.capacity = capacity;
+        for (StopColumn column : StopColumn.values()) {
+            rankings.put(column, new Rankings());
+        }
+    }
+
+    /**
+     * A ring of summaries, each slot tagged with the time slot it currently holds
+     */
+    private final class Ring {
+        private final int minutesPerSlot;
+        private final SpaceSaving[] slots;
+        private final long[] slotIds;
+
+        Ring(int minutesPerSlot, int length) {
+            this.minutesPerSlot = minutesPerSlot;
+            this.slots = new SpaceSaving[length];
+            this.slotIds = new long[length];
+            for (int i = 0; i < length; i++) {
+                slots[i] = new SpaceSaving(capacity);
+                slotIds[i] = Long.MIN_VALUE;
+            }
+        }
+
+        long slotId(LocalDateTime time) {
+            return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60L * minutesPerSlot);
+        }
+
+        void add(long slotId, long newestSlotId, String stop, long taps) {
+            if (slotId <= newestSlotId - slots.length || slotId > newestSlotId) {
+                return;
+            }
+            int index = (int) Math.floorMod(slotId, (long) slots.length);
+            if (slotIds[index] != slotId) {
+                slots[index].clear();
+                slotIds[index] = slotId;
+            }
+            slots[index].add(stop, taps);
+        }
+
+        void collect(long fromSlotId, long toSlotId, List<SpaceSaving> into) {
+            for (int i = 0; i < slots.length; i++) {
+                if (slotIds[i] >= fromSlotId && slotIds[i] <= toSlotId) {
+                    into.add(slots[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Everything kept for one stop column; guarded by its own monitor
+     */
+    private final class Rankings {
+        private final Ring fiveMinutes = new Ring(5, FIVE_MINUTE_SLOTS);
+        // One extra slot so the current partial hour does not push out the oldest full one
+        private final Ring hours = new Ring(60, HOURLY_SLOTS + 1);
+        private final SpaceSaving allTime = new SpaceSaving(capacity);
+
+        synchronized void add(LocalDateTime usedAt, LocalDateTime now, String stop, long taps) {
+            fiveMinutes.add(fiveMinutes.slotId(usedAt), fiveMinutes.slotId(now), stop, taps);
+            hours.add(hours.slotId(usedAt), hours.slotId(now), stop, taps);
+            allTime.add(stop, taps);
+        }
+
+        synchronized SpaceSaving window(UsageWindow window, LocalDateTime now) {
+            List<SpaceSaving> parts = new ArrayList<>();
+            switch (window) {
+                case LAST_HOUR -> {
+                    long current = fiveMinutes.slotId(now);
+                    fiveMinutes.collect(current - FIVE_MINUTE_SLOTS + 1, current, parts);
+                }
+                case TODAY -> hours.collect(hours.slotId(now.toLocalDate().atStartOfDay()), hours.slotId(now), parts);
+                case LAST_7_DAYS -> {
+                    long current = hours.slotId(now);
+                    hours.collect(current - HOURLY_SLOTS + 1, current, parts);
+                }
+                case ALL_TIME -> parts.add(allTime);
+            }
+            return SpaceSaving.merge(parts, capacity);
+        }
+    }
+
+    // ===== RECORDING =====
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTapsRecorded(TapsRecordedEvent event) {
+        LocalDateTime now = LocalDateTime.now();
+        Rankings boarding = rankings.get(StopColumn.BOARDING);
+        Rankings destination = rankings.get(StopColumn.DESTINATION);
+        for (TicketUsageJdbcRepository.UsageRow tap : event.taps()) {
+            if (tap.boardingStop() != null) {
+                boarding.add(tap.usedAt(), now, tap.boardingStop(), 1);
+            }
+            if (tap.destinationStop() != null) {
+                destination.add(tap.usedAt(), now, tap.destinationStop(), 1);
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        LocalDateTime now = LocalDateTime.now();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            for (StopColumn column : StopColumn.values()) {
+                Rankings target = rankings.get(column);
+                for (StopCount count : ticketUsageJdbcRepository.countStopsPerBucketSince(column, 5, now.minusHours(1))) {
+                    synchronized (target) {
+                        target.fiveMinutes.add(target.fiveMinutes.slotId(count.bucketStart()),
+                                target.fiveMinutes.slotId(now), count.stop(), count.taps());
+                    }
+                }
+                for (StopCount count : ticketUsageJdbcRepository.countStopsPerBucketSince(column, 60, now.minusDays(7))) {
+                    synchronized (target) {
+                        target.hours.add(target.hours.slotId(count.bucketStart()),
+                                target.hours.slotId(now), count.stop(), count.taps());
+                    }
+                }
+                for (StopCount count : ticketUsageJdbcRepository.countTopStops(column, capacity)) {
+                    synchronized (target) {
+                        target.allTime.add(count.stop(), count.taps());
+                    }
+                }
+            }
+        });
+        log.info("Stop rankings warmed from ticket_usage (capacity {})", capacity);
+    }
+
+    // ===== QUERIES =====
+
+    /**
+     * Busiest boarding stops in a window as [stop, taps, maxOvercount] rows
+     */
+    public List<Object[]> topBoardingStops(UsageWindow window, int limit) {
+        return top(StopColumn.BOARDING, window, limit);
+    }
+
+    /**
+     * Busiest destination stops in a window as [stop, taps, maxOvercount] rows
+     */
+    public List<Object[]> topDestinations(UsageWindow window, int limit) {
+        return top(StopColumn.DESTINATION, window, limit);
+    }
+
+    // ===== PRIVATE HELPER METHODS =====
+
+    private List<Object[]> top(StopColumn column, UsageWindow window, int limit) {
+        SpaceSaving merged = rankings.get(column).window(window, LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>();
+        for (SpaceSaving.Item item : merged.top(limit)) {
+            rows.add(new Object[]{item.key(), item.count(), item.error()});
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,496 @@
+package io.github.kaltrinabajramii.urbantransitbackend.analytics;
+
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TicketType;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TransportType;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.UsageDimension;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketUsageJdbcRepository;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketUsageJdbcRepository.UsageFact;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Tap history kept in memory column by column, for ad-hoc filtered counts and group-bys
+ * that would otherwise hydrate TicketUsage entities.
+ *
+ * Rows live in fixed-size chunks of primitive arrays: tap time (epoch seconds of local
+ * time), route, transport type, ticket type and the two stops. Routes and stops are
+ * dictionary-encoded to ints, so a row costs 22 bytes. A query compiles its filters into
+ * masks over those codes and scans the chunks in parallel with branch-free loops; each
+ * chunk keeps its min and max tap time so chunks outside the time range are skipped.
+ *
+ * The store loads the last history-days of ticket_usage at startup and then polls for rows
+ * with higher ids, so it sees taps from every instance and from the write-behind journal
+ * within one refresh interval. Ids are assigned before commit, so a row can commit after a
+ * higher id has been loaded; ids skipped that way are re-checked until gap-grace-ms passes.
+ * Rows are only appended: a store running for a long time holds more than history-days.
+ */
+@Component
+@Slf4j
+public class UsageColumnStore {
+
+    private static final int CHUNK_ROWS = 1 << 16;
+    private static final int MAX_TRACKED_GAPS = 10_000;
+    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+
+    private static final TransportType[] TRANSPORT_TYPES = TransportType.values();
+    private static final TicketType[] TICKET_TYPES = TicketType.values();
+
+    private final TicketUsageJdbcRepository ticketUsageJdbcRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int historyDays;
+    private final int loadBatchSize;
+    private final long gapGraceMillis;
+
+    private final Dictionary<Long> routes = new Dictionary<>();
+    private final Dictionary<String> stops = new Dictionary<>();
+
+    // Replaced (never modified) when a chunk is added; only the last chunk still grows
+    private volatile Chunk[] chunks = new Chunk[0];
+
+    // Guarded by this
+    private LocalDateTime historyStart;
+    private long watermarkId;
+    private final TreeMap<Long, Long> gaps = new TreeMap<>();
+    private volatile boolean loaded;
+
+    public UsageColumnStore(TicketUsageJdbcRepository ticketUsageJdbcRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.analytics.column-store.history-days:365}") int historyDays,
+                            @Value("${app.analytics.column-store.load-batch-size:50000}") int loadBatchSize,
+                            @Value("${app.analytics.column-store.gap-grace-ms:60000}") long gapGraceMillis) {
+        this.ticketUsageJdbcRepository = ticketUsageJdbcRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.historyDays = historyDays;
+        this.loadBatchSize = loadBatchSize;
+        this.gapGraceMillis = gapGraceMillis;
+    }
+
+    /**
+     * Filters and grouping of one query; null or empty filters match everything.
+     * Hours are [hourFrom, hourTo) and wrap past midnight when hourFrom > hourTo.
+     */
+    public record Query(LocalDateTime from,
+                        LocalDateTime to,
+                        Set<Long> routeIds,
+                        Set<TransportType> transportTypes,
+                        Set<TicketType> ticketTypes,
+                        String boardingStop,
+                        String destinationStop,
+                        Integer hourFrom,
+                        Integer hourTo,
+                        Set<DayOfWeek> daysOfWeek,
+                        UsageDimension groupBy) {
+    }
+
+    /**
+     * Matching taps, and per group when grouped: time dimensions in time order, others busiest first
+     */
+    public record Result(long taps, Map<String, Long> groups, long rowsInStore) {
+    }
+
+    /**
+     * Append-only value to code mapping; codes are dense from 0
+     */
+    private static final class Dictionary<T> {
+        private final Map<T, Integer> codes = new ConcurrentHashMap<>();
+        private volatile Object[] values = new Object[16];
+        private volatile int size;
+
+        synchronized int encode(T value) {
+            Integer code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size] = value;
+            codes.put(value, size);
+            return size++;
+        }
+
+        int lookup(T value) {
+            return codes.getOrDefault(value, -1);
+        }
+
+        @SuppressWarnings("unchecked")
+        T decode(int code) {
+            return (T) values[code];
+        }
+
+        int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Up to CHUNK_ROWS rows; rows below size are immutable and visible to readers
+     */
+    private static final class Chunk {
+        private final long[] usedAt = new long[CHUNK_ROWS];
+        private final int[] route = new int[CHUNK_ROWS];
+        private final byte[] transportType = new byte[CHUNK_ROWS];
+        private final byte[] ticketType = new byte[CHUNK_ROWS];
+        // Stop code + 1, 0 when the tap has no stop
+        private final int[] boardingStop = new int[CHUNK_ROWS];
+        private final int[] destinationStop = new int[CHUNK_ROWS];
+
+        // Written before size, so a reader that saw size sees bounds covering those rows
+        private long minUsedAt = Long.MAX_VALUE;
+        private long maxUsedAt = Long.MIN_VALUE;
+        private volatile int size;
+    }
+
+    /**
+     * Query filters compiled to codes and masks
+     */
+    private record Compiled(long from,
+                            long to,
+                            boolean[] routeMask,
+                            boolean[] transportTypeMask,
+                            boolean[] ticketTypeMask,
+                            int boardingStop,
+                            int destinationStop,
+                            boolean[] hourMask,
+                            boolean[] dayOfWeekMask,
+                            UsageDimension groupBy,
+                            int routeCount,
+                            int stopCount) {
+    }
+
+    /**
+     * Counts of one chunk; group key = base + index
+     */
+    private record Partial(long taps, long base, long[] counts) {
+    }
+
+    // ===== LOADING =====
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void loadOnStartup() {
+        historyStart = LocalDate.now().minusDays(historyDays).atStartOfDay();
+        loadAfterWatermark(false);
+        loaded = true;
+        log.info("Usage column store loaded {} taps since {}", rowsInStore(), historyStart);
+    }
+
+    /**
+     * Append taps with ids above the last one loaded, and any skipped ids that have since committed
+     */
+    @Scheduled(fixedDelayString = "${app.analytics.column-store.refresh-interval-ms:5000}",
+            initialDelayString = "${app.analytics.column-store.refresh-interval-ms:5000}")
+    public synchronized void refresh() {
+        if (!loaded) {
+            return;
+        }
+        try {
+            recheckGaps();
+            loadAfterWatermark(true);
+        } catch (RuntimeException e) {
+            log.warn("Refreshing the usage column store failed: {}", e.getMessage());
+        }
+    }
+
+    // ===== QUERIES =====
+
+    public Result query(Query query) {
+        // Read chunk sizes before dictionary sizes, so every code in a scanned row is below them
+        Chunk[] snapshot = chunks;
+        int[] sizes = new int[snapshot.length];
+        for (int i = 0; i < snapshot.length; i++) {
+            sizes[i] = snapshot[i].size;
+        }
+        Compiled compiled = compile(query);
+
+        Partial[] partials = new Partial[snapshot.length];
+        IntStream.range(0, snapshot.length).parallel()
+                .forEach(i -> partials[i] = scan(snapshot[i], sizes[i], compiled));
+
+        long taps = 0;
+        TreeMap<Long, Long> keyed = new TreeMap<>();
+        for (Partial partial : partials) {
+            if (partial == null) {
+                continue;
+            }
+            taps += partial.taps();
+            if (partial.counts() != null) {
+                for (int index = 0; index < partial.counts().length; index++) {
+                    if (partial.counts()[index] != 0) {
+                        keyed.merge(partial.base() + index, partial.counts()[index], Long::sum);
+                    }
+                }
+            }
+        }
+
+        Map<String, Long> groups = null;
+        if (compiled.groupBy() != null) {
+            List<Map.Entry<Long, Long>> entries = new ArrayList<>(keyed.entrySet());
+            if (!isTimeDimension(compiled.groupBy())) {
+                entries.sort(Map.Entry.<Long, Long>comparingByValue(Comparator.reverseOrder()));
+            }
+            groups = new LinkedHashMap<>();
+            for (Map.Entry<Long, Long> entry : entries) {
+                groups.put(groupName(compiled.groupBy(), entry.getKey()), entry.getValue());
+            }
+        }
+        long rows = Arrays.stream(sizes).asLongStream().sum();
+        return new Result(taps, groups, rows);
+    }
+
+    public long rowsInStore() {
+        long rows = 0;
+        for (Chunk chunk : chunks) {
+            rows += chunk.size;
+        }
+        return rows;
+    }
+
+    // ===== PRIVATE HELPER METHODS =====
+
+    private void loadAfterWatermark(boolean trackGaps) {
+        List<UsageFact> batch;
+        do {
+            long afterId = watermarkId;
+            batch = readOnlyTransaction.execute(status ->
+                    ticketUsageJdbcRepository.findUsageFactsAfter(afterId, historyStart, loadBatchSize));
+            long now = System.currentTimeMillis();
+            for (UsageFact fact : batch) {
+                if (trackGaps) {
+                    for (long id = watermarkId + 1; id < fact.id() && gaps.size() < MAX_TRACKED_GAPS; id++) {
+                        gaps.put(id, now);
+                    }
+                }
+                append(fact);
+                watermarkId = fact.id();
+            }
+        } while (batch.size() == loadBatchSize);
+    }
+
+    private void recheckGaps() {
+        long expiredBefore = System.currentTimeMillis() - gapGraceMillis;
+        gaps.values().removeIf(detectedAt -> detectedAt < expiredBefore);
+        if (gaps.isEmpty()) {
+            return;
+        }
+        List<UsageFact> committed = readOnlyTransaction.execute(status ->
+                ticketUsageJdbcRepository.findUsageFactsByIds(new ArrayList<>(gaps.keySet()), historyStart));
+        for (UsageFact fact : committed) {
+            append(fact);
+            gaps.remove(fact.id());
+        }
+    }
+
+    private void append(UsageFact fact) {
+        Chunk[] current = chunks;
+        Chunk chunk = current.length > 0 ? current[current.length - 1] : null;
+        if (chunk == null || chunk.size == CHUNK_ROWS) {
+            chunk = new Chunk();
+            Chunk[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = chunk;
+            chunks = grown;
+        }
+
+        int row = chunk.size;
+        long usedAt = fact.usedAt().toEpochSecond(ZoneOffset.UTC);
+        chunk.usedAt[row] = usedAt;
+        chunk.route[row] = routes.encode(fact.routeId());
+        chunk.transportType[row] = (byte) fact.transportType().ordinal();
+        chunk.ticketType[row] = (byte) fact.ticketType().ordinal();
+        chunk.boardingStop[row] = fact.boardingStop() != null ? stops.encode(fact.boardingStop()) + 1 : 0;
+        chunk.destinationStop[row] = fact.destinationStop() != null ? stops.encode(fact.destinationStop()) + 1 : 0;
+        chunk.minUsedAt = Math.min(chunk.minUsedAt, usedAt);
+        chunk.maxUsedAt = Math.max(chunk.maxUsedAt, usedAt);
+        chunk.size = row + 1;
+    }
+
+    private Compiled compile(Query query) {
+        int routeCount = routes.size();
+        int stopCount = stops.size();
+
+        boolean[] routeMask = null;
+        if (query.routeIds() != null && !query.routeIds().isEmpty()) {
+            routeMask = new boolean[routeCount];
+            for (Long routeId : query.routeIds()) {
+                int code = routes.lookup(routeId);
+                if (code >= 0 && code < routeCount) {
+                    routeMask[code] = true;
+                }
+            }
+        }
+
+        boolean[] transportTypeMask = null;
+        if (query.transportTypes() != null && !query.transportTypes().isEmpty()) {
+            transportTypeMask = new boolean[TRANSPORT_TYPES.length];
+            for (TransportType type : query.transportTypes()) {
+                transportTypeMask[type.ordinal()] = true;
+            }
+        }
+
+        boolean[] ticketTypeMask = null;
+        if (query.ticketTypes() != null && !query.ticketTypes().isEmpty()) {
+            ticketTypeMask = new boolean[TICKET_TYPES.length];
+            for (TicketType type : query.ticketTypes()) {
+                ticketTypeMask[type.ordinal()] = true;
+            }
+        }
+
+        boolean[] hourMask = null;
+        if (query.hourFrom() != null || query.hourTo() != null) {
+            int hourFrom = query.hourFrom() != null ? query.hourFrom() : 0;
+            int hourTo = query.hourTo() != null ? query.hourTo() : 24;
+            hourMask = new boolean[24];
+            for (int hour = 0; hour < 24; hour++) {
+                hourMask[hour] = hourFrom <= hourTo
+                        ? hour >= hourFrom && hour < hourTo
+                        : hour >= hourFrom || hour < hourTo;
+            }
+        }
+
+        boolean[] dayOfWeekMask = null;
+        if (query.daysOfWeek() != null && !query.daysOfWeek().isEmpty()) {
+            dayOfWeekMask = new boolean[7];
+            for (DayOfWeek day : query.daysOfWeek()) {
+                dayOfWeekMask[day.getValue() - 1] = true;
+            }
+        }
+
+        return new Compiled(
+                query.from() != null ? query.from().toEpochSecond(ZoneOffset.UTC) : Long.MIN_VALUE,
+                query.to() != null ? query.to().toEpochSecond(ZoneOffset.UTC) : Long.MAX_VALUE,
+                routeMask, transportTypeMask, ticketTypeMask,
+                stopFilter(query.boardingStop()), stopFilter(query.destinationStop()),
+                hourMask, dayOfWeekMask, query.groupBy(), routeCount, stopCount);
+    }
+
+    /**
+     * Stored code a stop filter must equal: 0 for no filter, -1 for a stop never seen
+     */
+    private int stopFilter(String stop) {
+        if (stop == null) {
+            return 0;
+        }
+        int code = stops.lookup(stop);
+        return code >= 0 ? code + 1 : -1;
+    }
+
+    private Partial scan(Chunk chunk, int size, Compiled q) {
+        if (size == 0 || chunk.maxUsedAt < q.from() || chunk.minUsedAt >= q.to()
+                || q.boardingStop() < 0 || q.destinationStop() < 0) {
+            return null;
+        }
+
+        long base = 0;
+        long[] counts = null;
+        if (q.groupBy() != null) {
+            switch (q.groupBy()) {
+                case ROUTE -> counts = new long[q.routeCount()];
+                case TRANSPORT_TYPE -> counts = new long[TRANSPORT_TYPES.length];
+                case TICKET_TYPE -> counts = new long[TICKET_TYPES.length];
+                case BOARDING_STOP, DESTINATION_STOP -> counts = new long[q.stopCount() + 1];
+                case HOUR_OF_DAY -> counts = new long[24];
+                case DAY_OF_WEEK -> counts = new long[7];
+                case DATE -> {
+                    base = Math.floorDiv(Math.max(chunk.minUsedAt, q.from()), SECONDS_PER_DAY);
+                    long lastDay = Math.floorDiv(Math.min(chunk.maxUsedAt, q.to()), SECONDS_PER_DAY);
+                    counts = new long[(int) (lastDay - base + 1)];
+                }
+            }
+        }
+
+        long[] usedAt = chunk.usedAt;
+        int[] route = chunk.route;
+        byte[] transportType = chunk.transportType;
+        byte[] ticketType = chunk.ticketType;
+        int[] boardingStop = chunk.boardingStop;
+        int[] destinationStop = chunk.destinationStop;
+        boolean[] routeMask = q.routeMask();
+        boolean[] transportTypeMask = q.transportTypeMask();
+        boolean[] ticketTypeMask = q.ticketTypeMask();
+        boolean[] hourMask = q.hourMask();
+        boolean[] dayOfWeekMask = q.dayOfWeekMask();
+        long from = q.from();
+        long to = q.to();
+        int boardingFilter = q.boardingStop();
+        int destinationFilter = q.destinationStop();
+
+        long taps = 0;
+        for (int row = 0; row < size; row++) {
+            long time = usedAt[row];
+            // Non-short-circuit & keeps the loop free of per-filter branches
+            boolean match = time >= from & time < to
+                    & (routeMask == null || routeMask[route[row]])
+                    & (transportTypeMask == null || transportTypeMask[transportType[row]])
+                    & (ticketTypeMask == null || ticketTypeMask[ticketType[row]])
+                    & (boardingFilter == 0 || boardingStop[row] == boardingFilter)
+                    & (destinationFilter == 0 || destinationStop[row] == destinationFilter)
+                    & (hourMask == null || hourMask[Math.floorMod(time, SECONDS_PER_DAY) / 3600])
+                    & (dayOfWeekMask == null || dayOfWeekMask[dayOfWeek(time)]);
+            if (counts == null) {
+                taps += match ? 1 : 0;
+            } else if (match) {
+                taps++;
+                counts[(int) (groupKey(q.groupBy(), chunk, row) - base)]++;
+            }
+        }
+        return new Partial(taps, base, counts);
+    }
+
+    private static long groupKey(UsageDimension groupBy, Chunk chunk, int row) {
+        return switch (groupBy) {
+            case ROUTE -> chunk.route[row];
+            case TRANSPORT_TYPE -> chunk.transportType[row];
+            case TICKET_TYPE -> chunk.ticketType[row];
+            case BOARDING_STOP -> chunk.boardingStop[row];
+            case DESTINATION_STOP -> chunk.destinationStop[row];
+            case HOUR_OF_DAY -> Math.floorMod(chunk.usedAt[row], SECONDS_PER_DAY) / 3600;
+            case DAY_OF_WEEK -> dayOfWeek(chunk.usedAt[row]);
+            case DATE -> Math.floorDiv(chunk.usedAt[row], SECONDS_PER_DAY);
+        };
+    }
+
+    private String groupName(UsageDimension groupBy, long key) {
+        return switch (groupBy) {
+            case ROUTE -> String.valueOf(routes.decode((int) key));
+            case TRANSPORT_TYPE -> TRANSPORT_TYPES[(int) key].name();
+            case TICKET_TYPE -> TICKET_TYPES[(int) key].name();
+            case BOARDING_STOP, DESTINATION_STOP -> key == 0 ? "(none)" : stops.decode((int) key - 1);
+            case HOUR_OF_DAY -> String.format("%02d:00", key);
+            case DAY_OF_WEEK -> DayOfWeek.of((int) key + 1).name();
+            case DATE -> LocalDate.ofEpochDay(key).toString();
+        };
+    }
+
+    private static boolean isTimeDimension(UsageDimension dimension) {
+        return dimension == UsageDimension.HOUR_OF_DAY || dimension == UsageDimension.DAY_OF_WEEK
+                || dimension == UsageDimension.DATE;
+    }
+
+    /**
+     * Day of week of an epoch second, 0 = Monday (1970-01-01 was a Thursday)
+     */
+    private static int dayOfWeek(long epochSecond) {
+        return Math.floorMod(Math.floorDiv(epochSecond, SECONDS_PER_DAY) + 3, 7);
+    }
+}
@@ -0,0 +1,343 @@
+package io.github.kaltrinabajramii.urbantransitbackend.analytics;
+
+import io.github.kaltrinabajramii.urbantransitbackend.event.TapsRecordedEvent;
+import io.github.kaltrinabajramii.urbantransitbackend.model.entity.TicketUsage;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TransportType;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketUsageJdbcRepository;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.UsageRollupJdbcRepository;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.UsageRollupJdbcRepository.Granularity;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.UsageRollupJdbcRepository.RollupDelta;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tap counts per time bucket x route x transport type x boarding stop, at minute, hour and day resolution.
+ *
+ * Every recorded tap is added to the minute rollup in the same transaction as the tap itself.
+ * A downsampling job recomputes the hour rollup for the last few hours from minutes and the
+ * day rollup for the last few days from hours, then drops minutes and hours past retention.
+ * Taps that arrive too late for the recompute windows (e.g. a validator syncing after hours
+ * offline) are added to the hour and day rollups directly, so every level stays exact.
+ *
+ * Hour and day rows trail the minute rollup by at most one downsampling interval. Analytics
+ * read these tables instead of ticket_usage, so a query costs O(buckets) rather than O(taps).
+ * Range queries are exact to the minute while their edges are within minute retention; older
+ * edges are rounded to the nearest hour, and edges past hour retention to the nearest day.
+ */
+@Component
+@Slf4j
+public class UsageRollups {
+
+    private static final int HOUR_REBUILD_WINDOW_HOURS = 3;
+    private static final int DAY_REBUILD_WINDOW_DAYS = 2;
+    private static final int MAX_STOP_LENGTH = 100;
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private static final Comparator<RollupDelta> KEY_ORDER = Comparator
+            .comparing(RollupDelta::bucketStart)
+            .thenComparingLong(RollupDelta::routeId)
+            .thenComparing(RollupDelta::transportType)
+            .thenComparing(RollupDelta::boardingStop);
+
+    private final UsageRollupJdbcRepository usageRollupJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.analytics.rollups.minute-retention-hours:48}")
+    private int minuteRetentionHours;
+
+    @Value("${app.analytics.rollups.hour-retention-days:90}")
+    private int hourRetentionDays;
+
+    // 0 keeps daily rows forever
+    @Value("${app.analytics.rollups.day-retention-days:0}")
+    private int dayRetentionDays;
+
+    public UsageRollups(UsageRollupJdbcRepository usageRollupJdbcRepository,
+                        PlatformTransactionManager transactionManager) {
+        this.usageRollupJdbcRepository = usageRollupJdbcRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    private record Key(LocalDateTime bucketStart, long routeId, TransportType transportType, String boardingStop) {
+    }
+
+    private record Span(Granularity granularity, LocalDateTime from, LocalDateTime to) {
+    }
+
+    // ===== INCREMENTAL MAINTENANCE =====
+
+    /**
+     * Count a batch of taps; must run inside the transaction that inserts them
+     */
+    public void record(List<TicketUsageJdbcRepository.UsageRow> rows) {
+        Deltas deltas = new Deltas(LocalDateTime.now());
+        for (TicketUsageJdbcRepository.UsageRow row : rows) {
+            deltas.add(row.usedAt(), row.routeId(), row.transportType(), row.boardingStop(), 1);
+        }
+        apply(deltas);
+    }
+
+    /**
+     * Runs synchronously in the publisher's transaction, so taps and their counts commit together
+     */
+    @EventListener
+    public void onTapsRecorded(TapsRecordedEvent event) {
+        record(event.taps());
+    }
+
+    /**
+     * Uncount a tap that is being deleted
+     */
+    public void remove(TicketUsage usage) {
+        apply(singleTap(usage, -1));
+    }
+
+    // ===== DOWNSAMPLING AND RETENTION =====
+
+    /**
+     * Fill the rollups from ticket_usage on first start after they were introduced
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (!usageRollupJdbcRepository.isEmpty(Granularity.MINUTE)
+                || !usageRollupJdbcRepository.isEmpty(Granularity.HOUR)
+                || !usageRollupJdbcRepository.isEmpty(Granularity.DAY)) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            int minutes = usageRollupJdbcRepository.rebuildFromUsage(Granularity.MINUTE, minuteCutoff(now));
+            int hours = usageRollupJdbcRepository.rebuildFromUsage(Granularity.HOUR, hourCutoff(now));
+            int days = usageRollupJdbcRepository.rebuildFromUsage(Granularity.DAY, dayCutoff(now));
+            log.info("Usage rollups backfilled from ticket_usage ({} minute, {} hour, {} day rows)", minutes, hours, days);
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.analytics.rollups.downsample-interval-ms:60000}",
+            initialDelayString = "${app.analytics.rollups.downsample-interval-ms:60000}")
+    public void downsample() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime currentHour = now.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime today = now.truncatedTo(ChronoUnit.DAYS);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                usageRollupJdbcRepository.rebuildFrom(Granularity.MINUTE, Granularity.HOUR,
+                        currentHour.minusHours(HOUR_REBUILD_WINDOW_HOURS), currentHour.plusHours(1));
+                usageRollupJdbcRepository.rebuildFrom(Granularity.HOUR, Granularity.DAY,
+                        today.minusDays(DAY_REBUILD_WINDOW_DAYS), today.plusDays(1));
+
+                int purged = usageRollupJdbcRepository.deleteBefore(Granularity.MINUTE, minuteCutoff(now))
+                        + usageRollupJdbcRepository.deleteBefore(Granularity.HOUR, hourCutoff(now));
+                if (dayRetentionDays > 0) {
+                    purged += usageRollupJdbcRepository.deleteBefore(Granularity.DAY, dayCutoff(now));
+                }
+                if (purged > 0) {
+                    log.debug("Usage rollups purged {} rows past retention", purged);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Recompute windows overlap, so the next run repairs whatever this one missed
+            log.warn("Usage rollup downsampling failed: {}", e.getMessage());
+        }
+    }
+
+    // ===== QUERIES =====
+
+    /**
+     * Taps in [from, to): whole days from the day rollup, whole hours from the hour rollup, the rest from minutes.
+     * Edges whose minute or hour rows are past retention are rounded to whole hours or days first.
+     */
+    public long countTaps(LocalDateTime from, LocalDateTime to) {
+        long taps = 0;
+        for (Span span : spans(from, to)) {
+            taps += usageRollupJdbcRepository.sumTaps(span.granularity(), span.from(), span.to());
+        }
+        return taps;
+    }
+
+    /**
+     * Taps per route in [from, to), split across rollup levels like {@link #countTaps}
+     */
+    public Map<Long, Long> tapsByRoute(LocalDateTime from, LocalDateTime to) {
+        Map<Long, Long> taps = new HashMap<>();
+        for (Span span : spans(from, to)) {
+            for (Object[] row : usageRollupJdbcRepository.sumTapsByRoute(span.granularity(), span.from(), span.to())) {
+                taps.merge((Long) row[0], (Long) row[1], Long::sum);
+            }
+        }
+        return taps;
+    }
+
+    /**
+     * Daily totals as [LocalDate, Long] rows, oldest first
+     */
+    public List<Object[]> tapsPerDay(LocalDateTime from, LocalDateTime to) {
+        return usageRollupJdbcRepository.sumTapsPerDay(from.truncatedTo(ChronoUnit.DAYS), to);
+    }
+
+    /**
+     * All-time totals as [routeId, Long] rows, busiest first
+     */
+    public List<Object[]> tapsByRoute() {
+        return usageRollupJdbcRepository.sumTapsByRoute(Granularity.DAY);
+    }
+
+    /**
+     * All-time totals as [TransportType, Long] rows
+     */
+    public List<Object[]> tapsByTransportType() {
+        return usageRollupJdbcRepository.sumTapsByTransportType(Granularity.DAY);
+    }
+
+    // ===== PRIVATE HELPER METHODS =====
+
+    /**
+     * Split [from, to) into whole days, then whole hours, then minutes at the edges; at most five spans.
+     * Minute and hour rows past retention have been downsampled away and would read as zero, so an
+     * edge older than minute retention is rounded to the nearest hour and one older than hour
+     * retention to the nearest day.
+     */
+    private List<Span> spans(LocalDateTime from, LocalDateTime to) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime minuteCutoff = minuteCutoff(now);
+        LocalDateTime hourCutoff = hourCutoff(now);
+        List<Span> spans = new ArrayList<>(5);
+        addSpans(spans, Granularity.DAY, roundToRetained(from, minuteCutoff, hourCutoff),
+                roundToRetained(to, minuteCutoff, hourCutoff));
+        return spans;
+    }
+
+    private static LocalDateTime roundToRetained(LocalDateTime edge, LocalDateTime minuteCutoff, LocalDateTime hourCutoff) {
+        if (edge.isBefore(hourCutoff)) {
+            return roundToNearest(edge, ChronoUnit.DAYS);
+        }
+        if (edge.isBefore(minuteCutoff)) {
+            return roundToNearest(edge, ChronoUnit.HOURS);
+        }
+        return edge;
+    }
+
+    private static void addSpans(List<Span> spans, Granularity granularity, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            return;
+        }
+        if (granularity == Granularity.MINUTE) {
+            spans.add(new Span(granularity, from, to));
+            return;
+        }
+        ChronoUnit unit = granularity == Granularity.DAY ? ChronoUnit.DAYS : ChronoUnit.HOURS;
+        Granularity finer = granularity == Granularity.DAY ? Granularity.HOUR : Granularity.MINUTE;
+        LocalDateTime first = ceil(from, unit);
+        LocalDateTime last = to.truncatedTo(unit);
+        if (first.isBefore(last)) {
+            spans.add(new Span(granularity, first, last));
+            addSpans(spans, finer, from, first);
+            addSpans(spans, finer, last, to);
+        } else {
+            addSpans(spans, finer, from, to);
+        }
+    }
+
+    private Deltas singleTap(TicketUsage usage, int taps) {
+        Deltas deltas = new Deltas(LocalDateTime.now());
+        LocalDateTime usedAt = usage.getUsedAt() != null ? usage.getUsedAt() : LocalDateTime.now();
+        deltas.add(usedAt, usage.getRoute().getId(), usage.getTransportType(), usage.getBoardingStop(), taps);
+        return deltas;
+    }
+
+    private void apply(Deltas deltas) {
+        usageRollupJdbcRepository.addCounts(Granularity.MINUTE, deltas.sorted(deltas.minutes));
+        usageRollupJdbcRepository.addCounts(Granularity.HOUR, deltas.sorted(deltas.hours));
+        usageRollupJdbcRepository.addCounts(Granularity.DAY, deltas.sorted(deltas.days));
+    }
+
+    private LocalDateTime minuteCutoff(LocalDateTime now) {
+        // Must outlive the hour recompute window, or recomputing would wipe hours
+        return now.truncatedTo(ChronoUnit.HOURS).minusHours(Math.max(minuteRetentionHours, HOUR_REBUILD_WINDOW_HOURS + 1));
+    }
+
+    private LocalDateTime hourCutoff(LocalDateTime now) {
+        return now.truncatedTo(ChronoUnit.DAYS).minusDays(Math.max(hourRetentionDays, DAY_REBUILD_WINDOW_DAYS + 1));
+    }
+
+    private LocalDateTime dayCutoff(LocalDateTime now) {
+        return dayRetentionDays > 0 ? now.truncatedTo(ChronoUnit.DAYS).minusDays(dayRetentionDays) : EPOCH;
+    }
+
+    private static LocalDateTime roundToNearest(LocalDateTime time, ChronoUnit unit) {
+        LocalDateTime floor = time.truncatedTo(unit);
+        LocalDateTime ceiling = ceil(time, unit);
+        return Duration.between(floor, time).compareTo(Duration.between(time, ceiling)) < 0 ? floor : ceiling;
+    }
+
+    private static LocalDateTime ceil(LocalDateTime time, ChronoUnit unit) {
+        LocalDateTime floor = time.truncatedTo(unit);
+        return floor.equals(time) ? floor : floor.plus(1, unit);
+    }
+
+    /**
+     * Per-level deltas of one write, aggregated by rollup key
+     */
+    private final class Deltas {
+        private final Map<Key, Long> minutes = new HashMap<>();
+        private final Map<Key, Long> hours = new HashMap<>();
+        private final Map<Key, Long> days = new HashMap<>();
+        private final LocalDateTime minuteCutoff;
+        private final LocalDateTime hourCutoff;
+        private final LocalDateTime dayCutoff;
+        private final LocalDateTime directHourBefore;
+        private final LocalDateTime directDayBefore;
+
+        Deltas(LocalDateTime now) {
+            LocalDateTime today = now.truncatedTo(ChronoUnit.DAYS);
+            this.minuteCutoff = minuteCutoff(now);
+            this.hourCutoff = hourCutoff(now);
+            this.dayCutoff = dayCutoff(now);
+            // One bucket of overlap with the recompute windows: those buckets get both, which is still exact
+            this.directHourBefore = now.truncatedTo(ChronoUnit.HOURS).minusHours(HOUR_REBUILD_WINDOW_HOURS - 1);
+            this.directDayBefore = today.minusDays(DAY_REBUILD_WINDOW_DAYS - 1);
+        }
+
+        void add(LocalDateTime usedAt, long routeId, TransportType transportType, String boardingStop, long taps) {
+            String stop = boardingStop == null ? ""
+                    : boardingStop.length() > MAX_STOP_LENGTH ? boardingStop.substring(0, MAX_STOP_LENGTH) : boardingStop;
+
+            LocalDateTime minute = usedAt.truncatedTo(ChronoUnit.MINUTES);
+            LocalDateTime hour = usedAt.truncatedTo(ChronoUnit.HOURS);
+            LocalDateTime day = usedAt.truncatedTo(ChronoUnit.DAYS);
+
+            if (!minute.isBefore(minuteCutoff)) {
+                minutes.merge(new Key(minute, routeId, transportType, stop), taps, Long::sum);
+            }
+            if (hour.isBefore(directHourBefore) && !hour.isBefore(hourCutoff)) {
+                hours.merge(new Key(hour, routeId, transportType, stop), taps, Long::sum);
+            }
+            if (day.isBefore(directDayBefore) && !day.isBefore(dayCutoff)) {
+                days.merge(new Key(day, routeId, transportType, stop), taps, Long::sum);
+            }
+        }
+
+        List<RollupDelta> sorted(Map<Key, Long> level) {
+            List<RollupDelta> deltas = new ArrayList<>(level.size());
+            level.forEach((key, taps) -> deltas.add(new RollupDelta(
+                    key.bucketStart(), key.routeId(), key.transportType(), key.boardingStop(), taps)));
+            deltas.sort(KEY_ORDER);
+            return deltas;
+        }
+    }
+}
@@ -0,0 +1,526 @@
+package io.github.kaltrinabajramii.urbantransitbackend.cache;
+
+import io.github.kaltrinabajramii.urbantransitbackend.model.entity.Ticket;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TicketStatus;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TicketType;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketRepository;
+import io.github.kaltrinabajramii.urbantransitbackend.util.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * In-process index of ACTIVE tickets keyed by ticket number, used to answer gate
+ * validation without a database round trip.
+ *
+ * Records live in parallel primitive arrays of an open-addressing hash table
+ * (linear probing, backward-shift deletion), so an entry costs a handful of longs
+ * plus the ticket number string instead of a full Hibernate entity.
+ *
+ * A rebuild fills a fresh table from a database snapshot while lookups keep using
+ * the old one. Changes made meanwhile are logged and replayed onto the fresh table
+ * under the write lock before it is swapped in, so a ticket consumed during the
+ * rebuild is not brought back by the snapshot.
+ *
+ * The index is per instance: with several backend instances behind a load balancer
+ * a ticket consumed elsewhere stays indexed here until it expires. It only answers
+ * validation lookups and is never used to accept a tap, and multi-instance
+ * deployments must not trust it for acceptance either; set
+ * {@code app.tickets.index.enabled=false} there.
+ */
+@Component
+@Slf4j
+public class ActiveTicketIndex {
+
+    private static final long NONE = Long.MIN_VALUE;
+    private static final float MAX_LOAD = 0.6f;
+    private static final TicketType[] TICKET_TYPES = TicketType.values();
+    private static final TicketStatus[] TICKET_STATUSES = TicketStatus.values();
+
+    // Per-slot cost of the primitive columns below (7 longs + 2 bytes + key reference)
+    private static final int SLOT_BYTES = 7 * Long.BYTES + 2 + 8;
+    // Rough per-String overhead (object header, hash, coder, byte[] header)
+    private static final int STRING_OVERHEAD_BYTES = 40;
+
+    private final TicketRepository ticketRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final StampedLock lock = new StampedLock();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @Value("${app.tickets.index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.tickets.index.initial-capacity:1024}")
+    private int initialCapacity;
+
+    private volatile Table table;
+    private volatile boolean loaded;
+
+    // Changes made while a rebuild reads its snapshot, in order; null when no rebuild runs. Guarded by lock.
+    private List<Consumer<Table>> changesDuringRebuild;
+
+    public ActiveTicketIndex(TicketRepository ticketRepository, PlatformTransactionManager transactionManager) {
+        this.ticketRepository = ticketRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.table = new Table(16);
+    }
+
+    /**
+     * Immutable view of one indexed ticket
+     */
+    public record Entry(long ticketId,
+                        String ticketNumber,
+                        TicketType ticketType,
+                        TicketStatus status,
+                        BigDecimal price,
+                        LocalDateTime purchaseDate,
+                        LocalDateTime validFrom,
+                        LocalDateTime validUntil,
+                        LocalDateTime usedDate) {
+
+        // Mirrors Ticket#isCurrentlyValid
+        public boolean isCurrentlyValid(LocalDateTime now) {
+            return status == TicketStatus.ACTIVE
+                    && now.isAfter(validFrom)
+                    && now.isBefore(validUntil)
+                    && (ticketType != TicketType.RIDE || usedDate == null);
+        }
+    }
+
+    /**
+     * Point-in-time counters for monitoring
+     */
+    public record Stats(boolean enabled, boolean loaded, int size, int capacity,
+                        long memoryBytes, long hits, long misses) {
+
+        public double hitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+    }
+
+    // ===== LOADING =====
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Reload every currently valid ACTIVE ticket from the database
+     */
+    public synchronized void rebuild() {
+        long started = System.currentTimeMillis();
+        Table fresh = new Table(tableCapacityFor(initialCapacity));
+
+        long logStamp = lock.writeLock();
+        try {
+            changesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.unlockWrite(logStamp);
+        }
+
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = ticketRepository.streamActiveTicketSnapshots(LocalDateTime.now())) {
+                    rows.forEach(row -> {
+                        fresh.ensureRoomForOne();
+                        fresh.put((Long) row[0], (String) row[1], (TicketType) row[2], (TicketStatus) row[3],
+                                (BigDecimal) row[4], (LocalDateTime) row[5], (LocalDateTime) row[6],
+                                (LocalDateTime) row[7], (LocalDateTime) row[8]);
+                    });
+                }
+            });
+        } catch (RuntimeException e) {
+            long stamp = lock.writeLock();
+            try {
+                changesDuringRebuild = null;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            throw e;
+        }
+
+        long stamp = lock.writeLock();
+        try {
+            // The snapshot may predate these; replaying them keeps consumed tickets out
+            changesDuringRebuild.forEach(change -> change.accept(fresh));
+            changesDuringRebuild = null;
+            table = fresh;
+            loaded = true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        log.info("Active ticket index loaded {} tickets in {} ms", fresh.size, System.currentTimeMillis() - started);
+    }
+
+    // ===== LOOKUP =====
+
+    public boolean isEnabled() {
+        return enabled && loaded;
+    }
+
+    /**
+     * Look up an ACTIVE ticket; returns null (and counts a miss) when not indexed
+     */
+    public Entry find(String ticketNumber) {
+        if (!isEnabled() || ticketNumber == null) {
+            return null;
+        }
+
+        long stamp = lock.tryOptimisticRead();
+        Entry entry = readEntry(table, ticketNumber);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                entry = readEntry(table, ticketNumber);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        if (entry != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return entry;
+    }
+
+    // ===== MAINTENANCE =====
+
+    /**
+     * Index a ticket if it is ACTIVE, otherwise drop it
+     */
+    public void put(Ticket ticket) {
+        if (!enabled || ticket.getId() == null) {
+            return;
+        }
+        if (ticket.getStatus() != TicketStatus.ACTIVE) {
+            remove(ticket.getTicketNumber());
+            return;
+        }
+
+        long stamp = lock.writeLock();
+        try {
+            Table current = table;
+            if (current.size + 1 > current.capacity() * MAX_LOAD) {
+                Table grown = new Table(current.capacity() * 2);
+                grown.copyFrom(current, grown.capacity());
+                table = grown;
+                current = grown;
+            }
+            current.put(ticket.getId(), ticket.getTicketNumber(), ticket.getTicketType(), ticket.getStatus(),
+                    ticket.getPrice(), ticket.getPurchaseDate(), ticket.getValidFrom(), ticket.getValidUntil(),
+                    ticket.getUsedDate());
+            if (changesDuringRebuild != null) {
+                Entry entry = readEntry(current, ticket.getTicketNumber());
+                changesDuringRebuild.add(fresh -> {
+                    fresh.ensureRoomForOne();
+                    fresh.put(entry.ticketId(), entry.ticketNumber(), entry.ticketType(), entry.status(),
+                            entry.price(), entry.purchaseDate(), entry.validFrom(), entry.validUntil(),
+                            entry.usedDate());
+                });
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void remove(String ticketNumber) {
+        if (!enabled || ticketNumber == null) {
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            table.remove(ticketNumber);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(fresh -> fresh.remove(ticketNumber));
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Index the ticket once the surrounding transaction commits
+     */
+    public void putAfterCommit(Ticket ticket) {
+        AfterCommit.run(() -> put(ticket));
+    }
+
+    /**
+     * Drop the ticket once the surrounding transaction commits
+     */
+    public void removeAfterCommit(String ticketNumber) {
+        AfterCommit.run(() -> remove(ticketNumber));
+    }
+
+    /**
+     * Drop every entry whose validity ended before the given time
+     *
+     * @return number of evicted entries
+     */
+    public int evictExpired(LocalDateTime now) {
+        if (!enabled) {
+            return 0;
+        }
+        long cutoff = toEpoch(now);
+        long stamp = lock.writeLock();
+        try {
+            return table.removeExpired(cutoff);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public Stats getStats() {
+        long stamp = lock.readLock();
+        try {
+            Table current = table;
+            long memory = (long) current.capacity() * SLOT_BYTES
+                    + current.keyBytes
+                    + (long) current.size * STRING_OVERHEAD_BYTES;
+            return new Stats(enabled, loaded, current.size, current.capacity(), memory,
+                    hits.sum(), misses.sum());
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // ===== PRIVATE HELPER METHODS =====
+
+    private static Entry readEntry(Table t, String ticketNumber) {
+        int slot = t.slotOf(ticketNumber);
+        if (slot < 0) {
+            return null;
+        }
+        return new Entry(
+                t.ticketIds[slot],
+                t.keys[slot],
+                TICKET_TYPES[t.types[slot]],
+                TICKET_STATUSES[t.statuses[slot]],
+                BigDecimal.valueOf(t.priceCents[slot], 2),
+                fromEpoch(t.purchaseDates[slot]),
+                fromEpoch(t.validFrom[slot]),
+                fromEpoch(t.validUntil[slot]),
+                fromEpoch(t.usedDates[slot]));
+    }
+
+    private static int tableCapacityFor(int expected) {
+        int capacity = 16;
+        while (capacity * MAX_LOAD < expected) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static long toEpoch(LocalDateTime dateTime) {
+        return dateTime == null ? NONE : dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime fromEpoch(long epochSecond) {
+        return epochSecond == NONE ? null : LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Open-addressing table; all columns share the same slot index
+     */
+    private static final class Table {
+        String[] keys;
+        long[] ticketIds;
+        byte[] types;
+        byte[] statuses;
+        long[] priceCents;
+        long[] purchaseDates;
+        long[] validFrom;
+        long[] validUntil;
+        long[] usedDates;
+        int size;
+        long keyBytes;
+
+        Table(int capacity) {
+            allocate(capacity);
+        }
+
+        int capacity() {
+            return keys.length;
+        }
+
+        /**
+         * Grow in place if one more entry would pass the load factor - only for tables no reader can see yet
+         */
+        void ensureRoomForOne() {
+            if (size + 1 > capacity() * MAX_LOAD) {
+                copyFrom(this, capacity() * 2);
+            }
+        }
+
+        private void allocate(int capacity) {
+            keys = new String[capacity];
+            ticketIds = new long[capacity];
+            types = new byte[capacity];
+            statuses = new byte[capacity];
+            priceCents = new long[capacity];
+            purchaseDates = new long[capacity];
+            validFrom = new long[capacity];
+            validUntil = new long[capacity];
+            usedDates = new long[capacity];
+            size = 0;
+            keyBytes = 0;
+        }
+
+        /**
+         * Re-insert every entry of {@code source} into freshly allocated columns
+         */
+        void copyFrom(Table source, int newCapacity) {
+            String[] oldKeys = source.keys;
+            long[] oldIds = source.ticketIds;
+            byte[] oldTypes = source.types;
+            byte[] oldStatuses = source.statuses;
+            long[] oldPrices = source.priceCents;
+            long[] oldPurchases = source.purchaseDates;
+            long[] oldFrom = source.validFrom;
+            long[] oldUntil = source.validUntil;
+            long[] oldUsed = source.usedDates;
+
+            allocate(newCapacity);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != null) {
+                    int slot = insertionSlot(oldKeys[i]);
+                    write(slot, oldKeys[i], oldIds[i], oldTypes[i], oldStatuses[i], oldPrices[i],
+                            oldPurchases[i], oldFrom[i], oldUntil[i], oldUsed[i]);
+                }
+            }
+        }
+
+        void put(long ticketId, String ticketNumber, TicketType type, TicketStatus status, BigDecimal price,
+                 LocalDateTime purchaseDate, LocalDateTime from, LocalDateTime until, LocalDateTime usedDate) {
+            int slot = insertionSlot(ticketNumber);
+            write(slot, ticketNumber, ticketId, (byte) type.ordinal(), (byte) status.ordinal(),
+                    price == null ? 0L : price.movePointRight(2).longValue(),
+                    toEpoch(purchaseDate), toEpoch(from), toEpoch(until), toEpoch(usedDate));
+        }
+
+        private void write(int slot, String key, long id, byte type, byte status, long price,
+                           long purchase, long from, long until, long used) {
+            if (keys[slot] == null) {
+                size++;
+                keyBytes += key.length();
+            }
+            keys[slot] = key;
+            ticketIds[slot] = id;
+            types[slot] = type;
+            statuses[slot] = status;
+            priceCents[slot] = price;
+            purchaseDates[slot] = purchase;
+            validFrom[slot] = from;
+            validUntil[slot] = until;
+            usedDates[slot] = used;
+        }
+
+        int slotOf(String key) {
+            int mask = keys.length - 1;
+            int slot = mix(key.hashCode()) & mask;
+            // Bounded probe so a read racing a resize cannot spin forever
+            for (int probes = 0; probes < keys.length; probes++) {
+                String candidate = keys[slot];
+                if (candidate == null) {
+                    return -1;
+                }
+                if (candidate.equals(key)) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private int insertionSlot(String key) {
+            int mask = keys.length - 1;
+            int slot = mix(key.hashCode()) & mask;
+            while (keys[slot] != null && !keys[slot].equals(key)) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        void remove(String key) {
+            int slot = slotOf(key);
+            if (slot >= 0) {
+                deleteSlot(slot);
+            }
+        }
+
+        int removeExpired(long cutoff) {
+            int removed = 0;
+            int slot = 0;
+            while (slot < keys.length) {
+                if (keys[slot] != null && validUntil[slot] < cutoff) {
+                    // Backward shift may pull a later entry into this slot, so re-check it
+                    deleteSlot(slot);
+                    removed++;
+                } else {
+                    slot++;
+                }
+            }
+            return removed;
+        }
+
+        /**
+         * Backward-shift deletion keeps probe chains intact without tombstones
+         */
+        private void deleteSlot(int slot) {
+            int mask = keys.length - 1;
+            keyBytes -= keys[slot].length();
+            size--;
+
+            int hole = slot;
+            int next = (hole + 1) & mask;
+            while (keys[next] != null) {
+                int home = mix(keys[next].hashCode()) & mask;
+                boolean movable = hole <= next
+                        ? (home <= hole || home > next)
+                        : (home <= hole && home > next);
+                if (movable) {
+                    keys[hole] = keys[next];
+                    ticketIds[hole] = ticketIds[next];
+                    types[hole] = types[next];
+                    statuses[hole] = statuses[next];
+                    priceCents[hole] = priceCents[next];
+                    purchaseDates[hole] = purchaseDates[next];
+                    validFrom[hole] = validFrom[next];
+                    validUntil[hole] = validUntil[next];
+                    usedDates[hole] = usedDates[next];
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+            keys[hole] = null;
+        }
+
+        private static int mix(int hash) {
+            int h = hash * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package io.github.kaltrinabajramii.urbantransitbackend.cache;
+
+import io.github.kaltrinabajramii.urbantransitbackend.analytics.RevenueLedger;
+import io.github.kaltrinabajramii.urbantransitbackend.analytics.UsageRollups;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.DashboardStatsResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TicketStatus;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.RouteRepository;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketRepository;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Precomputed admin dashboard figures.
+ *
+ * The dashboard and today's stats are made of independent counts and sums over users,
+ * routes, tickets and usage. They are recomputed in the background on a fixed interval,
+ * each query in parallel on a small dedicated pool, and readers get the last immutable
+ * result stamped with the time it was computed.
+ *
+ * A refresh is single-flight: while one is running, every other caller (the schedule,
+ * a read before the first load, a read of a snapshot past its max age) waits for that
+ * same computation instead of starting another.
+ */
+@Component
+@Slf4j
+public class DashboardSnapshotCache {
+
+    private final UserRepository userRepository;
+    private final RouteRepository routeRepository;
+    private final TicketRepository ticketRepository;
+    private final UsageRollups usageRollups;
+    private final RevenueLedger revenueLedger;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ExecutorService queryExecutor;
+
+    private final AtomicReference<CompletableFuture<Snapshot>> inFlight = new AtomicReference<>();
+    private volatile Snapshot snapshot;
+
+    // Readers refresh synchronously past this age, e.g. when scheduled refreshes keep failing
+    @Value("${app.analytics.dashboard.max-age-ms:300000}")
+    private long maxAgeMillis;
+
+    public DashboardSnapshotCache(UserRepository userRepository,
+                                  RouteRepository routeRepository,
+                                  TicketRepository ticketRepository,
+                                  UsageRollups usageRollups,
+                                  RevenueLedger revenueLedger,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${app.analytics.dashboard.query-threads:4}") int queryThreads) {
+        this.userRepository = userRepository;
+        this.routeRepository = routeRepository;
+        this.ticketRepository = ticketRepository;
+        this.usageRollups = usageRollups;
+        this.revenueLedger = revenueLedger;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.queryExecutor = Executors.newFixedThreadPool(queryThreads, runnable -> {
+            Thread thread = new Thread(runnable, "dashboard-query-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * All-time dashboard figures and today's figures, computed together
+     */
+    public record Snapshot(DashboardStatsResponse dashboard, DashboardStatsResponse today) {
+    }
+
+    // ===== REFRESHING =====
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        scheduledRefresh();
+    }
+
+    @Scheduled(fixedDelayString = "${app.analytics.dashboard.refresh-interval-ms:30000}",
+            initialDelayString = "${app.analytics.dashboard.refresh-interval-ms:30000}")
+    public void scheduledRefresh() {
+        try {
+            refresh().join();
+        } catch (CompletionException e) {
+            log.warn("Dashboard snapshot refresh failed: {}", e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Recompute the snapshot, or join the recomputation already in progress
+     */
+    public CompletableFuture<Snapshot> refresh() {
+        CompletableFuture<Snapshot> mine = new CompletableFuture<>();
+        CompletableFuture<Snapshot> running = inFlight.compareAndExchange(null, mine);
+        if (running != null) {
+            return running;
+        }
+
+        try {
+            Snapshot fresh = compute();
+            snapshot = fresh;
+            mine.complete(fresh);
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+        } finally {
+            inFlight.set(null);
+        }
+        return mine;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        queryExecutor.shutdownNow();
+    }
+
+    // ===== LOOKUPS =====
+
+    /**
+     * Current snapshot; refreshes first if there is none yet or it is past its max age.
+     * A snapshot past its max age is still served when that refresh fails.
+     */
+    public Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null && !isStale(current)) {
+            return current;
+        }
+        try {
+            return refresh().join();
+        } catch (CompletionException e) {
+            if (current == null) {
+                throw e;
+            }
+            log.warn("Serving dashboard snapshot from {} after refresh failed: {}",
+                    current.dashboard().getGeneratedAt(), e.getCause().getMessage());
+            return current;
+        }
+    }
+
+    // ===== PRIVATE HELPER METHODS =====
+
+    private Snapshot compute() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime startOfDay = now.toLocalDate().atStartOfDay();
+
+        CompletableFuture<Long> totalUsers = query(userRepository::count);
+        CompletableFuture<Long> totalRoutes = query(routeRepository::count);
+        CompletableFuture<Long> activeTickets = query(() -> ticketRepository.countByStatus(TicketStatus.ACTIVE));
+        CompletableFuture<Long> ticketsSold = query(ticketRepository::count);
+        CompletableFuture<BigDecimal> yearRevenue = query(() -> revenueLedger.sales(now.minusYears(1), now).revenue());
+        CompletableFuture<Long> todayUsage = query(() -> usageRollups.countTaps(startOfDay, now));
+        CompletableFuture<RevenueLedger.Sales> todaySales = query(() -> revenueLedger.sales(startOfDay, now));
+
+        DashboardStatsResponse dashboard = new DashboardStatsResponse(totalUsers.join(), activeTickets.join(),
+                totalRoutes.join(), todayUsage.join(), yearRevenue.join(), ticketsSold.join(), now);
+        DashboardStatsResponse today = new DashboardStatsResponse(null, null, null,
+                todayUsage.join(), todaySales.join().revenue(), todaySales.join().tickets(), now);
+        return new Snapshot(dashboard, today);
+    }
+
+    private <T> CompletableFuture<T> query(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(() -> readOnlyTransaction.execute(status -> query.get()), queryExecutor);
+    }
+
+    private boolean isStale(Snapshot current) {
+        return Duration.between(current.dashboard().getGeneratedAt(), LocalDateTime.now()).toMillis() > maxAgeMillis;
+    }
+}
@@ -0,0 +1,139 @@
+package io.github.kaltrinabajramii.urbantransitbackend.cache;
+
+import io.github.kaltrinabajramii.urbantransitbackend.model.entity.TicketPricing;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TicketType;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketPricingRepository;
+import io.github.kaltrinabajramii.urbantransitbackend.util.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable in-memory copy of ticket_pricing.
+ *
+ * The table holds one row per ticket type and changes a few times a year, so the
+ * purchase path and the public price page read from a snapshot that is replaced
+ * wholesale (never mutated) after every admin change commits. A periodic reload
+ * picks up changes made through other instances.
+ *
+ * The snapshot version is the latest updatedAt across all rows in epoch millis, so
+ * every instance derives the same version for the same data and it can serve as an ETag.
+ */
+@Component
+@Slf4j
+public class PricingSnapshotCache {
+
+    private final TicketPricingRepository ticketPricingRepository;
+
+    private volatile Snapshot snapshot;
+
+    public PricingSnapshotCache(TicketPricingRepository ticketPricingRepository) {
+        this.ticketPricingRepository = ticketPricingRepository;
+    }
+
+    /**
+     * Immutable copy of one pricing row
+     */
+    public record Entry(Long id,
+                        TicketType ticketType,
+                        BigDecimal price,
+                        String description,
+                        boolean active,
+                        LocalDateTime createdAt,
+                        LocalDateTime updatedAt) {
+    }
+
+    /**
+     * All pricing rows at one version, ordered by ticket type
+     */
+    public record Snapshot(long version, Map<TicketType, Entry> byType, List<Entry> all, List<Entry> active) {
+
+        public Entry activeEntry(TicketType ticketType) {
+            Entry entry = byType.get(ticketType);
+            return entry != null && entry.active() ? entry : null;
+        }
+
+        public String eTag() {
+            return "\"pricing-" + version + "\"";
+        }
+    }
+
+    // ===== LOADING =====
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    /**
+     * Re-read ticket_pricing and swap in a new snapshot
+     */
+    @Scheduled(fixedDelayString = "${app.pricing.snapshot.refresh-interval-ms:60000}",
+            initialDelayString = "${app.pricing.snapshot.refresh-interval-ms:60000}")
+    public synchronized void reload() {
+        Snapshot fresh = buildSnapshot(ticketPricingRepository.findAll());
+        Snapshot previous = snapshot;
+        snapshot = fresh;
+        if (previous == null || previous.version() != fresh.version()) {
+            log.info("Pricing snapshot version {} loaded ({} active of {} types)",
+                    fresh.version(), fresh.active().size(), fresh.all().size());
+        }
+    }
+
+    /**
+     * Reload once the surrounding transaction commits, so readers never see uncommitted prices
+     */
+    public void reloadAfterCommit() {
+        AfterCommit.run(this::reload);
+    }
+
+    // ===== LOOKUPS =====
+
+    /**
+     * Current snapshot; loads it on first use if a request arrives before startup finished
+     */
+    public Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    reload();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    // ===== PRIVATE HELPER METHODS =====
+
+    private static Snapshot buildSnapshot(List<TicketPricing> rows) {
+        Map<TicketType, Entry> byType = new EnumMap<>(TicketType.class);
+        long version = 0;
+        for (TicketPricing row : rows) {
+            Entry entry = new Entry(row.getId(), row.getTicketType(), row.getPrice(), row.getDescription(),
+                    Boolean.TRUE.equals(row.getActive()), row.getCreatedAt(), row.getUpdatedAt());
+            byType.put(entry.ticketType(), entry);
+
+            LocalDateTime changedAt = row.getUpdatedAt() != null ? row.getUpdatedAt() : row.getCreatedAt();
+            if (changedAt != null) {
+                version = Math.max(version, changedAt.toInstant(ZoneOffset.UTC).toEpochMilli());
+            }
+        }
+
+        // EnumMap iterates in declaration order: RIDE, MONTHLY, YEARLY
+        List<Entry> all = List.copyOf(byType.values());
+        List<Entry> active = all.stream().filter(Entry::active).toList();
+        return new Snapshot(version, Collections.unmodifiableMap(byType), all, active);
+    }
+}
@@ -0,0 +1,194 @@
+package io.github.kaltrinabajramii.urbantransitbackend.cache;
+
+import io.github.kaltrinabajramii.urbantransitbackend.model.entity.Route;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TransportType;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.RouteRepository;
+import io.github.kaltrinabajramii.urbantransitbackend.util.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable in-memory copy of route and route_stop.
+ *
+ * Routes change a few times a week but back every public route page, so reads are
+ * served from a catalog that is replaced wholesale (never mutated) after every admin
+ * change commits. Stops are fetched in the same query, so serving a route never
+ * touches the database. A periodic reload picks up changes made through other instances.
+ *
+ * The catalog version is the latest change across all routes in epoch millis. The ETag
+ * adds a fingerprint of the catalog content, so two instances holding the same routes
+ * agree on it and a change always gives a new tag even if clocks disagree.
+ */
+@Component
+@Slf4j
+public class RouteCatalog {
+
+    private static final Comparator<Entry> BY_NAME = Comparator.comparing(Entry::routeName);
+
+    private final RouteRepository routeRepository;
+
+    private volatile Snapshot snapshot;
+
+    public RouteCatalog(RouteRepository routeRepository) {
+        this.routeRepository = routeRepository;
+    }
+
+    /**
+     * Immutable copy of one route with its stops in order
+     */
+    public record Entry(Long id,
+                        String routeName,
+                        String description,
+                        TransportType transportType,
+                        List<String> stops,
+                        LocalTime operatingStartTime,
+                        LocalTime operatingEndTime,
+                        boolean active,
+                        LocalDateTime createdAt,
+                        LocalDateTime updatedAt) {
+
+        public boolean operatesAt(LocalTime time) {
+            return operatingStartTime != null && operatingEndTime != null
+                    && !operatingStartTime.isAfter(time) && !operatingEndTime.isBefore(time);
+        }
+    }
+
+    /**
+     * All routes at one version; all is ordered by id, the active lists by route name
+     */
+    public record Snapshot(long version,
+                           String fingerprint,
+                           List<Entry> all,
+                           Map<Long, Entry> byId,
+                           Map<String, Entry> activeByName,
+                           List<Entry> active,
+                           Map<TransportType, List<Entry>> activeByTransportType) {
+
+        public Entry activeEntry(Long routeId) {
+            Entry entry = byId.get(routeId);
+            return entry != null && entry.active() ? entry : null;
+        }
+
+        public Entry activeEntry(String routeName) {
+            return activeByName.get(routeName);
+        }
+
+        public List<Entry> activeOfType(TransportType transportType) {
+            return activeByTransportType.getOrDefault(transportType, List.of());
+        }
+
+        public String eTag() {
+            return "\"routes-" + version + "-" + fingerprint + "\"";
+        }
+    }
+
+    // ===== LOADING =====
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    /**
+     * Re-read all routes with their stops and swap in a new catalog
+     */
+    @Scheduled(fixedDelayString = "${app.routes.catalog.refresh-interval-ms:60000}",
+            initialDelayString = "${app.routes.catalog.refresh-interval-ms:60000}")
+    public synchronized void reload() {
+        Snapshot fresh = buildSnapshot(routeRepository.findAllWithStops());
+        Snapshot previous = snapshot;
+        snapshot = fresh;
+        if (previous == null || !previous.eTag().equals(fresh.eTag())) {
+            log.info("Route catalog version {} loaded ({} active of {} routes)",
+                    fresh.version(), fresh.active().size(), fresh.all().size());
+        }
+    }
+
+    /**
+     * Reload once the surrounding transaction commits, so readers never see uncommitted routes
+     */
+    public void reloadAfterCommit() {
+        AfterCommit.run(this::reload);
+    }
+
+    // ===== LOOKUPS =====
+
+    /**
+     * Current catalog; loads it on first use if a request arrives before startup finished
+     */
+    public Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    reload();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    // ===== PRIVATE HELPER METHODS =====
+
+    private static Snapshot buildSnapshot(List<Route> routes) {
+        Map<Long, Entry> byId = new HashMap<>();
+        long version = 0;
+        for (Route route : routes) {
+            List<String> stops = route.getStops() != null
+                    ? route.getStops().stream().filter(Objects::nonNull).toList()
+                    : List.of();
+            Entry entry = new Entry(route.getId(), route.getRouteName(), route.getDescription(),
+                    route.getTransportType(), stops, route.getOperatingStartTime(), route.getOperatingEndTime(),
+                    Boolean.TRUE.equals(route.getActive()), route.getCreatedAt(), route.getUpdatedAt());
+            byId.put(entry.id(), entry);
+
+            LocalDateTime changedAt = route.getUpdatedAt() != null ? route.getUpdatedAt() : route.getCreatedAt();
+            if (changedAt != null) {
+                version = Math.max(version, changedAt.toInstant(ZoneOffset.UTC).toEpochMilli());
+            }
+        }
+
+        List<Entry> all = byId.values().stream().sorted(Comparator.comparing(Entry::id)).toList();
+        List<Entry> active = all.stream().filter(Entry::active).sorted(BY_NAME).toList();
+        Map<String, Entry> activeByName = new HashMap<>();
+        Map<TransportType, List<Entry>> activeByTransportType = new EnumMap<>(TransportType.class);
+        for (Entry entry : active) {
+            activeByName.put(entry.routeName(), entry);
+            activeByTransportType.computeIfAbsent(entry.transportType(), type -> new ArrayList<>()).add(entry);
+        }
+        activeByTransportType.replaceAll((type, entries) -> List.copyOf(entries));
+
+        return new Snapshot(version, fingerprint(all), all, Collections.unmodifiableMap(byId),
+                Collections.unmodifiableMap(activeByName), active, Collections.unmodifiableMap(activeByTransportType));
+    }
+
+    /**
+     * Hash of every route field in id order; enums hash by name so all instances compute the same value
+     */
+    private static String fingerprint(List<Entry> all) {
+        long hash = 17;
+        for (Entry entry : all) {
+            hash = 31 * hash + Objects.hash(entry.id(), entry.routeName(), entry.description(),
+                    entry.transportType() != null ? entry.transportType().name() : null, entry.stops(),
+                    entry.operatingStartTime(), entry.operatingEndTime(), entry.active(),
+                    entry.createdAt(), entry.updatedAt());
+        }
+        return Long.toHexString(hash);
+    }
+}
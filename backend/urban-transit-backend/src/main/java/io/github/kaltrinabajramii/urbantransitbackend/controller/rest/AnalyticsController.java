@@ -1,16 +1,27 @@
 package io.github.kaltrinabajramii.urbantransitbackend.controller.rest;
 
+import io.github.kaltrinabajramii.urbantransitbackend.dto.request.UsageQueryRequest;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.ActiveRidersResponse;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.response.DashboardStatsResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.HourOfWeekUsageResponse;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.response.SalesAnalyticsResponse;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.response.RoutePopularityResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.RouteRidersResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.RouteUtilizationReportResponse;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.response.TransportTypeStatsResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.UsageQueryResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TransportType;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.UsageWindow;
 import io.github.kaltrinabajramii.urbantransitbackend.service.interfaces.AnalyticsService;
+import jakarta.validation.Valid;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -63,14 +74,29 @@ public class AnalyticsController {
         return analyticsService.getPeakUsageHours();
     }
 
+    @GetMapping("/usage/hour-of-week")
+    public ResponseEntity<HourOfWeekUsageResponse> getHourOfWeekUsage(
+            @RequestParam(required = false) Long routeId,
+            @RequestParam(required = false) TransportType transportType) {
+        return analyticsService.getHourOfWeekUsage(routeId, transportType);
+    }
+
+    @PostMapping("/usage/query")
+    public ResponseEntity<UsageQueryResponse> queryUsage(@Valid @RequestBody UsageQueryRequest queryRequest) {
+        return analyticsService.queryUsage(queryRequest);
+    }
+
     @GetMapping("/routes/top")
     public ResponseEntity<List<RoutePopularityResponse>> getTopRoutes(@RequestParam(defaultValue = "10") int limit) {
         return analyticsService.getTopRoutes(limit);
     }
 
     @GetMapping("/routes/utilization")
-    public ResponseEntity<List<Object[]>> getRouteUtilizationAnalysis() {
-        return analyticsService.getRouteUtilizationAnalysis();
+    public ResponseEntity<RouteUtilizationReportResponse> getRouteUtilizationAnalysis(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) TransportType transportType) {
+        return analyticsService.getRouteUtilizationAnalysis(startDate, endDate, transportType);
     }
 
     @GetMapping("/transport-types")
@@ -79,8 +105,10 @@ public class AnalyticsController {
     }
 
     @GetMapping("/stops/popular")
-    public ResponseEntity<List<Object[]>> getPopularStops(@RequestParam(defaultValue = "10") int limit) {
-        return analyticsService.getPopularStops(limit);
+    public ResponseEntity<List<Object[]>> getPopularStops(
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "ALL_TIME") UsageWindow window) {
+        return analyticsService.getPopularStops(limit, window);
     }
 
     @GetMapping("/users/engagement")
@@ -103,6 +131,26 @@ public class AnalyticsController {
         return analyticsService.getNewVsReturningUsers(days);
     }
 
+    @GetMapping("/riders/active")
+    public ResponseEntity<ActiveRidersResponse> getActiveRiders(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return analyticsService.getActiveRiders(date);
+    }
+
+    @GetMapping("/riders/routes")
+    public ResponseEntity<List<RouteRidersResponse>> getDistinctRidersByRoute(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return analyticsService.getDistinctRidersByRoute(startDate, endDate);
+    }
+
+    @GetMapping("/riders/transport-types")
+    public ResponseEntity<Map<TransportType, Long>> getDistinctRidersByTransportType(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return analyticsService.getDistinctRidersByTransportType(startDate, endDate);
+    }
+
     @GetMapping("/system/performance")
     public ResponseEntity<List<Object[]>> getSystemPerformanceMetrics() {
         return analyticsService.getSystemPerformanceMetrics();
@@ -113,15 +161,6 @@ public class AnalyticsController {
         return analyticsService.getTicketValidationFailures();
     }
 
-    @PostMapping("/reports/custom")
-    public ResponseEntity<Object> generateCustomReport(
-            @RequestParam String reportType,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
-            @RequestBody Map<String, Object> parameters) {
-        return analyticsService.generateCustomReport(reportType, startDate, endDate, parameters);
-    }
-
     @GetMapping("/export/csv")
     public ResponseEntity<byte[]> exportAnalyticsToCSV(
             @RequestParam String reportType,
@@ -130,11 +169,19 @@ public class AnalyticsController {
         return analyticsService.exportAnalyticsToCSV(reportType, startDate, endDate);
     }
 
-    @PostMapping("/reports/schedule")
-    public ResponseEntity<String> scheduleAutomatedReport(
-            @RequestParam String reportType,
-            @RequestParam String frequency,
-            @RequestBody List<String> recipients) {
-        return analyticsService.scheduleAutomatedReport(reportType, frequency, recipients);
+    @GetMapping("/export/tickets")
+    public ResponseEntity<StreamingResponseBody> exportTicketsToCsv(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        return analyticsService.exportTicketsToCsv(startDate, endDate, gzip);
+    }
+
+    @GetMapping("/export/usage")
+    public ResponseEntity<StreamingResponseBody> exportUsageToCsv(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        return analyticsService.exportUsageToCsv(startDate, endDate, gzip);
     }
 }
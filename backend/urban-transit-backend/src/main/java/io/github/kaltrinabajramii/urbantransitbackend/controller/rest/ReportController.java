@@ -0,0 +1,73 @@
+package io.github.kaltrinabajramii.urbantransitbackend.controller.rest;
+
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.ReportJobResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.ReportScheduleResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.ReportFrequency;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.ReportType;
+import io.github.kaltrinabajramii.urbantransitbackend.service.interfaces.ReportService;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/analytics/reports")
+@PreAuthorize("hasRole('ADMIN')")
+public class ReportController {
+
+    private final ReportService reportService;
+
+    public ReportController(ReportService reportService) {
+        this.reportService = reportService;
+    }
+
+    @PostMapping("/custom")
+    public ResponseEntity<ReportJobResponse> submitReport(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam ReportType reportType,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+        return reportService.submitReport(userDetails, reportType, startDate, endDate);
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<ReportJobResponse> getReportJob(@PathVariable Long jobId) {
+        return reportService.getReportJob(jobId);
+    }
+
+    @GetMapping("/jobs/{jobId}/result")
+    public ResponseEntity<Resource> downloadReportResult(@PathVariable Long jobId) {
+        return reportService.downloadReportResult(jobId);
+    }
+
+    @PostMapping("/schedule")
+    public ResponseEntity<ReportScheduleResponse> scheduleReport(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam ReportType reportType,
+            @RequestParam ReportFrequency frequency,
+            @RequestBody(required = false) List<String> recipients) {
+        return reportService.scheduleReport(userDetails, reportType, frequency, recipients);
+    }
+
+    @GetMapping("/schedules")
+    public ResponseEntity<List<ReportScheduleResponse>> getReportSchedules() {
+        return reportService.getReportSchedules();
+    }
+
+    @GetMapping("/schedules/{scheduleId}/jobs")
+    public ResponseEntity<List<ReportJobResponse>> getScheduleJobs(@PathVariable Long scheduleId,
+                                                                   @RequestParam(defaultValue = "20") int limit) {
+        return reportService.getScheduleJobs(scheduleId, limit);
+    }
+
+    @DeleteMapping("/schedules/{scheduleId}")
+    public ResponseEntity<Void> cancelReportSchedule(@PathVariable Long scheduleId) {
+        return reportService.cancelReportSchedule(scheduleId);
+    }
+}
@@ -3,7 +3,13 @@ package io.github.kaltrinabajramii.urbantransitbackend.controller.rest;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.request.PurchaseTicketRequest;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.request.ValidateTicketRequest;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.request.UseTicketRequest;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.request.TapOffRequest;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.request.TicketFilterRequest;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.ActiveTicketIndexStatsResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.OfflineTicketTokenResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.OfflineVerificationKeyResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.ExpiryWheelStatsResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.TicketExpiryRunResponse;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.response.TicketResponse;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.response.TicketSummaryResponse;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.response.TicketValidationResponse;
@@ -61,17 +67,34 @@ public class TicketController {
         return ticketService.useTicket(useRequest);
     }
 
+    @PostMapping("/tap-off")
+    public ResponseEntity<TicketUsageResponse> tapOffTicket(@Valid @RequestBody TapOffRequest tapOffRequest) {
+        return ticketService.tapOffTicket(tapOffRequest);
+    }
+
     @GetMapping("/number/{ticketNumber}")
     public ResponseEntity<TicketResponse> getTicketByNumber(@PathVariable String ticketNumber) {
         return ticketService.getTicketByNumber(ticketNumber);
     }
 
+    @GetMapping("/my-tickets/{ticketNumber}/offline-token")
+    public ResponseEntity<OfflineTicketTokenResponse> issueOfflineToken(@AuthenticationPrincipal UserDetails userDetails,
+                                                                        @PathVariable String ticketNumber) {
+        return ticketService.issueOfflineToken(userDetails, ticketNumber);
+    }
+
+    @GetMapping("/offline/keys")
+    public ResponseEntity<List<OfflineVerificationKeyResponse>> getOfflineVerificationKeys() {
+        return ticketService.getOfflineVerificationKeys();
+    }
+
     @GetMapping("/my-tickets")
     public ResponseEntity<PagedResponse<TicketSummaryResponse>> getUserTickets(
             @AuthenticationPrincipal UserDetails userDetails,
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        return ticketService.getUserTickets(userDetails, page, size);
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ticketService.getUserTickets(userDetails, cursor, size, includeTotal);
     }
 
     @GetMapping("/my-tickets/valid")
@@ -102,17 +125,19 @@ public class TicketController {
     @GetMapping("/my-tickets/travel-history")
     public ResponseEntity<PagedResponse<TicketUsageResponse>> getUserTravelHistory(
             @AuthenticationPrincipal UserDetails userDetails,
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        return ticketService.getUserTravelHistory(userDetails, page, size);
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ticketService.getUserTravelHistory(userDetails, cursor, size, includeTotal);
     }
 
     @GetMapping("/admin/all")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<PagedResponse<TicketResponse>> getAllTickets(
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        return ticketService.getAllTickets(page, size);
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ticketService.getAllTickets(cursor, size, includeTotal);
     }
 
     @GetMapping("/admin/status/{status}")
@@ -149,4 +174,22 @@ public class TicketController {
             @RequestParam(defaultValue = "10") int size) {
         return ticketService.getTicketsByDateRange(startDate, endDate, page, size);
     }
+
+    @GetMapping("/admin/expiry/last-run")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<TicketExpiryRunResponse> getLastExpiryRun() {
+        return ticketService.getLastExpiryRun();
+    }
+
+    @GetMapping("/admin/expiry/wheel")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ExpiryWheelStatsResponse> getExpiryWheelStats() {
+        return ticketService.getExpiryWheelStats();
+    }
+
+    @GetMapping("/admin/index-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ActiveTicketIndexStatsResponse> getActiveTicketIndexStats() {
+        return ticketService.getActiveTicketIndexStats();
+    }
 }
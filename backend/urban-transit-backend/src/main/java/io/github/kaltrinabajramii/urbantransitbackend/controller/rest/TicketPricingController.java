@@ -26,6 +26,11 @@ public class TicketPricingController {
         return ticketPricingService.getAllActivePricing();
     }
 
+    @GetMapping("/version")
+    public ResponseEntity<Long> getPricingVersion() {
+        return ticketPricingService.getPricingVersion();
+    }
+
     @GetMapping("/{ticketType}")
     public ResponseEntity<TicketPricingResponse> getPricingByType(@PathVariable TicketType ticketType) {
         return ticketPricingService.getPricingByType(ticketType);
@@ -0,0 +1,109 @@
+package io.github.kaltrinabajramii.urbantransitbackend.controller.rest;
+
+import io.github.kaltrinabajramii.urbantransitbackend.dto.request.BulkTapRequest;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.BulkTapResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.JourneyDurationResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.MonthlyTravelResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.PagedResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.TapJournalStatsResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.TicketUsageResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.UsageWindow;
+import io.github.kaltrinabajramii.urbantransitbackend.service.interfaces.TicketUsageService;
+import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/usage")
+public class TicketUsageController {
+
+    private final TicketUsageService ticketUsageService;
+
+    public TicketUsageController(TicketUsageService ticketUsageService) {
+        this.ticketUsageService = ticketUsageService;
+    }
+
+    @PostMapping("/taps/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkTapResponse> recordTapBatch(@Valid @RequestBody BulkTapRequest bulkTapRequest) {
+        return ticketUsageService.recordTapBatch(bulkTapRequest);
+    }
+
+    @GetMapping("/taps/journal/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<TapJournalStatsResponse> getTapJournalStats() {
+        return ticketUsageService.getTapJournalStats();
+    }
+
+    @GetMapping("/my-history")
+    public ResponseEntity<PagedResponse<TicketUsageResponse>> getUserTravelHistoryByDateRange(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ticketUsageService.getUserTravelHistoryByDateRange(userDetails, startDate, endDate, cursor, size, includeTotal);
+    }
+
+    @GetMapping("/my-history/export")
+    public ResponseEntity<StreamingResponseBody> exportUserTravelHistory(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        return ticketUsageService.exportUserTravelHistory(userDetails, startDate, endDate, gzip);
+    }
+
+    @GetMapping("/my-summary/monthly")
+    public ResponseEntity<List<MonthlyTravelResponse>> getUserMonthlyTravelSummary(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam(defaultValue = "12") int months) {
+        return ticketUsageService.getUserMonthlyTravelSummary(userDetails, months);
+    }
+
+    @GetMapping("/stops/popular")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<Object[]>> getMostPopularBoardingStops(
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "ALL_TIME") UsageWindow window) {
+        return ticketUsageService.getMostPopularBoardingStops(limit, window);
+    }
+
+    @GetMapping("/destinations/popular")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<Object[]>> getMostPopularDestinations(
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "ALL_TIME") UsageWindow window) {
+        return ticketUsageService.getMostPopularDestinations(limit, window);
+    }
+
+    @GetMapping("/patterns/time-of-day")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<Object[]>> getUsagePatternsByTimeOfDay() {
+        return ticketUsageService.getUsagePatternsByTimeOfDay();
+    }
+
+    @GetMapping("/patterns/day-of-week")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<Object[]>> getUsagePatternsByDayOfWeek() {
+        return ticketUsageService.getUsagePatternsByDayOfWeek();
+    }
+
+    @GetMapping("/journeys/durations")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<JourneyDurationResponse> getJourneyDurations(
+            @RequestParam(required = false) Long routeId,
+            @RequestParam(required = false) String boardingStop,
+            @RequestParam(required = false) String alightingStop) {
+        return ticketUsageService.getJourneyDurations(routeId, boardingStop, alightingStop);
+    }
+}
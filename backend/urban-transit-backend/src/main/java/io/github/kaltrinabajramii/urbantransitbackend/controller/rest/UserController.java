@@ -51,17 +51,19 @@ public class UserController {
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<PagedResponse<UserSummaryResponse>> getAllUsers(@RequestParam(defaultValue = "0") int page,
-                                                                          @RequestParam(defaultValue = "10") int size) {
-        return userService.getAllUsers(page, size);
+    public ResponseEntity<PagedResponse<UserSummaryResponse>> getAllUsers(@RequestParam(required = false) String cursor,
+                                                                          @RequestParam(defaultValue = "10") int size,
+                                                                          @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return userService.getAllUsers(cursor, size, includeTotal);
     }
 
     @GetMapping("/search")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<PagedResponse<UserSummaryResponse>> searchUsers(@RequestParam String searchTerm,
-                                                                          @RequestParam(defaultValue = "0") int page,
-                                                                          @RequestParam(defaultValue = "10") int size) {
-        return userService.searchUsers(searchTerm, page, size);
+                                                                          @RequestParam(required = false) String cursor,
+                                                                          @RequestParam(defaultValue = "10") int size,
+                                                                          @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return userService.searchUsers(searchTerm, cursor, size, includeTotal);
     }
 
     @GetMapping("/{userId}")
@@ -98,16 +100,18 @@ public class UserController {
 
     @GetMapping("/without-tickets")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<PagedResponse<UserSummaryResponse>> getUsersWithoutTickets(@RequestParam(defaultValue = "0") int page,
-                                                                                     @RequestParam(defaultValue = "10") int size) {
-        return userService.getUsersWithoutTickets(page, size);
+    public ResponseEntity<PagedResponse<UserSummaryResponse>> getUsersWithoutTickets(@RequestParam(required = false) String cursor,
+                                                                                     @RequestParam(defaultValue = "10") int size,
+                                                                                     @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return userService.getUsersWithoutTickets(cursor, size, includeTotal);
     }
 
     @GetMapping("/recent")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<PagedResponse<UserSummaryResponse>> getRecentlyRegisteredUsers(@RequestParam(defaultValue = "0") int page,
-                                                                                         @RequestParam(defaultValue = "10") int size) {
-        return userService.getRecentlyRegisteredUsers(page, size);
+    public ResponseEntity<PagedResponse<UserSummaryResponse>> getRecentlyRegisteredUsers(@RequestParam(required = false) String cursor,
+                                                                                         @RequestParam(defaultValue = "10") int size,
+                                                                                         @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return userService.getRecentlyRegisteredUsers(cursor, size, includeTotal);
     }
 
     @GetMapping("/stats/by-role")
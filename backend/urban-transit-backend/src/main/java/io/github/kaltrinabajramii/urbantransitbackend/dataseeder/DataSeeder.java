@@ -6,6 +6,7 @@ import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TicketType;
 import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TransportType;
 import io.github.kaltrinabajramii.urbantransitbackend.model.enums.UserRole;
 import io.github.kaltrinabajramii.urbantransitbackend.repository.*;
+import io.github.kaltrinabajramii.urbantransitbackend.security.TicketNumberCodec;
 import jakarta.annotation.PostConstruct;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
@@ -24,17 +25,20 @@ public class DataSeeder {
     private final TicketPricingRepository ticketPricingRepository;
     private final TicketRepository ticketRepository;
     private final PasswordEncoder passwordEncoder;
+    private final TicketNumberCodec ticketNumberCodec;
 
     public DataSeeder(UserRepository userRepository,
                       RouteRepository routeRepository,
                       TicketPricingRepository ticketPricingRepository,
                       TicketRepository ticketRepository,
-                      PasswordEncoder passwordEncoder) {
+                      PasswordEncoder passwordEncoder,
+                      TicketNumberCodec ticketNumberCodec) {
         this.userRepository = userRepository;
         this.routeRepository = routeRepository;
         this.ticketPricingRepository = ticketPricingRepository;
         this.ticketRepository = ticketRepository;
         this.passwordEncoder = passwordEncoder;
+        this.ticketNumberCodec = ticketNumberCodec;
     }
 
     @PostConstruct
@@ -270,11 +274,6 @@ public class DataSeeder {
     }
 
     private String generateTicketNumber(TicketType ticketType) {
-        String prefix = switch (ticketType) {
-            case RIDE -> "RD";
-            case MONTHLY -> "MO";
-            case YEARLY -> "YR";
-        };
-        return prefix + "-" + System.currentTimeMillis() + "-" + (int)(Math.random() * 1000);
+        return ticketNumberCodec.generate(ticketType);
     }
 }
@@ -0,0 +1,19 @@
+package io.github.kaltrinabajramii.urbantransitbackend.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkTapRequest {
+
+    @NotEmpty(message = "At least one tap is required")
+    @Size(max = 10000, message = "A batch cannot exceed 10000 taps")
+    private List<@Valid TapRecordRequest> taps;
+}
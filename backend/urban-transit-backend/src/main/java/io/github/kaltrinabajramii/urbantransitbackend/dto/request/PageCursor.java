@@ -0,0 +1,60 @@
+package io.github.kaltrinabajramii.urbantransitbackend.dto.request;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position in a keyset-paged list, handed to clients as an opaque string.
+ *
+ * Lists are ordered newest first by (sortKey, id). A forward cursor asks for the rows after
+ * the position (older), a backward cursor for the rows before it (newer).
+ */
+public record PageCursor(boolean backward, LocalDateTime sortKey, long id) {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    public static PageCursor after(LocalDateTime sortKey, long id) {
+        return new PageCursor(false, sortKey, id);
+    }
+
+    public static PageCursor before(LocalDateTime sortKey, long id) {
+        return new PageCursor(true, sortKey, id);
+    }
+
+    public String encode() {
+        String value = (backward ? "b" : "f") + "|" + sortKey + "|" + id;
+        return ENCODER.encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor from a request; null or blank means the first page
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(DECODER.decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 3 || !(parts[0].equals("f") || parts[0].equals("b"))) {
+                throw new IllegalArgumentException("Invalid page cursor");
+            }
+            return new PageCursor(parts[0].equals("b"), LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid page cursor", e);
+        }
+    }
+
+    /**
+     * Whether a cursor from a request can be decoded
+     */
+    public static boolean isValid(String cursor) {
+        try {
+            decode(cursor);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
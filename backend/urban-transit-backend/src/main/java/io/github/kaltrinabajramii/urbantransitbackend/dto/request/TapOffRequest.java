@@ -0,0 +1,19 @@
+package io.github.kaltrinabajramii.urbantransitbackend.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TapOffRequest {
+
+    @NotBlank(message = "Ticket number is required")
+    private String ticketNumber;
+
+    @Size(max = 100, message = "Alighting stop must be at most 100 characters")
+    private String alightingStop;
+}
@@ -0,0 +1,32 @@
+package io.github.kaltrinabajramii.urbantransitbackend.dto.request;
+
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TransportType;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TapRecordRequest {
+
+    @NotNull(message = "Ticket ID is required")
+    private Long ticketId;
+
+    @NotNull(message = "Route ID is required")
+    private Long routeId;
+
+    @NotNull(message = "Transport type is required")
+    private TransportType transportType;
+
+    @Size(max = 100, message = "Boarding stop cannot exceed 100 characters")
+    private String boardingStop;
+
+    @Size(max = 100, message = "Destination stop cannot exceed 100 characters")
+    private String destinationStop;
+
+    private LocalDateTime usedAt; // Optional - tap time recorded by the gate, defaults to now
+}
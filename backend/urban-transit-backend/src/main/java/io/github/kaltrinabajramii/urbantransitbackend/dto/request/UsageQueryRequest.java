@@ -0,0 +1,37 @@
+package io.github.kaltrinabajramii.urbantransitbackend.dto.request;
+
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TicketType;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TransportType;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.UsageDimension;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UsageQueryRequest {
+    // Every filter is optional; filters left empty match all taps
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+    private List<Long> routeIds;
+    private List<TransportType> transportTypes;
+    private List<TicketType> ticketTypes;
+    private String boardingStop;
+    private String destinationStop;
+    // Tap hour in [hourFrom, hourTo); wraps past midnight when hourFrom > hourTo
+    @Min(0) @Max(23)
+    private Integer hourFrom;
+    @Min(0) @Max(24)
+    private Integer hourTo;
+    private List<DayOfWeek> daysOfWeek;
+    // Only the total is returned when null
+    private UsageDimension groupBy;
+    @Min(1) @Max(1000)
+    private int groupLimit = 50;
+}
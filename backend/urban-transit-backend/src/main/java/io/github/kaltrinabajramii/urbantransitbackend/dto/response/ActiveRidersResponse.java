@@ -0,0 +1,19 @@
+package io.github.kaltrinabajramii.urbantransitbackend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActiveRidersResponse {
+    private LocalDate date;
+    private Long dailyActiveRiders;
+    // Distinct riders over the 7 and 30 days ending with date
+    private Long weeklyActiveRiders;
+    private Long monthlyActiveRiders;
+    // Counts are estimates; this is their relative standard error
+    private Double relativeStandardError;
+}
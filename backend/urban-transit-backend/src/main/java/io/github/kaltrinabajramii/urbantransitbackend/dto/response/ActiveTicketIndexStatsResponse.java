@@ -0,0 +1,19 @@
+package io.github.kaltrinabajramii.urbantransitbackend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActiveTicketIndexStatsResponse {
+    private Boolean enabled;
+    private Boolean loaded;
+    private Integer indexedTickets;
+    private Integer capacity;
+    private Long memoryBytes;
+    private Long hits;
+    private Long misses;
+    private Double hitRatio;
+}
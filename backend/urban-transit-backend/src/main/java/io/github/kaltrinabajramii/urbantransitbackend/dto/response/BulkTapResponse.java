@@ -0,0 +1,16 @@
+package io.github.kaltrinabajramii.urbantransitbackend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkTapResponse {
+    private Integer received;
+    private Integer accepted;
+    private Integer rejected;
+    private List<TapResultResponse> results;
+}
@@ -1,17 +1,21 @@
 package io.github.kaltrinabajramii.urbantransitbackend.dto.response;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.Value;
 
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Immutable so one cached instance can be handed to every caller
+ */
+@Value
 public class DashboardStatsResponse {
-    private Long totalUsers;
-    private Long totalActiveTickets;
-    private Long totalRoutes;
-    private Long todayUsageCount;
-    private java.math.BigDecimal totalRevenue;
-    private Long totalTicketsSold;
-}
\ No newline at end of file
+    Long totalUsers;
+    Long totalActiveTickets;
+    Long totalRoutes;
+    Long todayUsageCount;
+    BigDecimal totalRevenue;
+    Long totalTicketsSold;
+    // When the figures were computed
+    LocalDateTime generatedAt;
+}
@@ -0,0 +1,17 @@
+package io.github.kaltrinabajramii.urbantransitbackend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpiryWheelStatsResponse {
+    private Boolean enabled;
+    private Integer pendingTickets;
+    private Long ticketsFired;
+    private Long ticketsExpired;
+    private Long batches;
+    private Long maxFireDelayMillis;
+}
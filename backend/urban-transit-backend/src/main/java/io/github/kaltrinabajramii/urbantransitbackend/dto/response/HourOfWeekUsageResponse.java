@@ -0,0 +1,20 @@
+package io.github.kaltrinabajramii.urbantransitbackend.dto.response;
+
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TransportType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.DayOfWeek;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HourOfWeekUsageResponse {
+    private Long routeId;
+    private TransportType transportType;
+    private Long totalTaps;
+    private DayOfWeek peakDayOfWeek;
+    private Integer peakHour;
+    // counts[day][hour], day 0 = Monday
+    private long[][] counts;
+}
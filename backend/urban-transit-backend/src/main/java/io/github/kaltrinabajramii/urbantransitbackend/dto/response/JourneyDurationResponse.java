@@ -0,0 +1,23 @@
+package io.github.kaltrinabajramii.urbantransitbackend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JourneyDurationResponse {
+    // Null when the durations cover every route
+    private Long routeId;
+    private String boardingStop;
+    private String alightingStop;
+    // Completed journeys (tap-on with a matching tap-off) behind the quantiles
+    private Long journeys;
+    // Null when there are no completed journeys
+    private Double p50Minutes;
+    private Double p90Minutes;
+    private Double p99Minutes;
+    // Every quantile is within this fraction of the true duration
+    private Double relativeAccuracy;
+}
@@ -0,0 +1,24 @@
+package io.github.kaltrinabajramii.urbantransitbackend.dto.response;
+
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TransportType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.YearMonth;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonthlyTravelResponse {
+    private YearMonth month;
+    private Long rides;
+    // Only transport types ridden that month
+    private Map<TransportType, Long> ridesByTransportType;
+    // Rides with a matching tap-off
+    private Long completedJourneys;
+    private Double totalJourneyMinutes;
+    // Null when there are no completed journeys
+    private Double averageJourneyMinutes;
+}
@@ -0,0 +1,18 @@
+package io.github.kaltrinabajramii.urbantransitbackend.dto.response;
+
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TicketType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OfflineTicketTokenResponse {
+    private String ticketNumber;
+    private TicketType ticketType;
+    private String token;
+    private Integer keyId;
+    private LocalDateTime expiresAt;
+}
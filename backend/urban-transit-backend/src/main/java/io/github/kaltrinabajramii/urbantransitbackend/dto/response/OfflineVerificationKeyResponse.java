@@ -0,0 +1,14 @@
+package io.github.kaltrinabajramii.urbantransitbackend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OfflineVerificationKeyResponse {
+    private Integer keyId;
+    private String algorithm;
+    private String publicKey; // Base64 X.509 encoding
+}
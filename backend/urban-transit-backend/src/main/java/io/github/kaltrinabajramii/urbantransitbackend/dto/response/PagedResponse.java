@@ -1,23 +1,30 @@
 package io.github.kaltrinabajramii.urbantransitbackend.dto.response;
 
+import io.github.kaltrinabajramii.urbantransitbackend.dto.request.PageCursor;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Function;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class PagedResponse<T> {
     private List<T> content;
-    private int page;
+    private Integer page; // null for cursor-paged lists
     private int size;
-    private long totalElements;
-    private int totalPages;
+    private Long totalElements; // null when the total was not requested
+    private Integer totalPages;
     private boolean first;
     private boolean last;
     private boolean hasNext;
     private boolean hasPrevious;
+    private String nextCursor; // pass back as ?cursor= for the next page
+    private String previousCursor;
 
     public static <T> PagedResponse<T> of(
             List<T> content,
@@ -39,4 +46,56 @@ public class PagedResponse<T> {
 
         return response;
     }
-}
\ No newline at end of file
+
+    /**
+     * Page of a keyset-paged list from up to size + 1 rows, fetched newest first for a forward
+     * (or no) cursor and oldest first for a backward one
+     */
+    public static <E, T> PagedResponse<T> ofKeyset(
+            List<E> rows,
+            PageCursor cursor,
+            int size,
+            Function<E, PageCursor> positionOf,
+            Function<E, T> mapper,
+            Long totalElements) {
+
+        boolean backward = cursor != null && cursor.backward();
+        boolean more = rows.size() > size;
+        List<E> pageRows = new ArrayList<>(more ? rows.subList(0, size) : rows);
+        if (backward) {
+            Collections.reverse(pageRows);
+        }
+
+        boolean hasNext = backward || more;
+        boolean hasPrevious = backward ? more : cursor != null;
+
+        PagedResponse<T> response = new PagedResponse<>();
+        response.setContent(pageRows.stream().map(mapper).toList());
+        response.setSize(size);
+        response.setTotalElements(totalElements);
+        response.setTotalPages(totalElements != null ? (int) ((totalElements + size - 1) / size) : null);
+        response.setHasNext(hasNext);
+        response.setHasPrevious(hasPrevious);
+        response.setFirst(!hasPrevious);
+        response.setLast(!hasNext);
+
+        if (pageRows.isEmpty()) {
+            // Nothing past the cursor; point back at where the client came from
+            if (cursor != null) {
+                PageCursor position = new PageCursor(!cursor.backward(), cursor.sortKey(), cursor.id());
+                response.setNextCursor(backward ? position.encode() : null);
+                response.setPreviousCursor(backward ? null : position.encode());
+            }
+            return response;
+        }
+        PageCursor firstPosition = positionOf.apply(pageRows.get(0));
+        PageCursor lastPosition = positionOf.apply(pageRows.get(pageRows.size() - 1));
+        if (hasNext) {
+            response.setNextCursor(PageCursor.after(lastPosition.sortKey(), lastPosition.id()).encode());
+        }
+        if (hasPrevious) {
+            response.setPreviousCursor(PageCursor.before(firstPosition.sortKey(), firstPosition.id()).encode());
+        }
+        return response;
+    }
+}
@@ -0,0 +1,30 @@
+package io.github.kaltrinabajramii.urbantransitbackend.dto.response;
+
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.ReportJobStatus;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.ReportType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJobResponse {
+    private Long id;
+    private ReportType reportType;
+    private LocalDateTime periodStart;
+    private LocalDateTime periodEnd;
+    private ReportJobStatus status;
+    private Long scheduleId;
+    private String requestedBy;
+    // Set once the job has completed
+    private String resultUrl;
+    private Long resultBytes;
+    // Earlier job of the same closed period whose result was reused
+    private Long reusedFromJobId;
+    private String errorMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+}
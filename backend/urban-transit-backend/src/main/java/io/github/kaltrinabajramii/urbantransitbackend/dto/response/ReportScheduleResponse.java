@@ -0,0 +1,26 @@
+package io.github.kaltrinabajramii.urbantransitbackend.dto.response;
+
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.ReportFrequency;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.ReportType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportScheduleResponse {
+    private Long id;
+    private ReportType reportType;
+    private ReportFrequency frequency;
+    private List<String> recipients;
+    // Period the next run reports on, and when it runs (once that period has closed)
+    private LocalDateTime nextPeriodStart;
+    private LocalDateTime nextRunAt;
+    private Long lastJobId;
+    private Boolean active;
+    private String createdBy;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,17 @@
+package io.github.kaltrinabajramii.urbantransitbackend.dto.response;
+
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TransportType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteRidersResponse {
+    private Long routeId;
+    private String routeName;
+    private TransportType transportType;
+    // Estimated distinct riders who tapped on the route in the period
+    private Long distinctRiders;
+}
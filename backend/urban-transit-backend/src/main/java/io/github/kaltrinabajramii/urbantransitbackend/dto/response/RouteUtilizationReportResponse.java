@@ -0,0 +1,18 @@
+package io.github.kaltrinabajramii.urbantransitbackend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteUtilizationReportResponse {
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+    // Busiest first by taps per stop-hour
+    private List<RouteUtilizationResponse> routes;
+    private List<TransportTypeUtilizationResponse> byTransportType;
+}
@@ -0,0 +1,21 @@
+package io.github.kaltrinabajramii.urbantransitbackend.dto.response;
+
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TransportType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteUtilizationResponse {
+    private Long routeId;
+    private String routeName;
+    private TransportType transportType;
+    private Integer stopCount;
+    private Double operatingHoursPerDay;
+    private Long taps;
+    private Double tapsPerOperatingHour;
+    // Taps per stop per operating hour; null for routes without stops
+    private Double tapsPerStopHour;
+}
@@ -14,4 +14,5 @@ public class SalesAnalyticsResponse {
     private TicketType ticketType;
     private Long ticketCount;
     private BigDecimal totalRevenue;
+    private Long distinctBuyers;
 }
\ No newline at end of file
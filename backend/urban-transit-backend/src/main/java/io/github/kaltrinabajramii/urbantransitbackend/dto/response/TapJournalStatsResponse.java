@@ -0,0 +1,16 @@
+package io.github.kaltrinabajramii.urbantransitbackend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TapJournalStatsResponse {
+    private Boolean writeBehindEnabled;
+    private Integer pendingSegments;
+    private Long appendedTaps;
+    private Long flushedTaps;
+    private Long pendingTaps;
+}
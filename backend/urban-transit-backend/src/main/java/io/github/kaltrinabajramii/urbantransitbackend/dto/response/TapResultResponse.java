@@ -0,0 +1,22 @@
+package io.github.kaltrinabajramii.urbantransitbackend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TapResultResponse {
+    private Integer index; // Position of the tap in the submitted batch
+    private Boolean accepted;
+    private String message;
+
+    public static TapResultResponse accepted(int index) {
+        return new TapResultResponse(index, true, "Recorded");
+    }
+
+    public static TapResultResponse rejected(int index, String message) {
+        return new TapResultResponse(index, false, message);
+    }
+}
@@ -0,0 +1,20 @@
+package io.github.kaltrinabajramii.urbantransitbackend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TicketExpiryRunResponse {
+    private LocalDateTime startedAt;
+    private Long durationMillis;
+    private Integer ticketsExpired;
+    private Integer chunks;
+    private Long lagSeconds;
+    private Boolean backlogRemaining;
+    private Long totalRuns;
+    private Long totalExpired;
+}
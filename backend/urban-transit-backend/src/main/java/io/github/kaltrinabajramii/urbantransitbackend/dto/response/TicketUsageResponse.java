@@ -17,4 +17,6 @@ public class TicketUsageResponse {
     private String boardingStop;
     private String destinationStop;
     private LocalDateTime usedAt;
+    private String alightingStop;
+    private LocalDateTime alightedAt;
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package io.github.kaltrinabajramii.urbantransitbackend.dto.response;
+
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TransportType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransportTypeUtilizationResponse {
+    private TransportType transportType;
+    private Integer routeCount;
+    private Long taps;
+    private Double tapsPerOperatingHour;
+    private Double tapsPerStopHour;
+}
@@ -0,0 +1,20 @@
+package io.github.kaltrinabajramii.urbantransitbackend.dto.response;
+
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.UsageDimension;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UsageQueryResponse {
+    private Long totalTaps;
+    private UsageDimension groupBy;
+    // Time dimensions in time order, others busiest first; null when not grouped
+    private List<UsageGroupResponse> groups;
+    private Boolean groupsTruncated;
+    // Taps held by the in-memory store the query ran against
+    private Long rowsInStore;
+}
@@ -0,0 +1,20 @@
+package io.github.kaltrinabajramii.urbantransitbackend.event;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Published inside the transaction that records a tap-off against its tap-on usage.
+ * {@code alightingStop} is the tapped-off stop, or the declared destination when none was given.
+ */
+public record JourneyCompletedEvent(long usageId,
+                                    long routeId,
+                                    String boardingStop,
+                                    String alightingStop,
+                                    LocalDateTime usedAt,
+                                    LocalDateTime alightedAt) {
+
+    public long durationSeconds() {
+        return Duration.between(usedAt, alightedAt).getSeconds();
+    }
+}
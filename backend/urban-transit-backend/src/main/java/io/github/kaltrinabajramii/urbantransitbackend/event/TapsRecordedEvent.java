@@ -0,0 +1,24 @@
+package io.github.kaltrinabajramii.urbantransitbackend.event;
+
+import io.github.kaltrinabajramii.urbantransitbackend.model.entity.TicketUsage;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketUsageJdbcRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Published inside the transaction that writes taps to ticket_usage.
+ *
+ * Plain {@code @EventListener}s run in that transaction (the usage rollups rely on this);
+ * in-memory aggregates should use {@code @TransactionalEventListener} so they only see
+ * committed taps.
+ */
+public record TapsRecordedEvent(List<TicketUsageJdbcRepository.UsageRow> taps) {
+
+    public static TapsRecordedEvent of(TicketUsage usage) {
+        LocalDateTime usedAt = usage.getUsedAt() != null ? usage.getUsedAt() : LocalDateTime.now();
+        return new TapsRecordedEvent(List.of(new TicketUsageJdbcRepository.UsageRow(
+                usage.getTicket().getId(), usage.getRoute().getId(), usage.getTransportType(),
+                usage.getBoardingStop(), usage.getDestinationStop(), usedAt)));
+    }
+}
@@ -0,0 +1,12 @@
+package io.github.kaltrinabajramii.urbantransitbackend.event;
+
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TicketType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published inside the transaction that saves a newly purchased ticket.
+ * Listeners that keep in-memory state should use {@code @TransactionalEventListener}.
+ */
+public record TicketPurchasedEvent(long ticketId, long userId, TicketType ticketType, LocalDateTime purchasedAt) {
+}
@@ -0,0 +1,518 @@
+package io.github.kaltrinabajramii.urbantransitbackend.journal;
+
+import io.github.kaltrinabajramii.urbantransitbackend.event.TapsRecordedEvent;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TransportType;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketUsageJdbcRepository;
+import io.github.kaltrinabajramii.urbantransitbackend.util.AfterCommit;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Write-behind journal for gate taps.
+ *
+ * Accepted taps are appended to memory-mapped segment files and acknowledged
+ * immediately; a scheduled flusher drains them into ticket_usage with JDBC
+ * batches. Segment layout:
+ *
+ * <pre>
+ *   header:  int magic | int version | long flushedOffset
+ *   record:  int payloadLength | int crc32c(payload) | payload
+ * </pre>
+ *
+ * A zero length (the pre-zeroed tail of the file) or a checksum mismatch marks
+ * the end of a segment. Segments left over from a previous run are replayed
+ * from their flushed offset on startup.
+ *
+ * Every record is inserted with a key made of the journal directory's id, the
+ * segment sequence and the record offset, and ticket_usage ignores keys it
+ * already has. A crash between the database commit and the header update
+ * replays that batch without inserting it twice. A batch that fails for any
+ * other reason than a constraint violation stays in the journal and is retried
+ * on the next flush; only rows the database rejects outright are dropped.
+ */
+@Component
+@Slf4j
+public class TapJournal {
+
+    private static final int MAGIC = 0x54415031; // "TAP1"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int FLUSHED_OFFSET_POSITION = 8;
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final int MAX_PAYLOAD_BYTES = 1024;
+    private static final String JOURNAL_ID_FILE = "journal.id";
+    private static final TransportType[] TRANSPORT_TYPES = TransportType.values();
+
+    private final TicketUsageJdbcRepository ticketUsageJdbcRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ConcurrentLinkedDeque<Segment> segments = new ConcurrentLinkedDeque<>();
+    private final AtomicLong appendedCount = new AtomicLong();
+    private final AtomicLong flushedCount = new AtomicLong();
+
+    @Value("${app.taps.write-behind.enabled:false}")
+    private boolean writeBehindEnabled;
+
+    @Value("${app.taps.journal.dir:./data/tap-journal}")
+    private String journalDir;
+
+    @Value("${app.taps.journal.segment-size-bytes:16777216}")
+    private int segmentSizeBytes;
+
+    @Value("${app.taps.journal.flush-batch-size:5000}")
+    private int flushBatchSize;
+
+    @Value("${app.taps.journal.fsync-on-append:false}")
+    private boolean fsyncOnAppend;
+
+    private Path directory;
+    private String journalId;
+    private Segment active;
+    private long nextSequence;
+
+    public TapJournal(TicketUsageJdbcRepository ticketUsageJdbcRepository,
+                      ApplicationEventPublisher eventPublisher,
+                      PlatformTransactionManager transactionManager) {
+        this.ticketUsageJdbcRepository = ticketUsageJdbcRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Journal counters for monitoring
+     */
+    public record Stats(boolean writeBehindEnabled, int pendingSegments, long appended, long flushed) {
+    }
+
+    // ===== LIFECYCLE =====
+
+    @PostConstruct
+    public void open() throws IOException {
+        directory = Paths.get(journalDir);
+        Files.createDirectories(directory);
+        journalId = readOrCreateJournalId(directory.resolve(JOURNAL_ID_FILE));
+
+        // Anything already on disk was written by a previous run and still needs replaying
+        List<Path> existing;
+        try (Stream<Path> files = Files.list(directory)) {
+            existing = files.filter(path -> path.getFileName().toString().endsWith(".log"))
+                    .sorted()
+                    .toList();
+        }
+        for (Path path : existing) {
+            Segment segment = Segment.openExisting(path);
+            if (segment == null) {
+                log.warn("Skipping unreadable tap journal segment {}", path);
+                continue;
+            }
+            segments.add(segment);
+            nextSequence = Math.max(nextSequence, segment.sequence + 1);
+        }
+        if (!existing.isEmpty()) {
+            log.info("Replaying {} tap journal segment(s) from {}", segments.size(), directory);
+        }
+
+        if (writeBehindEnabled) {
+            active = createSegment();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+        for (Segment segment : segments) {
+            segment.force();
+        }
+    }
+
+    // ===== APPEND =====
+
+    public boolean isWriteBehindEnabled() {
+        return writeBehindEnabled;
+    }
+
+    /**
+     * Append a tap to the journal; it reaches ticket_usage on the next flush
+     */
+    public void append(TicketUsageJdbcRepository.UsageRow row) {
+        byte[] payload = encode(row);
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+
+        appendLock.lock();
+        try {
+            if (active == null || !active.hasRoomFor(payload.length)) {
+                rotate();
+            }
+            active.write(payload, (int) crc.getValue());
+            if (fsyncOnAppend) {
+                active.force();
+            }
+        } finally {
+            appendLock.unlock();
+        }
+        appendedCount.incrementAndGet();
+    }
+
+    /**
+     * Append once the surrounding transaction commits, so rolled-back taps never reach the journal
+     */
+    public void appendAfterCommit(TicketUsageJdbcRepository.UsageRow row) {
+        appendAllAfterCommit(List.of(row));
+    }
+
+    /**
+     * Append a batch of taps once the surrounding transaction commits
+     */
+    public void appendAllAfterCommit(List<TicketUsageJdbcRepository.UsageRow> rows) {
+        AfterCommit.run(() -> rows.forEach(this::append));
+    }
+
+    // ===== FLUSH =====
+
+    /**
+     * Drain journaled taps into ticket_usage in large batches
+     */
+    @Scheduled(fixedDelayString = "${app.taps.journal.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        Segment segment;
+        while ((segment = segments.peekFirst()) != null) {
+            List<TicketUsageJdbcRepository.UsageRow> batch = new ArrayList<>();
+            List<Integer> offsets = new ArrayList<>();
+            int nextOffset = segment.readBatch(batch, offsets::add, flushBatchSize);
+            List<String> keys = new ArrayList<>(offsets.size());
+            for (int offset : offsets) {
+                keys.add(keyOf(segment, offset));
+            }
+
+            if (!batch.isEmpty()) {
+                if (!insert(batch, keys)) {
+                    // Offset left where it was; the next flush retries the same records
+                    return;
+                }
+                segment.markFlushed(nextOffset);
+                flushedCount.addAndGet(batch.size());
+            }
+
+            if (segment.isDrained()) {
+                segments.pollFirst();
+                segment.delete();
+                continue;
+            }
+            if (batch.isEmpty()) {
+                // Caught up with the writer
+                return;
+            }
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(writeBehindEnabled, segments.size(), appendedCount.get(), flushedCount.get());
+    }
+
+    // ===== PRIVATE HELPER METHODS =====
+
+    /**
+     * Write a batch to ticket_usage
+     *
+     * @return false if the batch must stay in the journal and be retried
+     */
+    private boolean insert(List<TicketUsageJdbcRepository.UsageRow> batch, List<String> keys) {
+        try {
+            insertCommitted(batch, keys);
+            return true;
+        } catch (DataIntegrityViolationException batchFailure) {
+            // Isolate poison rows (e.g. a ticket deleted since the tap) so one bad tap cannot block the journal
+            log.warn("Tap journal batch of {} failed, retrying row by row: {}", batch.size(), batchFailure.getMessage());
+        } catch (RuntimeException batchFailure) {
+            log.warn("Tap journal batch of {} failed, will retry: {}", batch.size(), batchFailure.getMessage());
+            return false;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            TicketUsageJdbcRepository.UsageRow row = batch.get(i);
+            try {
+                insertCommitted(List.of(row), List.of(keys.get(i)));
+            } catch (DataIntegrityViolationException rowFailure) {
+                log.error("Dropping journaled tap for ticket {}: {}", row.ticketId(), rowFailure.getMessage());
+            } catch (RuntimeException rowFailure) {
+                // Rows already written are skipped by their key when the batch is retried
+                log.warn("Tap journal row for ticket {} failed, will retry: {}", row.ticketId(), rowFailure.getMessage());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void insertCommitted(List<TicketUsageJdbcRepository.UsageRow> rows, List<String> keys) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<TicketUsageJdbcRepository.UsageRow> inserted = ticketUsageJdbcRepository.batchInsertJournaled(rows, keys);
+            // Replayed rows were already counted when they were first inserted
+            if (!inserted.isEmpty()) {
+                eventPublisher.publishEvent(new TapsRecordedEvent(inserted));
+            }
+        });
+    }
+
+    private String keyOf(Segment segment, int offset) {
+        return journalId + ":" + segment.sequence + ":" + offset;
+    }
+
+    /**
+     * Id of a journal directory, so keys from journals on different instances never collide
+     */
+    private static String readOrCreateJournalId(Path file) throws IOException {
+        if (Files.exists(file)) {
+            return Files.readString(file, StandardCharsets.UTF_8).trim();
+        }
+        String id = UUID.randomUUID().toString();
+        Files.writeString(file, id, StandardCharsets.UTF_8, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE,
+                StandardOpenOption.SYNC);
+        return id;
+    }
+
+    private void rotate() {
+        if (active != null) {
+            active.seal();
+        }
+        active = createSegment();
+    }
+
+    private Segment createSegment() {
+        Path path = directory.resolve(String.format("segment-%020d.log", nextSequence));
+        Segment segment = Segment.create(path, nextSequence++, segmentSizeBytes);
+        segments.add(segment);
+        return segment;
+    }
+
+    private static byte[] encode(TicketUsageJdbcRepository.UsageRow row) {
+        byte[] boarding = row.boardingStop() == null ? null : row.boardingStop().getBytes(StandardCharsets.UTF_8);
+        byte[] destination = row.destinationStop() == null ? null : row.destinationStop().getBytes(StandardCharsets.UTF_8);
+
+        int size = 8 + 8 + 1 + 8
+                + 2 + (boarding == null ? 0 : boarding.length)
+                + 2 + (destination == null ? 0 : destination.length);
+        if (size > MAX_PAYLOAD_BYTES) {
+            throw new IllegalArgumentException("Tap record too large for journal: " + size + " bytes");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putLong(row.ticketId());
+        buffer.putLong(row.routeId());
+        buffer.put((byte) row.transportType().ordinal());
+        buffer.putLong(row.usedAt().toInstant(ZoneOffset.UTC).toEpochMilli());
+        putString(buffer, boarding);
+        putString(buffer, destination);
+        return buffer.array();
+    }
+
+    private static TicketUsageJdbcRepository.UsageRow decode(ByteBuffer buffer) {
+        long ticketId = buffer.getLong();
+        long routeId = buffer.getLong();
+        TransportType transportType = TRANSPORT_TYPES[buffer.get()];
+        long usedAtMillis = buffer.getLong();
+        String boarding = getString(buffer);
+        String destination = getString(buffer);
+        LocalDateTime usedAt = LocalDateTime.ofEpochSecond(
+                Math.floorDiv(usedAtMillis, 1000), Math.floorMod(usedAtMillis, 1000) * 1_000_000, ZoneOffset.UTC);
+        return new TicketUsageJdbcRepository.UsageRow(ticketId, routeId, transportType, boarding, destination, usedAt);
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+        } else {
+            buffer.putShort((short) value.length);
+            buffer.put(value);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * One memory-mapped journal file. The appender owns the write position;
+     * the flusher owns the read position and reads up to the published write position.
+     */
+    private static final class Segment {
+        final Path path;
+        final long sequence;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+
+        volatile int publishedPosition;
+        volatile boolean sealed;
+        int readPosition;
+        boolean exhausted;
+
+        private Segment(Path path, long sequence, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.sequence = sequence;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment create(Path path, long sequence, int size) {
+            try {
+                FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, FORMAT_VERSION);
+                buffer.putLong(FLUSHED_OFFSET_POSITION, HEADER_BYTES);
+                buffer.force();
+
+                Segment segment = new Segment(path, sequence, channel, buffer);
+                segment.publishedPosition = HEADER_BYTES;
+                segment.readPosition = HEADER_BYTES;
+                return segment;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot create tap journal segment " + path, e);
+            }
+        }
+
+        static Segment openExisting(Path path) {
+            try {
+                FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+                if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+                    channel.close();
+                    return null;
+                }
+
+                String name = path.getFileName().toString();
+                long sequence = Long.parseLong(name.substring("segment-".length(), name.length() - ".log".length()));
+
+                Segment segment = new Segment(path, sequence, channel, buffer);
+                segment.readPosition = (int) buffer.getLong(FLUSHED_OFFSET_POSITION);
+                segment.publishedPosition = buffer.capacity();
+                segment.sealed = true;
+                return segment;
+            } catch (IOException | RuntimeException e) {
+                return null;
+            }
+        }
+
+        boolean hasRoomFor(int payloadLength) {
+            return publishedPosition + RECORD_HEADER_BYTES + payloadLength <= buffer.capacity();
+        }
+
+        void write(byte[] payload, int crc) {
+            int position = publishedPosition;
+            buffer.put(position + RECORD_HEADER_BYTES, payload);
+            buffer.putInt(position + 4, crc);
+            // Length goes last so a reader never sees a record before its bytes are in place
+            buffer.putInt(position, payload.length);
+            publishedPosition = position + RECORD_HEADER_BYTES + payload.length;
+        }
+
+        /**
+         * Decode up to {@code max} records after the read position, passing the offset of each to {@code offsets}
+         *
+         * @return offset just past the last decoded record
+         */
+        int readBatch(List<TicketUsageJdbcRepository.UsageRow> batch, IntConsumer offsets, int max) {
+            // Read the seal flag first: once sealed, the published position is final
+            boolean wasSealed = sealed;
+            int limit = publishedPosition;
+            int position = readPosition;
+            ByteBuffer view = buffer.duplicate();
+
+            while (batch.size() < max && position + RECORD_HEADER_BYTES <= limit) {
+                int length = view.getInt(position);
+                if (length <= 0 || length > MAX_PAYLOAD_BYTES || position + RECORD_HEADER_BYTES + length > limit) {
+                    // Zeroed tail or a torn write: nothing more to read in this segment
+                    exhausted = wasSealed;
+                    break;
+                }
+
+                byte[] payload = new byte[length];
+                view.get(position + RECORD_HEADER_BYTES, payload);
+                CRC32C crc = new CRC32C();
+                crc.update(payload);
+                if ((int) crc.getValue() != view.getInt(position + 4)) {
+                    log.warn("Checksum mismatch in tap journal {} at offset {}, ignoring the rest of the segment",
+                            path.getFileName(), position);
+                    exhausted = true;
+                    break;
+                }
+
+                batch.add(decode(ByteBuffer.wrap(payload)));
+                offsets.accept(position);
+                position += RECORD_HEADER_BYTES + length;
+            }
+
+            if (wasSealed && position + RECORD_HEADER_BYTES > limit) {
+                exhausted = true;
+            }
+            return position;
+        }
+
+        void markFlushed(int offset) {
+            readPosition = offset;
+            buffer.putLong(FLUSHED_OFFSET_POSITION, offset);
+            buffer.force(0, HEADER_BYTES);
+        }
+
+        boolean isDrained() {
+            return sealed && exhausted;
+        }
+
+        void seal() {
+            force();
+            sealed = true;
+        }
+
+        void force() {
+            buffer.force();
+        }
+
+        void delete() {
+            try {
+                channel.close();
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                log.warn("Could not delete flushed tap journal segment {}", path, e);
+            }
+        }
+    }
+}
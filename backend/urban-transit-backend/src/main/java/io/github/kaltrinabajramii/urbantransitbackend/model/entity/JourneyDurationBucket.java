@@ -0,0 +1,37 @@
+package io.github.kaltrinabajramii.urbantransitbackend.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// ========== Journey Duration Bucket (journey counts per log-scaled duration bucket x overall, route or stop pair) ==========
+
+@Entity
+@Table(name = "journey_duration_bucket", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_journey_duration_bucket_scope", columnNames = {"scope", "scope_key", "bucket_index"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JourneyDurationBucket {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // ALL, ROUTE or STOP_PAIR
+    @Column(nullable = false, length = 20)
+    private String scope;
+
+    // '' for ALL, route id for ROUTE, "routeId|boardingStop|alightingStop" for STOP_PAIR
+    @Column(name = "scope_key", nullable = false, length = 230)
+    private String scopeKey;
+
+    // ceil(log_gamma(duration seconds)), see DurationSketch
+    @Column(name = "bucket_index", nullable = false)
+    private Integer bucketIndex;
+
+    @Column(name = "journey_count", nullable = false)
+    private Long journeyCount;
+}
@@ -0,0 +1,71 @@
+package io.github.kaltrinabajramii.urbantransitbackend.model.entity;
+
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.ReportJobStatus;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.ReportType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import java.time.LocalDateTime;
+
+// ========== Report Job Entity ==========
+
+@Entity
+@Table(name = "report_job", indexes = {
+        @Index(name = "idx_report_job_period", columnList = "report_type, period_start, period_end, status")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "report_type", nullable = false)
+    private ReportType reportType;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDateTime periodStart;
+
+    @Column(name = "period_end", nullable = false)
+    private LocalDateTime periodEnd;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ReportJobStatus status = ReportJobStatus.QUEUED;
+
+    // Null for jobs submitted by hand
+    @Column(name = "schedule_id")
+    private Long scheduleId;
+
+    @Column(name = "requested_by", length = 100)
+    private String requestedBy;
+
+    // Result file under app.reports.directory; shared with the job it was reused from
+    @Column(name = "result_file", length = 255)
+    private String resultFile;
+
+    @Column(name = "result_bytes")
+    private Long resultBytes;
+
+    // Earlier job of the same closed period whose result this job serves
+    @Column(name = "reused_from_job_id")
+    private Long reusedFromJobId;
+
+    @Column(name = "error_message", length = 500)
+    private String errorMessage;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,60 @@
+package io.github.kaltrinabajramii.urbantransitbackend.model.entity;
+
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.ReportFrequency;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.ReportType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// ========== Report Schedule Entity ==========
+
+@Entity
+@Table(name = "report_schedule", indexes = {
+        @Index(name = "idx_report_schedule_next_run", columnList = "active, next_run_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportSchedule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "report_type", nullable = false)
+    private ReportType reportType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ReportFrequency frequency;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "report_schedule_recipient", joinColumns = @JoinColumn(name = "schedule_id"))
+    @Column(name = "recipient", length = 255)
+    private List<String> recipients;
+
+    // Start of the next period to report on; the run is due once that period has closed
+    @Column(name = "next_period_start", nullable = false)
+    private LocalDateTime nextPeriodStart;
+
+    @Column(name = "next_run_at", nullable = false)
+    private LocalDateTime nextRunAt;
+
+    @Column(name = "last_job_id")
+    private Long lastJobId;
+
+    @Column(nullable = false)
+    private Boolean active = true;
+
+    @Column(name = "created_by", length = 100)
+    private String createdBy;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
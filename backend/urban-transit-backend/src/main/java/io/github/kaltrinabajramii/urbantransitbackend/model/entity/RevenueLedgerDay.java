@@ -0,0 +1,50 @@
+package io.github.kaltrinabajramii.urbantransitbackend.model.entity;
+
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TicketType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// ========== Revenue Ledger Day (finalized sales of one closed day x ticket type, with running totals) ==========
+
+@Entity
+@Table(name = "revenue_ledger_day", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_revenue_ledger_day_type", columnNames = {"day", "ticket_type"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevenueLedgerDay {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate day;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "ticket_type", nullable = false, length = 20)
+    private TicketType ticketType;
+
+    @Column(name = "tickets_sold", nullable = false)
+    private Long ticketsSold;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+
+    // Totals of this ticket type from the first ledger day up to and including this day
+    @Column(name = "cumulative_tickets", nullable = false)
+    private Long cumulativeTickets;
+
+    @Column(name = "cumulative_revenue", nullable = false, precision = 18, scale = 2)
+    private BigDecimal cumulativeRevenue;
+
+    @Column(name = "finalized_at", nullable = false)
+    private LocalDateTime finalizedAt;
+}
@@ -0,0 +1,39 @@
+package io.github.kaltrinabajramii.urbantransitbackend.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// ========== Rider Sketch (HyperLogLog of distinct riders per day x overall, route or transport type) ==========
+
+@Entity
+@Table(name = "rider_sketch", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_rider_sketch_day_scope", columnNames = {"day", "scope", "scope_key"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RiderSketch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate day;
+
+    // ALL, ROUTE or TRANSPORT_TYPE
+    @Column(nullable = false, length = 20)
+    private String scope;
+
+    // Route id or transport type name; '' for ALL
+    @Column(name = "scope_key", nullable = false, length = 50)
+    private String scopeKey;
+
+    // HyperLogLog registers, one byte each
+    @Column(nullable = false, columnDefinition = "bytea")
+    private byte[] registers;
+}
@@ -14,7 +14,11 @@ import java.time.LocalDateTime;
 // ========== Ticket Entity ==========
 
 @Entity
-@Table(name = "ticket")
+@Table(name = "ticket", indexes = {
+        @Index(name = "idx_ticket_status_valid_until", columnList = "status, valid_until"),
+        @Index(name = "idx_ticket_purchase_date", columnList = "purchase_date, id"),
+        @Index(name = "idx_ticket_user_purchase_date", columnList = "user_id, purchase_date, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -64,21 +68,30 @@ public class Ticket {
 
     // Helper method to check if ticket is currently valid
     public boolean isCurrentlyValid() {
-        LocalDateTime now = LocalDateTime.now();
+        return isValidAt(LocalDateTime.now());
+    }
+
+    // Helper method to check if ticket is valid at a given time
+    public boolean isValidAt(LocalDateTime time) {
         return status == TicketStatus.ACTIVE
-                && now.isAfter(validFrom)
-                && now.isBefore(validUntil)
+                && time.isAfter(validFrom)
+                && time.isBefore(validUntil)
                 && (ticketType != TicketType.RIDE || usedDate == null);
     }
 
     // Helper method to check if ticket can be used for any transit
     public boolean canBeUsedForTransit() {
+        return canBeUsedForTransitAt(LocalDateTime.now());
+    }
+
+    // Helper method to check if ticket could be used for a tap made at a given time (e.g. a tap synced later)
+    public boolean canBeUsedForTransitAt(LocalDateTime time) {
         if (ticketType == TicketType.RIDE) {
             // Single ride ticket - can only be used once
-            return isCurrentlyValid() && usedDate == null;
+            return isValidAt(time) && usedDate == null;
         } else {
             // Monthly/Yearly tickets - unlimited rides within validity period
-            return isCurrentlyValid();
+            return isValidAt(time);
         }
     }
 
@@ -11,7 +11,14 @@ import java.time.LocalDateTime;
 // ========== Ticket Usage Log (Track which routes were used) ==========
 
 @Entity
-@Table(name = "ticket_usage")
+@Table(name = "ticket_usage", indexes = {
+        @Index(name = "idx_ticket_usage_ticket_used_at", columnList = "ticket_id, used_at"),
+        @Index(name = "idx_ticket_usage_used_at", columnList = "used_at, id"),
+        @Index(name = "idx_ticket_usage_route_used_at", columnList = "route_id, used_at, id"),
+        @Index(name = "idx_ticket_usage_user_used_at", columnList = "user_id, used_at, id")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_ticket_usage_journal_key", columnNames = "journal_key")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -25,6 +32,11 @@ public class TicketUsage {
     @JoinColumn(name = "ticket_id", nullable = false)
     private Ticket ticket;
 
+    // Owner of the ticket, copied on insert so travel history range-scans (user_id, used_at) without joining ticket
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
+    private User user;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "route_id", nullable = false)
     private Route route;
@@ -42,4 +54,15 @@ public class TicketUsage {
     @CreationTimestamp
     @Column(name = "used_at", updatable = false)
     private LocalDateTime usedAt;
+
+    // Set by the tap-off that ends this journey; null while the rider is still on board
+    @Column(name = "alighting_stop", length = 100)
+    private String alightingStop;
+
+    @Column(name = "alighted_at")
+    private LocalDateTime alightedAt;
+
+    // Position of the tap in the write-behind journal, so a replayed record is not inserted twice; null otherwise
+    @Column(name = "journal_key", length = 80, updatable = false)
+    private String journalKey;
 }
\ No newline at end of file
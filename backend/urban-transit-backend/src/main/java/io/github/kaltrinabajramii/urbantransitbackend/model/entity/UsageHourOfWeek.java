@@ -0,0 +1,37 @@
+package io.github.kaltrinabajramii.urbantransitbackend.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// ========== Usage Hour-of-Week Histogram (tap counts per route or transport type x hour of week) ==========
+
+@Entity
+@Table(name = "usage_hour_of_week", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_usage_hour_of_week_scope", columnNames = {"scope", "scope_key", "hour_of_week"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UsageHourOfWeek {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // ROUTE or TRANSPORT_TYPE
+    @Column(nullable = false, length = 20)
+    private String scope;
+
+    // Route id or transport type name
+    @Column(name = "scope_key", nullable = false, length = 50)
+    private String scopeKey;
+
+    // 0 = Monday 00:00-01:00 ... 167 = Sunday 23:00-24:00
+    @Column(name = "hour_of_week", nullable = false)
+    private Integer hourOfWeek;
+
+    @Column(name = "tap_count", nullable = false)
+    private Long tapCount;
+}
@@ -0,0 +1,36 @@
+package io.github.kaltrinabajramii.urbantransitbackend.model.entity;
+
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TransportType;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+// ========== Usage Rollup (tap counts per time bucket x route x transport type x boarding stop) ==========
+
+@MappedSuperclass
+@Data
+@NoArgsConstructor
+public abstract class UsageRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "route_id", nullable = false)
+    private Long routeId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "transport_type", nullable = false)
+    private TransportType transportType;
+
+    // Empty string when the tap carried no boarding stop, so the unique key never contains NULL
+    @Column(name = "boarding_stop", nullable = false, length = 100)
+    private String boardingStop;
+
+    @Column(name = "tap_count", nullable = false)
+    private Long tapCount;
+}
@@ -0,0 +1,17 @@
+package io.github.kaltrinabajramii.urbantransitbackend.model.entity;
+
+import jakarta.persistence.*;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+// ========== Per-Minute Usage Rollup ==========
+
+@Entity
+@Table(name = "usage_rollup_minute", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_usage_rollup_minute_bucket",
+                columnNames = {"bucket_start", "route_id", "transport_type", "boarding_stop"})
+})
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class UsageRollupMinute extends UsageRollup {
+}
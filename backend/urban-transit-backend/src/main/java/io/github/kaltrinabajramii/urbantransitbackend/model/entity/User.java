@@ -11,7 +11,9 @@ import java.util.List;
 // ========== User Entity ==========
 
 @Entity
-@Table(name = "app_user")
+@Table(name = "app_user", indexes = {
+        @Index(name = "idx_app_user_active_created_at", columnList = "active, created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
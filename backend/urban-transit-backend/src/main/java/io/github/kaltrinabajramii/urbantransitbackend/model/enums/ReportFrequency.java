@@ -0,0 +1,46 @@
+package io.github.kaltrinabajramii.urbantransitbackend.model.enums;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * How often a scheduled report runs; each run covers the last full period before it
+ */
+public enum ReportFrequency {
+    DAILY("Daily - covers the previous day"),
+    WEEKLY("Weekly - covers the previous Monday to Sunday"),
+    MONTHLY("Monthly - covers the previous calendar month");
+
+    private final String description;
+
+    ReportFrequency(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Start of the period containing a date
+     */
+    public LocalDate periodStart(LocalDate date) {
+        return switch (this) {
+            case DAILY -> date;
+            case WEEKLY -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTHLY -> date.withDayOfMonth(1);
+        };
+    }
+
+    /**
+     * Start of the period after the one starting at periodStart
+     */
+    public LocalDate nextPeriodStart(LocalDate periodStart) {
+        return switch (this) {
+            case DAILY -> periodStart.plusDays(1);
+            case WEEKLY -> periodStart.plusWeeks(1);
+            case MONTHLY -> periodStart.plusMonths(1);
+        };
+    }
+}
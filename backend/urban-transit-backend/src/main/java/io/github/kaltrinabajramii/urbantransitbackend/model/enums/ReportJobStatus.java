@@ -0,0 +1,18 @@
+package io.github.kaltrinabajramii.urbantransitbackend.model.enums;
+
+public enum ReportJobStatus {
+    QUEUED("Queued - waiting for a report worker"),
+    RUNNING("Running - being computed"),
+    COMPLETED("Completed - result ready for download"),
+    FAILED("Failed - see the error message");
+
+    private final String description;
+
+    ReportJobStatus(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
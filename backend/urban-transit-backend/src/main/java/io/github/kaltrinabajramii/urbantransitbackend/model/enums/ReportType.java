@@ -0,0 +1,18 @@
+package io.github.kaltrinabajramii.urbantransitbackend.model.enums;
+
+public enum ReportType {
+    REVENUE("Revenue - ticket sales totals for the period"),
+    USAGE("Usage - tap totals for the period"),
+    SALES_BY_TICKET_TYPE("Sales by ticket type - tickets sold and revenue per type"),
+    ROUTE_USAGE("Route usage - taps per route for the period");
+
+    private final String description;
+
+    ReportType(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,25 @@
+package io.github.kaltrinabajramii.urbantransitbackend.model.enums;
+
+/**
+ * Attributes ad-hoc usage queries can group taps by
+ */
+public enum UsageDimension {
+    ROUTE("Route"),
+    TRANSPORT_TYPE("Transport type"),
+    TICKET_TYPE("Ticket type"),
+    BOARDING_STOP("Boarding stop"),
+    DESTINATION_STOP("Destination stop"),
+    HOUR_OF_DAY("Hour of day"),
+    DAY_OF_WEEK("Day of week"),
+    DATE("Date");
+
+    private final String displayName;
+
+    UsageDimension(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -0,0 +1,21 @@
+package io.github.kaltrinabajramii.urbantransitbackend.model.enums;
+
+/**
+ * Rolling windows the in-memory usage rankings are kept for
+ */
+public enum UsageWindow {
+    LAST_HOUR("Last hour"),
+    TODAY("Today"),
+    LAST_7_DAYS("Last 7 days"),
+    ALL_TIME("All time");
+
+    private final String displayName;
+
+    UsageWindow(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
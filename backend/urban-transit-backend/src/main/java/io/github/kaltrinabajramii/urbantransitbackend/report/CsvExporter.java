@@ -0,0 +1,84 @@
+package io.github.kaltrinabajramii.urbantransitbackend.report;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Turns a streaming JDBC query into a downloadable CSV response.
+ * Rows are written as they arrive from the cursor, so memory use does not depend on the extract size.
+ */
+@Component
+@RequiredArgsConstructor
+public class CsvExporter {
+
+    private static final int CSV_BUFFER_BYTES = 64 * 1024;
+
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Response whose body streams rows into a CSV file; every column is written as text in query order.
+     * The body runs after the caller returns, so it reads in its own read-only transaction.
+     */
+    public ResponseEntity<StreamingResponseBody> export(String name, boolean gzip, String header,
+                                                        Consumer<RowCallbackHandler> query) {
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+
+        StreamingResponseBody body = outputStream -> {
+            OutputStream target = gzip ? new GZIPOutputStream(outputStream, CSV_BUFFER_BYTES) : outputStream;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), CSV_BUFFER_BYTES);
+            writer.write(header);
+            readOnlyTransaction.executeWithoutResult(status -> query.accept(rs -> {
+                try {
+                    int columns = rs.getMetaData().getColumnCount();
+                    for (int column = 1; column <= columns; column++) {
+                        if (column > 1) {
+                            writer.write(',');
+                        }
+                        writer.write(csvField(rs.getObject(column)));
+                    }
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+            // Closing the writer finishes the gzip trailer
+            writer.close();
+        };
+
+        String fileName = name + "-" + LocalDate.now() + (gzip ? ".csv.gz" : ".csv");
+        return ResponseEntity.ok()
+                .header("Content-Disposition", "attachment; filename=" + fileName)
+                .contentType(gzip ? MediaType.parseMediaType("application/gzip") : MediaType.parseMediaType("text/csv"))
+                .body(body);
+    }
+
+    private String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value instanceof Timestamp timestamp ? timestamp.toLocalDateTime().toString() : value.toString();
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
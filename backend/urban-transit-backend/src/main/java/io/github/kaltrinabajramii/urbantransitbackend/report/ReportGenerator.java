@@ -0,0 +1,86 @@
+package io.github.kaltrinabajramii.urbantransitbackend.report;
+
+import io.github.kaltrinabajramii.urbantransitbackend.analytics.RevenueLedger;
+import io.github.kaltrinabajramii.urbantransitbackend.analytics.UsageRollups;
+import io.github.kaltrinabajramii.urbantransitbackend.model.entity.Route;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.ReportType;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TicketType;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.RouteRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Computes the content of one report for a period [periodStart, periodEnd).
+ * Reports are plain maps so they can be written as JSON files as they are.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReportGenerator {
+
+    private final RouteRepository routeRepository;
+    private final UsageRollups usageRollups;
+    private final RevenueLedger revenueLedger;
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> generate(ReportType reportType, LocalDateTime periodStart, LocalDateTime periodEnd) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("reportType", reportType);
+        report.put("periodStart", periodStart);
+        report.put("periodEnd", periodEnd);
+        report.put("generatedAt", LocalDateTime.now());
+
+        switch (reportType) {
+            case REVENUE -> {
+                RevenueLedger.Sales sales = revenueLedger.sales(periodStart, periodEnd);
+                report.put("ticketsSold", sales.tickets());
+                report.put("totalRevenue", sales.revenue());
+            }
+            case USAGE -> report.put("totalUsage", usageRollups.countTaps(periodStart, periodEnd));
+            case SALES_BY_TICKET_TYPE -> {
+                List<Map<String, Object>> rows = new ArrayList<>();
+                revenueLedger.salesByType(periodStart, periodEnd).forEach((type, sales) ->
+                        rows.add(salesRow(type, sales.tickets(), sales.revenue())));
+                report.put("sales", rows);
+            }
+            case ROUTE_USAGE -> {
+                Map<Long, Long> taps = usageRollups.tapsByRoute(periodStart, periodEnd);
+                Map<Long, Route> routes = routeRepository.findAllById(taps.keySet()).stream()
+                        .collect(Collectors.toMap(Route::getId, Function.identity()));
+                List<Map<String, Object>> rows = new ArrayList<>();
+                taps.entrySet().stream()
+                        .sorted(Map.Entry.<Long, Long>comparingByValue().reversed())
+                        .forEach(entry -> {
+                            Route route = routes.get(entry.getKey());
+                            Map<String, Object> row = new LinkedHashMap<>();
+                            row.put("routeId", entry.getKey());
+                            row.put("routeName", route != null ? route.getRouteName() : null);
+                            row.put("transportType", route != null ? route.getTransportType() : null);
+                            row.put("taps", entry.getValue());
+                            rows.add(row);
+                        });
+                report.put("routes", rows);
+            }
+        }
+        return report;
+    }
+
+    // ===== PRIVATE HELPER METHODS =====
+
+    private static Map<String, Object> salesRow(TicketType type, long tickets, BigDecimal revenue) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("ticketType", type);
+        row.put("ticketsSold", tickets);
+        row.put("revenue", revenue);
+        return row;
+    }
+}
@@ -0,0 +1,255 @@
+package io.github.kaltrinabajramii.urbantransitbackend.report;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.kaltrinabajramii.urbantransitbackend.model.entity.ReportJob;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.ReportJobStatus;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.ReportJobRepository;
+import io.github.kaltrinabajramii.urbantransitbackend.util.AfterCommit;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs report jobs on a small dedicated pool, away from the request threads.
+ *
+ * Jobs are rows in report_job. A job is handed to the pool after the transaction that
+ * created it commits; the pool's queue is bounded, and jobs it cannot take stay QUEUED until
+ * the periodic dispatch finds room, which also picks up jobs queued on other instances or
+ * before a restart. A worker first claims its job with a conditional update, so each job runs
+ * once even when several instances dispatch it.
+ *
+ * Results are written as JSON files under app.reports.directory. A job for a period that had
+ * closed (plus a grace period for late taps) by the time an earlier job of the same report
+ * started is served from that earlier result instead of being recomputed.
+ */
+@Component
+@Slf4j
+public class ReportJobRunner {
+
+    private final ReportJobRepository reportJobRepository;
+    private final ReportGenerator reportGenerator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate jobTransaction;
+    private final ThreadPoolExecutor executor;
+    private final Path directory;
+    private final Duration closedPeriodGrace;
+    private final Duration jobTimeout;
+
+    // Jobs handed to the pool by this instance and not finished yet
+    private final Set<Long> dispatched = ConcurrentHashMap.newKeySet();
+
+    public ReportJobRunner(ReportJobRepository reportJobRepository,
+                           ReportGenerator reportGenerator,
+                           ObjectMapper objectMapper,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${app.reports.worker-threads:2}") int workerThreads,
+                           @Value("${app.reports.queue-capacity:50}") int queueCapacity,
+                           @Value("${app.reports.directory:reports}") String directory,
+                           @Value("${app.reports.closed-period-grace-minutes:60}") long closedPeriodGraceMinutes,
+                           @Value("${app.reports.job-timeout-minutes:30}") long jobTimeoutMinutes) {
+        this.reportJobRepository = reportJobRepository;
+        this.reportGenerator = reportGenerator;
+        this.objectMapper = objectMapper;
+        this.jobTransaction = new TransactionTemplate(transactionManager);
+        // Job state changes commit on their own, whatever the caller is doing
+        this.jobTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.directory = Paths.get(directory).toAbsolutePath();
+        this.closedPeriodGrace = Duration.ofMinutes(closedPeriodGraceMinutes);
+        this.jobTimeout = Duration.ofMinutes(jobTimeoutMinutes);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "report-worker-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * When a period ending at {@code periodEnd} counts as closed: late taps and rollups have
+     * settled and its result can be reused - scheduled runs are due from then on
+     */
+    public LocalDateTime closedAt(LocalDateTime periodEnd) {
+        return periodEnd.plus(closedPeriodGrace);
+    }
+
+    // ===== DISPATCH =====
+
+    /**
+     * Whether the pool's queue has room for another job right now
+     */
+    public boolean hasCapacity() {
+        return executor.getQueue().remainingCapacity() > 0;
+    }
+
+    /**
+     * Hand a job to the pool once the current transaction commits; a full pool leaves it for the next dispatch
+     */
+    public void dispatchAfterCommit(long jobId) {
+        AfterCommit.run(() -> dispatch(jobId));
+    }
+
+    /**
+     * Requeue jobs whose worker died and hand queued jobs to the pool while it has room
+     */
+    @Scheduled(fixedDelayString = "${app.reports.dispatch-interval-ms:15000}",
+            initialDelayString = "${app.reports.dispatch-interval-ms:15000}")
+    public void dispatchQueued() {
+        try {
+            Integer requeued = jobTransaction.execute(status -> reportJobRepository.requeueStale(
+                    ReportJobStatus.QUEUED, ReportJobStatus.RUNNING, LocalDateTime.now().minus(jobTimeout)));
+            if (requeued != null && requeued > 0) {
+                log.warn("Requeued {} report jobs that ran longer than {}", requeued, jobTimeout);
+            }
+
+            int room = executor.getQueue().remainingCapacity();
+            if (room == 0) {
+                return;
+            }
+            for (Long jobId : reportJobRepository.findIdsByStatus(ReportJobStatus.QUEUED,
+                    PageRequest.of(0, room + dispatched.size()))) {
+                if (!dispatched.contains(jobId) && !dispatch(jobId)) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Dispatching report jobs failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // ===== RESULTS =====
+
+    /**
+     * Result file of a completed job, if it is still on disk
+     */
+    public Optional<Path> resultFile(ReportJob job) {
+        if (job.getStatus() != ReportJobStatus.COMPLETED || job.getResultFile() == null) {
+            return Optional.empty();
+        }
+        Path file = directory.resolve(job.getResultFile());
+        return Files.isReadable(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    // ===== PRIVATE HELPER METHODS =====
+
+    private boolean dispatch(long jobId) {
+        if (!dispatched.add(jobId)) {
+            return true;
+        }
+        try {
+            executor.execute(() -> run(jobId));
+            return true;
+        } catch (RejectedExecutionException e) {
+            dispatched.remove(jobId);
+            return false;
+        }
+    }
+
+    private void run(long jobId) {
+        try {
+            LocalDateTime startedAt = LocalDateTime.now();
+            Integer claimed = jobTransaction.execute(status -> reportJobRepository.claim(
+                    jobId, ReportJobStatus.QUEUED, ReportJobStatus.RUNNING, startedAt));
+            if (claimed == null || claimed == 0) {
+                return;
+            }
+
+            ReportJob job = reportJobRepository.findById(jobId).orElse(null);
+            if (job == null) {
+                return;
+            }
+            try {
+                if (!reuseClosedPeriod(job, startedAt)) {
+                    Map<String, Object> report = reportGenerator.generate(
+                            job.getReportType(), job.getPeriodStart(), job.getPeriodEnd());
+                    String fileName = "report-" + job.getId() + ".json";
+                    long bytes = write(fileName, report);
+                    job.setResultFile(fileName);
+                    job.setResultBytes(bytes);
+                }
+                job.setStatus(ReportJobStatus.COMPLETED);
+            } catch (RuntimeException e) {
+                log.warn("Report job {} failed: {}", jobId, e.getMessage());
+                job.setStatus(ReportJobStatus.FAILED);
+                job.setErrorMessage(truncate(e.getMessage()));
+            }
+            job.setCompletedAt(LocalDateTime.now());
+            jobTransaction.executeWithoutResult(status -> reportJobRepository.save(job));
+        } finally {
+            dispatched.remove(jobId);
+        }
+    }
+
+    /**
+     * Point the job at an earlier result of the same closed period, if one is still on disk
+     */
+    private boolean reuseClosedPeriod(ReportJob job, LocalDateTime startedAt) {
+        LocalDateTime closedAt = closedAt(job.getPeriodEnd());
+        if (startedAt.isBefore(closedAt)) {
+            return false;
+        }
+        for (ReportJob earlier : reportJobRepository.findReusableResults(job.getReportType(), job.getPeriodStart(),
+                job.getPeriodEnd(), ReportJobStatus.COMPLETED, closedAt, PageRequest.of(0, 5))) {
+            if (resultFile(earlier).isPresent()) {
+                job.setResultFile(earlier.getResultFile());
+                job.setResultBytes(earlier.getResultBytes());
+                job.setReusedFromJobId(earlier.getId());
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Write through a temporary file so a download never sees a partial result
+     */
+    private long write(String fileName, Map<String, Object> report) {
+        try {
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, fileName, ".tmp");
+            objectMapper.writeValue(temporary.toFile(), report);
+            Path target = directory.resolve(fileName);
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return Files.size(target);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+}
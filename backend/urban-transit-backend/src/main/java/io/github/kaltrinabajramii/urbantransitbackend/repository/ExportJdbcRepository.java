@@ -0,0 +1,92 @@
+package io.github.kaltrinabajramii.urbantransitbackend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plain JDBC reads of raw tickets and taps for CSV extracts.
+ * Rows are handed to the caller one at a time from a forward-only cursor with a fixed fetch size,
+ * so memory use does not depend on the date range. PostgreSQL only uses a server-side cursor
+ * inside a transaction; callers must run these in one.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ExportJdbcRepository {
+
+    private static final String TICKETS_SQL =
+            "SELECT id, ticket_number, user_id, ticket_type, price, status, purchase_date, valid_from, valid_until, used_date " +
+            "FROM ticket";
+
+    private static final String USAGE_SQL =
+            "SELECT tu.id, tu.ticket_id, t.ticket_number, tu.route_id, tu.transport_type, tu.boarding_stop, tu.destination_stop, " +
+            "tu.used_at, tu.alighting_stop, tu.alighted_at " +
+            "FROM ticket_usage tu JOIN ticket t ON t.id = tu.ticket_id";
+
+    // Follows idx_ticket_usage_user_used_at, so the rows come off the index already in order
+    private static final String USER_USAGE_SQL =
+            USAGE_SQL + " WHERE tu.user_id = ? AND tu.used_at >= ? AND tu.used_at < ? ORDER BY tu.used_at, tu.id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.export.fetch-size:1000}")
+    private int fetchSize;
+
+    /**
+     * Stream tickets purchased in [from, to), either bound optional, in id order - used for the ticket extract
+     */
+    public void streamTickets(LocalDateTime from, LocalDateTime to, RowCallbackHandler handler) {
+        stream(TICKETS_SQL, "purchase_date", from, to, "id", handler);
+    }
+
+    /**
+     * Stream taps made in [from, to), either bound optional, in id order - used for the usage extract
+     */
+    public void streamUsage(LocalDateTime from, LocalDateTime to, RowCallbackHandler handler) {
+        stream(USAGE_SQL, "tu.used_at", from, to, "tu.id", handler);
+    }
+
+    /**
+     * Stream one user's taps made in [from, to) in time order - used for the travel history extract
+     */
+    public void streamUserUsage(long userId, LocalDateTime from, LocalDateTime to, RowCallbackHandler handler) {
+        stream(USER_USAGE_SQL, List.of(userId, Timestamp.valueOf(from), Timestamp.valueOf(to)), handler);
+    }
+
+    private void stream(String select, String timeColumn, LocalDateTime from, LocalDateTime to,
+                        String idColumn, RowCallbackHandler handler) {
+        StringBuilder sql = new StringBuilder(select);
+        List<Object> parameters = new ArrayList<>(2);
+        if (from != null) {
+            sql.append(" WHERE ").append(timeColumn).append(" >= ?");
+            parameters.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(parameters.isEmpty() ? " WHERE " : " AND ").append(timeColumn).append(" < ?");
+            parameters.add(Timestamp.valueOf(to));
+        }
+        sql.append(" ORDER BY ").append(idColumn);
+        stream(sql.toString(), parameters, handler);
+    }
+
+    private void stream(String sql, List<Object> parameters, RowCallbackHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            for (int i = 0; i < parameters.size(); i++) {
+                statement.setObject(i + 1, parameters.get(i));
+            }
+            return statement;
+        }, handler);
+    }
+}
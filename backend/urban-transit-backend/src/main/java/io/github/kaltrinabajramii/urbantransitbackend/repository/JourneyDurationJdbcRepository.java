@@ -0,0 +1,87 @@
+package io.github.kaltrinabajramii.urbantransitbackend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Plain JDBC access to journey_duration_bucket, which holds the persisted journey duration sketches.
+ */
+@Repository
+@RequiredArgsConstructor
+public class JourneyDurationJdbcRepository {
+
+    private static final String ADD_COUNT_SQL =
+            "INSERT INTO journey_duration_bucket (scope, scope_key, bucket_index, journey_count) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (scope, scope_key, bucket_index) DO UPDATE SET journey_count = journey_duration_bucket.journey_count + EXCLUDED.journey_count";
+
+    private static final String FIND_ALL_SQL =
+            "SELECT scope, scope_key, bucket_index, journey_count FROM journey_duration_bucket";
+
+    // Same bucketing as DurationSketch.bucketIndex; the parameter is ln(gamma)
+    private static final String BUCKET_EXPR =
+            "CAST(CEIL(LN(GREATEST(EXTRACT(EPOCH FROM (alighted_at - used_at)), 1)) / ?) AS INTEGER)";
+
+    private static final String COMPLETED_JOURNEYS =
+            "FROM ticket_usage WHERE alighted_at IS NOT NULL AND alighted_at >= used_at ";
+
+    private static final String BACKFILL_SQL =
+            "INSERT INTO journey_duration_bucket (scope, scope_key, bucket_index, journey_count) " +
+            "SELECT * FROM (" +
+            "SELECT 'ALL', '', " + BUCKET_EXPR + ", COUNT(*) " + COMPLETED_JOURNEYS + "GROUP BY 2, 3 " +
+            "UNION ALL " +
+            "SELECT 'ROUTE', CAST(route_id AS VARCHAR), " + BUCKET_EXPR + ", COUNT(*) " + COMPLETED_JOURNEYS + "GROUP BY 2, 3 " +
+            "UNION ALL " +
+            "SELECT 'STOP_PAIR', CAST(route_id AS VARCHAR) || '|' || boarding_stop || '|' || COALESCE(alighting_stop, destination_stop), " +
+            BUCKET_EXPR + ", COUNT(*) " + COMPLETED_JOURNEYS +
+            "AND boarding_stop IS NOT NULL AND COALESCE(alighting_stop, destination_stop) IS NOT NULL GROUP BY 2, 3" +
+            ") buckets " +
+            "ON CONFLICT (scope, scope_key, bucket_index) DO UPDATE SET journey_count = EXCLUDED.journey_count";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Change of one bucket of one sketch
+     */
+    public record BucketDelta(String scope, String scopeKey, int bucketIndex, long journeys) {
+    }
+
+    /**
+     * Add counts to buckets, creating them as needed - used for periodic persistence
+     */
+    public void addCounts(List<BucketDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(ADD_COUNT_SQL, deltas, deltas.size(), (ps, delta) -> {
+            ps.setString(1, delta.scope());
+            ps.setString(2, delta.scopeKey());
+            ps.setInt(3, delta.bucketIndex());
+            ps.setLong(4, delta.journeys());
+        });
+    }
+
+    /**
+     * Load every bucket - used to (re)load the in-memory sketches
+     */
+    public List<BucketDelta> findAll() {
+        return jdbcTemplate.query(FIND_ALL_SQL, (rs, rowNum) -> new BucketDelta(
+                rs.getString(1), rs.getString(2), rs.getInt(3), rs.getLong(4)));
+    }
+
+    /**
+     * Compute all sketches from completed journeys in ticket_usage - used once when the table is first created
+     */
+    public int backfillFromUsage(double logGamma) {
+        return jdbcTemplate.update(BACKFILL_SQL, logGamma, logGamma, logGamma);
+    }
+
+    /**
+     * Check whether any bucket has been persisted - used to decide on the backfill
+     */
+    public boolean isEmpty() {
+        return jdbcTemplate.queryForList("SELECT 1 FROM journey_duration_bucket LIMIT 1", Integer.class).isEmpty();
+    }
+}
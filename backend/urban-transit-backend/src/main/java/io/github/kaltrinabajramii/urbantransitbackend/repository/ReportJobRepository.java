@@ -0,0 +1,70 @@
+package io.github.kaltrinabajramii.urbantransitbackend.repository;
+
+import io.github.kaltrinabajramii.urbantransitbackend.model.entity.ReportJob;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.ReportJobStatus;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.ReportType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ReportJobRepository extends JpaRepository<ReportJob, Long> {
+
+    // ===== JOB DISPATCH (Required for the report workers) =====
+
+    /**
+     * Find ids of jobs in a status, oldest first - used to dispatch queued jobs
+     */
+    @Query("SELECT j.id FROM ReportJob j WHERE j.status = :status ORDER BY j.id")
+    List<Long> findIdsByStatus(@Param("status") ReportJobStatus status, Pageable pageable);
+
+    /**
+     * Take a queued job for this worker unless another worker already has - used so a job runs once
+     */
+    @Modifying
+    @Query("UPDATE ReportJob j SET j.status = :running, j.startedAt = :now " +
+            "WHERE j.id = :id AND j.status = :queued")
+    int claim(@Param("id") Long id,
+              @Param("queued") ReportJobStatus queued,
+              @Param("running") ReportJobStatus running,
+              @Param("now") LocalDateTime now);
+
+    /**
+     * Put jobs that have been running too long back in the queue - used to recover jobs of a crashed worker
+     */
+    @Modifying
+    @Query("UPDATE ReportJob j SET j.status = :queued, j.startedAt = NULL " +
+            "WHERE j.status = :running AND j.startedAt < :startedBefore")
+    int requeueStale(@Param("queued") ReportJobStatus queued,
+                     @Param("running") ReportJobStatus running,
+                     @Param("startedBefore") LocalDateTime startedBefore);
+
+    // ===== RESULT REUSE (Required for closed periods) =====
+
+    /**
+     * Find completed jobs of a report and period computed after the given time, latest first -
+     * used to serve a closed period from an earlier result
+     */
+    @Query("SELECT j FROM ReportJob j WHERE j.reportType = :reportType AND j.periodStart = :periodStart " +
+            "AND j.periodEnd = :periodEnd AND j.status = :completed AND j.reusedFromJobId IS NULL " +
+            "AND j.startedAt >= :startedAfter ORDER BY j.completedAt DESC")
+    List<ReportJob> findReusableResults(@Param("reportType") ReportType reportType,
+                                        @Param("periodStart") LocalDateTime periodStart,
+                                        @Param("periodEnd") LocalDateTime periodEnd,
+                                        @Param("completed") ReportJobStatus completed,
+                                        @Param("startedAfter") LocalDateTime startedAfter,
+                                        Pageable pageable);
+
+    // ===== JOB HISTORY =====
+
+    /**
+     * Find the latest jobs of a schedule - used to list a schedule's runs
+     */
+    List<ReportJob> findByScheduleIdOrderByIdDesc(Long scheduleId, Pageable pageable);
+}
@@ -0,0 +1,37 @@
+package io.github.kaltrinabajramii.urbantransitbackend.repository;
+
+import io.github.kaltrinabajramii.urbantransitbackend.model.entity.ReportSchedule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ReportScheduleRepository extends JpaRepository<ReportSchedule, Long> {
+
+    /**
+     * Find active schedules whose next run is due - used by the report schedule job
+     */
+    List<ReportSchedule> findByActiveTrueAndNextRunAtLessThanEqualOrderByNextRunAtAsc(LocalDateTime now);
+
+    /**
+     * Find active schedules - used to list schedules
+     */
+    List<ReportSchedule> findByActiveTrueOrderByIdAsc();
+
+    /**
+     * Move a schedule to its next period unless another instance already did - used so each period is reported once
+     */
+    @Modifying
+    @Query("UPDATE ReportSchedule s SET s.nextPeriodStart = :nextPeriodStart, s.nextRunAt = :nextRunAt, " +
+            "s.lastJobId = :jobId WHERE s.id = :id AND s.nextRunAt = :expectedRunAt AND s.active = true")
+    int advance(@Param("id") Long id,
+                @Param("expectedRunAt") LocalDateTime expectedRunAt,
+                @Param("nextPeriodStart") LocalDateTime nextPeriodStart,
+                @Param("nextRunAt") LocalDateTime nextRunAt,
+                @Param("jobId") Long jobId);
+}
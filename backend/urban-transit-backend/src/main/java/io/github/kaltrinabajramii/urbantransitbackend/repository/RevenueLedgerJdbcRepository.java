@@ -0,0 +1,88 @@
+package io.github.kaltrinabajramii.urbantransitbackend.repository;
+
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TicketType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Plain JDBC access to revenue_ledger_day, which holds the finalized sales of closed days.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RevenueLedgerJdbcRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO revenue_ledger_day (day, ticket_type, tickets_sold, revenue, cumulative_tickets, cumulative_revenue, finalized_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?) ON CONFLICT (day, ticket_type) DO NOTHING";
+
+    private static final String FIND_FROM_SQL =
+            "SELECT day, ticket_type, tickets_sold, revenue, cumulative_tickets, cumulative_revenue " +
+            "FROM revenue_ledger_day WHERE day >= ? ORDER BY day, ticket_type";
+
+    private static final String SALES_PER_DAY_SQL =
+            "SELECT CAST(purchase_date AS DATE), ticket_type, COUNT(*), COALESCE(SUM(price), 0) FROM ticket " +
+            "WHERE purchase_date >= ? AND purchase_date < ? GROUP BY 1, 2";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * One ticket type on one day; the cumulative fields are null for raw sales
+     */
+    public record DaySales(LocalDate day, TicketType ticketType, long ticketsSold, BigDecimal revenue,
+                           Long cumulativeTickets, BigDecimal cumulativeRevenue) {
+    }
+
+    /**
+     * Add finalized days; rows another instance finalized first are left as they are
+     */
+    public void insertDays(List<DaySales> days, LocalDateTime finalizedAt) {
+        if (days.isEmpty()) {
+            return;
+        }
+        Timestamp finalized = Timestamp.valueOf(finalizedAt);
+        jdbcTemplate.batchUpdate(INSERT_SQL, days, 1000, (ps, day) -> {
+            ps.setDate(1, Date.valueOf(day.day()));
+            ps.setString(2, day.ticketType().name());
+            ps.setLong(3, day.ticketsSold());
+            ps.setBigDecimal(4, day.revenue());
+            ps.setLong(5, day.cumulativeTickets());
+            ps.setBigDecimal(6, day.cumulativeRevenue());
+            ps.setTimestamp(7, finalized);
+        });
+    }
+
+    /**
+     * Load finalized days from a day on, in day order - used to (re)load the in-memory ledger
+     */
+    public List<DaySales> findFrom(LocalDate from) {
+        return jdbcTemplate.query(FIND_FROM_SQL, (rs, rowNum) -> new DaySales(
+                rs.getDate(1).toLocalDate(), TicketType.valueOf(rs.getString(2)), rs.getLong(3),
+                rs.getBigDecimal(4), rs.getLong(5), rs.getBigDecimal(6)), Date.valueOf(from));
+    }
+
+    /**
+     * Group raw ticket sales by purchase day and ticket type for [from, to) - used to finalize days
+     */
+    public List<DaySales> sumSalesPerDay(LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(SALES_PER_DAY_SQL, (rs, rowNum) -> new DaySales(
+                rs.getDate(1).toLocalDate(), TicketType.valueOf(rs.getString(2)), rs.getLong(3),
+                rs.getBigDecimal(4), null, null),
+                Timestamp.valueOf(from.atStartOfDay()), Timestamp.valueOf(to.atStartOfDay()));
+    }
+
+    /**
+     * Day of the first ticket ever sold - where a new ledger starts
+     */
+    public LocalDate findFirstPurchaseDay() {
+        Date day = jdbcTemplate.queryForObject("SELECT CAST(MIN(purchase_date) AS DATE) FROM ticket", Date.class);
+        return day != null ? day.toLocalDate() : null;
+    }
+}
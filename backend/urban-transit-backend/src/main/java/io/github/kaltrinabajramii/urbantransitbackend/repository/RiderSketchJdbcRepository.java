@@ -0,0 +1,175 @@
+package io.github.kaltrinabajramii.urbantransitbackend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Plain JDBC access to rider_sketch, which holds one HyperLogLog register array per day and scope.
+ * Registers are merged in Java (register-wise max), so writes lock the rows they merge into.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RiderSketchJdbcRepository {
+
+    private static final String COLUMNS = "day, scope, scope_key, registers";
+
+    private static final String INSERT_IF_ABSENT_SQL =
+            "INSERT INTO rider_sketch (" + COLUMNS + ") VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (day, scope, scope_key) DO NOTHING";
+
+    private static final String LOCK_DAYS_SQL =
+            "SELECT " + COLUMNS + " FROM rider_sketch WHERE day >= ? AND day <= ? ORDER BY id FOR UPDATE";
+
+    private static final String UPDATE_SQL =
+            "UPDATE rider_sketch SET registers = ? WHERE day = ? AND scope = ? AND scope_key = ?";
+
+    private static final String FIND_SINCE_SQL =
+            "SELECT " + COLUMNS + " FROM rider_sketch WHERE day >= ?";
+
+    private static final String FIND_RANGE_SQL =
+            "SELECT " + COLUMNS + " FROM rider_sketch WHERE scope = ? AND day >= ? AND day <= ?";
+
+    private static final String DISTINCT_TAP_RIDERS_SQL =
+            "SELECT DISTINCT CAST(u.used_at AS DATE), u.route_id, u.transport_type, t.user_id " +
+            "FROM ticket_usage u JOIN ticket t ON t.id = u.ticket_id WHERE u.used_at >= ?";
+
+    private static final String DISTINCT_BUYERS_SQL =
+            "SELECT DISTINCT CAST(purchase_date AS DATE), user_id FROM ticket WHERE purchase_date >= ?";
+
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * One stored sketch
+     */
+    public record SketchRow(LocalDate day, String scope, String scopeKey, byte[] registers) {
+    }
+
+    /**
+     * One distinct (day, route, rider) triple of ticket_usage
+     */
+    public record TapRider(LocalDate day, long routeId, String transportType, long userId) {
+    }
+
+    /**
+     * One distinct (day, buyer) pair of ticket
+     */
+    public record Buyer(LocalDate day, long userId) {
+    }
+
+    // ===== WRITES =====
+
+    /**
+     * Insert sketches whose row does not exist yet - first step of merging sketches into the table
+     */
+    public void insertIfAbsent(List<SketchRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_IF_ABSENT_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setDate(1, Date.valueOf(row.day()));
+            ps.setString(2, row.scope());
+            ps.setString(3, row.scopeKey());
+            ps.setBytes(4, row.registers());
+        });
+    }
+
+    /**
+     * Lock and load every sketch of the days in [from, to], in id order so concurrent writers
+     * queue up instead of deadlocking - used to merge in-memory sketches with stored ones
+     */
+    public List<SketchRow> lockDays(LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(LOCK_DAYS_SQL, (rs, rowNum) -> mapRow(rs), Date.valueOf(from), Date.valueOf(to));
+    }
+
+    /**
+     * Overwrite the registers of existing sketches - used after merging
+     */
+    public void updateRegisters(List<SketchRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPDATE_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setBytes(1, row.registers());
+            ps.setDate(2, Date.valueOf(row.day()));
+            ps.setString(3, row.scope());
+            ps.setString(4, row.scopeKey());
+        });
+    }
+
+    // ===== READS =====
+
+    /**
+     * Load every sketch from a day on - used to fill the in-memory window
+     */
+    public List<SketchRow> findSince(LocalDate from) {
+        return jdbcTemplate.query(FIND_SINCE_SQL, (rs, rowNum) -> mapRow(rs), Date.valueOf(from));
+    }
+
+    /**
+     * Stream the sketches of one scope for days in [from, to] - used for unions reaching past the in-memory window
+     */
+    public void forEachInRange(String scope, LocalDate from, LocalDate to, Consumer<SketchRow> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(FIND_RANGE_SQL);
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+            statement.setString(1, scope);
+            statement.setDate(2, Date.valueOf(from));
+            statement.setDate(3, Date.valueOf(to));
+            return statement;
+        }, (RowCallbackHandler) rs -> consumer.accept(mapRow(rs)));
+    }
+
+    /**
+     * Check whether any sketch has been persisted - used to decide on the backfill
+     */
+    public boolean isEmpty() {
+        return jdbcTemplate.queryForList("SELECT 1 FROM rider_sketch LIMIT 1", Integer.class).isEmpty();
+    }
+
+    // ===== BACKFILL SOURCES =====
+
+    /**
+     * Stream distinct riders per day and route from ticket_usage since a cutoff - used for the initial backfill
+     */
+    public void forEachTapRiderSince(LocalDateTime from, Consumer<TapRider> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(DISTINCT_TAP_RIDERS_SQL);
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+            statement.setTimestamp(1, Timestamp.valueOf(from));
+            return statement;
+        }, (RowCallbackHandler) rs -> consumer.accept(new TapRider(
+                rs.getDate(1).toLocalDate(), rs.getLong(2), rs.getString(3), rs.getLong(4))));
+    }
+
+    /**
+     * Stream distinct buyers per day since a cutoff - used for the initial backfill
+     */
+    public void forEachBuyerSince(LocalDateTime from, Consumer<Buyer> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(DISTINCT_BUYERS_SQL);
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+            statement.setTimestamp(1, Timestamp.valueOf(from));
+            return statement;
+        }, (RowCallbackHandler) rs -> consumer.accept(new Buyer(rs.getDate(1).toLocalDate(), rs.getLong(2))));
+    }
+
+    // ===== PRIVATE HELPER METHODS =====
+
+    private static SketchRow mapRow(ResultSet rs) throws SQLException {
+        return new SketchRow(rs.getDate(1).toLocalDate(), rs.getString(2), rs.getString(3), rs.getBytes(4));
+    }
+}
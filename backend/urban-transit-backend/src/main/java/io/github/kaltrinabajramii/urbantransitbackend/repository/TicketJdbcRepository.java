@@ -0,0 +1,159 @@
+package io.github.kaltrinabajramii.urbantransitbackend.repository;
+
+import io.github.kaltrinabajramii.urbantransitbackend.model.entity.Ticket;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TicketStatus;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TicketType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Plain JDBC access to the ticket table for hot-path writes that JPA
+ * can only express as a read-modify-write.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TicketJdbcRepository {
+
+    private static final String CONSUME_RIDE_TICKET_SQL =
+            "UPDATE ticket SET status = 'USED', used_date = ?, updated_at = ? " +
+            "WHERE ticket_number = ? AND ticket_type = 'RIDE' AND status = 'ACTIVE' AND used_date IS NULL " +
+            "AND valid_from <= ? AND valid_until > ? " +
+            "RETURNING id, user_id, ticket_number, ticket_type, price, status, purchase_date, valid_from, valid_until, used_date";
+
+    private static final String CONSUME_RIDE_TICKET_BY_ID_SQL =
+            "UPDATE ticket SET status = 'USED', used_date = ?, updated_at = ? " +
+            "WHERE id = ? AND ticket_type = 'RIDE' AND status = 'ACTIVE' AND used_date IS NULL";
+
+    // SKIP LOCKED lets the job step around rows a gate is consuming instead of waiting on them
+    private static final String EXPIRE_CHUNK_SQL =
+            "UPDATE ticket SET status = 'EXPIRED', updated_at = ? " +
+            "WHERE id IN (SELECT id FROM ticket WHERE status = 'ACTIVE' AND valid_until < ? " +
+            "ORDER BY valid_until LIMIT ? FOR UPDATE SKIP LOCKED)";
+
+    // Re-checks status and validity so stale wheel entries are harmless
+    private static final String EXPIRE_BY_IDS_SQL =
+            "UPDATE ticket SET status = 'EXPIRED', updated_at = ? " +
+            "WHERE id = ANY (?) AND status = 'ACTIVE' AND valid_until <= ?";
+
+    private static final String OLDEST_OVERDUE_SQL =
+            "SELECT MIN(valid_until) FROM ticket WHERE status = 'ACTIVE' AND valid_until < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserRepository userRepository;
+
+    /**
+     * Consume an unused RIDE ticket in a single conditional UPDATE - used for gate taps.
+     * Concurrent taps on the same ticket serialize on the row lock and only the first one matches.
+     *
+     * @return the consumed ticket with a reference to its owner, or empty if the number is unknown,
+     *         not a RIDE ticket, already used or outside its validity window
+     */
+    public Optional<Ticket> consumeRideTicket(String ticketNumber, LocalDateTime now) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        List<Ticket> consumed = jdbcTemplate.query(CONSUME_RIDE_TICKET_SQL,
+                (rs, rowNum) -> mapTicket(rs),
+                timestamp, timestamp, ticketNumber, timestamp, timestamp);
+        return consumed.stream().findFirst();
+    }
+
+    /**
+     * Consume unused RIDE tickets by id, each at the time of its tap - used for bulk tap ingestion.
+     * Each row is one conditional UPDATE, so a ticket consumed concurrently by a gate is left alone.
+     *
+     * @return ids of the tickets this call consumed
+     */
+    public Set<Long> consumeRideTicketsById(Map<Long, LocalDateTime> usedAtByTicketId, LocalDateTime now) {
+        if (usedAtByTicketId.isEmpty()) {
+            return Set.of();
+        }
+        List<Map.Entry<Long, LocalDateTime>> rides = new ArrayList<>(usedAtByTicketId.entrySet());
+        Timestamp timestamp = Timestamp.valueOf(now);
+        int[] counts = jdbcTemplate.batchUpdate(CONSUME_RIDE_TICKET_BY_ID_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setTimestamp(1, Timestamp.valueOf(rides.get(i).getValue()));
+                ps.setTimestamp(2, timestamp);
+                ps.setLong(3, rides.get(i).getKey());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rides.size();
+            }
+        });
+
+        Set<Long> consumed = new HashSet<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                consumed.add(rides.get(i).getKey());
+            }
+        }
+        return consumed;
+    }
+
+    /**
+     * Expire up to {@code limit} overdue ACTIVE tickets in one statement - used by the scheduled expiry job
+     *
+     * @return number of tickets expired
+     */
+    public int expireChunk(LocalDateTime now, int limit) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        return jdbcTemplate.update(EXPIRE_CHUNK_SQL, timestamp, timestamp, limit);
+    }
+
+    /**
+     * Expire the given tickets if they are still ACTIVE and past their validity - used by the expiry timing wheel
+     *
+     * @return number of tickets expired
+     */
+    public int expireByIds(long[] ticketIds, LocalDateTime now) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        Long[] boxed = Arrays.stream(ticketIds).boxed().toArray(Long[]::new);
+        return jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(EXPIRE_BY_IDS_SQL);
+            statement.setTimestamp(1, timestamp);
+            statement.setArray(2, connection.createArrayOf("bigint", boxed));
+            statement.setTimestamp(3, timestamp);
+            return statement;
+        });
+    }
+
+    /**
+     * Find the validity end of the longest-overdue ACTIVE ticket - used to report expiry lag
+     */
+    public Optional<LocalDateTime> findOldestOverdueValidUntil(LocalDateTime now) {
+        Timestamp oldest = jdbcTemplate.queryForObject(OLDEST_OVERDUE_SQL, Timestamp.class, Timestamp.valueOf(now));
+        return Optional.ofNullable(oldest).map(Timestamp::toLocalDateTime);
+    }
+
+    // The owner is an unloaded reference, enough to set ticket_usage.user_id without another query
+    private Ticket mapTicket(ResultSet rs) throws SQLException {
+        Ticket ticket = new Ticket();
+        ticket.setId(rs.getLong("id"));
+        ticket.setUser(userRepository.getReferenceById(rs.getLong("user_id")));
+        ticket.setTicketNumber(rs.getString("ticket_number"));
+        ticket.setTicketType(TicketType.valueOf(rs.getString("ticket_type")));
+        ticket.setPrice(rs.getBigDecimal("price"));
+        ticket.setStatus(TicketStatus.valueOf(rs.getString("status")));
+        ticket.setPurchaseDate(rs.getTimestamp("purchase_date").toLocalDateTime());
+        ticket.setValidFrom(rs.getTimestamp("valid_from").toLocalDateTime());
+        ticket.setValidUntil(rs.getTimestamp("valid_until").toLocalDateTime());
+        ticket.setUsedDate(rs.getTimestamp("used_date").toLocalDateTime());
+        return ticket;
+    }
+}
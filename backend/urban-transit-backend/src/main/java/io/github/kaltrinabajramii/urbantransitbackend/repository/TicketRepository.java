@@ -3,21 +3,75 @@ package io.github.kaltrinabajramii.urbantransitbackend.repository;
 import io.github.kaltrinabajramii.urbantransitbackend.model.entity.Ticket;
 import io.github.kaltrinabajramii.urbantransitbackend.model.entity.User;
 import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TicketStatus;
-import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TicketType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface TicketRepository extends JpaRepository<Ticket, Long> {
+public interface TicketRepository extends JpaRepository<Ticket, Long>, JpaSpecificationExecutor<Ticket> {
+
+    // ===== KEYSET PAGING (Required for cursor-paged ticket lists, newest first by purchaseDate then id) =====
+
+    /**
+     * Find the newest tickets of a user - used for the first page of my-tickets
+     */
+    @Query("SELECT t FROM Ticket t WHERE t.user = :user ORDER BY t.purchaseDate DESC, t.id DESC")
+    List<Ticket> findUserTicketsFirst(@Param("user") User user, Limit limit);
+
+    /**
+     * Find a user's tickets older than a position - used for the next page of my-tickets
+     */
+    @Query("SELECT t FROM Ticket t WHERE t.user = :user AND (t.purchaseDate, t.id) < (:purchaseDate, :id) " +
+            "ORDER BY t.purchaseDate DESC, t.id DESC")
+    List<Ticket> findUserTicketsAfter(@Param("user") User user, @Param("purchaseDate") LocalDateTime purchaseDate,
+                                      @Param("id") Long id, Limit limit);
+
+    /**
+     * Find a user's tickets newer than a position, oldest first - used for the previous page of my-tickets
+     */
+    @Query("SELECT t FROM Ticket t WHERE t.user = :user AND (t.purchaseDate, t.id) > (:purchaseDate, :id) " +
+            "ORDER BY t.purchaseDate ASC, t.id ASC")
+    List<Ticket> findUserTicketsBefore(@Param("user") User user, @Param("purchaseDate") LocalDateTime purchaseDate,
+                                       @Param("id") Long id, Limit limit);
+
+    /**
+     * Count a user's tickets - used for optional page totals
+     */
+    long countByUser(User user);
+
+    /**
+     * Find the newest tickets - used for the first page of the admin ticket list
+     */
+    @Query("SELECT t FROM Ticket t ORDER BY t.purchaseDate DESC, t.id DESC")
+    List<Ticket> findTicketsFirst(Limit limit);
+
+    /**
+     * Find tickets older than a position - used for the next page of the admin ticket list
+     */
+    @Query("SELECT t FROM Ticket t WHERE (t.purchaseDate, t.id) < (:purchaseDate, :id) " +
+            "ORDER BY t.purchaseDate DESC, t.id DESC")
+    List<Ticket> findTicketsAfter(@Param("purchaseDate") LocalDateTime purchaseDate, @Param("id") Long id, Limit limit);
+
+    /**
+     * Find tickets newer than a position, oldest first - used for the previous page of the admin ticket list
+     */
+    @Query("SELECT t FROM Ticket t WHERE (t.purchaseDate, t.id) > (:purchaseDate, :id) " +
+            "ORDER BY t.purchaseDate ASC, t.id ASC")
+    List<Ticket> findTicketsBefore(@Param("purchaseDate") LocalDateTime purchaseDate, @Param("id") Long id, Limit limit);
 
     // ===== TICKET VALIDATION (Required for FR-11, FR-12) =====
 
@@ -26,6 +80,12 @@ public interface TicketRepository extends JpaRepository<Ticket, Long> {
      */
     Optional<Ticket> findByTicketNumber(String ticketNumber);
 
+    /**
+     * Find ticket by ticket number with its owner - used for validation, which runs outside a transaction
+     */
+    @Query("SELECT t FROM Ticket t JOIN FETCH t.user WHERE t.ticketNumber = :ticketNumber")
+    Optional<Ticket> findWithUserByTicketNumber(@Param("ticketNumber") String ticketNumber);
+
     /**
      * Find user's currently valid active tickets - used for user's current valid tickets
      */
@@ -48,17 +108,28 @@ public interface TicketRepository extends JpaRepository<Ticket, Long> {
     @Query("SELECT t FROM Ticket t WHERE t.status = 'ACTIVE' AND t.validUntil < :now")
     List<Ticket> findExpiredActiveTickets(@Param("now") LocalDateTime now);
 
-    // ===== USER TICKET MANAGEMENT (Required for FR-10) =====
+    /**
+     * Stream validation fields of unexpired active tickets - used to load the in-memory active ticket index
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT t.id, t.ticketNumber, t.ticketType, t.status, t.price, t.purchaseDate, " +
+            "t.validFrom, t.validUntil, t.usedDate FROM Ticket t " +
+            "WHERE t.status = 'ACTIVE' AND t.validUntil > :now")
+    Stream<Object[]> streamActiveTicketSnapshots(@Param("now") LocalDateTime now);
 
     /**
-     * Find all tickets by user - used for ticket history
+     * Stream ids and expiry of active tickets expiring before a cutoff - used to load the expiry timing wheel
      */
-    List<Ticket> findByUserOrderByPurchaseDateDesc(User user);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT t.id, t.validUntil FROM Ticket t WHERE t.status = 'ACTIVE' AND t.validUntil < :until")
+    Stream<Object[]> streamActiveTicketExpiriesBefore(@Param("until") LocalDateTime until);
+
+    // ===== USER TICKET MANAGEMENT (Required for FR-10) =====
 
     /**
-     * Find tickets by user with pagination - used for ticket history with pagination
+     * Find all tickets by user - used for ticket history
      */
-    Page<Ticket> findByUserOrderByPurchaseDateDesc(User user, Pageable pageable);
+    List<Ticket> findByUserOrderByPurchaseDateDesc(User user);
 
     /**
      * Find user's valid RIDE tickets (unused) - used for ride ticket validation
@@ -78,51 +149,21 @@ public interface TicketRepository extends JpaRepository<Ticket, Long> {
             "ORDER BY t.validUntil DESC")
     List<Ticket> findUserValidUnlimitedTickets(@Param("user") User user, @Param("now") LocalDateTime now);
 
-    // ===== TICKET STATUS AND TYPE QUERIES =====
-
-    /**
-     * Find tickets by status - used for admin management
-     */
-    List<Ticket> findByStatusOrderByPurchaseDateDesc(TicketStatus status);
-
-    /**
-     * Find tickets by type - used for analytics
-     */
-    List<Ticket> findByTicketTypeOrderByPurchaseDateDesc(TicketType ticketType);
-
-    /**
-     * Find user tickets by type - used for user's ticket filtering
-     */
-    List<Ticket> findByUserAndTicketTypeOrderByPurchaseDateDesc(User user, TicketType ticketType);
-
-    /**
-     * Find user tickets by status - used for user's ticket filtering
-     */
-    List<Ticket> findByUserAndStatusOrderByPurchaseDateDesc(User user, TicketStatus status);
-
     // ===== ANALYTICS (Required for dashboard and reporting) =====
 
     /**
-     * Count tickets by type - used for sales analytics
-     */
-    @Query("SELECT t.ticketType, COUNT(t) FROM Ticket t GROUP BY t.ticketType")
-    List<Object[]> countTicketsByType();
-
-    /**
-     * Find tickets purchased in date range - used for sales reporting
+     * Count, revenue and distinct buyers per ticket type in one grouped pass - used for sales analytics
      */
-    @Query("SELECT t FROM Ticket t WHERE t.purchaseDate BETWEEN :startDate AND :endDate " +
-            "ORDER BY t.purchaseDate DESC")
-    Page<Ticket> findTicketsPurchasedBetween(@Param("startDate") LocalDateTime startDate,
-                                             @Param("endDate") LocalDateTime endDate,
-                                             Pageable pageable);
+    @Query("SELECT t.ticketType, COUNT(t), SUM(t.price), COUNT(DISTINCT t.user.id) FROM Ticket t GROUP BY t.ticketType")
+    List<Object[]> summarizeSalesByTicketType();
 
     /**
-     * Calculate total revenue by date range - used for revenue analytics
+     * Count and revenue per ticket type for tickets purchased in [startDate, endDate) - used for sales reports and the revenue ledger
      */
-    @Query("SELECT SUM(t.price) FROM Ticket t WHERE t.purchaseDate BETWEEN :startDate AND :endDate")
-    Optional< BigDecimal > calculateRevenueByDateRange(@Param("startDate") LocalDateTime startDate,
-                                                       @Param("endDate") LocalDateTime endDate);
+    @Query("SELECT t.ticketType, COUNT(t), SUM(t.price) FROM Ticket t " +
+            "WHERE t.purchaseDate >= :startDate AND t.purchaseDate < :endDate GROUP BY t.ticketType")
+    List<Object[]> summarizeSalesByTicketTypeInPeriod(@Param("startDate") LocalDateTime startDate,
+                                                      @Param("endDate") LocalDateTime endDate);
 
     /**
      * Find top purchasing users - used for customer analytics
@@ -132,7 +173,17 @@ public interface TicketRepository extends JpaRepository<Ticket, Long> {
             "ORDER BY COUNT(t) DESC")
     Page<Object[]> findTopPurchasingUsers(Pageable pageable);
 
-    Page< Ticket> findByUserAndTicketTypeAndStatusOrderByPurchaseDateDesc(User user, TicketType ticketType, TicketStatus status, Pageable pageable);
+    /**
+     * Find the owning user of a set of tickets - used to count distinct riders from taps
+     */
+    @Query("SELECT t.id, t.user.id FROM Ticket t WHERE t.id IN :ids")
+    List<Object[]> findOwnerIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Count users who ever bought a ticket - used for engagement analytics
+     */
+    @Query("SELECT COUNT(DISTINCT t.user.id) FROM Ticket t")
+    long countDistinctBuyers();
 
     Long countByStatus(TicketStatus ticketStatus);
 }
@@ -0,0 +1,241 @@
+package io.github.kaltrinabajramii.urbantransitbackend.repository;
+
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TicketType;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TransportType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Plain JDBC access to ticket_usage for high-volume tap ingestion.
+ * TicketUsage uses IDENTITY ids, which stops Hibernate from batching inserts,
+ * so bulk writes bypass the entity manager and go through JDBC batches.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TicketUsageJdbcRepository {
+
+    // The owner is copied from the ticket so journaled rows need not carry it
+    private static final String INSERT_USAGE_SQL =
+            "INSERT INTO ticket_usage (ticket_id, user_id, route_id, transport_type, boarding_stop, destination_stop, used_at) " +
+            "VALUES (?, (SELECT user_id FROM ticket WHERE id = ?), ?, ?, ?, ?, ?)";
+
+    // A replayed journal record finds its key taken and is skipped
+    private static final String INSERT_JOURNALED_USAGE_SQL =
+            "INSERT INTO ticket_usage (ticket_id, user_id, route_id, transport_type, boarding_stop, destination_stop, used_at, journal_key) " +
+            "VALUES (?, (SELECT user_id FROM ticket WHERE id = ?), ?, ?, ?, ?, ?, ?) ON CONFLICT (journal_key) DO NOTHING";
+
+    private static final String BACKFILL_USER_IDS_SQL =
+            "UPDATE ticket_usage tu SET user_id = t.user_id FROM ticket t " +
+            "WHERE t.id = tu.ticket_id AND tu.id IN (SELECT id FROM ticket_usage WHERE user_id IS NULL LIMIT ?)";
+
+    private static final String MONTHLY_TRAVEL_SQL =
+            "SELECT date_trunc('month', used_at), transport_type, COUNT(*), COUNT(*) FILTER (WHERE alighted_at >= used_at), " +
+            "SUM(EXTRACT(EPOCH FROM alighted_at - used_at)) FILTER (WHERE alighted_at >= used_at) " +
+            "FROM ticket_usage WHERE user_id = ? AND used_at >= ? AND used_at < ? GROUP BY 1, 2 ORDER BY 1, 2";
+
+    // Start of the bucketMinutes-long bucket a tap falls into; bucketMinutes must divide 60
+    private static final String STOP_COUNTS_PER_BUCKET_SQL =
+            "SELECT date_trunc('hour', used_at) + (CAST(EXTRACT(MINUTE FROM used_at) AS INTEGER) / ?) * ? * INTERVAL '1 minute', " +
+            "%1$s, COUNT(*) FROM ticket_usage WHERE used_at >= ? AND %1$s IS NOT NULL GROUP BY 1, 2";
+
+    private static final String TOP_STOP_COUNTS_SQL =
+            "SELECT %1$s, COUNT(*) AS taps FROM ticket_usage WHERE %1$s IS NOT NULL GROUP BY 1 ORDER BY taps DESC LIMIT ?";
+
+    private static final String USAGE_FACT_COLUMNS =
+            "SELECT tu.id, tu.used_at, tu.route_id, tu.transport_type, t.ticket_type, tu.boarding_stop, tu.destination_stop " +
+            "FROM ticket_usage tu JOIN ticket t ON t.id = tu.ticket_id ";
+
+    private static final String USAGE_FACTS_AFTER_SQL =
+            USAGE_FACT_COLUMNS + "WHERE tu.id > ? AND tu.used_at >= ? ORDER BY tu.id LIMIT ?";
+
+    private static final String USAGE_FACTS_BY_IDS_SQL =
+            USAGE_FACT_COLUMNS + "WHERE tu.id = ANY (?) AND tu.used_at >= ? ORDER BY tu.id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.taps.jdbc-batch-size:500}")
+    private int batchSize;
+
+    /**
+     * One tap ready to be written
+     */
+    public record UsageRow(long ticketId,
+                           long routeId,
+                           TransportType transportType,
+                           String boardingStop,
+                           String destinationStop,
+                           LocalDateTime usedAt) {
+    }
+
+    /**
+     * One tap with the attributes the in-memory column store keeps
+     */
+    public record UsageFact(long id,
+                            LocalDateTime usedAt,
+                            long routeId,
+                            TransportType transportType,
+                            TicketType ticketType,
+                            String boardingStop,
+                            String destinationStop) {
+    }
+
+    /**
+     * A user's taps of one transport type in one month
+     */
+    public record MonthlyTravel(LocalDateTime monthStart,
+                                TransportType transportType,
+                                long rides,
+                                long completedJourneys,
+                                double journeySeconds) {
+    }
+
+    /**
+     * Which stop of a tap to count
+     */
+    public enum StopColumn {
+        BOARDING("boarding_stop"),
+        DESTINATION("destination_stop");
+
+        private final String column;
+
+        StopColumn(String column) {
+            this.column = column;
+        }
+    }
+
+    /**
+     * Tap count of one stop in one time bucket
+     */
+    public record StopCount(LocalDateTime bucketStart, String stop, long taps) {
+    }
+
+    /**
+     * Insert all rows using JDBC batches - used for bulk tap ingestion
+     */
+    public void batchInsert(List<UsageRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_USAGE_SQL, rows, batchSize, (ps, row) -> {
+            ps.setLong(1, row.ticketId());
+            ps.setLong(2, row.ticketId());
+            ps.setLong(3, row.routeId());
+            ps.setString(4, row.transportType().name());
+            ps.setString(5, row.boardingStop());
+            ps.setString(6, row.destinationStop());
+            ps.setTimestamp(7, Timestamp.valueOf(row.usedAt()));
+        });
+    }
+
+    /**
+     * Insert journaled rows keyed by their journal position, skipping keys already present - used by the tap journal flusher
+     *
+     * @return the rows actually inserted, in order
+     */
+    public List<UsageRow> batchInsertJournaled(List<UsageRow> rows, List<String> journalKeys) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        List<Integer> indexes = IntStream.range(0, rows.size()).boxed().toList();
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_JOURNALED_USAGE_SQL, indexes, batchSize, (ps, index) -> {
+            UsageRow row = rows.get(index);
+            ps.setLong(1, row.ticketId());
+            ps.setLong(2, row.ticketId());
+            ps.setLong(3, row.routeId());
+            ps.setString(4, row.transportType().name());
+            ps.setString(5, row.boardingStop());
+            ps.setString(6, row.destinationStop());
+            ps.setTimestamp(7, Timestamp.valueOf(row.usedAt()));
+            ps.setString(8, journalKeys.get(index));
+        });
+
+        List<UsageRow> inserted = new ArrayList<>(rows.size());
+        int index = 0;
+        for (int[] chunk : counts) {
+            for (int count : chunk) {
+                // SUCCESS_NO_INFO (-2) when the driver does not report per-statement counts
+                if (count != 0) {
+                    inserted.add(rows.get(index));
+                }
+                index++;
+            }
+        }
+        return inserted;
+    }
+
+    /**
+     * Copy the ticket owner onto up to {@code limit} taps recorded before ticket_usage had one - used by the startup backfill
+     *
+     * @return number of taps updated
+     */
+    public int backfillUserIds(int limit) {
+        return jdbcTemplate.update(BACKFILL_USER_IDS_SQL, limit);
+    }
+
+    /**
+     * Count a user's taps, completed journeys and journey seconds per month and transport type in [from, to) - used for the travel summary
+     */
+    public List<MonthlyTravel> summarizeUserTravelByMonth(long userId, LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.query(MONTHLY_TRAVEL_SQL,
+                (rs, rowNum) -> new MonthlyTravel(rs.getTimestamp(1).toLocalDateTime(),
+                        TransportType.valueOf(rs.getString(2)), rs.getLong(3), rs.getLong(4), rs.getDouble(5)),
+                userId, Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    /**
+     * Count taps per stop and time bucket since a cutoff - used to warm the in-memory stop rankings
+     */
+    public List<StopCount> countStopsPerBucketSince(StopColumn stopColumn, int bucketMinutes, LocalDateTime from) {
+        return jdbcTemplate.query(String.format(STOP_COUNTS_PER_BUCKET_SQL, stopColumn.column),
+                (rs, rowNum) -> new StopCount(rs.getTimestamp(1).toLocalDateTime(), rs.getString(2), rs.getLong(3)),
+                bucketMinutes, bucketMinutes, Timestamp.valueOf(from));
+    }
+
+    /**
+     * Count all-time taps of the busiest stops - used to warm the in-memory stop rankings
+     */
+    public List<StopCount> countTopStops(StopColumn stopColumn, int limit) {
+        return jdbcTemplate.query(String.format(TOP_STOP_COUNTS_SQL, stopColumn.column),
+                (rs, rowNum) -> new StopCount(null, rs.getString(1), rs.getLong(2)), limit);
+    }
+
+    /**
+     * Find taps after an id in id order, up to a limit - used to load the column store incrementally
+     */
+    public List<UsageFact> findUsageFactsAfter(long afterId, LocalDateTime usedSince, int limit) {
+        return jdbcTemplate.query(USAGE_FACTS_AFTER_SQL, (rs, rowNum) -> mapUsageFact(rs),
+                afterId, Timestamp.valueOf(usedSince), limit);
+    }
+
+    /**
+     * Find taps by id - used to pick up rows that committed after later ids were already loaded
+     */
+    public List<UsageFact> findUsageFactsByIds(List<Long> ids, LocalDateTime usedSince) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(USAGE_FACTS_BY_IDS_SQL);
+            statement.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+            statement.setTimestamp(2, Timestamp.valueOf(usedSince));
+            return statement;
+        }, (rs, rowNum) -> mapUsageFact(rs));
+    }
+
+    private static UsageFact mapUsageFact(ResultSet rs) throws SQLException {
+        return new UsageFact(rs.getLong(1), rs.getTimestamp(2).toLocalDateTime(), rs.getLong(3),
+                TransportType.valueOf(rs.getString(4)), TicketType.valueOf(rs.getString(5)),
+                rs.getString(6), rs.getString(7));
+    }
+}
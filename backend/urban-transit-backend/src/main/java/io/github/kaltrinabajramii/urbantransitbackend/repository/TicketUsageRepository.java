@@ -1,22 +1,24 @@
 package io.github.kaltrinabajramii.urbantransitbackend.repository;
 
-import io.github.kaltrinabajramii.urbantransitbackend.model.entity.Route;
 import io.github.kaltrinabajramii.urbantransitbackend.model.entity.Ticket;
 import io.github.kaltrinabajramii.urbantransitbackend.model.entity.TicketUsage;
 import io.github.kaltrinabajramii.urbantransitbackend.model.entity.User;
-import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TransportType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface TicketUsageRepository extends JpaRepository<TicketUsage, Long> {
+public interface TicketUsageRepository extends JpaRepository<TicketUsage, Long>, JpaSpecificationExecutor<TicketUsage> {
 
     // ===== TICKET USAGE TRACKING (Required for usage analytics) =====
 
@@ -26,110 +28,134 @@ public interface TicketUsageRepository extends JpaRepository<TicketUsage, Long>
     List<TicketUsage> findByTicketOrderByUsedAtDesc(Ticket ticket);
 
     /**
-     * Find usage by route - used for route usage analytics
+     * Find user's ticket usage history - used for user travel history
      */
-    List<TicketUsage> findByRouteOrderByUsedAtDesc(Route route);
+    @Query("SELECT tu FROM TicketUsage tu WHERE tu.user = :user ORDER BY tu.usedAt DESC")
+    Page<TicketUsage> findUserTicketUsage(@Param("user") User user, Pageable pageable);
+
+    // ===== KEYSET PAGING (Required for cursor-paged usage lists, newest first by usedAt then id) =====
 
     /**
-     * Find user's ticket usage history - used for user travel history
+     * Find a user's latest usage - used for the first page of travel history
      */
-    @Query("SELECT tu FROM TicketUsage tu WHERE tu.ticket.user = :user ORDER BY tu.usedAt DESC")
-    Page<TicketUsage> findUserTicketUsage(@Param("user") User user, Pageable pageable);
+    @Query("SELECT tu FROM TicketUsage tu WHERE tu.user = :user ORDER BY tu.usedAt DESC, tu.id DESC")
+    List<TicketUsage> findUserUsageFirst(@Param("user") User user, Limit limit);
 
-    // ===== USER STATISTICS (Required for user analytics) =====
+    /**
+     * Find a user's usage older than a position - used for the next page of travel history
+     */
+    @Query("SELECT tu FROM TicketUsage tu WHERE tu.user = :user AND (tu.usedAt, tu.id) < (:usedAt, :id) " +
+            "ORDER BY tu.usedAt DESC, tu.id DESC")
+    List<TicketUsage> findUserUsageAfter(@Param("user") User user, @Param("usedAt") LocalDateTime usedAt,
+                                         @Param("id") Long id, Limit limit);
 
     /**
-     * Count rides by user ID - used for user statistics
+     * Find a user's usage newer than a position, oldest first - used for the previous page of travel history
      */
-    @Query("SELECT COUNT(tu) FROM TicketUsage tu WHERE tu.ticket.user.id = :userId")
-    Long countRidesByUserId(@Param("userId") Long userId);
+    @Query("SELECT tu FROM TicketUsage tu WHERE tu.user = :user AND (tu.usedAt, tu.id) > (:usedAt, :id) " +
+            "ORDER BY tu.usedAt ASC, tu.id ASC")
+    List<TicketUsage> findUserUsageBefore(@Param("user") User user, @Param("usedAt") LocalDateTime usedAt,
+                                          @Param("id") Long id, Limit limit);
 
     /**
-     * Count user rides in date range - used for user activity analytics
+     * Count a user's usage - used for optional page totals
      */
-    @Query("SELECT COUNT(tu) FROM TicketUsage tu WHERE tu.ticket.user.id = :userId " +
-            "AND tu.usedAt BETWEEN :startDate AND :endDate")
-    Long countUserRidesByDateRange(@Param("userId") Long userId,
-                                   @Param("startDate") LocalDateTime startDate,
-                                   @Param("endDate") LocalDateTime endDate);
+    @Query("SELECT COUNT(tu) FROM TicketUsage tu WHERE tu.user = :user")
+    long countUserUsage(@Param("user") User user);
 
-    // ===== BUSINESS ANALYTICS (Required for admin dashboard) =====
+    /**
+     * Find a user's latest usage in [from, to) - used for the first page of travel history by date range
+     */
+    @Query("SELECT tu FROM TicketUsage tu WHERE tu.user = :user AND tu.usedAt >= :from AND tu.usedAt < :to " +
+            "ORDER BY tu.usedAt DESC, tu.id DESC")
+    List<TicketUsage> findUserUsageInRangeFirst(@Param("user") User user, @Param("from") LocalDateTime from,
+                                                @Param("to") LocalDateTime to, Limit limit);
 
     /**
-     * Find most popular routes - used for business analytics
+     * Find a user's usage in [from, to) older than a position - used for the next page of travel history by date range
      */
-    @Query("SELECT r, COUNT(tu.id) as usageCount FROM Route r " +
-            "LEFT JOIN TicketUsage tu ON tu.route = r " +
-            "WHERE r.active = true " +
-            "GROUP BY r.id " +
-            "ORDER BY usageCount DESC")
-    Page<Object[]> findMostPopularRoutes(Pageable pageable);
+    @Query("SELECT tu FROM TicketUsage tu WHERE tu.user = :user AND tu.usedAt >= :from AND tu.usedAt < :to " +
+            "AND (tu.usedAt, tu.id) < (:usedAt, :id) ORDER BY tu.usedAt DESC, tu.id DESC")
+    List<TicketUsage> findUserUsageInRangeAfter(@Param("user") User user, @Param("from") LocalDateTime from,
+                                                @Param("to") LocalDateTime to, @Param("usedAt") LocalDateTime usedAt,
+                                                @Param("id") Long id, Limit limit);
 
     /**
-     * Alternative implementation for most popular routes
+     * Find a user's usage in [from, to) newer than a position, oldest first - used for the previous page of travel history by date range
      */
-    @Query("SELECT tu.route, COUNT(tu) as usageCount FROM TicketUsage tu " +
-            "GROUP BY tu.route " +
-            "ORDER BY usageCount DESC")
-    Page<Object[]> findMostUsedRoutes(Pageable pageable);
+    @Query("SELECT tu FROM TicketUsage tu WHERE tu.user = :user AND tu.usedAt >= :from AND tu.usedAt < :to " +
+            "AND (tu.usedAt, tu.id) > (:usedAt, :id) ORDER BY tu.usedAt ASC, tu.id ASC")
+    List<TicketUsage> findUserUsageInRangeBefore(@Param("user") User user, @Param("from") LocalDateTime from,
+                                                 @Param("to") LocalDateTime to, @Param("usedAt") LocalDateTime usedAt,
+                                                 @Param("id") Long id, Limit limit);
 
-    // ===== TRANSPORT TYPE ANALYTICS =====
+    /**
+     * Count a user's usage in [from, to) - used for optional page totals
+     */
+    @Query("SELECT COUNT(tu) FROM TicketUsage tu WHERE tu.user = :user AND tu.usedAt >= :from AND tu.usedAt < :to")
+    long countUserUsageInRange(@Param("user") User user, @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 
     /**
-     * Find usage by transport type - used for transport analytics
+     * Find the latest usage - used for the first page of the admin usage list
      */
-    List<TicketUsage> findByTransportTypeOrderByUsedAtDesc(TransportType transportType);
+    @Query("SELECT tu FROM TicketUsage tu ORDER BY tu.usedAt DESC, tu.id DESC")
+    List<TicketUsage> findUsageFirst(Limit limit);
 
     /**
-     * Count usage by transport type - used for dashboard analytics
+     * Find usage older than a position - used for the next page of the admin usage list
      */
-    @Query("SELECT tu.transportType, COUNT(tu) FROM TicketUsage tu GROUP BY tu.transportType")
-    List<Object[]> countUsageByTransportType();
+    @Query("SELECT tu FROM TicketUsage tu WHERE (tu.usedAt, tu.id) < (:usedAt, :id) ORDER BY tu.usedAt DESC, tu.id DESC")
+    List<TicketUsage> findUsageAfter(@Param("usedAt") LocalDateTime usedAt, @Param("id") Long id, Limit limit);
 
-    // ===== TIME-BASED ANALYTICS (Required for usage reporting) =====
+    /**
+     * Find usage newer than a position, oldest first - used for the previous page of the admin usage list
+     */
+    @Query("SELECT tu FROM TicketUsage tu WHERE (tu.usedAt, tu.id) > (:usedAt, :id) ORDER BY tu.usedAt ASC, tu.id ASC")
+    List<TicketUsage> findUsageBefore(@Param("usedAt") LocalDateTime usedAt, @Param("id") Long id, Limit limit);
+
+    // ===== TAP-OFF (Required for journey durations) =====
 
     /**
-     * Find usage within date range - used for usage reporting
+     * Find the latest usage of a ticket still waiting for its tap-off - used when a rider taps off
      */
-    @Query("SELECT tu FROM TicketUsage tu WHERE tu.usedAt BETWEEN :startDate AND :endDate " +
-            "ORDER BY tu.usedAt DESC")
-    Page<TicketUsage> findUsageByDateRange(@Param("startDate") LocalDateTime startDate,
-                                           @Param("endDate") LocalDateTime endDate,
-                                           Pageable pageable);
+    Optional<TicketUsage> findFirstByTicketAndAlightedAtIsNullAndUsedAtAfterOrderByUsedAtDesc(Ticket ticket,
+                                                                                             LocalDateTime usedAfter);
 
     /**
-     * Count daily usage - used for daily analytics
+     * Record a tap-off unless one was already recorded - used so concurrent tap-offs close a journey once
      */
-    @Query("SELECT DATE(tu.usedAt), COUNT(tu) FROM TicketUsage tu " +
-            "WHERE tu.usedAt BETWEEN :startDate AND :endDate " +
-            "GROUP BY DATE(tu.usedAt) " +
-            "ORDER BY DATE(tu.usedAt)")
-    List<Object[]> getDailyUsageStats(@Param("startDate") LocalDateTime startDate,
-                                      @Param("endDate") LocalDateTime endDate);
+    @Modifying
+    @Query("UPDATE TicketUsage tu SET tu.alightedAt = :alightedAt, tu.alightingStop = :alightingStop " +
+            "WHERE tu.id = :id AND tu.alightedAt IS NULL")
+    int recordTapOff(@Param("id") Long id,
+                     @Param("alightingStop") String alightingStop,
+                     @Param("alightedAt") LocalDateTime alightedAt);
 
-    // ===== STOP ANALYTICS (Required for stop usage insights) =====
+    // ===== USER STATISTICS (Required for user analytics) =====
 
     /**
-     * Find most popular boarding stops - used for stop analytics
+     * Count rides by user ID - used for user statistics
      */
-    @Query("SELECT tu.boardingStop, COUNT(tu) as usageCount FROM TicketUsage tu " +
-            "WHERE tu.boardingStop IS NOT NULL " +
-            "GROUP BY tu.boardingStop " +
-            "ORDER BY usageCount DESC")
-    Page<Object[]> findMostPopularBoardingStops(Pageable pageable);
+    @Query("SELECT COUNT(tu) FROM TicketUsage tu WHERE tu.user.id = :userId")
+    Long countRidesByUserId(@Param("userId") Long userId);
 
     /**
-     * Find most popular destinations - used for destination analytics
+     * Count user rides in date range - used for user activity analytics
      */
-    @Query("SELECT tu.destinationStop, COUNT(tu) as usageCount FROM TicketUsage tu " +
-            "WHERE tu.destinationStop IS NOT NULL " +
-            "GROUP BY tu.destinationStop " +
-            "ORDER BY usageCount DESC")
-    Page<Object[]> findMostPopularDestinations(Pageable pageable);
+    @Query("SELECT COUNT(tu) FROM TicketUsage tu WHERE tu.user.id = :userId " +
+            "AND tu.usedAt BETWEEN :startDate AND :endDate")
+    Long countUserRidesByDateRange(@Param("userId") Long userId,
+                                   @Param("startDate") LocalDateTime startDate,
+                                   @Param("endDate") LocalDateTime endDate);
+
+    // ===== TIME-BASED ANALYTICS (Required for usage reporting) =====
 
     /**
-     * Find today's usage count - used for daily dashboard
+     * Find usage within date range - used for usage reporting
      */
-    @Query("SELECT COUNT(tu) FROM TicketUsage tu WHERE DATE(tu.usedAt) = CURRENT_DATE")
-    Long countTodayUsage();
+    @Query("SELECT tu FROM TicketUsage tu WHERE tu.usedAt BETWEEN :startDate AND :endDate " +
+            "ORDER BY tu.usedAt DESC")
+    Page<TicketUsage> findUsageByDateRange(@Param("startDate") LocalDateTime startDate,
+                                           @Param("endDate") LocalDateTime endDate,
+                                           Pageable pageable);
 }
@@ -0,0 +1,94 @@
+package io.github.kaltrinabajramii.urbantransitbackend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Plain JDBC access to usage_hour_of_week, which holds the persisted hour-of-week histograms.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UsageHistogramJdbcRepository {
+
+    private static final String ADD_COUNT_SQL =
+            "INSERT INTO usage_hour_of_week (scope, scope_key, hour_of_week, tap_count) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (scope, scope_key, hour_of_week) DO UPDATE SET tap_count = usage_hour_of_week.tap_count + EXCLUDED.tap_count";
+
+    private static final String FIND_ALL_SQL =
+            "SELECT scope, scope_key, hour_of_week, tap_count FROM usage_hour_of_week";
+
+    // ISODOW is 1 for Monday, matching hour_of_week 0 = Monday 00:00
+    private static final String HOUR_OF_WEEK_EXPR =
+            "(CAST(EXTRACT(ISODOW FROM used_at) AS INTEGER) - 1) * 24 + CAST(EXTRACT(HOUR FROM used_at) AS INTEGER)";
+
+    private static final String BACKFILL_BY_ROUTE_SQL =
+            "INSERT INTO usage_hour_of_week (scope, scope_key, hour_of_week, tap_count) " +
+            "SELECT 'ROUTE', CAST(route_id AS VARCHAR), " + HOUR_OF_WEEK_EXPR + ", COUNT(*) FROM ticket_usage " +
+            "GROUP BY 2, 3 " +
+            "ON CONFLICT (scope, scope_key, hour_of_week) DO UPDATE SET tap_count = EXCLUDED.tap_count";
+
+    private static final String BACKFILL_BY_TRANSPORT_TYPE_SQL =
+            "INSERT INTO usage_hour_of_week (scope, scope_key, hour_of_week, tap_count) " +
+            "SELECT 'TRANSPORT_TYPE', transport_type, " + HOUR_OF_WEEK_EXPR + ", COUNT(*) FROM ticket_usage " +
+            "GROUP BY 2, 3 " +
+            "ON CONFLICT (scope, scope_key, hour_of_week) DO UPDATE SET tap_count = EXCLUDED.tap_count";
+
+    // Held for the transaction that checks for and runs the backfill, so instances starting together backfill once
+    private static final String LOCK_BACKFILL_SQL = "SELECT pg_advisory_xact_lock(?)";
+    private static final long BACKFILL_LOCK_KEY = 0x75686f77L;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Change of one histogram cell
+     */
+    public record HistogramDelta(String scope, String scopeKey, int hourOfWeek, long taps) {
+    }
+
+    /**
+     * Add counts to histogram cells, creating them as needed - used for periodic persistence
+     */
+    public void addCounts(List<HistogramDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(ADD_COUNT_SQL, deltas, deltas.size(), (ps, delta) -> {
+            ps.setString(1, delta.scope());
+            ps.setString(2, delta.scopeKey());
+            ps.setInt(3, delta.hourOfWeek());
+            ps.setLong(4, delta.taps());
+        });
+    }
+
+    /**
+     * Load every histogram cell - used to (re)load the in-memory histograms
+     */
+    public List<HistogramDelta> findAll() {
+        return jdbcTemplate.query(FIND_ALL_SQL, (rs, rowNum) -> new HistogramDelta(
+                rs.getString(1), rs.getString(2), rs.getInt(3), rs.getLong(4)));
+    }
+
+    /**
+     * Compute all histograms from ticket_usage - used once when the table is first created
+     */
+    public int backfillFromUsage() {
+        return jdbcTemplate.update(BACKFILL_BY_ROUTE_SQL) + jdbcTemplate.update(BACKFILL_BY_TRANSPORT_TYPE_SQL);
+    }
+
+    /**
+     * Wait for the backfill lock, released when the current transaction ends - used before the startup backfill check
+     */
+    public void lockBackfill() {
+        jdbcTemplate.query(LOCK_BACKFILL_SQL, rs -> null, BACKFILL_LOCK_KEY);
+    }
+
+    /**
+     * Check whether any histogram has been persisted - used to decide on the backfill
+     */
+    public boolean isEmpty() {
+        return jdbcTemplate.queryForList("SELECT 1 FROM usage_hour_of_week LIMIT 1", Integer.class).isEmpty();
+    }
+}
@@ -0,0 +1,165 @@
+package io.github.kaltrinabajramii.urbantransitbackend.repository;
+
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TransportType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Plain JDBC access to the usage_rollup_minute/hour/day tables.
+ * Counts are changed with INSERT ... ON CONFLICT upserts, which JPA cannot express.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UsageRollupJdbcRepository {
+
+    private static final String KEY_COLUMNS = "bucket_start, route_id, transport_type, boarding_stop";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Rollup resolution; each maps to its own table
+     */
+    public enum Granularity {
+        MINUTE("usage_rollup_minute", "minute"),
+        HOUR("usage_rollup_hour", "hour"),
+        DAY("usage_rollup_day", "day");
+
+        private final String table;
+        private final String truncUnit;
+
+        Granularity(String table, String truncUnit) {
+            this.table = table;
+            this.truncUnit = truncUnit;
+        }
+    }
+
+    /**
+     * Change of one rollup row; negative when taps are removed
+     */
+    public record RollupDelta(LocalDateTime bucketStart,
+                              long routeId,
+                              TransportType transportType,
+                              String boardingStop,
+                              long taps) {
+    }
+
+    // ===== WRITES =====
+
+    /**
+     * Add tap counts to existing rows, creating them as needed - used for incremental maintenance on every tap.
+     * Callers pass deltas in a stable key order so concurrent batches lock rows in the same order.
+     */
+    public void addCounts(Granularity granularity, List<RollupDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO " + granularity.table + " (" + KEY_COLUMNS + ", tap_count) VALUES (?, ?, ?, ?, ?) " +
+                "ON CONFLICT (" + KEY_COLUMNS + ") DO UPDATE SET tap_count = " + granularity.table + ".tap_count + EXCLUDED.tap_count";
+        jdbcTemplate.batchUpdate(sql, deltas, deltas.size(), (ps, delta) -> {
+            ps.setTimestamp(1, Timestamp.valueOf(delta.bucketStart()));
+            ps.setLong(2, delta.routeId());
+            ps.setString(3, delta.transportType().name());
+            ps.setString(4, delta.boardingStop());
+            ps.setLong(5, delta.taps());
+        });
+    }
+
+    /**
+     * Recompute coarse rows from the next finer level for buckets in [from, to) - used for downsampling.
+     * Overwrites rather than adds, so running it repeatedly over the same window is harmless.
+     */
+    public int rebuildFrom(Granularity source, Granularity target, LocalDateTime from, LocalDateTime to) {
+        String sql = "INSERT INTO " + target.table + " (" + KEY_COLUMNS + ", tap_count) " +
+                "SELECT date_trunc('" + target.truncUnit + "', bucket_start), route_id, transport_type, boarding_stop, SUM(tap_count) " +
+                "FROM " + source.table + " WHERE bucket_start >= ? AND bucket_start < ? " +
+                "GROUP BY 1, 2, 3, 4 " +
+                "ON CONFLICT (" + KEY_COLUMNS + ") DO UPDATE SET tap_count = EXCLUDED.tap_count";
+        return jdbcTemplate.update(sql, Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    /**
+     * Rebuild one level straight from ticket_usage for taps at or after a cutoff - used for the initial backfill
+     */
+    public int rebuildFromUsage(Granularity target, LocalDateTime from) {
+        String sql = "INSERT INTO " + target.table + " (" + KEY_COLUMNS + ", tap_count) " +
+                "SELECT date_trunc('" + target.truncUnit + "', used_at), route_id, transport_type, " +
+                "LEFT(COALESCE(boarding_stop, ''), 100), COUNT(*) " +
+                "FROM ticket_usage WHERE used_at >= ? " +
+                "GROUP BY 1, 2, 3, 4 " +
+                "ON CONFLICT (" + KEY_COLUMNS + ") DO UPDATE SET tap_count = EXCLUDED.tap_count";
+        return jdbcTemplate.update(sql, Timestamp.valueOf(from));
+    }
+
+    /**
+     * Delete buckets that started before the cutoff - used for retention
+     */
+    public int deleteBefore(Granularity granularity, LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM " + granularity.table + " WHERE bucket_start < ?",
+                Timestamp.valueOf(cutoff));
+    }
+
+    /**
+     * Check whether a level holds any rows - used to decide on the initial backfill
+     */
+    public boolean isEmpty(Granularity granularity) {
+        List<Integer> rows = jdbcTemplate.queryForList("SELECT 1 FROM " + granularity.table + " LIMIT 1", Integer.class);
+        return rows.isEmpty();
+    }
+
+    // ===== READS =====
+
+    /**
+     * Sum taps over buckets in [from, to) - used for usage counts over a period
+     */
+    public long sumTaps(Granularity granularity, LocalDateTime from, LocalDateTime to) {
+        Long total = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(tap_count), 0) FROM " + granularity.table + " WHERE bucket_start >= ? AND bucket_start < ?",
+                Long.class, Timestamp.valueOf(from), Timestamp.valueOf(to));
+        return total != null ? total : 0L;
+    }
+
+    /**
+     * Sum taps per route, busiest first - used for route popularity
+     */
+    public List<Object[]> sumTapsByRoute(Granularity granularity) {
+        return jdbcTemplate.query(
+                "SELECT route_id, SUM(tap_count) AS taps FROM " + granularity.table + " GROUP BY route_id ORDER BY taps DESC",
+                (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getLong(2)});
+    }
+
+    /**
+     * Sum taps per route over buckets in [from, to) - used for route utilization
+     */
+    public List<Object[]> sumTapsByRoute(Granularity granularity, LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.query(
+                "SELECT route_id, SUM(tap_count) FROM " + granularity.table + " " +
+                "WHERE bucket_start >= ? AND bucket_start < ? GROUP BY route_id",
+                (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getLong(2)},
+                Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    /**
+     * Sum taps per transport type - used for transport analytics
+     */
+    public List<Object[]> sumTapsByTransportType(Granularity granularity) {
+        return jdbcTemplate.query(
+                "SELECT transport_type, SUM(tap_count) FROM " + granularity.table + " GROUP BY transport_type",
+                (rs, rowNum) -> new Object[]{TransportType.valueOf(rs.getString(1)), rs.getLong(2)});
+    }
+
+    /**
+     * Daily tap totals for days in [from, to) - used for daily usage trends
+     */
+    public List<Object[]> sumTapsPerDay(LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.query(
+                "SELECT CAST(bucket_start AS DATE), SUM(tap_count) FROM usage_rollup_day " +
+                "WHERE bucket_start >= ? AND bucket_start < ? GROUP BY 1 ORDER BY 1",
+                (rs, rowNum) -> new Object[]{rs.getDate(1).toLocalDate(), rs.getLong(2)},
+                Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+}
@@ -2,13 +2,13 @@ package io.github.kaltrinabajramii.urbantransitbackend.repository;
 
 import io.github.kaltrinabajramii.urbantransitbackend.model.entity.User;
 import io.github.kaltrinabajramii.urbantransitbackend.model.enums.UserRole;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -34,28 +34,101 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     List<User> findByRole(UserRole role);
 
+    // ===== KEYSET PAGING (Required for cursor-paged admin user lists, newest first by createdAt then id) =====
+
+    /**
+     * Find the most recently registered active users - used for the first page of admin user lists
+     */
+    @Query("SELECT u FROM User u WHERE u.active = true ORDER BY u.createdAt DESC, u.id DESC")
+    List<User> findActiveUsersFirst(Limit limit);
+
+    /**
+     * Find active users registered before a position - used for the next page of admin user lists
+     */
+    @Query("SELECT u FROM User u WHERE u.active = true AND (u.createdAt, u.id) < (:createdAt, :id) " +
+            "ORDER BY u.createdAt DESC, u.id DESC")
+    List<User> findActiveUsersAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+
+    /**
+     * Find active users registered after a position, oldest first - used for the previous page of admin user lists
+     */
+    @Query("SELECT u FROM User u WHERE u.active = true AND (u.createdAt, u.id) > (:createdAt, :id) " +
+            "ORDER BY u.createdAt ASC, u.id ASC")
+    List<User> findActiveUsersBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+
     /**
-     * Find active users with pagination - used for admin user list
+     * Count active users - used for optional page totals
      */
-    Page<User> findByActiveTrue(Pageable pageable);
+    long countByActiveTrue();
 
     /**
-     * Search active users by name or email - used for admin user search
+     * Find the most recently registered active users matching a search - used for the first page of admin user search
      */
     @Query("SELECT u FROM User u WHERE u.active = true AND " +
             "(LOWER(u.fullName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
             "LOWER(u.email) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) " +
-            "ORDER BY u.createdAt DESC")
-    Page<User> searchActiveUsers(@Param("searchTerm") String searchTerm, Pageable pageable);
+            "ORDER BY u.createdAt DESC, u.id DESC")
+    List<User> searchActiveUsersFirst(@Param("searchTerm") String searchTerm, Limit limit);
 
-    // ===== ANALYTICS (Required for marketing dashboard) =====
+    /**
+     * Find active users matching a search registered before a position - used for the next page of admin user search
+     */
+    @Query("SELECT u FROM User u WHERE u.active = true AND " +
+            "(LOWER(u.fullName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+            "LOWER(u.email) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) AND " +
+            "(u.createdAt, u.id) < (:createdAt, :id) ORDER BY u.createdAt DESC, u.id DESC")
+    List<User> searchActiveUsersAfter(@Param("searchTerm") String searchTerm, @Param("createdAt") LocalDateTime createdAt,
+                                      @Param("id") Long id, Limit limit);
 
     /**
-     * Find users without tickets - used for marketing analytics
+     * Find active users matching a search registered after a position, oldest first - used for the previous page of admin user search
      */
     @Query("SELECT u FROM User u WHERE u.active = true AND " +
+            "(LOWER(u.fullName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+            "LOWER(u.email) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) AND " +
+            "(u.createdAt, u.id) > (:createdAt, :id) ORDER BY u.createdAt ASC, u.id ASC")
+    List<User> searchActiveUsersBefore(@Param("searchTerm") String searchTerm, @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") Long id, Limit limit);
+
+    /**
+     * Count active users matching a search - used for optional page totals
+     */
+    @Query("SELECT COUNT(u) FROM User u WHERE u.active = true AND " +
+            "(LOWER(u.fullName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+            "LOWER(u.email) LIKE LOWER(CONCAT('%', :searchTerm, '%')))")
+    long countActiveUsersMatching(@Param("searchTerm") String searchTerm);
+
+    /**
+     * Find the most recently registered active users without tickets - used for the first page of that list
+     */
+    @Query("SELECT u FROM User u WHERE u.active = true AND " +
+            "NOT EXISTS (SELECT t FROM Ticket t WHERE t.user = u) ORDER BY u.createdAt DESC, u.id DESC")
+    List<User> findUsersWithoutTicketsFirst(Limit limit);
+
+    /**
+     * Find active users without tickets registered before a position - used for the next page of that list
+     */
+    @Query("SELECT u FROM User u WHERE u.active = true AND " +
+            "NOT EXISTS (SELECT t FROM Ticket t WHERE t.user = u) AND " +
+            "(u.createdAt, u.id) < (:createdAt, :id) ORDER BY u.createdAt DESC, u.id DESC")
+    List<User> findUsersWithoutTicketsAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+
+    /**
+     * Find active users without tickets registered after a position, oldest first - used for the previous page of that list
+     */
+    @Query("SELECT u FROM User u WHERE u.active = true AND " +
+            "NOT EXISTS (SELECT t FROM Ticket t WHERE t.user = u) AND " +
+            "(u.createdAt, u.id) > (:createdAt, :id) ORDER BY u.createdAt ASC, u.id ASC")
+    List<User> findUsersWithoutTicketsBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+
+    /**
+     * Count active users without tickets - used for optional page totals
+     */
+    @Query("SELECT COUNT(u) FROM User u WHERE u.active = true AND " +
             "NOT EXISTS (SELECT t FROM Ticket t WHERE t.user = u)")
-    Page<User> findUsersWithoutTickets(Pageable pageable);
+    long countUsersWithoutTickets();
+
+    // ===== ANALYTICS (Required for marketing dashboard) =====
 
     /**
      * Count users by role - used for admin dashboard
@@ -64,8 +137,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
     List<Object[]> countUsersByRole();
 
     /**
-     * Find recently registered users - used for admin dashboard
+     * Count active users registered after a point in time - used for new vs returning analytics
      */
-    @Query("SELECT u FROM User u WHERE u.active = true ORDER BY u.createdAt DESC")
-    Page<User> findRecentlyRegisteredUsers(Pageable pageable);
+    long countByActiveTrueAndCreatedAtAfter(LocalDateTime since);
 }
@@ -0,0 +1,47 @@
+package io.github.kaltrinabajramii.urbantransitbackend.repository.specification;
+
+import io.github.kaltrinabajramii.urbantransitbackend.model.entity.Ticket;
+import io.github.kaltrinabajramii.urbantransitbackend.model.entity.User;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TicketStatus;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TicketType;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ticket filters for TicketRepository's Specification queries.
+ *
+ * Every factory returns null for a null argument, which Specification.allOf skips, so optional
+ * filters combine without branching and the database applies all of them together.
+ */
+public final class TicketSpecifications {
+
+    private TicketSpecifications() {
+    }
+
+    public static Specification<Ticket> ownedBy(User user) {
+        return user == null ? null : (root, query, cb) -> cb.equal(root.get("user"), user);
+    }
+
+    public static Specification<Ticket> hasType(TicketType ticketType) {
+        return ticketType == null ? null : (root, query, cb) -> cb.equal(root.get("ticketType"), ticketType);
+    }
+
+    public static Specification<Ticket> hasStatus(TicketStatus status) {
+        return status == null ? null : (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    /**
+     * Purchased at or after a point in time
+     */
+    public static Specification<Ticket> purchasedFrom(LocalDateTime from) {
+        return from == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("purchaseDate"), from);
+    }
+
+    /**
+     * Purchased strictly before a point in time
+     */
+    public static Specification<Ticket> purchasedBefore(LocalDateTime to) {
+        return to == null ? null : (root, query, cb) -> cb.lessThan(root.get("purchaseDate"), to);
+    }
+}
@@ -0,0 +1,39 @@
+package io.github.kaltrinabajramii.urbantransitbackend.repository.specification;
+
+import io.github.kaltrinabajramii.urbantransitbackend.model.entity.TicketUsage;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TransportType;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ticket usage filters for TicketUsageRepository's Specification queries; like
+ * {@link TicketSpecifications}, a null argument means no filter.
+ */
+public final class TicketUsageSpecifications {
+
+    private TicketUsageSpecifications() {
+    }
+
+    public static Specification<TicketUsage> onRoute(Long routeId) {
+        return routeId == null ? null : (root, query, cb) -> cb.equal(root.get("route").get("id"), routeId);
+    }
+
+    public static Specification<TicketUsage> hasTransportType(TransportType transportType) {
+        return transportType == null ? null : (root, query, cb) -> cb.equal(root.get("transportType"), transportType);
+    }
+
+    /**
+     * Used at or after a point in time
+     */
+    public static Specification<TicketUsage> usedFrom(LocalDateTime from) {
+        return from == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("usedAt"), from);
+    }
+
+    /**
+     * Used strictly before a point in time
+     */
+    public static Specification<TicketUsage> usedBefore(LocalDateTime to) {
+        return to == null ? null : (root, query, cb) -> cb.lessThan(root.get("usedAt"), to);
+    }
+}
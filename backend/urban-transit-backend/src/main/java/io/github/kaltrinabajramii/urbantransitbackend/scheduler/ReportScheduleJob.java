@@ -0,0 +1,89 @@
+package io.github.kaltrinabajramii.urbantransitbackend.scheduler;
+
+import io.github.kaltrinabajramii.urbantransitbackend.model.entity.ReportJob;
+import io.github.kaltrinabajramii.urbantransitbackend.model.entity.ReportSchedule;
+import io.github.kaltrinabajramii.urbantransitbackend.report.ReportJobRunner;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.ReportJobRepository;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.ReportScheduleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Queues a report job for every schedule whose current period has closed.
+ *
+ * A period is due once its end plus app.reports.closed-period-grace-minutes has passed, so
+ * late taps and rollups have settled and the result is reusable by later jobs of that period.
+ *
+ * A schedule due several times over (e.g. after downtime) gets one job per missed period,
+ * oldest first, one period per schedule per run. Creating the job and moving the schedule on
+ * happen in one transaction guarded by the schedule's expected next run, so when several
+ * instances run this job each period is still reported once.
+ */
+@Component
+@Slf4j
+public class ReportScheduleJob {
+
+    private final ReportScheduleRepository reportScheduleRepository;
+    private final ReportJobRepository reportJobRepository;
+    private final ReportJobRunner reportJobRunner;
+    private final TransactionTemplate scheduleTransaction;
+
+    public ReportScheduleJob(ReportScheduleRepository reportScheduleRepository,
+                             ReportJobRepository reportJobRepository,
+                             ReportJobRunner reportJobRunner,
+                             PlatformTransactionManager transactionManager) {
+        this.reportScheduleRepository = reportScheduleRepository;
+        this.reportJobRepository = reportJobRepository;
+        this.reportJobRunner = reportJobRunner;
+        this.scheduleTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${app.reports.schedule-check-interval-ms:60000}",
+            initialDelayString = "${app.reports.schedule-check-interval-ms:60000}")
+    public void queueDueReports() {
+        try {
+            for (ReportSchedule schedule : reportScheduleRepository
+                    .findByActiveTrueAndNextRunAtLessThanEqualOrderByNextRunAtAsc(LocalDateTime.now())) {
+                queuePeriod(schedule);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Queueing scheduled reports failed: {}", e.getMessage());
+        }
+    }
+
+    // ===== PRIVATE HELPER METHODS =====
+
+    private void queuePeriod(ReportSchedule schedule) {
+        scheduleTransaction.executeWithoutResult(status -> {
+            LocalDate periodStart = schedule.getNextPeriodStart().toLocalDate();
+            LocalDate periodEnd = schedule.getFrequency().nextPeriodStart(periodStart);
+
+            ReportJob job = new ReportJob();
+            job.setReportType(schedule.getReportType());
+            job.setPeriodStart(periodStart.atStartOfDay());
+            job.setPeriodEnd(periodEnd.atStartOfDay());
+            job.setScheduleId(schedule.getId());
+            job.setRequestedBy(schedule.getCreatedBy());
+            ReportJob savedJob = reportJobRepository.save(job);
+
+            int advanced = reportScheduleRepository.advance(schedule.getId(), schedule.getNextRunAt(),
+                    periodEnd.atStartOfDay(),
+                    reportJobRunner.closedAt(schedule.getFrequency().nextPeriodStart(periodEnd).atStartOfDay()),
+                    savedJob.getId());
+            if (advanced == 0) {
+                // Another instance queued this period, or the schedule was cancelled meanwhile
+                status.setRollbackOnly();
+                return;
+            }
+            reportJobRunner.dispatchAfterCommit(savedJob.getId());
+            log.info("Queued report job {} for schedule {} ({} to {})",
+                    savedJob.getId(), schedule.getId(), periodStart, periodEnd);
+        });
+    }
+}
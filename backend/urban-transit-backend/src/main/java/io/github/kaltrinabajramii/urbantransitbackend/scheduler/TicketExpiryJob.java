@@ -0,0 +1,133 @@
+package io.github.kaltrinabajramii.urbantransitbackend.scheduler;
+
+import io.github.kaltrinabajramii.urbantransitbackend.cache.ActiveTicketIndex;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Moves overdue ACTIVE tickets to EXPIRED.
+ *
+ * Each run issues bulk UPDATEs of at most {@code chunk-size} rows, each in its own
+ * short transaction, until a chunk comes back short or the per-run chunk budget is
+ * spent. Nothing is loaded into memory and no transaction spans more than one chunk.
+ */
+@Component
+@Slf4j
+public class TicketExpiryJob {
+
+    private final TicketJdbcRepository ticketJdbcRepository;
+    private final ActiveTicketIndex activeTicketIndex;
+    private final TransactionTemplate chunkTransaction;
+    private final ReentrantLock runLock = new ReentrantLock();
+
+    private final AtomicLong totalRuns = new AtomicLong();
+    private final AtomicLong totalExpired = new AtomicLong();
+
+    @Value("${app.tickets.expiry.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.tickets.expiry.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.tickets.expiry.max-chunks-per-run:500}")
+    private int maxChunksPerRun;
+
+    private volatile RunStats lastRun;
+
+    public TicketExpiryJob(TicketJdbcRepository ticketJdbcRepository,
+                           ActiveTicketIndex activeTicketIndex,
+                           PlatformTransactionManager transactionManager) {
+        this.ticketJdbcRepository = ticketJdbcRepository;
+        this.activeTicketIndex = activeTicketIndex;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        // Always commit per chunk, even when called from inside a service transaction
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.chunkTransaction.setTimeout(30);
+    }
+
+    /**
+     * Metrics of one expiry run
+     *
+     * @param lagSeconds how long the oldest overdue ticket had been overdue when the run started
+     * @param backlogRemaining true when the run stopped on its chunk budget rather than running dry
+     */
+    public record RunStats(LocalDateTime startedAt,
+                           long durationMillis,
+                           int ticketsExpired,
+                           int chunks,
+                           long lagSeconds,
+                           boolean backlogRemaining,
+                           long totalRuns,
+                           long totalExpired) {
+    }
+
+    @Scheduled(fixedDelayString = "${app.tickets.expiry.interval-ms:60000}",
+            initialDelayString = "${app.tickets.expiry.initial-delay-ms:30000}")
+    public void scheduledRun() {
+        if (enabled) {
+            run();
+        }
+    }
+
+    /**
+     * Expire overdue tickets now
+     *
+     * @return number of tickets expired, or 0 if another run is in progress
+     */
+    public int run() {
+        if (!runLock.tryLock()) {
+            log.debug("Ticket expiry already running, skipping");
+            return 0;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            long started = System.nanoTime();
+
+            long lagSeconds = ticketJdbcRepository.findOldestOverdueValidUntil(now)
+                    .map(oldest -> Duration.between(oldest, now).getSeconds())
+                    .orElse(0L);
+
+            int expired = 0;
+            int chunks = 0;
+            int lastChunk = chunkSize;
+            while (lastChunk == chunkSize && chunks < maxChunksPerRun) {
+                Integer updated = chunkTransaction.execute(status -> ticketJdbcRepository.expireChunk(now, chunkSize));
+                lastChunk = updated != null ? updated : 0;
+                expired += lastChunk;
+                chunks++;
+            }
+            activeTicketIndex.evictExpired(now);
+
+            long durationMillis = (System.nanoTime() - started) / 1_000_000;
+            boolean backlogRemaining = lastChunk == chunkSize;
+            lastRun = new RunStats(now, durationMillis, expired, chunks, lagSeconds, backlogRemaining,
+                    totalRuns.incrementAndGet(), totalExpired.addAndGet(expired));
+
+            if (expired > 0 || backlogRemaining) {
+                log.info("Expired {} tickets in {} chunks ({} ms, lag {} s{})", expired, chunks, durationMillis,
+                        lagSeconds, backlogRemaining ? ", backlog remaining" : "");
+            }
+            return expired;
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    /**
+     * Metrics of the most recent run, or null before the first run
+     */
+    public RunStats getLastRun() {
+        return lastRun;
+    }
+}
@@ -0,0 +1,267 @@
+package io.github.kaltrinabajramii.urbantransitbackend.scheduler;
+
+import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketJdbcRepository;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketRepository;
+import io.github.kaltrinabajramii.urbantransitbackend.util.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Expires tickets within a tick of their validUntil instead of waiting for the next sweep.
+ *
+ * Tickets expiring within the horizon are held in a {@link TimingWheel}: loaded at startup,
+ * topped up periodically, and fed by purchases. Each tick the wheel is advanced and every
+ * ticket that fell due is expired with one bulk UPDATE per batch. The UPDATE re-checks
+ * status and validUntil, so a stale entry (ticket used, cancelled or extended meanwhile)
+ * is a no-op. {@link TicketExpiryJob} stays in place as the backstop sweep.
+ */
+@Component
+@Slf4j
+public class TicketExpiryWheel {
+
+    private final TicketRepository ticketRepository;
+    private final TicketJdbcRepository ticketJdbcRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate batchTransaction;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final AtomicLong fired = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong maxFireDelayMillis = new AtomicLong();
+
+    @Value("${app.tickets.expiry.wheel.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.tickets.expiry.wheel.tick-ms:1000}")
+    private long tickMillis;
+
+    @Value("${app.tickets.expiry.wheel.horizon-hours:48}")
+    private long horizonHours;
+
+    @Value("${app.tickets.expiry.wheel.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.tickets.expiry.wheel.initial-capacity:4096}")
+    private int initialCapacity;
+
+    private volatile TimingWheel wheel;
+
+    // Ids that fell due on the current tick, flushed outside the lock
+    private long[] due = new long[64];
+    private int dueCount;
+
+    public TicketExpiryWheel(TicketRepository ticketRepository,
+                             TicketJdbcRepository ticketJdbcRepository,
+                             PlatformTransactionManager transactionManager) {
+        this.ticketRepository = ticketRepository;
+        this.ticketJdbcRepository = ticketJdbcRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.batchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Wheel counters for monitoring
+     */
+    public record Stats(boolean enabled, int pending, long fired, long expired, long batches, long maxFireDelayMillis) {
+    }
+
+    // ===== LOADING =====
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            wheel = new TimingWheel(toTick(System.currentTimeMillis()), initialCapacity);
+        } finally {
+            lock.unlock();
+        }
+        int loaded = loadHorizon();
+        log.info("Expiry wheel loaded {} tickets expiring within {} hours", loaded, horizonHours);
+    }
+
+    /**
+     * Top up the wheel with tickets that have moved into the horizon since the last load
+     */
+    @Scheduled(fixedDelayString = "${app.tickets.expiry.wheel.refill-interval-ms:3600000}",
+            initialDelayString = "${app.tickets.expiry.wheel.refill-interval-ms:3600000}")
+    public void refill() {
+        if (wheel != null) {
+            int added = loadHorizon();
+            log.debug("Expiry wheel refill added {} tickets", added);
+        }
+    }
+
+    // ===== SCHEDULING =====
+
+    /**
+     * Schedule a ticket's expiry; ignored when it lies beyond the horizon (a later refill picks it up)
+     */
+    public void schedule(long ticketId, LocalDateTime validUntil) {
+        TimingWheel current = wheel;
+        if (current == null) {
+            return;
+        }
+        long deadlineMillis = toEpochMillis(validUntil);
+        if (deadlineMillis - System.currentTimeMillis() > horizonHours * 3_600_000L) {
+            return;
+        }
+        lock.lock();
+        try {
+            current.schedule(ticketId, toDeadlineTick(deadlineMillis));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void scheduleAfterCommit(long ticketId, LocalDateTime validUntil) {
+        AfterCommit.run(() -> schedule(ticketId, validUntil));
+    }
+
+    /**
+     * Drop a pending expiry, e.g. when a ride is consumed or a ticket cancelled
+     */
+    public void cancel(long ticketId) {
+        TimingWheel current = wheel;
+        if (current == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            current.cancel(ticketId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void cancelAfterCommit(long ticketId) {
+        AfterCommit.run(() -> cancel(ticketId));
+    }
+
+    // ===== TICKING =====
+
+    @Scheduled(fixedRateString = "${app.tickets.expiry.wheel.tick-ms:1000}")
+    public void tick() {
+        TimingWheel current = wheel;
+        if (current == null) {
+            return;
+        }
+
+        long nowMillis = System.currentTimeMillis();
+        long firstTick;
+        long[] dueIds;
+        lock.lock();
+        try {
+            firstTick = current.currentTick() + 1;
+            dueCount = 0;
+            current.advanceTo(toTick(nowMillis), this::collectDue);
+            dueIds = Arrays.copyOf(due, dueCount);
+        } finally {
+            lock.unlock();
+        }
+        if (dueIds.length == 0) {
+            return;
+        }
+
+        // How late the oldest tick handled in this call is; add up to one tick for rounding deadlines up
+        long delay = nowMillis - firstTick * tickMillis;
+        maxFireDelayMillis.accumulateAndGet(delay, Math::max);
+        fired.addAndGet(dueIds.length);
+        flush(dueIds, LocalDateTime.now());
+    }
+
+    public Stats getStats() {
+        TimingWheel current = wheel;
+        int pending;
+        lock.lock();
+        try {
+            pending = current != null ? current.size() : 0;
+        } finally {
+            lock.unlock();
+        }
+        return new Stats(enabled, pending, fired.get(), expired.get(), batches.get(), maxFireDelayMillis.get());
+    }
+
+    // ===== PRIVATE HELPER METHODS =====
+
+    private void collectDue(long ticketId) {
+        if (dueCount == due.length) {
+            due = Arrays.copyOf(due, dueCount * 2);
+        }
+        due[dueCount++] = ticketId;
+    }
+
+    private void flush(long[] ticketIds, LocalDateTime now) {
+        for (int from = 0; from < ticketIds.length; from += batchSize) {
+            long[] batch = Arrays.copyOfRange(ticketIds, from, Math.min(ticketIds.length, from + batchSize));
+            try {
+                Integer updated = batchTransaction.execute(status -> ticketJdbcRepository.expireByIds(batch, now));
+                expired.addAndGet(updated != null ? updated : 0);
+                batches.incrementAndGet();
+            } catch (RuntimeException e) {
+                // The backstop sweep will expire these on its next run
+                log.warn("Expiry wheel batch of {} tickets failed: {}", batch.length, e.getMessage());
+            }
+        }
+    }
+
+    private int loadHorizon() {
+        LocalDateTime until = LocalDateTime.now().plusHours(horizonHours);
+        Integer added = readOnlyTransaction.execute(status -> {
+            int count = 0;
+            try (Stream<Object[]> rows = ticketRepository.streamActiveTicketExpiriesBefore(until)) {
+                Iterator<Object[]> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    Object[] row = iterator.next();
+                    long ticketId = (Long) row[0];
+                    long deadlineTick = toDeadlineTick(toEpochMillis((LocalDateTime) row[1]));
+                    lock.lock();
+                    try {
+                        if (!wheel.contains(ticketId) && wheel.schedule(ticketId, deadlineTick)) {
+                            count++;
+                        }
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            }
+            return count;
+        });
+        return added != null ? added : 0;
+    }
+
+    private long toTick(long epochMillis) {
+        return epochMillis / tickMillis;
+    }
+
+    /**
+     * Round up so a ticket never fires before its validUntil
+     */
+    private long toDeadlineTick(long epochMillis) {
+        return Math.floorDiv(epochMillis + tickMillis - 1, tickMillis);
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,301 @@
+package io.github.kaltrinabajramii.urbantransitbackend.scheduler;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Hierarchical timing wheel of long ids keyed by an integer tick.
+ *
+ * Four levels of 64 slots each cover 64^4 ticks (about 194 days at one-second ticks).
+ * An entry goes to the lowest level whose span covers its distance from the current
+ * tick and moves down a level each time the wheel reaches its slot, so insert, cancel
+ * and per-tick expiry are all O(1) per entry.
+ *
+ * Entries live in parallel primitive arrays linked into per-slot doubly linked lists,
+ * with an open-addressing id index for cancel; no objects are allocated per entry.
+ * Not thread-safe: callers synchronize.
+ */
+public final class TimingWheel {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final int NIL = -1;
+
+    /** Largest distance (in ticks) the wheel can hold */
+    public static final long MAX_DELAY_TICKS = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    private final int[] heads = new int[LEVELS * SLOTS];
+
+    // Node pool
+    private long[] ids;
+    private long[] deadlines;
+    private int[] next;
+    private int[] prev;
+    private int[] bucketOf;
+    private int freeHead;
+    private int size;
+
+    // id -> node, open addressing with linear probing
+    private long[] indexKeys;
+    private int[] indexNodes;
+    private int indexMask;
+
+    private long currentTick;
+
+    public TimingWheel(long startTick, int initialCapacity) {
+        this.currentTick = startTick;
+        Arrays.fill(heads, NIL);
+
+        int capacity = Math.max(16, initialCapacity);
+        ids = new long[capacity];
+        deadlines = new long[capacity];
+        next = new int[capacity];
+        prev = new int[capacity];
+        bucketOf = new int[capacity];
+        linkFreeNodes(0, capacity);
+
+        int indexCapacity = Integer.highestOneBit(capacity * 2 - 1) << 1;
+        indexKeys = new long[indexCapacity];
+        indexNodes = new int[indexCapacity];
+        Arrays.fill(indexNodes, NIL);
+        indexMask = indexCapacity - 1;
+    }
+
+    public long currentTick() {
+        return currentTick;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(long id) {
+        return findNode(id) != NIL;
+    }
+
+    /**
+     * Schedule {@code id} to fire at {@code deadlineTick}; replaces an existing schedule for the same id
+     *
+     * @return false if the deadline is beyond the wheel's range (the entry is not added)
+     */
+    public boolean schedule(long id, long deadlineTick) {
+        if (deadlineTick - currentTick > MAX_DELAY_TICKS) {
+            return false;
+        }
+        cancel(id);
+        if (size == ids.length) {
+            grow();
+        }
+
+        int node = freeHead;
+        freeHead = next[node];
+        ids[node] = id;
+        // Anything already due fires on the next advance
+        deadlines[node] = Math.max(deadlineTick, currentTick + 1);
+        link(node);
+        indexPut(id, node);
+        size++;
+        return true;
+    }
+
+    /**
+     * Remove a pending entry
+     *
+     * @return true if the id was scheduled
+     */
+    public boolean cancel(long id) {
+        int node = findNode(id);
+        if (node == NIL) {
+            return false;
+        }
+        unlink(node);
+        indexRemove(id);
+        release(node);
+        return true;
+    }
+
+    /**
+     * Advance the wheel up to and including {@code targetTick}, passing every id that falls due to {@code expired}
+     */
+    public void advanceTo(long targetTick, LongConsumer expired) {
+        while (currentTick < targetTick) {
+            currentTick++;
+
+            // Move entries of higher levels whose window starts now one level down
+            for (int level = LEVELS - 1; level >= 1; level--) {
+                long span = 1L << (SLOT_BITS * level);
+                if ((currentTick & (span - 1)) == 0) {
+                    cascade(level, (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK));
+                }
+            }
+
+            drain(bucket(0, (int) (currentTick & SLOT_MASK)), expired);
+        }
+    }
+
+    // ===== PRIVATE HELPER METHODS =====
+
+    private void cascade(int level, int slot) {
+        int bucket = bucket(level, slot);
+        int node = heads[bucket];
+        heads[bucket] = NIL;
+        while (node != NIL) {
+            int following = next[node];
+            link(node);
+            node = following;
+        }
+    }
+
+    private void drain(int bucket, LongConsumer expired) {
+        int node = heads[bucket];
+        heads[bucket] = NIL;
+        while (node != NIL) {
+            int following = next[node];
+            long id = ids[node];
+            indexRemove(id);
+            release(node);
+            expired.accept(id);
+            node = following;
+        }
+    }
+
+    /**
+     * Put a node into the slot matching its distance from the current tick
+     */
+    private void link(int node) {
+        long deadline = deadlines[node];
+        long delay = deadline - currentTick;
+        int bucket;
+        if (delay <= 0) {
+            // Cascaded into the tick being processed: drained right after the cascade
+            bucket = bucket(0, (int) (currentTick & SLOT_MASK));
+        } else {
+            int level = 0;
+            while (level < LEVELS - 1 && delay >= (1L << (SLOT_BITS * (level + 1)))) {
+                level++;
+            }
+            bucket = bucket(level, (int) ((deadline >>> (SLOT_BITS * level)) & SLOT_MASK));
+        }
+
+        bucketOf[node] = bucket;
+        prev[node] = NIL;
+        next[node] = heads[bucket];
+        if (heads[bucket] != NIL) {
+            prev[heads[bucket]] = node;
+        }
+        heads[bucket] = node;
+    }
+
+    private void unlink(int node) {
+        int bucket = bucketOf[node];
+        if (prev[node] != NIL) {
+            next[prev[node]] = next[node];
+        } else {
+            heads[bucket] = next[node];
+        }
+        if (next[node] != NIL) {
+            prev[next[node]] = prev[node];
+        }
+    }
+
+    private void release(int node) {
+        bucketOf[node] = NIL;
+        next[node] = freeHead;
+        freeHead = node;
+        size--;
+    }
+
+    private static int bucket(int level, int slot) {
+        return level * SLOTS + slot;
+    }
+
+    private void linkFreeNodes(int from, int to) {
+        for (int i = from; i < to; i++) {
+            next[i] = i + 1 < to ? i + 1 : NIL;
+            bucketOf[i] = NIL;
+        }
+        freeHead = from;
+    }
+
+    private void grow() {
+        int oldCapacity = ids.length;
+        int newCapacity = oldCapacity * 2;
+        ids = Arrays.copyOf(ids, newCapacity);
+        deadlines = Arrays.copyOf(deadlines, newCapacity);
+        next = Arrays.copyOf(next, newCapacity);
+        prev = Arrays.copyOf(prev, newCapacity);
+        bucketOf = Arrays.copyOf(bucketOf, newCapacity);
+        linkFreeNodes(oldCapacity, newCapacity);
+        rehashIndex(indexKeys.length * 2);
+    }
+
+    // ===== ID INDEX =====
+
+    private int findNode(long id) {
+        int slot = hash(id) & indexMask;
+        while (indexNodes[slot] != NIL) {
+            if (indexKeys[slot] == id) {
+                return indexNodes[slot];
+            }
+            slot = (slot + 1) & indexMask;
+        }
+        return NIL;
+    }
+
+    private void indexPut(long id, int node) {
+        int slot = hash(id) & indexMask;
+        while (indexNodes[slot] != NIL && indexKeys[slot] != id) {
+            slot = (slot + 1) & indexMask;
+        }
+        indexKeys[slot] = id;
+        indexNodes[slot] = node;
+    }
+
+    private void indexRemove(long id) {
+        int slot = hash(id) & indexMask;
+        while (indexNodes[slot] != NIL) {
+            if (indexKeys[slot] == id) {
+                break;
+            }
+            slot = (slot + 1) & indexMask;
+        }
+        if (indexNodes[slot] == NIL) {
+            return;
+        }
+
+        // Backward-shift deletion keeps probe chains intact without tombstones
+        int hole = slot;
+        int probe = (hole + 1) & indexMask;
+        while (indexNodes[probe] != NIL) {
+            int home = hash(indexKeys[probe]) & indexMask;
+            if (((probe - home) & indexMask) >= ((probe - hole) & indexMask)) {
+                indexKeys[hole] = indexKeys[probe];
+                indexNodes[hole] = indexNodes[probe];
+                hole = probe;
+            }
+            probe = (probe + 1) & indexMask;
+        }
+        indexNodes[hole] = NIL;
+    }
+
+    private void rehashIndex(int newCapacity) {
+        long[] oldKeys = indexKeys;
+        int[] oldNodes = indexNodes;
+        indexKeys = new long[newCapacity];
+        indexNodes = new int[newCapacity];
+        Arrays.fill(indexNodes, NIL);
+        indexMask = newCapacity - 1;
+        for (int i = 0; i < oldNodes.length; i++) {
+            if (oldNodes[i] != NIL) {
+                indexPut(oldKeys[i], oldNodes[i]);
+            }
+        }
+    }
+
+    private static int hash(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,65 @@
+package io.github.kaltrinabajramii.urbantransitbackend.scheduler;
+
+import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketUsageJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * One-off migration that copies the ticket owner onto taps recorded before ticket_usage carried a user_id.
+ *
+ * Runs at startup in chunks of {@code chunk-size} rows, each in its own short transaction,
+ * until no tap is left without an owner. Every insert path (single taps, bulk taps and the
+ * journal flush) writes the owner itself, so nothing relies on this job to repair new rows;
+ * set {@code app.usage.owner-backfill.enabled=false} once a start has found nothing to do.
+ */
+@Component
+@Slf4j
+public class UsageOwnerBackfillJob {
+
+    private final TicketUsageJdbcRepository ticketUsageJdbcRepository;
+    private final TransactionTemplate chunkTransaction;
+
+    @Value("${app.usage.owner-backfill.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.usage.owner-backfill.chunk-size:5000}")
+    private int chunkSize;
+
+    public UsageOwnerBackfillJob(TicketUsageJdbcRepository ticketUsageJdbcRepository,
+                                 PlatformTransactionManager transactionManager) {
+        this.ticketUsageJdbcRepository = ticketUsageJdbcRepository;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setTimeout(60);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.nanoTime();
+        long updated = 0;
+        int lastChunk = chunkSize;
+        try {
+            while (lastChunk == chunkSize) {
+                Integer chunk = chunkTransaction.execute(status -> ticketUsageJdbcRepository.backfillUserIds(chunkSize));
+                lastChunk = chunk != null ? chunk : 0;
+                updated += lastChunk;
+            }
+        } catch (Exception e) {
+            log.warn("Tap owner backfill stopped after {} taps; travel history may miss older taps until the next start",
+                    updated, e);
+            return;
+        }
+        if (updated > 0) {
+            log.info("Tap owner backfilled on {} taps ({} ms)", updated, (System.nanoTime() - started) / 1_000_000);
+        } else {
+            log.info("Tap owner backfill found nothing to do; it can be disabled with app.usage.owner-backfill.enabled=false");
+        }
+    }
+}
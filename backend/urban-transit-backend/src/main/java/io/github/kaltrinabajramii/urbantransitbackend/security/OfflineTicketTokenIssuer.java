@@ -0,0 +1,107 @@
+package io.github.kaltrinabajramii.urbantransitbackend.security;
+
+import io.github.kaltrinabajramii.urbantransitbackend.model.entity.Ticket;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Signs offline ticket tokens with the backend's Ed25519 key.
+ * Validators only ever receive the public half, so a compromised vehicle cannot mint tickets.
+ */
+@Component
+@Slf4j
+public class OfflineTicketTokenIssuer {
+
+    // Base64 PKCS#8 / X.509 encodings; when unset an ephemeral pair is generated at startup
+    @Value("${app.tickets.offline.private-key:}")
+    private String privateKeyBase64;
+
+    @Value("${app.tickets.offline.public-key:}")
+    private String publicKeyBase64;
+
+    // Caps how long a cancelled pass keeps working on a disconnected vehicle
+    @Value("${app.tickets.offline.max-token-validity-hours:168}")
+    private long maxTokenValidityHours;
+
+    private PrivateKey privateKey;
+    private PublicKey publicKey;
+    private int keyId;
+
+    private final ThreadLocal<Signature> signers = ThreadLocal.withInitial(() -> {
+        try {
+            return Signature.getInstance("Ed25519");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Ed25519 not available", e);
+        }
+    });
+
+    @PostConstruct
+    public void init() throws GeneralSecurityException {
+        if (privateKeyBase64.isBlank() || publicKeyBase64.isBlank()) {
+            KeyPair keyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+            privateKey = keyPair.getPrivate();
+            publicKey = keyPair.getPublic();
+            log.warn("No offline ticket signing key configured; generated an ephemeral key. " +
+                    "Offline tokens will stop verifying after a restart.");
+        } else {
+            KeyFactory keyFactory = KeyFactory.getInstance("Ed25519");
+            privateKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(Base64.getDecoder().decode(privateKeyBase64)));
+            publicKey = keyFactory.generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(publicKeyBase64)));
+        }
+        keyId = OfflineTicketValidator.keyIdOf(publicKey);
+    }
+
+    /**
+     * Sign a token for a ticket; the token expires with the ticket or after the configured cap, whichever is first
+     */
+    public String issue(Ticket ticket, LocalDateTime now) {
+        OfflineTicketValidator.Claims claims = new OfflineTicketValidator.Claims(
+                ticket.getTicketNumber(), ticket.getTicketType(), ticket.getUser().getId(),
+                ticket.getValidFrom(), ticket.getValidUntil(), expiresAt(ticket, now));
+        byte[] payload = OfflineTicketValidator.encodePayload(keyId, claims);
+
+        try {
+            Signature signer = signers.get();
+            signer.initSign(privateKey);
+            signer.update(payload);
+            byte[] signature = signer.sign();
+
+            byte[] token = new byte[payload.length + signature.length];
+            System.arraycopy(payload, 0, token, 0, payload.length);
+            System.arraycopy(signature, 0, token, payload.length, signature.length);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(token);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not sign offline ticket token", e);
+        }
+    }
+
+    /**
+     * When a token issued now for this ticket stops verifying
+     */
+    public LocalDateTime expiresAt(Ticket ticket, LocalDateTime now) {
+        LocalDateTime cap = now.plusHours(maxTokenValidityHours);
+        return ticket.getValidUntil().isBefore(cap) ? ticket.getValidUntil() : cap;
+    }
+
+    public int getKeyId() {
+        return keyId;
+    }
+
+    public String getPublicKeyBase64() {
+        return Base64.getEncoder().encodeToString(publicKey.getEncoded());
+    }
+}
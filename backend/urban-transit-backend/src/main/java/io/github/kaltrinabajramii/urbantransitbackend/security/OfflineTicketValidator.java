@@ -0,0 +1,241 @@
+package io.github.kaltrinabajramii.urbantransitbackend.security;
+
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TicketType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Verifies offline ticket tokens without any backend call.
+ *
+ * This class has no Spring dependencies so on-board validators can embed it as-is:
+ * fetch the keys from {@code GET /api/tickets/offline/keys} while online, register them
+ * with {@link #addKey(String)}, then call {@link #validate(String, LocalDateTime)} per tap.
+ * A signature check costs around a millisecond, so verified tokens are cached and a pass
+ * tapped again is answered with a hash lookup and a clock comparison.
+ *
+ * Token layout (base64url, no padding): payload followed by a 64-byte Ed25519 signature.
+ * <pre>
+ *   byte version | int keyId | byte ticketType | long userId
+ *   long validFrom | long validUntil | long tokenExpiresAt   (epoch seconds, local time as UTC)
+ *   byte numberLength | ticketNumber (ASCII)
+ * </pre>
+ */
+public final class OfflineTicketValidator {
+
+    static final byte FORMAT_VERSION = 1;
+    static final int SIGNATURE_BYTES = 64;
+    private static final int FIXED_PAYLOAD_BYTES = 1 + 4 + 1 + 8 + 8 + 8 + 8 + 1;
+    private static final TicketType[] TICKET_TYPES = TicketType.values();
+    private static final int DEFAULT_VERIFIED_CACHE_SIZE = 10_000;
+
+    /**
+     * What a token says about its ticket
+     */
+    public record Claims(String ticketNumber,
+                         TicketType ticketType,
+                         long userId,
+                         LocalDateTime validFrom,
+                         LocalDateTime validUntil,
+                         LocalDateTime tokenExpiresAt) {
+    }
+
+    public enum Status {
+        /** Pass inside its validity window - board without going online */
+        VALID,
+        /** Genuine single-ride ticket; single use can only be enforced once the tap syncs */
+        ONLINE_CHECK_REQUIRED,
+        NOT_YET_VALID,
+        EXPIRED,
+        UNKNOWN_KEY,
+        BAD_SIGNATURE,
+        MALFORMED
+    }
+
+    public record Result(Status status, Claims claims) {
+        public boolean isAccepted() {
+            return status == Status.VALID || status == Status.ONLINE_CHECK_REQUIRED;
+        }
+    }
+
+    private final Map<Integer, PublicKey> keys = new ConcurrentHashMap<>();
+    private final Map<String, Claims> verified = new ConcurrentHashMap<>();
+    private final int verifiedCacheSize;
+    private final ThreadLocal<Signature> verifiers = ThreadLocal.withInitial(() -> {
+        try {
+            return Signature.getInstance("Ed25519");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Ed25519 not available", e);
+        }
+    });
+
+    public OfflineTicketValidator() {
+        this(DEFAULT_VERIFIED_CACHE_SIZE);
+    }
+
+    /**
+     * @param verifiedCacheSize how many verified tokens to remember; 0 disables the cache
+     */
+    public OfflineTicketValidator(int verifiedCacheSize) {
+        this.verifiedCacheSize = verifiedCacheSize;
+    }
+
+    // ===== KEY CACHE =====
+
+    /**
+     * Register a verification key published by the backend (base64 X.509)
+     *
+     * @return key id the backend stamps into tokens signed with this key
+     */
+    public int addKey(String base64PublicKey) {
+        try {
+            byte[] encoded = Base64.getDecoder().decode(base64PublicKey);
+            PublicKey key = KeyFactory.getInstance("Ed25519").generatePublic(new X509EncodedKeySpec(encoded));
+            return addKey(key);
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Not an Ed25519 public key", e);
+        }
+    }
+
+    public int addKey(PublicKey key) {
+        int keyId = keyIdOf(key);
+        keys.put(keyId, key);
+        return keyId;
+    }
+
+    public void removeKey(int keyId) {
+        keys.remove(keyId);
+        // Tokens signed with a retired key must be re-verified (and now rejected)
+        verified.clear();
+    }
+
+    /**
+     * First four bytes of SHA-256 over the encoded public key
+     */
+    public static int keyIdOf(PublicKey key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getEncoded());
+            return ByteBuffer.wrap(digest).getInt();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // ===== VALIDATION =====
+
+    public Result validate(String token, LocalDateTime now) {
+        Claims cached = token == null ? null : verified.get(token);
+        if (cached != null) {
+            return checkWindow(cached, now);
+        }
+
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return new Result(Status.MALFORMED, null);
+        }
+        if (bytes.length < FIXED_PAYLOAD_BYTES + SIGNATURE_BYTES) {
+            return new Result(Status.MALFORMED, null);
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.get() != FORMAT_VERSION) {
+            return new Result(Status.MALFORMED, null);
+        }
+        PublicKey key = keys.get(buffer.getInt());
+        if (key == null) {
+            return new Result(Status.UNKNOWN_KEY, null);
+        }
+
+        int payloadLength = bytes.length - SIGNATURE_BYTES;
+        try {
+            Signature verifier = verifiers.get();
+            verifier.initVerify(key);
+            verifier.update(bytes, 0, payloadLength);
+            if (!verifier.verify(bytes, payloadLength, SIGNATURE_BYTES)) {
+                return new Result(Status.BAD_SIGNATURE, null);
+            }
+        } catch (GeneralSecurityException e) {
+            return new Result(Status.BAD_SIGNATURE, null);
+        }
+
+        Claims claims = decodeClaims(buffer, payloadLength);
+        if (claims == null) {
+            return new Result(Status.MALFORMED, null);
+        }
+        remember(token, claims);
+        return checkWindow(claims, now);
+    }
+
+    // ===== PRIVATE HELPER METHODS =====
+
+    private static Result checkWindow(Claims claims, LocalDateTime now) {
+        if (now.isBefore(claims.validFrom())) {
+            return new Result(Status.NOT_YET_VALID, claims);
+        }
+        if (!now.isBefore(claims.validUntil()) || !now.isBefore(claims.tokenExpiresAt())) {
+            return new Result(Status.EXPIRED, claims);
+        }
+        return new Result(claims.ticketType() == TicketType.RIDE ? Status.ONLINE_CHECK_REQUIRED : Status.VALID, claims);
+    }
+
+    private void remember(String token, Claims claims) {
+        if (verifiedCacheSize <= 0) {
+            return;
+        }
+        if (verified.size() >= verifiedCacheSize) {
+            // Crude but allocation-free bound; the working set refills within a few taps
+            verified.clear();
+        }
+        verified.put(token, claims);
+    }
+
+    // ===== ENCODING (shared with the issuer) =====
+
+    static byte[] encodePayload(int keyId, Claims claims) {
+        byte[] number = claims.ticketNumber().getBytes(StandardCharsets.US_ASCII);
+        if (number.length > 255) {
+            throw new IllegalArgumentException("Ticket number too long for an offline token");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(FIXED_PAYLOAD_BYTES + number.length);
+        buffer.put(FORMAT_VERSION);
+        buffer.putInt(keyId);
+        buffer.put((byte) claims.ticketType().ordinal());
+        buffer.putLong(claims.userId());
+        buffer.putLong(claims.validFrom().toEpochSecond(ZoneOffset.UTC));
+        buffer.putLong(claims.validUntil().toEpochSecond(ZoneOffset.UTC));
+        buffer.putLong(claims.tokenExpiresAt().toEpochSecond(ZoneOffset.UTC));
+        buffer.put((byte) number.length);
+        buffer.put(number);
+        return buffer.array();
+    }
+
+    private static Claims decodeClaims(ByteBuffer buffer, int payloadLength) {
+        int typeOrdinal = buffer.get();
+        if (typeOrdinal < 0 || typeOrdinal >= TICKET_TYPES.length) {
+            return null;
+        }
+        long userId = buffer.getLong();
+        LocalDateTime validFrom = LocalDateTime.ofEpochSecond(buffer.getLong(), 0, ZoneOffset.UTC);
+        LocalDateTime validUntil = LocalDateTime.ofEpochSecond(buffer.getLong(), 0, ZoneOffset.UTC);
+        LocalDateTime expiresAt = LocalDateTime.ofEpochSecond(buffer.getLong(), 0, ZoneOffset.UTC);
+        int numberLength = buffer.get() & 0xFF;
+        if (buffer.position() + numberLength != payloadLength) {
+            return null;
+        }
+        String ticketNumber = new String(buffer.array(), buffer.position(), numberLength, StandardCharsets.US_ASCII);
+        return new Claims(ticketNumber, TICKET_TYPES[typeOrdinal], userId, validFrom, validUntil, expiresAt);
+    }
+}
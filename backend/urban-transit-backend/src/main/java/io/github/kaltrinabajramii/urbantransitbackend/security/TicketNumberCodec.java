@@ -0,0 +1,259 @@
+package io.github.kaltrinabajramii.urbantransitbackend.security;
+
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TicketType;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates and verifies self-checking ticket numbers.
+ *
+ * Format: {@code TT-NNN-SSSSSSSSSS-CCCCCC} (24 characters, base 36)
+ * <ul>
+ *   <li>TT - ticket type prefix (RD, MO, YR)</li>
+ *   <li>NNN - node id of the instance that issued the ticket</li>
+ *   <li>SSSSSSSSSS - per-node monotonic sequence: epoch millis shifted left by 10 bits,
+ *       so it stays unique across restarts while allowing 1024 numbers per millisecond</li>
+ *   <li>CCCCCC - truncated HMAC-SHA256 of everything before it</li>
+ * </ul>
+ *
+ * A gate can reject malformed or forged numbers without touching the database.
+ * Numbers issued before this scheme are still accepted as {@link Verdict#LEGACY}
+ * and have to be looked up.
+ */
+@Component
+@Slf4j
+public class TicketNumberCodec {
+
+    /**
+     * Outcome of checking a ticket number offline
+     */
+    public enum Verdict {
+        VALID, LEGACY, MALFORMED, FORGED;
+
+        /**
+         * Whether the number is worth a lookup at all
+         */
+        public boolean isAcceptable() {
+            return this == VALID || this == LEGACY;
+        }
+    }
+
+    private static final char[] DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+    private static final int NODE_CHARS = 3;
+    private static final int SEQUENCE_CHARS = 10;
+    private static final int CHECK_CHARS = 6;
+    private static final int SEQUENCE_BITS_PER_MILLI = 10;
+    private static final int MAX_NODE_ID = 36 * 36 * 36 - 1;
+
+    private static final int NODE_OFFSET = 3;
+    private static final int SEQUENCE_OFFSET = NODE_OFFSET + NODE_CHARS + 1;
+    private static final int CHECK_OFFSET = SEQUENCE_OFFSET + SEQUENCE_CHARS + 1;
+    private static final int BODY_LENGTH = CHECK_OFFSET - 1;
+    private static final int LENGTH = CHECK_OFFSET + CHECK_CHARS;
+
+    @Value("${app.tickets.number.secret}")
+    private String secret;
+
+    @Value("${app.tickets.number.node-id:0}")
+    private int nodeId;
+
+    @Value("${app.tickets.number.accept-legacy:true}")
+    private boolean acceptLegacy;
+
+    private final AtomicLong lastSequence = new AtomicLong();
+
+    private SecretKeySpec key;
+    private ThreadLocal<Scratch> scratch;
+
+    /**
+     * Per-thread Mac and buffers, so generation and verification allocate only the result string
+     */
+    private static final class Scratch {
+        final Mac mac;
+        final byte[] body = new byte[BODY_LENGTH];
+        final byte[] digest = new byte[32];
+        final char[] chars = new char[LENGTH];
+
+        Scratch(SecretKeySpec key) {
+            try {
+                mac = Mac.getInstance("HmacSHA256");
+                mac.init(key);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 not available", e);
+            }
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalStateException("app.tickets.number.node-id must be between 0 and " + MAX_NODE_ID);
+        }
+        key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        scratch = ThreadLocal.withInitial(() -> new Scratch(key));
+        log.info("Ticket numbers issued as node {}", nodeId);
+    }
+
+    // ===== GENERATION =====
+
+    /**
+     * Issue a new ticket number - lock-free, unique per node
+     */
+    public String generate(TicketType ticketType) {
+        long sequence = nextSequence();
+        Scratch s = scratch.get();
+        char[] chars = s.chars;
+
+        String prefix = prefixOf(ticketType);
+        chars[0] = prefix.charAt(0);
+        chars[1] = prefix.charAt(1);
+        chars[2] = '-';
+        writeBase36(chars, NODE_OFFSET, NODE_CHARS, nodeId);
+        chars[SEQUENCE_OFFSET - 1] = '-';
+        writeBase36(chars, SEQUENCE_OFFSET, SEQUENCE_CHARS, sequence);
+        chars[CHECK_OFFSET - 1] = '-';
+        writeBase36(chars, CHECK_OFFSET, CHECK_CHARS, checkValue(s, chars));
+
+        return new String(chars);
+    }
+
+    // ===== VERIFICATION =====
+
+    /**
+     * Check a ticket number without any database access
+     */
+    public Verdict verify(String ticketNumber) {
+        if (ticketNumber == null) {
+            return Verdict.MALFORMED;
+        }
+        if (ticketNumber.length() != LENGTH) {
+            return acceptLegacy && isLegacyFormat(ticketNumber) ? Verdict.LEGACY : Verdict.MALFORMED;
+        }
+
+        if (typeOf(ticketNumber) == null
+                || ticketNumber.charAt(2) != '-'
+                || ticketNumber.charAt(SEQUENCE_OFFSET - 1) != '-'
+                || ticketNumber.charAt(CHECK_OFFSET - 1) != '-'
+                || !isBase36(ticketNumber, NODE_OFFSET, NODE_CHARS)
+                || !isBase36(ticketNumber, SEQUENCE_OFFSET, SEQUENCE_CHARS)
+                || !isBase36(ticketNumber, CHECK_OFFSET, CHECK_CHARS)) {
+            return Verdict.MALFORMED;
+        }
+
+        Scratch s = scratch.get();
+        ticketNumber.getChars(0, LENGTH, s.chars, 0);
+        long expected = checkValue(s, s.chars);
+        long actual = readBase36(s.chars, CHECK_OFFSET, CHECK_CHARS);
+        return expected == actual ? Verdict.VALID : Verdict.FORGED;
+    }
+
+    /**
+     * Ticket type embedded in a number, or null if the prefix is unknown
+     */
+    public TicketType typeOf(String ticketNumber) {
+        if (ticketNumber == null || ticketNumber.length() < 2) {
+            return null;
+        }
+        if (ticketNumber.startsWith("RD")) {
+            return TicketType.RIDE;
+        }
+        if (ticketNumber.startsWith("MO")) {
+            return TicketType.MONTHLY;
+        }
+        if (ticketNumber.startsWith("YR")) {
+            return TicketType.YEARLY;
+        }
+        return null;
+    }
+
+    // ===== PRIVATE HELPER METHODS =====
+
+    private long nextSequence() {
+        long floor = System.currentTimeMillis() << SEQUENCE_BITS_PER_MILLI;
+        return lastSequence.updateAndGet(previous -> Math.max(previous + 1, floor));
+    }
+
+    private static String prefixOf(TicketType ticketType) {
+        return switch (ticketType) {
+            case RIDE -> "RD";
+            case MONTHLY -> "MO";
+            case YEARLY -> "YR";
+        };
+    }
+
+    /**
+     * First 31 bits of HMAC-SHA256 over the number body; six base-36 digits hold up to 2^31
+     */
+    private static long checkValue(Scratch s, char[] chars) {
+        for (int i = 0; i < BODY_LENGTH; i++) {
+            s.body[i] = (byte) chars[i];
+        }
+        try {
+            s.mac.update(s.body, 0, BODY_LENGTH);
+            s.mac.doFinal(s.digest, 0);
+        } catch (ShortBufferException e) {
+            throw new IllegalStateException(e);
+        }
+        return ((s.digest[0] & 0x7FL) << 24)
+                | ((s.digest[1] & 0xFFL) << 16)
+                | ((s.digest[2] & 0xFFL) << 8)
+                | (s.digest[3] & 0xFFL);
+    }
+
+    private static void writeBase36(char[] chars, int offset, int width, long value) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            chars[i] = DIGITS[(int) (value % 36)];
+            value /= 36;
+        }
+    }
+
+    private static long readBase36(char[] chars, int offset, int width) {
+        long value = 0;
+        for (int i = offset; i < offset + width; i++) {
+            value = value * 36 + Character.digit(chars[i], 36);
+        }
+        return value;
+    }
+
+    private static boolean isBase36(String value, int offset, int width) {
+        for (int i = offset; i < offset + width; i++) {
+            char c = value.charAt(i);
+            if (!((c >= '0' && c <= '9') || (c >= 'A' && c <= 'Z'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Numbers issued before this scheme: PREFIX-timestamp-suffix, where the timestamp is
+     * yyyyMMddHHmmss or epoch millis and the suffix is up to four characters (RD-20240101120000-AB12, RD-1704110400000-42)
+     */
+    private boolean isLegacyFormat(String ticketNumber) {
+        if (typeOf(ticketNumber) == null || ticketNumber.length() < 6 || ticketNumber.charAt(2) != '-') {
+            return false;
+        }
+        int secondDash = ticketNumber.indexOf('-', 3);
+        int timestampLength = secondDash - 3;
+        int suffixLength = ticketNumber.length() - secondDash - 1;
+        if ((timestampLength != 13 && timestampLength != 14) || suffixLength < 1 || suffixLength > 4) {
+            return false;
+        }
+        for (int i = 3; i < secondDash; i++) {
+            char c = ticketNumber.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return isBase36(ticketNumber, secondDash + 1, suffixLength);
+    }
+}
@@ -1,31 +1,53 @@
 package io.github.kaltrinabajramii.urbantransitbackend.service.impl;
 
+import io.github.kaltrinabajramii.urbantransitbackend.analytics.DistinctRiderSketches;
+import io.github.kaltrinabajramii.urbantransitbackend.analytics.HourOfWeekHistograms;
+import io.github.kaltrinabajramii.urbantransitbackend.analytics.RevenueLedger;
+import io.github.kaltrinabajramii.urbantransitbackend.analytics.SalesAggregates;
+import io.github.kaltrinabajramii.urbantransitbackend.analytics.StopHeavyHitters;
+import io.github.kaltrinabajramii.urbantransitbackend.analytics.UsageColumnStore;
+import io.github.kaltrinabajramii.urbantransitbackend.analytics.UsageRollups;
+import io.github.kaltrinabajramii.urbantransitbackend.cache.DashboardSnapshotCache;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.request.UsageQueryRequest;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.ActiveRidersResponse;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.response.DashboardStatsResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.HourOfWeekUsageResponse;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.response.SalesAnalyticsResponse;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.response.RoutePopularityResponse;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.response.TransportTypeStatsResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.RouteRidersResponse;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.response.RouteSummaryResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.RouteUtilizationReportResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.RouteUtilizationResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.TransportTypeUtilizationResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.UsageGroupResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.UsageQueryResponse;
 import io.github.kaltrinabajramii.urbantransitbackend.model.entity.Route;
 import io.github.kaltrinabajramii.urbantransitbackend.model.entity.Ticket;
-import io.github.kaltrinabajramii.urbantransitbackend.model.entity.TicketUsage;
 import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TransportType;
 import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TicketType;
 import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TicketStatus;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.UsageWindow;
+import io.github.kaltrinabajramii.urbantransitbackend.report.CsvExporter;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.ExportJdbcRepository;
 import io.github.kaltrinabajramii.urbantransitbackend.repository.UserRepository;
 import io.github.kaltrinabajramii.urbantransitbackend.repository.RouteRepository;
 import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketRepository;
-import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketUsageRepository;
 import io.github.kaltrinabajramii.urbantransitbackend.service.interfaces.AnalyticsService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -34,49 +56,45 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class AnalyticsServiceImpl implements AnalyticsService {
 
+    private static final String TICKET_EXPORT_HEADER =
+            "id,ticket_number,user_id,ticket_type,price,status,purchase_date,valid_from,valid_until,used_date\n";
+    private static final String USAGE_EXPORT_HEADER =
+            "id,ticket_id,ticket_number,route_id,transport_type,boarding_stop,destination_stop,used_at,alighting_stop,alighted_at\n";
+
     private final UserRepository userRepository;
     private final RouteRepository routeRepository;
     private final TicketRepository ticketRepository;
-    private final TicketUsageRepository ticketUsageRepository;
+    private final UsageRollups usageRollups;
+    private final HourOfWeekHistograms hourOfWeekHistograms;
+    private final SalesAggregates salesAggregates;
+    private final RevenueLedger revenueLedger;
+    private final DashboardSnapshotCache dashboardSnapshotCache;
+    private final DistinctRiderSketches distinctRiderSketches;
+    private final StopHeavyHitters stopHeavyHitters;
+    private final UsageColumnStore usageColumnStore;
+    private final ExportJdbcRepository exportJdbcRepository;
+    private final CsvExporter csvExporter;
+
+    private static final int DEFAULT_UTILIZATION_DAYS = 30;
 
     // ===== DASHBOARD ANALYTICS =====
+    // Served from the snapshot cache; no transaction, so a request waiting on a refresh holds no connection
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ResponseEntity<DashboardStatsResponse> getDashboardStats() {
         try {
-            DashboardStatsResponse stats = new DashboardStatsResponse();
-
-            stats.setTotalUsers(userRepository.count());
-            stats.setTotalRoutes(routeRepository.count());
-            stats.setTotalActiveTickets(ticketRepository.countByStatus(TicketStatus.ACTIVE));
-            stats.setTodayUsageCount(ticketUsageRepository.countTodayUsage());
-            stats.setTotalRevenue(ticketRepository.calculateRevenueByDateRange(
-                            LocalDateTime.now().minusYears(1), LocalDateTime.now())
-                    .orElse(BigDecimal.ZERO));
-            stats.setTotalTicketsSold(ticketRepository.count());
-
-            return ResponseEntity.ok(stats);
+            return ResponseEntity.ok(dashboardSnapshotCache.current().dashboard());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ResponseEntity<DashboardStatsResponse> getTodayStats() {
         try {
-            LocalDateTime startOfDay = LocalDateTime.now().withHour(0).withMinute(0).withSecond(0);
-            LocalDateTime endOfDay = LocalDateTime.now().withHour(23).withMinute(59).withSecond(59);
-
-            DashboardStatsResponse stats = new DashboardStatsResponse();
-            stats.setTodayUsageCount(ticketUsageRepository.countTodayUsage());
-            stats.setTotalRevenue(ticketRepository.calculateRevenueByDateRange(startOfDay, endOfDay)
-                    .orElse(BigDecimal.ZERO));
-
-            long todayTickets = ticketRepository.findTicketsPurchasedBetween(startOfDay, endOfDay,
-                    PageRequest.of(0, Integer.MAX_VALUE)).getTotalElements();
-            stats.setTotalTicketsSold(todayTickets);
-
-            return ResponseEntity.ok(stats);
+            return ResponseEntity.ok(dashboardSnapshotCache.current().today());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -85,9 +103,10 @@ public class AnalyticsServiceImpl implements AnalyticsService {
     @Override
     public ResponseEntity<BigDecimal> getRevenueAnalytics(LocalDateTime startDate, LocalDateTime endDate) {
         try {
-            BigDecimal revenue = ticketRepository.calculateRevenueByDateRange(startDate, endDate)
-                    .orElse(BigDecimal.ZERO);
-            return ResponseEntity.ok(revenue);
+            if (startDate.isAfter(endDate)) {
+                return ResponseEntity.badRequest().build();
+            }
+            return ResponseEntity.ok(revenueLedger.sales(startDate, endDate).revenue());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -98,38 +117,7 @@ public class AnalyticsServiceImpl implements AnalyticsService {
     @Override
     public ResponseEntity<List<SalesAnalyticsResponse>> getSalesAnalyticsByTicketType() {
         try {
-            List<Object[]> results = ticketRepository.countTicketsByType();
-
-            List<SalesAnalyticsResponse> analytics = results.stream()
-                    .map(result -> {
-                        TicketType type = (TicketType) result[0];
-                        Long count = (Long) result[1];
-
-                        // Simple revenue calculation
-                        BigDecimal revenue = BigDecimal.ZERO;
-                        try {
-                            List< Ticket > tickets = ticketRepository.findByTicketTypeOrderByPurchaseDateDesc(type);
-                            revenue = tickets.stream()
-                                    .map(ticket -> {
-                                        try {
-                                            return (BigDecimal) ticket.getClass().getMethod("getPrice").invoke(ticket);
-                                        } catch (Exception e) {
-                                            return BigDecimal.ZERO;
-                                        }
-                                    })
-                                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-                        } catch (Exception e) {
-                            // Continue with zero revenue
-                        }
-
-                        SalesAnalyticsResponse analytics1 = new SalesAnalyticsResponse();
-                        analytics1.setTicketType(type);
-                        analytics1.setTicketCount(count);
-                        analytics1.setTotalRevenue(revenue);
-                        return analytics1;
-                    })
-                    .collect(Collectors.toList());
-
+            List<SalesAnalyticsResponse> analytics = salesAggregates.byTicketType();
             return ResponseEntity.ok(analytics);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -141,7 +129,7 @@ public class AnalyticsServiceImpl implements AnalyticsService {
         try {
             LocalDateTime endDate = LocalDateTime.now();
             LocalDateTime startDate = endDate.minusDays(days);
-            List<Object[]> trends = ticketUsageRepository.getDailyUsageStats(startDate, endDate);
+            List<Object[]> trends = usageRollups.tapsPerDay(startDate, endDate);
             return ResponseEntity.ok(trends);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -153,14 +141,16 @@ public class AnalyticsServiceImpl implements AnalyticsService {
         try {
             List<Object[]> monthlyStats = new ArrayList<>();
 
+            // Calendar months, the current one up to now
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime currentMonth = now.toLocalDate().withDayOfMonth(1).atStartOfDay();
             for (int i = 0; i < months; i++) {
-                LocalDateTime endDate = LocalDateTime.now().minusMonths(i);
-                LocalDateTime startDate = endDate.minusMonths(1);
+                LocalDateTime startDate = currentMonth.minusMonths(i);
+                LocalDateTime endDate = i == 0 ? now : startDate.plusMonths(1);
 
-                BigDecimal revenue = ticketRepository.calculateRevenueByDateRange(startDate, endDate)
-                        .orElse(BigDecimal.ZERO);
+                BigDecimal revenue = revenueLedger.sales(startDate, endDate).revenue();
 
-                monthlyStats.add(new Object[]{endDate.getMonth().name(), revenue});
+                monthlyStats.add(new Object[]{startDate.getMonth().name(), revenue});
             }
 
             return ResponseEntity.ok(monthlyStats);
@@ -172,10 +162,14 @@ public class AnalyticsServiceImpl implements AnalyticsService {
     @Override
     public ResponseEntity<List<Object[]>> getPeakUsageHours() {
         try {
-            // Simple implementation - return placeholder data
+            long[] hourOfWeek = hourOfWeekHistograms.overall();
             List<Object[]> hourlyData = new ArrayList<>();
             for (int hour = 0; hour < 24; hour++) {
-                hourlyData.add(new Object[]{hour, (long)(Math.random() * 100)});
+                long taps = 0;
+                for (int day = 0; day < 7; day++) {
+                    taps += hourOfWeek[day * 24 + hour];
+                }
+                hourlyData.add(new Object[]{hour, taps});
             }
             return ResponseEntity.ok(hourlyData);
         } catch (Exception e) {
@@ -183,22 +177,92 @@ public class AnalyticsServiceImpl implements AnalyticsService {
         }
     }
 
+    @Override
+    public ResponseEntity<HourOfWeekUsageResponse> getHourOfWeekUsage(Long routeId, TransportType transportType) {
+        try {
+            long[] hourOfWeek;
+            if (routeId != null) {
+                if (!routeRepository.existsById(routeId)) {
+                    return ResponseEntity.notFound().build();
+                }
+                hourOfWeek = hourOfWeekHistograms.forRoute(routeId);
+                transportType = null;
+            } else if (transportType != null) {
+                hourOfWeek = hourOfWeekHistograms.forTransportType(transportType);
+            } else {
+                hourOfWeek = hourOfWeekHistograms.overall();
+            }
+
+            long[][] counts = new long[7][24];
+            long total = 0;
+            int peak = 0;
+            for (int index = 0; index < hourOfWeek.length; index++) {
+                counts[index / 24][index % 24] = hourOfWeek[index];
+                total += hourOfWeek[index];
+                if (hourOfWeek[index] > hourOfWeek[peak]) {
+                    peak = index;
+                }
+            }
+
+            HourOfWeekUsageResponse response = new HourOfWeekUsageResponse(routeId, transportType, total,
+                    total > 0 ? DayOfWeek.of(peak / 24 + 1) : null, total > 0 ? peak % 24 : null, counts);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @Override
+    public ResponseEntity<UsageQueryResponse> queryUsage(UsageQueryRequest queryRequest) {
+        try {
+            if (queryRequest.getStartDate() != null && queryRequest.getEndDate() != null
+                    && queryRequest.getStartDate().isAfter(queryRequest.getEndDate())) {
+                return ResponseEntity.badRequest().build();
+            }
+
+            UsageColumnStore.Result result = usageColumnStore.query(new UsageColumnStore.Query(
+                    queryRequest.getStartDate(), queryRequest.getEndDate(),
+                    asSet(queryRequest.getRouteIds()), asSet(queryRequest.getTransportTypes()),
+                    asSet(queryRequest.getTicketTypes()),
+                    queryRequest.getBoardingStop(), queryRequest.getDestinationStop(),
+                    queryRequest.getHourFrom(), queryRequest.getHourTo(),
+                    asSet(queryRequest.getDaysOfWeek()), queryRequest.getGroupBy()));
+
+            List<UsageGroupResponse> groups = null;
+            boolean truncated = false;
+            if (result.groups() != null) {
+                groups = result.groups().entrySet().stream()
+                        .limit(queryRequest.getGroupLimit())
+                        .map(entry -> new UsageGroupResponse(entry.getKey(), entry.getValue()))
+                        .collect(Collectors.toList());
+                truncated = result.groups().size() > groups.size();
+            }
+
+            return ResponseEntity.ok(new UsageQueryResponse(result.taps(), queryRequest.getGroupBy(),
+                    groups, truncated, result.rowsInStore()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     // ===== ROUTE ANALYTICS =====
 
     @Override
     public ResponseEntity<List<RoutePopularityResponse>> getTopRoutes(int limit) {
         try {
-            Pageable pageable = PageRequest.of(0, limit);
-            List<Object[]> results = ticketUsageRepository.findMostPopularRoutes(pageable).getContent();
-
-            List<RoutePopularityResponse> topRoutes = results.stream()
-                    .map(result -> {
-                        Route route = (Route) result[0];
-                        Long usageCount = (Long) result[1];
+            Map<Long, Long> routeTaps = new HashMap<>();
+            for (Object[] row : usageRollups.tapsByRoute()) {
+                routeTaps.put((Long) row[0], (Long) row[1]);
+            }
 
+            // Active routes without any taps still rank, after the used ones
+            List<RoutePopularityResponse> topRoutes = routeRepository.findByActiveTrueOrderByRouteNameAsc().stream()
+                    .sorted(Comparator.comparing((Route route) -> routeTaps.getOrDefault(route.getId(), 0L)).reversed())
+                    .limit(limit)
+                    .map(route -> {
                         RoutePopularityResponse response = new RoutePopularityResponse();
                         response.setRoute(mapToRouteSummaryResponse(route));
-                        response.setUsageCount(usageCount);
+                        response.setUsageCount(routeTaps.getOrDefault(route.getId(), 0L));
                         return response;
                     })
                     .collect(Collectors.toList());
@@ -210,21 +274,56 @@ public class AnalyticsServiceImpl implements AnalyticsService {
     }
 
     @Override
-    public ResponseEntity<List<Object[]>> getRouteUtilizationAnalysis() {
+    public ResponseEntity<RouteUtilizationReportResponse> getRouteUtilizationAnalysis(LocalDateTime startDate,
+                                                                                      LocalDateTime endDate,
+                                                                                      TransportType transportType) {
         try {
-            List<Route> routes = routeRepository.findByActiveTrueOrderByRouteNameAsc();
-            List<Object[]> utilization = new ArrayList<>();
-
-            for (Route route : routes) {
-                List< TicketUsage > usage = ticketUsageRepository.findByRouteOrderByUsedAtDesc(route);
-                utilization.add(new Object[]{
-                        route.getRouteName(),
-                        route.getTransportType(),
-                        (long) usage.size()
-                });
+            LocalDateTime to = endDate != null ? endDate : LocalDateTime.now();
+            LocalDateTime from = startDate != null ? startDate : to.minusDays(DEFAULT_UTILIZATION_DAYS);
+            if (!from.isBefore(to)) {
+                return ResponseEntity.badRequest().build();
+            }
+
+            Map<Long, Long> tapsByRoute = usageRollups.tapsByRoute(from, to);
+            double windowDays = Duration.between(from, to).toMinutes() / (24.0 * 60);
+
+            List<RouteUtilizationResponse> routes = new ArrayList<>();
+            Map<TransportType, TransportTypeUtilizationResponse> byType = new EnumMap<>(TransportType.class);
+            // [operating hours, stop-hours] summed over the type's routes
+            Map<TransportType, double[]> hoursByType = new EnumMap<>(TransportType.class);
+            for (Object[] row : routeRepository.findActiveRouteUtilizationInfo()) {
+                TransportType type = (TransportType) row[2];
+                if (transportType != null && type != transportType) {
+                    continue;
+                }
+                Long routeId = (Long) row[0];
+                int stopCount = ((Long) row[5]).intValue();
+                double hoursPerDay = operatingHoursPerDay((LocalTime) row[3], (LocalTime) row[4]);
+                double operatingHours = hoursPerDay * windowDays;
+                long taps = tapsByRoute.getOrDefault(routeId, 0L);
+
+                routes.add(new RouteUtilizationResponse(routeId, (String) row[1], type, stopCount, hoursPerDay, taps,
+                        ratio(taps, operatingHours), ratio(taps, stopCount * operatingHours)));
+
+                TransportTypeUtilizationResponse typeStats = byType.computeIfAbsent(type,
+                        t -> new TransportTypeUtilizationResponse(t, 0, 0L, null, null));
+                typeStats.setRouteCount(typeStats.getRouteCount() + 1);
+                typeStats.setTaps(typeStats.getTaps() + taps);
+                double[] hours = hoursByType.computeIfAbsent(type, t -> new double[2]);
+                hours[0] += operatingHours;
+                hours[1] += stopCount * operatingHours;
             }
 
-            return ResponseEntity.ok(utilization);
+            for (TransportTypeUtilizationResponse typeStats : byType.values()) {
+                double[] hours = hoursByType.get(typeStats.getTransportType());
+                typeStats.setTapsPerOperatingHour(ratio(typeStats.getTaps(), hours[0]));
+                typeStats.setTapsPerStopHour(ratio(typeStats.getTaps(), hours[1]));
+            }
+
+            routes.sort(Comparator.comparing(RouteUtilizationResponse::getTapsPerStopHour,
+                    Comparator.nullsLast(Comparator.reverseOrder())));
+
+            return ResponseEntity.ok(new RouteUtilizationReportResponse(from, to, routes, new ArrayList<>(byType.values())));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -244,7 +343,7 @@ public class AnalyticsServiceImpl implements AnalyticsService {
                     ));
 
             // Get usage counts
-            List<Object[]> usageCounts = ticketUsageRepository.countUsageByTransportType();
+            List<Object[]> usageCounts = usageRollups.tapsByTransportType();
             Map<TransportType, Long> usageMap = usageCounts.stream()
                     .collect(Collectors.toMap(
                             result -> (TransportType) result[0],
@@ -266,10 +365,9 @@ public class AnalyticsServiceImpl implements AnalyticsService {
     }
 
     @Override
-    public ResponseEntity<List<Object[]>> getPopularStops(int limit) {
+    public ResponseEntity<List<Object[]>> getPopularStops(int limit, UsageWindow window) {
         try {
-            Pageable pageable = PageRequest.of(0, limit);
-            List<Object[]> popularStops = ticketUsageRepository.findMostPopularBoardingStops(pageable).getContent();
+            List<Object[]> popularStops = stopHeavyHitters.topBoardingStops(window, limit);
             return ResponseEntity.ok(popularStops);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -284,12 +382,15 @@ public class AnalyticsServiceImpl implements AnalyticsService {
             List<Object[]> stats = new ArrayList<>();
 
             long totalUsers = userRepository.count();
-            long usersWithTickets = totalUsers - userRepository.findUsersWithoutTickets(
-                    PageRequest.of(0, Integer.MAX_VALUE)).getTotalElements();
+            long usersWithTickets = ticketRepository.countDistinctBuyers();
+            LocalDate today = LocalDate.now();
 
             stats.add(new Object[]{"Total Users", totalUsers});
             stats.add(new Object[]{"Users with Tickets", usersWithTickets});
-            stats.add(new Object[]{"Engagement Rate", (double) usersWithTickets / totalUsers * 100});
+            stats.add(new Object[]{"Engagement Rate", totalUsers > 0 ? (double) usersWithTickets / totalUsers * 100 : 0});
+            stats.add(new Object[]{"Daily Active Riders", distinctRiderSketches.activeRiders(today, 1)});
+            stats.add(new Object[]{"Weekly Active Riders", distinctRiderSketches.activeRiders(today, 7)});
+            stats.add(new Object[]{"Monthly Active Riders", distinctRiderSketches.activeRiders(today, 30)});
 
             return ResponseEntity.ok(stats);
         } catch (Exception e) {
@@ -302,9 +403,8 @@ public class AnalyticsServiceImpl implements AnalyticsService {
         try {
             List<Object[]> segmentation = new ArrayList<>();
 
-            for (TicketType type : TicketType.values()) {
-                List<Ticket> users = ticketRepository.findByTicketTypeOrderByPurchaseDateDesc(type);
-                segmentation.add(new Object[]{type.getDisplayName() + " Users", (long) users.size()});
+            for (SalesAnalyticsResponse sales : salesAggregates.byTicketType()) {
+                segmentation.add(new Object[]{sales.getTicketType().getDisplayName() + " Users", sales.getDistinctBuyers()});
             }
 
             return ResponseEntity.ok(segmentation);
@@ -316,17 +416,14 @@ public class AnalyticsServiceImpl implements AnalyticsService {
     @Override
     public ResponseEntity<List<Object[]>> getCustomerRetentionMetrics() {
         try {
-            // Simple retention calculation
-            LocalDateTime oneMonthAgo = LocalDateTime.now().minusMonths(1);
-            LocalDateTime twoMonthsAgo = LocalDateTime.now().minusMonths(2);
+            // Riders of the previous 30 days who also rode in the last 30 days
+            LocalDate today = LocalDate.now();
+            LocalDate currentStart = today.minusDays(29);
+            LocalDate previousEnd = currentStart.minusDays(1);
+            LocalDate previousStart = previousEnd.minusDays(29);
 
-            long oldUsers = ticketRepository.findTicketsPurchasedBetween(
-                    twoMonthsAgo.minusMonths(1), twoMonthsAgo, PageRequest.of(0, Integer.MAX_VALUE)
-            ).getTotalElements();
-
-            long retainedUsers = ticketRepository.findTicketsPurchasedBetween(
-                    oneMonthAgo, LocalDateTime.now(), PageRequest.of(0, Integer.MAX_VALUE)
-            ).getTotalElements();
+            long oldUsers = distinctRiderSketches.distinctRiders(previousStart, previousEnd);
+            long retainedUsers = distinctRiderSketches.ridersInBoth(previousStart, previousEnd, currentStart, today);
 
             double retentionRate = oldUsers > 0 ? (double) retainedUsers / oldUsers * 100 : 0;
 
@@ -345,15 +442,13 @@ public class AnalyticsServiceImpl implements AnalyticsService {
     @Override
     public ResponseEntity<List<Object[]>> getNewVsReturningUsers(int days) {
         try {
-            LocalDateTime startDate = LocalDateTime.now().minusDays(days);
-
-            long newUsers = userRepository.findRecentlyRegisteredUsers(
-                    PageRequest.of(0, Integer.MAX_VALUE)).getTotalElements();
-
-            long totalActive = ticketRepository.findTicketsPurchasedBetween(
-                    startDate, LocalDateTime.now(), PageRequest.of(0, Integer.MAX_VALUE)
-            ).getTotalElements();
+            if (days < 1) {
+                return ResponseEntity.badRequest().build();
+            }
+            LocalDate today = LocalDate.now();
 
+            long newUsers = userRepository.countByActiveTrueAndCreatedAtAfter(LocalDateTime.now().minusDays(days));
+            long totalActive = distinctRiderSketches.activeRiders(today, days);
             long returningUsers = Math.max(0, totalActive - newUsers);
 
             List<Object[]> analysis = Arrays.asList(
@@ -368,6 +463,56 @@ public class AnalyticsServiceImpl implements AnalyticsService {
         }
     }
 
+    @Override
+    public ResponseEntity<ActiveRidersResponse> getActiveRiders(LocalDate date) {
+        try {
+            LocalDate day = date != null ? date : LocalDate.now();
+            return ResponseEntity.ok(new ActiveRidersResponse(day,
+                    distinctRiderSketches.activeRiders(day, 1),
+                    distinctRiderSketches.activeRiders(day, 7),
+                    distinctRiderSketches.activeRiders(day, 30),
+                    distinctRiderSketches.relativeStandardError()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @Override
+    public ResponseEntity<List<RouteRidersResponse>> getDistinctRidersByRoute(LocalDate startDate, LocalDate endDate) {
+        try {
+            LocalDate to = endDate != null ? endDate : LocalDate.now();
+            LocalDate from = startDate != null ? startDate : to.minusDays(29);
+            if (from.isAfter(to)) {
+                return ResponseEntity.badRequest().build();
+            }
+
+            Map<Long, Long> riders = distinctRiderSketches.distinctRidersByRoute(from, to);
+            List<RouteRidersResponse> response = routeRepository.findAllById(riders.keySet()).stream()
+                    .map(route -> new RouteRidersResponse(route.getId(), route.getRouteName(),
+                            route.getTransportType(), riders.get(route.getId())))
+                    .sorted(Comparator.comparing(RouteRidersResponse::getDistinctRiders).reversed())
+                    .collect(Collectors.toList());
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @Override
+    public ResponseEntity<Map<TransportType, Long>> getDistinctRidersByTransportType(LocalDate startDate, LocalDate endDate) {
+        try {
+            LocalDate to = endDate != null ? endDate : LocalDate.now();
+            LocalDate from = startDate != null ? startDate : to.minusDays(29);
+            if (from.isAfter(to)) {
+                return ResponseEntity.badRequest().build();
+            }
+            return ResponseEntity.ok(distinctRiderSketches.distinctRidersByTransportType(from, to));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     // ===== OPERATIONAL ANALYTICS =====
 
     @Override
@@ -375,7 +520,7 @@ public class AnalyticsServiceImpl implements AnalyticsService {
         try {
             List<Object[]> metrics = Arrays.asList(
                     new Object[]{"Total Routes", routeRepository.count()},
-                    new Object[]{"Active Routes", routeRepository.findAllActiveRoutesOrderByName ()},
+                    new Object[]{"Active Routes", routeRepository.countByActiveTrue()},
                     new Object[]{"Total Users", userRepository.count()},
                     new Object[]{"Total Tickets", ticketRepository.count()},
                     new Object[]{"Active Tickets", ticketRepository.countByStatus(TicketStatus.ACTIVE)}
@@ -402,35 +547,6 @@ public class AnalyticsServiceImpl implements AnalyticsService {
         }
     }
 
-    @Override
-    public ResponseEntity<Object> generateCustomReport(String reportType, LocalDateTime startDate, LocalDateTime endDate, Map<String, Object> parameters) {
-        try {
-            Map<String, Object> report = new HashMap<>();
-            report.put("reportType", reportType);
-            report.put("period", Map.of("start", startDate, "end", endDate));
-
-            switch (reportType.toLowerCase()) {
-                case "revenue":
-                    BigDecimal revenue = ticketRepository.calculateRevenueByDateRange(startDate, endDate)
-                            .orElse(BigDecimal.ZERO);
-                    report.put("totalRevenue", revenue);
-                    break;
-                case "usage":
-                    long usage = ticketUsageRepository.findUsageByDateRange(
-                            startDate, endDate, PageRequest.of(0, Integer.MAX_VALUE)
-                    ).getTotalElements();
-                    report.put("totalUsage", usage);
-                    break;
-                default:
-                    report.put("error", "Unknown report type");
-            }
-
-            return ResponseEntity.ok(report);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
-    }
-
     // ===== EXPORT FUNCTIONS =====
 
     @Override
@@ -442,14 +558,11 @@ public class AnalyticsServiceImpl implements AnalyticsService {
 
             switch (reportType.toLowerCase()) {
                 case "revenue":
-                    BigDecimal revenue = ticketRepository.calculateRevenueByDateRange(startDate, endDate)
-                            .orElse(BigDecimal.ZERO);
+                    BigDecimal revenue = revenueLedger.sales(startDate, endDate).revenue();
                     csv.append("Total Revenue,").append(revenue).append("\n");
                     break;
                 case "usage":
-                    long usage = ticketUsageRepository.findUsageByDateRange(
-                            startDate, endDate, PageRequest.of(0, Integer.MAX_VALUE)
-                    ).getTotalElements();
+                    long usage = usageRollups.countTaps(startDate, endDate);
                     csv.append("Total Usage,").append(usage).append("\n");
                     break;
             }
@@ -463,19 +576,48 @@ public class AnalyticsServiceImpl implements AnalyticsService {
     }
 
     @Override
-    public ResponseEntity<String> scheduleAutomatedReport(String reportType, String frequency, List<String> recipients) {
-        try {
-            // Simple acknowledgment - would integrate with scheduler in production
-            String message = String.format("Report '%s' scheduled %s for %d recipients",
-                    reportType, frequency, recipients.size());
-            return ResponseEntity.ok(message);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Schedule failed");
+    public ResponseEntity<StreamingResponseBody> exportTicketsToCsv(LocalDateTime startDate, LocalDateTime endDate, boolean gzip) {
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            return ResponseEntity.badRequest().build();
         }
+        return csvExporter.export("tickets", gzip, TICKET_EXPORT_HEADER, handler ->
+                exportJdbcRepository.streamTickets(startDate, endDate, handler));
+    }
+
+    @Override
+    public ResponseEntity<StreamingResponseBody> exportUsageToCsv(LocalDateTime startDate, LocalDateTime endDate, boolean gzip) {
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return csvExporter.export("usage", gzip, USAGE_EXPORT_HEADER, handler ->
+                exportJdbcRepository.streamUsage(startDate, endDate, handler));
     }
 
     // ===== PRIVATE HELPER METHODS =====
 
+    private <T> Set<T> asSet(List<T> values) {
+        return values != null ? new HashSet<>(values) : null;
+    }
+
+    /**
+     * Hours per day a route runs; a route ending at or before its start time runs past midnight,
+     * and one without operating times is taken to run around the clock
+     */
+    private double operatingHoursPerDay(LocalTime start, LocalTime end) {
+        if (start == null || end == null) {
+            return 24.0;
+        }
+        long minutes = Duration.between(start, end).toMinutes();
+        if (minutes <= 0) {
+            minutes += 24 * 60;
+        }
+        return minutes / 60.0;
+    }
+
+    private Double ratio(long taps, double denominator) {
+        return denominator > 0 ? taps / denominator : null;
+    }
+
     private RouteSummaryResponse mapToRouteSummaryResponse(Route route) {
         RouteSummaryResponse response = new RouteSummaryResponse();
         response.setId(route.getId());
@@ -0,0 +1,221 @@
+package io.github.kaltrinabajramii.urbantransitbackend.service.impl;
+
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.ReportJobResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.ReportScheduleResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.model.entity.ReportJob;
+import io.github.kaltrinabajramii.urbantransitbackend.model.entity.ReportSchedule;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.ReportFrequency;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.ReportJobStatus;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.ReportType;
+import io.github.kaltrinabajramii.urbantransitbackend.report.ReportJobRunner;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.ReportJobRepository;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.ReportScheduleRepository;
+import io.github.kaltrinabajramii.urbantransitbackend.service.interfaces.ReportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class ReportServiceImpl implements ReportService {
+
+    private static final String REPORTS_PATH = "/api/analytics/reports";
+
+    private final ReportJobRepository reportJobRepository;
+    private final ReportScheduleRepository reportScheduleRepository;
+    private final ReportJobRunner reportJobRunner;
+
+    // ===== REPORT JOBS =====
+
+    @Override
+    public ResponseEntity<ReportJobResponse> submitReport(UserDetails userDetails, ReportType reportType,
+                                                          LocalDateTime startDate, LocalDateTime endDate) {
+        try {
+            if (!startDate.isBefore(endDate)) {
+                return ResponseEntity.badRequest().build();
+            }
+            if (!reportJobRunner.hasCapacity()) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+            }
+
+            ReportJob job = new ReportJob();
+            job.setReportType(reportType);
+            job.setPeriodStart(startDate);
+            job.setPeriodEnd(endDate);
+            job.setRequestedBy(userDetails != null ? userDetails.getUsername() : null);
+            ReportJob savedJob = reportJobRepository.save(job);
+            reportJobRunner.dispatchAfterCommit(savedJob.getId());
+
+            return ResponseEntity.accepted()
+                    .location(URI.create(REPORTS_PATH + "/jobs/" + savedJob.getId()))
+                    .body(mapToReportJobResponse(savedJob));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResponseEntity<ReportJobResponse> getReportJob(Long jobId) {
+        try {
+            return reportJobRepository.findById(jobId)
+                    .map(job -> ResponseEntity.ok(mapToReportJobResponse(job)))
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResponseEntity<Resource> downloadReportResult(Long jobId) {
+        try {
+            ReportJob job = reportJobRepository.findById(jobId).orElse(null);
+            if (job == null) {
+                return ResponseEntity.notFound().build();
+            }
+            if (job.getStatus() != ReportJobStatus.COMPLETED) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            }
+            // Completed, but the file is gone (e.g. another instance's disk, or cleaned up)
+            Path file = reportJobRunner.resultFile(job).orElse(null);
+            if (file == null) {
+                return ResponseEntity.status(HttpStatus.GONE).build();
+            }
+
+            String fileName = job.getReportType().name().toLowerCase() + "-" + job.getPeriodStart().toLocalDate()
+                    + "-" + job.getPeriodEnd().toLocalDate() + ".json";
+            return ResponseEntity.ok()
+                    .header("Content-Disposition", "attachment; filename=" + fileName)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(new FileSystemResource(file));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // ===== REPORT SCHEDULES =====
+
+    @Override
+    public ResponseEntity<ReportScheduleResponse> scheduleReport(UserDetails userDetails, ReportType reportType,
+                                                                 ReportFrequency frequency, List<String> recipients) {
+        try {
+            // The first run reports on the period in progress, once it has closed and settled
+            LocalDate periodStart = frequency.periodStart(LocalDate.now());
+
+            ReportSchedule schedule = new ReportSchedule();
+            schedule.setReportType(reportType);
+            schedule.setFrequency(frequency);
+            schedule.setRecipients(recipients != null ? new ArrayList<>(recipients) : new ArrayList<>());
+            schedule.setNextPeriodStart(periodStart.atStartOfDay());
+            schedule.setNextRunAt(reportJobRunner.closedAt(frequency.nextPeriodStart(periodStart).atStartOfDay()));
+            schedule.setCreatedBy(userDetails != null ? userDetails.getUsername() : null);
+            ReportSchedule savedSchedule = reportScheduleRepository.save(schedule);
+
+            return ResponseEntity.created(URI.create(REPORTS_PATH + "/schedules/" + savedSchedule.getId()))
+                    .body(mapToReportScheduleResponse(savedSchedule));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResponseEntity<List<ReportScheduleResponse>> getReportSchedules() {
+        try {
+            List<ReportScheduleResponse> schedules = reportScheduleRepository.findByActiveTrueOrderByIdAsc().stream()
+                    .map(this::mapToReportScheduleResponse)
+                    .collect(Collectors.toList());
+            return ResponseEntity.ok(schedules);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResponseEntity<List<ReportJobResponse>> getScheduleJobs(Long scheduleId, int limit) {
+        try {
+            if (!reportScheduleRepository.existsById(scheduleId)) {
+                return ResponseEntity.notFound().build();
+            }
+            List<ReportJobResponse> jobs = reportJobRepository
+                    .findByScheduleIdOrderByIdDesc(scheduleId, PageRequest.of(0, Math.max(1, Math.min(limit, 100))))
+                    .stream()
+                    .map(this::mapToReportJobResponse)
+                    .collect(Collectors.toList());
+            return ResponseEntity.ok(jobs);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @Override
+    public ResponseEntity<Void> cancelReportSchedule(Long scheduleId) {
+        try {
+            ReportSchedule schedule = reportScheduleRepository.findById(scheduleId).orElse(null);
+            if (schedule == null || !schedule.getActive()) {
+                return ResponseEntity.notFound().build();
+            }
+            schedule.setActive(false);
+            reportScheduleRepository.save(schedule);
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // ===== PRIVATE HELPER METHODS =====
+
+    private ReportJobResponse mapToReportJobResponse(ReportJob job) {
+        ReportJobResponse response = new ReportJobResponse();
+        response.setId(job.getId());
+        response.setReportType(job.getReportType());
+        response.setPeriodStart(job.getPeriodStart());
+        response.setPeriodEnd(job.getPeriodEnd());
+        response.setStatus(job.getStatus());
+        response.setScheduleId(job.getScheduleId());
+        response.setRequestedBy(job.getRequestedBy());
+        if (job.getStatus() == ReportJobStatus.COMPLETED) {
+            response.setResultUrl(REPORTS_PATH + "/jobs/" + job.getId() + "/result");
+        }
+        response.setResultBytes(job.getResultBytes());
+        response.setReusedFromJobId(job.getReusedFromJobId());
+        response.setErrorMessage(job.getErrorMessage());
+        response.setCreatedAt(job.getCreatedAt());
+        response.setStartedAt(job.getStartedAt());
+        response.setCompletedAt(job.getCompletedAt());
+        return response;
+    }
+
+    private ReportScheduleResponse mapToReportScheduleResponse(ReportSchedule schedule) {
+        ReportScheduleResponse response = new ReportScheduleResponse();
+        response.setId(schedule.getId());
+        response.setReportType(schedule.getReportType());
+        response.setFrequency(schedule.getFrequency());
+        response.setRecipients(schedule.getRecipients());
+        response.setNextPeriodStart(schedule.getNextPeriodStart());
+        response.setNextRunAt(schedule.getNextRunAt());
+        response.setLastJobId(schedule.getLastJobId());
+        response.setActive(schedule.getActive());
+        response.setCreatedBy(schedule.getCreatedBy());
+        response.setCreatedAt(schedule.getCreatedAt());
+        return response;
+    }
+}
@@ -1,5 +1,7 @@
 package io.github.kaltrinabajramii.urbantransitbackend.service.impl;
 
+import io.github.kaltrinabajramii.urbantransitbackend.analytics.UsageRollups;
+import io.github.kaltrinabajramii.urbantransitbackend.cache.RouteCatalog;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.request.CreateRouteRequest;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.request.UpdateRouteRequest;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.request.RouteSearchRequest;
@@ -10,23 +12,24 @@ import io.github.kaltrinabajramii.urbantransitbackend.dto.response.PagedResponse
 import io.github.kaltrinabajramii.urbantransitbackend.model.entity.Route;
 import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TransportType;
 import io.github.kaltrinabajramii.urbantransitbackend.repository.RouteRepository;
-import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketUsageRepository;
 import io.github.kaltrinabajramii.urbantransitbackend.service.interfaces.RouteService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalTime;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -35,74 +38,66 @@ import java.util.stream.Collectors;
 public class RouteServiceImpl implements RouteService {
 
     private final RouteRepository routeRepository;
-    private final TicketUsageRepository ticketUsageRepository;
+    private final UsageRollups usageRollups;
+    private final RouteCatalog routeCatalog;
 
     // ===== PUBLIC ROUTE OPERATIONS =====
+    // Served from the in-memory route catalog; no transaction, so no connection is taken from the pool
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ResponseEntity<List<RouteSummaryResponse>> getAllActiveRoutes() {
         try {
-            List<Route> routes = routeRepository.findByActiveTrueOrderByRouteNameAsc();
-
-            List<RouteSummaryResponse> responses = routes.stream()
-                    .map(this::mapToRouteSummaryResponse)
-                    .collect(Collectors.toList());
-
-            return ResponseEntity.ok(responses);
+            RouteCatalog.Snapshot catalog = routeCatalog.current();
+            return ResponseEntity.ok().eTag(catalog.eTag()).body(mapToRouteSummaries(catalog.active()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ResponseEntity<PagedResponse<RouteSummaryResponse>> getActiveRoutes(int page, int size) {
         try {
-            Pageable pageable = PageRequest.of(page, size);
-            Page<Route> routePage = routeRepository.findByActiveTrueOrderByRouteNameAsc(pageable);
-
-            List<RouteSummaryResponse> routes = routePage.getContent().stream()
-                    .map(this::mapToRouteSummaryResponse)
-                    .collect(Collectors.toList());
-
-            PagedResponse<RouteSummaryResponse> response = PagedResponse.of(
-                    routes, routePage.getNumber(), routePage.getSize(),
-                    routePage.getTotalElements(), routePage.getTotalPages());
-
-            return ResponseEntity.ok(response);
+            if (page < 0 || size < 1) {
+                return ResponseEntity.badRequest().build();
+            }
+            RouteCatalog.Snapshot catalog = routeCatalog.current();
+            return ResponseEntity.ok().eTag(catalog.eTag()).body(pageOf(catalog.active(), page, size, this::mapToRouteSummaryResponse));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ResponseEntity<RouteResponse> getRouteById(Long routeId) {
         try {
-            Route route = routeRepository.findById(routeId).orElse(null);
+            RouteCatalog.Snapshot catalog = routeCatalog.current();
+            RouteCatalog.Entry route = catalog.activeEntry(routeId);
 
-            if (route == null || !route.getActive()) {
+            if (route == null) {
                 return ResponseEntity.notFound().build();
             }
 
-            return ResponseEntity.ok(mapToRouteResponse(route));
+            return ResponseEntity.ok().eTag(catalog.eTag()).body(mapToRouteResponse(route));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ResponseEntity<RouteResponse> getRouteByName(String routeName) {
         try {
-            Route route = routeRepository.findByRouteNameAndActiveTrue(routeName).orElse(null);
+            RouteCatalog.Snapshot catalog = routeCatalog.current();
+            RouteCatalog.Entry route = catalog.activeEntry(routeName);
 
             if (route == null) {
                 return ResponseEntity.notFound().build();
             }
 
-            return ResponseEntity.ok(mapToRouteResponse(route));
+            return ResponseEntity.ok().eTag(catalog.eTag()).body(mapToRouteResponse(route));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -111,102 +106,95 @@ public class RouteServiceImpl implements RouteService {
     // ===== ROUTE SEARCH AND FILTERING =====
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ResponseEntity<List<RouteSummaryResponse>> searchRoutes(String searchTerm) {
         try {
             if (!StringUtils.hasText(searchTerm)) {
                 return getAllActiveRoutes();
             }
 
-            List<Route> routes = routeRepository.searchActiveRoutesByName(searchTerm);
-
-            List<RouteSummaryResponse> responses = routes.stream()
-                    .map(this::mapToRouteSummaryResponse)
-                    .collect(Collectors.toList());
+            RouteCatalog.Snapshot catalog = routeCatalog.current();
+            String term = searchTerm.toLowerCase(Locale.ROOT);
+            List<RouteCatalog.Entry> routes = catalog.active().stream()
+                    .filter(route -> contains(route.routeName(), term))
+                    .toList();
 
-            return ResponseEntity.ok(responses);
+            return ResponseEntity.ok().eTag(catalog.eTag()).body(mapToRouteSummaries(routes));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ResponseEntity<PagedResponse<RouteSummaryResponse>> searchRoutesAdvanced(RouteSearchRequest searchRequest) {
         try {
-            Pageable pageable = PageRequest.of(searchRequest.getPage(), searchRequest.getSize());
-            Page<Route> routePage;
+            if (searchRequest.getPage() < 0 || searchRequest.getSize() < 1) {
+                return ResponseEntity.badRequest().build();
+            }
+            RouteCatalog.Snapshot catalog = routeCatalog.current();
+            List<RouteCatalog.Entry> routes;
 
             if (StringUtils.hasText(searchRequest.getSearchTerm())) {
-                routePage = routeRepository.searchActiveRoutes(searchRequest.getSearchTerm(), pageable);
+                String term = searchRequest.getSearchTerm().toLowerCase(Locale.ROOT);
+                routes = catalog.active().stream()
+                        .filter(route -> contains(route.routeName(), term) || contains(route.description(), term))
+                        .toList();
             } else if (searchRequest.getTransportType() != null) {
-                routePage = routeRepository.findByTransportTypeAndActiveTrueOrderByRouteNameAsc(
-                        searchRequest.getTransportType(), pageable);
+                routes = catalog.activeOfType(searchRequest.getTransportType());
             } else {
-                routePage = routeRepository.findByActiveTrueOrderByRouteNameAsc(pageable);
+                routes = catalog.active();
             }
 
-            List<RouteSummaryResponse> routes = routePage.getContent().stream()
-                    .map(this::mapToRouteSummaryResponse)
-                    .collect(Collectors.toList());
-
-            PagedResponse<RouteSummaryResponse> response = PagedResponse.of(
-                    routes, routePage.getNumber(), routePage.getSize(),
-                    routePage.getTotalElements(), routePage.getTotalPages());
-
-            return ResponseEntity.ok(response);
+            PagedResponse<RouteSummaryResponse> response = pageOf(routes, searchRequest.getPage(), searchRequest.getSize(),
+                    this::mapToRouteSummaryResponse);
+            return ResponseEntity.ok().eTag(catalog.eTag()).body(response);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ResponseEntity<List<RouteSummaryResponse>> getRoutesByTransportType(TransportType transportType) {
         try {
-            List<Route> routes = routeRepository.findByTransportTypeAndActiveTrueOrderByRouteNameAsc(transportType);
-
-            List<RouteSummaryResponse> responses = routes.stream()
-                    .map(this::mapToRouteSummaryResponse)
-                    .collect(Collectors.toList());
-
-            return ResponseEntity.ok(responses);
+            RouteCatalog.Snapshot catalog = routeCatalog.current();
+            return ResponseEntity.ok().eTag(catalog.eTag()).body(mapToRouteSummaries(catalog.activeOfType(transportType)));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ResponseEntity<List<RouteSummaryResponse>> getRoutesByStop(String stopName) {
         try {
             if (!StringUtils.hasText(stopName)) {
                 return ResponseEntity.badRequest().build();
             }
 
-            List<Route> routes = routeRepository.findActiveRoutesByStopContaining(stopName);
+            RouteCatalog.Snapshot catalog = routeCatalog.current();
+            String term = stopName.toLowerCase(Locale.ROOT);
+            List<RouteCatalog.Entry> routes = catalog.active().stream()
+                    .filter(route -> route.stops().stream().anyMatch(stop -> contains(stop, term)))
+                    .toList();
 
-            List<RouteSummaryResponse> responses = routes.stream()
-                    .map(this::mapToRouteSummaryResponse)
-                    .collect(Collectors.toList());
-
-            return ResponseEntity.ok(responses);
+            return ResponseEntity.ok().eTag(catalog.eTag()).body(mapToRouteSummaries(routes));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ResponseEntity<List<RouteSummaryResponse>> getRoutesOperatingAtTime(LocalTime currentTime) {
         try {
-            List<Route> routes = routeRepository.findRoutesOperatingAtTime(currentTime);
+            RouteCatalog.Snapshot catalog = routeCatalog.current();
+            List<RouteCatalog.Entry> routes = catalog.active().stream()
+                    .filter(route -> route.operatesAt(currentTime))
+                    .toList();
 
-            List<RouteSummaryResponse> responses = routes.stream()
-                    .map(this::mapToRouteSummaryResponse)
-                    .collect(Collectors.toList());
-
-            return ResponseEntity.ok(responses);
+            return ResponseEntity.ok().eTag(catalog.eTag()).body(mapToRouteSummaries(routes));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -237,6 +225,7 @@ public class RouteServiceImpl implements RouteService {
             newRoute.setActive(true);
 
             Route savedRoute = routeRepository.save(newRoute);
+            routeCatalog.reloadAfterCommit();
             return ResponseEntity.status(HttpStatus.CREATED).body(mapToRouteResponse(savedRoute));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -272,6 +261,7 @@ public class RouteServiceImpl implements RouteService {
             }
 
             Route updatedRoute = routeRepository.save(route);
+            routeCatalog.reloadAfterCommit();
             return ResponseEntity.ok(mapToRouteResponse(updatedRoute));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -289,6 +279,7 @@ public class RouteServiceImpl implements RouteService {
 
             route.setActive(false);
             routeRepository.save(route);
+            routeCatalog.reloadAfterCommit();
 
             return ResponseEntity.ok("Route deleted");
         } catch (Exception e) {
@@ -307,6 +298,7 @@ public class RouteServiceImpl implements RouteService {
 
             route.setActive(active);
             routeRepository.save(route);
+            routeCatalog.reloadAfterCommit();
 
             return ResponseEntity.ok(active ? "Route activated" : "Route deactivated");
         } catch (Exception e) {
@@ -315,21 +307,14 @@ public class RouteServiceImpl implements RouteService {
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ResponseEntity<PagedResponse<RouteResponse>> getAllRoutesForAdmin(int page, int size) {
         try {
-            Pageable pageable = PageRequest.of(page, size);
-            Page<Route> routePage = routeRepository.findAll(pageable);
-
-            List<RouteResponse> routes = routePage.getContent().stream()
-                    .map(this::mapToRouteResponse)
-                    .collect(Collectors.toList());
-
-            PagedResponse<RouteResponse> response = PagedResponse.of(
-                    routes, routePage.getNumber(), routePage.getSize(),
-                    routePage.getTotalElements(), routePage.getTotalPages());
-
-            return ResponseEntity.ok(response);
+            if (page < 0 || size < 1) {
+                return ResponseEntity.badRequest().build();
+            }
+            RouteCatalog.Snapshot catalog = routeCatalog.current();
+            return ResponseEntity.ok().eTag(catalog.eTag()).body(pageOf(catalog.all(), page, size, this::mapToRouteResponse));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -341,17 +326,19 @@ public class RouteServiceImpl implements RouteService {
     @Transactional(readOnly = true)
     public ResponseEntity<List<RoutePopularityResponse>> getMostPopularRoutes(int limit) {
         try {
-            Pageable pageable = PageRequest.of(0, limit);
-            Page<Object[]> results = ticketUsageRepository.findMostPopularRoutes(pageable);
-
-            List<RoutePopularityResponse> responses = results.getContent().stream()
-                    .map(result -> {
-                        Route route = (Route) result[0];
-                        Long usageCount = (Long) result[1];
+            Map<Long, Long> routeTaps = new HashMap<>();
+            for (Object[] row : usageRollups.tapsByRoute()) {
+                routeTaps.put((Long) row[0], (Long) row[1]);
+            }
 
+            // Active routes without any taps still rank, after the used ones
+            List<RoutePopularityResponse> responses = routeCatalog.current().active().stream()
+                    .sorted(Comparator.comparing((RouteCatalog.Entry route) -> routeTaps.getOrDefault(route.id(), 0L)).reversed())
+                    .limit(limit)
+                    .map(route -> {
                         RoutePopularityResponse response = new RoutePopularityResponse();
                         response.setRoute(mapToRouteSummaryResponse(route));
-                        response.setUsageCount(usageCount);
+                        response.setUsageCount(routeTaps.getOrDefault(route.id(), 0L));
                         return response;
                     })
                     .collect(Collectors.toList());
@@ -396,9 +383,7 @@ public class RouteServiceImpl implements RouteService {
     @Override
     @Transactional(readOnly = true)
     public boolean existsActiveRoute(Long routeId) {
-        return routeRepository.findById(routeId)
-                .map(Route::getActive)
-                .orElse(false);
+        return routeCatalog.current().activeEntry(routeId) != null;
     }
 
     @Override
@@ -443,14 +428,50 @@ public class RouteServiceImpl implements RouteService {
         return response;
     }
 
-    private RouteSummaryResponse mapToRouteSummaryResponse(Route route) {
+    private RouteResponse mapToRouteResponse(RouteCatalog.Entry route) {
+        RouteResponse response = new RouteResponse();
+        response.setId(route.id());
+        response.setRouteName(route.routeName());
+        response.setDescription(route.description());
+        response.setTransportType(route.transportType());
+        response.setStops(route.stops());
+        response.setOperatingStartTime(route.operatingStartTime());
+        response.setOperatingEndTime(route.operatingEndTime());
+        response.setActive(route.active());
+        response.setCreatedAt(route.createdAt());
+        response.setUpdatedAt(route.updatedAt());
+        return response;
+    }
+
+    private RouteSummaryResponse mapToRouteSummaryResponse(RouteCatalog.Entry route) {
         RouteSummaryResponse response = new RouteSummaryResponse();
-        response.setId(route.getId());
-        response.setRouteName(route.getRouteName());
-        response.setDescription(route.getDescription());
-        response.setTransportType(route.getTransportType());
-        response.setStopCount(route.getStops() != null ? route.getStops().size() : 0);
-        response.setActive(route.getActive());
+        response.setId(route.id());
+        response.setRouteName(route.routeName());
+        response.setDescription(route.description());
+        response.setTransportType(route.transportType());
+        response.setStopCount(route.stops().size());
+        response.setActive(route.active());
         return response;
     }
+
+    private List<RouteSummaryResponse> mapToRouteSummaries(List<RouteCatalog.Entry> routes) {
+        return routes.stream()
+                .map(this::mapToRouteSummaryResponse)
+                .collect(Collectors.toList());
+    }
+
+    private <T> PagedResponse<T> pageOf(List<RouteCatalog.Entry> routes, int page, int size,
+                                        Function<RouteCatalog.Entry, T> mapper) {
+        int from = (int) Math.min((long) page * size, routes.size());
+        int to = (int) Math.min((long) from + size, routes.size());
+        int totalPages = (routes.size() + size - 1) / size;
+        List<T> content = routes.subList(from, to).stream()
+                .map(mapper)
+                .collect(Collectors.toList());
+        return PagedResponse.of(content, page, size, routes.size(), totalPages);
+    }
+
+    private static boolean contains(String text, String lowerCaseTerm) {
+        return text != null && text.toLowerCase(Locale.ROOT).contains(lowerCaseTerm);
+    }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package io.github.kaltrinabajramii.urbantransitbackend.service.impl;
 
+import io.github.kaltrinabajramii.urbantransitbackend.cache.PricingSnapshotCache;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.request.UpdatePricingRequest;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.response.TicketPricingResponse;
 import io.github.kaltrinabajramii.urbantransitbackend.model.entity.TicketPricing;
@@ -22,6 +23,7 @@ import java.util.stream.Collectors;
 public class TicketPricingServiceImpl implements TicketPricingService {
 
     private final TicketPricingRepository ticketPricingRepository;
+    private final PricingSnapshotCache pricingSnapshotCache;
 
     // ===== PUBLIC PRICING OPERATIONS =====
 
@@ -29,13 +31,13 @@ public class TicketPricingServiceImpl implements TicketPricingService {
     @Transactional(readOnly = true)
     public ResponseEntity<List<TicketPricingResponse>> getAllActivePricing() {
         try {
-            List<TicketPricing> activePricing = ticketPricingRepository.findByActiveTrueOrderByTicketType();
+            PricingSnapshotCache.Snapshot snapshot = pricingSnapshotCache.current();
 
-            List<TicketPricingResponse> responses = activePricing.stream()
+            List<TicketPricingResponse> responses = snapshot.active().stream()
                     .map(this::mapToPricingResponse)
                     .collect(Collectors.toList());
 
-            return ResponseEntity.ok(responses);
+            return ResponseEntity.ok().eTag(snapshot.eTag()).body(responses);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -45,25 +47,37 @@ public class TicketPricingServiceImpl implements TicketPricingService {
     @Transactional(readOnly = true)
     public ResponseEntity<TicketPricingResponse> getPricingByType(TicketType ticketType) {
         try {
-            TicketPricing pricing = ticketPricingRepository.findByTicketTypeAndActiveTrue(ticketType)
-                    .orElse(null);
+            PricingSnapshotCache.Snapshot snapshot = pricingSnapshotCache.current();
+            PricingSnapshotCache.Entry pricing = snapshot.activeEntry(ticketType);
 
             if (pricing == null) {
                 return ResponseEntity.notFound().build();
             }
 
-            return ResponseEntity.ok(mapToPricingResponse(pricing));
+            return ResponseEntity.ok().eTag(snapshot.eTag()).body(mapToPricingResponse(pricing));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
     @Override
-    @Transactional(readOnly = true)
     public BigDecimal getCurrentPrice(TicketType ticketType) {
-        TicketPricing pricing = ticketPricingRepository.findByTicketTypeAndActiveTrue(ticketType)
-                .orElseThrow(() -> new RuntimeException("No pricing found for ticket type: " + ticketType));
-        return pricing.getPrice();
+        // Purchase path: served from the in-memory snapshot, no database read
+        PricingSnapshotCache.Entry pricing = pricingSnapshotCache.current().activeEntry(ticketType);
+        if (pricing == null) {
+            throw new RuntimeException("No pricing found for ticket type: " + ticketType);
+        }
+        return pricing.price();
+    }
+
+    @Override
+    public ResponseEntity<Long> getPricingVersion() {
+        try {
+            PricingSnapshotCache.Snapshot snapshot = pricingSnapshotCache.current();
+            return ResponseEntity.ok().eTag(snapshot.eTag()).body(snapshot.version());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
     }
 
     // ===== ADMIN PRICING MANAGEMENT =====
@@ -72,13 +86,13 @@ public class TicketPricingServiceImpl implements TicketPricingService {
     @Transactional(readOnly = true)
     public ResponseEntity<List<TicketPricingResponse>> getAllPricingRecords() {
         try {
-            List<TicketPricing> allPricing = ticketPricingRepository.findAllOrderByTicketType();
+            PricingSnapshotCache.Snapshot snapshot = pricingSnapshotCache.current();
 
-            List<TicketPricingResponse> responses = allPricing.stream()
+            List<TicketPricingResponse> responses = snapshot.all().stream()
                     .map(this::mapToPricingResponse)
                     .collect(Collectors.toList());
 
-            return ResponseEntity.ok(responses);
+            return ResponseEntity.ok().eTag(snapshot.eTag()).body(responses);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -108,6 +122,7 @@ public class TicketPricingServiceImpl implements TicketPricingService {
             }
 
             TicketPricing updatedPricing = ticketPricingRepository.save(pricing);
+            pricingSnapshotCache.reloadAfterCommit();
             return ResponseEntity.ok(mapToPricingResponse(updatedPricing));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -126,6 +141,7 @@ public class TicketPricingServiceImpl implements TicketPricingService {
 
             pricing.setActive(active);
             ticketPricingRepository.save(pricing);
+            pricingSnapshotCache.reloadAfterCommit();
 
             return ResponseEntity.ok(active ? "Pricing activated" : "Pricing deactivated");
         } catch (Exception e) {
@@ -153,6 +169,7 @@ public class TicketPricingServiceImpl implements TicketPricingService {
             newPricing.setActive(updateRequest.getActive() != null ? updateRequest.getActive() : true);
 
             TicketPricing savedPricing = ticketPricingRepository.save(newPricing);
+            pricingSnapshotCache.reloadAfterCommit();
             return ResponseEntity.status(HttpStatus.CREATED).body(mapToPricingResponse(savedPricing));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -203,6 +220,18 @@ public class TicketPricingServiceImpl implements TicketPricingService {
 
     // ===== PRIVATE HELPER METHODS =====
 
+    private TicketPricingResponse mapToPricingResponse(PricingSnapshotCache.Entry pricing) {
+        TicketPricingResponse response = new TicketPricingResponse();
+        response.setId(pricing.id());
+        response.setTicketType(pricing.ticketType());
+        response.setPrice(pricing.price());
+        response.setDescription(pricing.description());
+        response.setActive(pricing.active());
+        response.setCreatedAt(pricing.createdAt());
+        response.setUpdatedAt(pricing.updatedAt());
+        return response;
+    }
+
     private TicketPricingResponse mapToPricingResponse(TicketPricing pricing) {
         TicketPricingResponse response = new TicketPricingResponse();
         response.setId(pricing.getId());
@@ -1,9 +1,20 @@
 package io.github.kaltrinabajramii.urbantransitbackend.service.impl;
 
+import io.github.kaltrinabajramii.urbantransitbackend.analytics.RevenueLedger;
+import io.github.kaltrinabajramii.urbantransitbackend.analytics.SalesAggregates;
+import io.github.kaltrinabajramii.urbantransitbackend.analytics.UsageRollups;
+import io.github.kaltrinabajramii.urbantransitbackend.cache.ActiveTicketIndex;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.request.PageCursor;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.request.PurchaseTicketRequest;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.request.ValidateTicketRequest;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.request.UseTicketRequest;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.request.TapOffRequest;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.request.TicketFilterRequest;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.ActiveTicketIndexStatsResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.OfflineTicketTokenResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.OfflineVerificationKeyResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.ExpiryWheelStatsResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.TicketExpiryRunResponse;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.response.TicketResponse;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.response.TicketSummaryResponse;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.response.TicketValidationResponse;
@@ -12,6 +23,10 @@ import io.github.kaltrinabajramii.urbantransitbackend.dto.response.SalesAnalytic
 import io.github.kaltrinabajramii.urbantransitbackend.dto.response.PagedResponse;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.response.RouteSummaryResponse;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.response.UserSummaryResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.event.JourneyCompletedEvent;
+import io.github.kaltrinabajramii.urbantransitbackend.event.TapsRecordedEvent;
+import io.github.kaltrinabajramii.urbantransitbackend.event.TicketPurchasedEvent;
+import io.github.kaltrinabajramii.urbantransitbackend.journal.TapJournal;
 import io.github.kaltrinabajramii.urbantransitbackend.model.entity.Ticket;
 import io.github.kaltrinabajramii.urbantransitbackend.model.entity.TicketUsage;
 import io.github.kaltrinabajramii.urbantransitbackend.model.entity.User;
@@ -19,26 +34,38 @@ import io.github.kaltrinabajramii.urbantransitbackend.model.entity.Route;
 import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TicketType;
 import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TicketStatus;
 import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketRepository;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketJdbcRepository;
 import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketUsageRepository;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.specification.TicketSpecifications;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketUsageJdbcRepository;
 import io.github.kaltrinabajramii.urbantransitbackend.repository.RouteRepository;
+import io.github.kaltrinabajramii.urbantransitbackend.scheduler.TicketExpiryJob;
+import io.github.kaltrinabajramii.urbantransitbackend.scheduler.TicketExpiryWheel;
+import io.github.kaltrinabajramii.urbantransitbackend.security.OfflineTicketTokenIssuer;
+import io.github.kaltrinabajramii.urbantransitbackend.security.TicketNumberCodec;
 import io.github.kaltrinabajramii.urbantransitbackend.service.interfaces.TicketService;
 import io.github.kaltrinabajramii.urbantransitbackend.service.interfaces.TicketPricingService;
 import io.github.kaltrinabajramii.urbantransitbackend.service.interfaces.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.UUID;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -46,11 +73,29 @@ import java.util.stream.Collectors;
 @Transactional
 public class TicketServiceImpl implements TicketService {
 
+    private static final long MAX_JOURNEY_HOURS = 4;
+
+    // Ticket fields clients may sort filtered lists by; id always breaks ties
+    private static final Set<String> SORTABLE_TICKET_FIELDS =
+            Set.of("purchaseDate", "price", "validFrom", "validUntil", "ticketType", "status");
+    private static final Sort NEWEST_TICKETS_FIRST = Sort.by(Sort.Direction.DESC, "purchaseDate", "id");
+
     private final TicketRepository ticketRepository;
+    private final TicketJdbcRepository ticketJdbcRepository;
     private final TicketUsageRepository ticketUsageRepository;
     private final RouteRepository routeRepository;
     private final TicketPricingService ticketPricingService;
     private final UserService userService;
+    private final ActiveTicketIndex activeTicketIndex;
+    private final TapJournal tapJournal;
+    private final TicketNumberCodec ticketNumberCodec;
+    private final OfflineTicketTokenIssuer offlineTicketTokenIssuer;
+    private final TicketExpiryJob ticketExpiryJob;
+    private final TicketExpiryWheel ticketExpiryWheel;
+    private final UsageRollups usageRollups;
+    private final SalesAggregates salesAggregates;
+    private final RevenueLedger revenueLedger;
+    private final ApplicationEventPublisher eventPublisher;
 
     // ===== TICKET PURCHASING =====
 
@@ -78,6 +123,10 @@ public class TicketServiceImpl implements TicketService {
             Ticket ticket = createTicket(user, purchaseRequest.getTicketType(), price);
 
             Ticket savedTicket = ticketRepository.save(ticket);
+            activeTicketIndex.putAfterCommit(savedTicket);
+            ticketExpiryWheel.scheduleAfterCommit(savedTicket.getId(), savedTicket.getValidUntil());
+            eventPublisher.publishEvent(new TicketPurchasedEvent(savedTicket.getId(), user.getId(),
+                    savedTicket.getTicketType(), savedTicket.getPurchaseDate()));
             return ResponseEntity.status(HttpStatus.CREATED).body(mapToTicketResponse(savedTicket));
 
         } catch (Exception e) {
@@ -119,10 +168,26 @@ public class TicketServiceImpl implements TicketService {
     // ===== TICKET VALIDATION AND USAGE =====
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ResponseEntity<TicketValidationResponse> validateTicket(ValidateTicketRequest validateRequest) {
         try {
-            Ticket ticket = ticketRepository.findByTicketNumber(validateRequest.getTicketNumber()).orElse(null);
+            // Malformed or forged numbers are rejected without touching the index or the database
+            if (!ticketNumberCodec.verify(validateRequest.getTicketNumber()).isAcceptable()) {
+                return ResponseEntity.ok(TicketValidationResponse.invalid("Invalid ticket number"));
+            }
+
+            // Active tickets are answered from memory; anything else falls back to the database
+            ActiveTicketIndex.Entry indexed = activeTicketIndex.find(validateRequest.getTicketNumber());
+            if (indexed != null) {
+                LocalDateTime now = LocalDateTime.now();
+                if (!indexed.isCurrentlyValid(now)) {
+                    return ResponseEntity.ok(TicketValidationResponse.invalid("Ticket not valid"));
+                }
+                return ResponseEntity.ok(TicketValidationResponse.valid(mapToTicketResponse(indexed, now)));
+            }
+
+            // Loaded with its owner: the lookup runs in the repository's own transaction, so nothing lazy is left
+            Ticket ticket = ticketRepository.findWithUserByTicketNumber(validateRequest.getTicketNumber()).orElse(null);
 
             if (ticket == null) {
                 return ResponseEntity.ok(TicketValidationResponse.invalid("Ticket not found"));
@@ -141,29 +206,44 @@ public class TicketServiceImpl implements TicketService {
     @Override
     public ResponseEntity<TicketUsageResponse> useTicket(UseTicketRequest useRequest) {
         try {
-            Ticket ticket = ticketRepository.findByTicketNumber(useRequest.getTicketNumber()).orElse(null);
-            if (ticket == null) {
+            if (!ticketNumberCodec.verify(useRequest.getTicketNumber()).isAcceptable()) {
                 return ResponseEntity.notFound().build();
             }
 
-            if (!ticket.canBeUsedForTransit()) {
-                return ResponseEntity.badRequest().build();
-            }
-
             Route route = routeRepository.findById(useRequest.getRouteId()).orElse(null);
             if (route == null || !route.getActive()) {
                 return ResponseEntity.badRequest().build();
             }
 
-            // Use the ticket (for single rides)
-            if (ticket.getTicketType() == TicketType.RIDE) {
-                ticket.useTicket();
-                ticketRepository.save(ticket);
+            // Single rides are consumed by one conditional UPDATE, so two gates cannot spend the same ticket
+            Ticket ticket = ticketJdbcRepository.consumeRideTicket(useRequest.getTicketNumber(), LocalDateTime.now())
+                    .orElse(null);
+            if (ticket != null) {
+                activeTicketIndex.removeAfterCommit(ticket.getTicketNumber());
+                ticketExpiryWheel.cancelAfterCommit(ticket.getId());
+            } else {
+                // Not consumable as a ride: either a pass, or a ticket that cannot be used
+                ticket = ticketRepository.findByTicketNumber(useRequest.getTicketNumber()).orElse(null);
+                if (ticket == null) {
+                    return ResponseEntity.notFound().build();
+                }
+                if (ticket.getTicketType() == TicketType.RIDE || !ticket.canBeUsedForTransit()) {
+                    return ResponseEntity.badRequest().build();
+                }
             }
 
             // Create usage record
             TicketUsage usage = createTicketUsage(ticket, route, useRequest);
+            if (tapJournal.isWriteBehindEnabled()) {
+                // Acknowledge now; the journal flusher writes the usage row in the next batch
+                usage.setUsedAt(LocalDateTime.now());
+                tapJournal.appendAfterCommit(new TicketUsageJdbcRepository.UsageRow(
+                        ticket.getId(), route.getId(), usage.getTransportType(),
+                        usage.getBoardingStop(), usage.getDestinationStop(), usage.getUsedAt()));
+                return ResponseEntity.ok(mapToTicketUsageResponse(usage));
+            }
             TicketUsage savedUsage = ticketUsageRepository.save(usage);
+            eventPublisher.publishEvent(TapsRecordedEvent.of(savedUsage));
 
             return ResponseEntity.ok(mapToTicketUsageResponse(savedUsage));
         } catch (Exception e) {
@@ -171,6 +251,47 @@ public class TicketServiceImpl implements TicketService {
         }
     }
 
+    @Override
+    public ResponseEntity<TicketUsageResponse> tapOffTicket(TapOffRequest tapOffRequest) {
+        try {
+            if (!ticketNumberCodec.verify(tapOffRequest.getTicketNumber()).isAcceptable()) {
+                return ResponseEntity.notFound().build();
+            }
+
+            Ticket ticket = ticketRepository.findByTicketNumber(tapOffRequest.getTicketNumber()).orElse(null);
+            if (ticket == null) {
+                return ResponseEntity.notFound().build();
+            }
+
+            // Taps older than the longest plausible journey were never tapped off and stay open
+            LocalDateTime now = LocalDateTime.now();
+            TicketUsage usage = ticketUsageRepository
+                    .findFirstByTicketAndAlightedAtIsNullAndUsedAtAfterOrderByUsedAtDesc(ticket, now.minusHours(MAX_JOURNEY_HOURS))
+                    .orElse(null);
+            if (usage == null) {
+                return ResponseEntity.notFound().build();
+            }
+
+            String alightingStop = tapOffRequest.getAlightingStop() != null
+                    ? tapOffRequest.getAlightingStop()
+                    : usage.getDestinationStop();
+
+            // Conditional update, so a repeated tap-off cannot close the same journey twice
+            if (ticketUsageRepository.recordTapOff(usage.getId(), alightingStop, now) == 0) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            }
+            usage.setAlightingStop(alightingStop);
+            usage.setAlightedAt(now);
+
+            eventPublisher.publishEvent(new JourneyCompletedEvent(usage.getId(), usage.getRoute().getId(),
+                    usage.getBoardingStop(), alightingStop, usage.getUsedAt(), now));
+
+            return ResponseEntity.ok(mapToTicketUsageResponse(usage));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @Override
     @Transactional(readOnly = true)
     public ResponseEntity<TicketResponse> getTicketByNumber(String ticketNumber) {
@@ -185,23 +306,66 @@ public class TicketServiceImpl implements TicketService {
         }
     }
 
+    // ===== OFFLINE VALIDATION =====
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResponseEntity<OfflineTicketTokenResponse> issueOfflineToken(UserDetails userDetails, String ticketNumber) {
+        try {
+            User user = userService.getCurrentUser(userDetails);
+            Ticket ticket = ticketRepository.findByTicketNumber(ticketNumber).orElse(null);
+            if (ticket == null || !ticket.getUser().getId().equals(user.getId())) {
+                return ResponseEntity.notFound().build();
+            }
+
+            if (!ticket.isCurrentlyValid()) {
+                return ResponseEntity.badRequest().build();
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            OfflineTicketTokenResponse response = new OfflineTicketTokenResponse(
+                    ticket.getTicketNumber(), ticket.getTicketType(),
+                    offlineTicketTokenIssuer.issue(ticket, now), offlineTicketTokenIssuer.getKeyId(),
+                    offlineTicketTokenIssuer.expiresAt(ticket, now));
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @Override
+    public ResponseEntity<List<OfflineVerificationKeyResponse>> getOfflineVerificationKeys() {
+        try {
+            OfflineVerificationKeyResponse key = new OfflineVerificationKeyResponse(
+                    offlineTicketTokenIssuer.getKeyId(), "Ed25519", offlineTicketTokenIssuer.getPublicKeyBase64());
+            return ResponseEntity.ok(List.of(key));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     // ===== USER TICKET MANAGEMENT =====
 
     @Override
     @Transactional(readOnly = true)
-    public ResponseEntity<PagedResponse<TicketSummaryResponse>> getUserTickets(UserDetails userDetails, int page, int size) {
+    public ResponseEntity<PagedResponse<TicketSummaryResponse>> getUserTickets(UserDetails userDetails, String cursor,
+                                                                             int size, boolean includeTotal) {
         try {
+            if (size < 1 || !PageCursor.isValid(cursor)) {
+                return ResponseEntity.badRequest().build();
+            }
             User user = userService.getCurrentUser(userDetails);
-            Pageable pageable = PageRequest.of(page, size);
-            Page<Ticket> ticketPage = ticketRepository.findByUserOrderByPurchaseDateDesc(user, pageable);
+            PageCursor pageCursor = PageCursor.decode(cursor);
+            Limit limit = Limit.of(size + 1);
 
-            List<TicketSummaryResponse> tickets = ticketPage.getContent().stream()
-                    .map(this::mapToTicketSummaryResponse)
-                    .collect(Collectors.toList());
+            List<Ticket> rows = pageCursor == null ? ticketRepository.findUserTicketsFirst(user, limit)
+                    : pageCursor.backward()
+                    ? ticketRepository.findUserTicketsBefore(user, pageCursor.sortKey(), pageCursor.id(), limit)
+                    : ticketRepository.findUserTicketsAfter(user, pageCursor.sortKey(), pageCursor.id(), limit);
 
-            PagedResponse<TicketSummaryResponse> response = PagedResponse.of(
-                    tickets, ticketPage.getNumber(), ticketPage.getSize(),
-                    ticketPage.getTotalElements(), ticketPage.getTotalPages());
+            PagedResponse<TicketSummaryResponse> response = PagedResponse.ofKeyset(rows, pageCursor, size,
+                    ticket -> PageCursor.after(ticket.getPurchaseDate(), ticket.getId()), this::mapToTicketSummaryResponse,
+                    includeTotal ? ticketRepository.countByUser(user) : null);
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -264,19 +428,21 @@ public class TicketServiceImpl implements TicketService {
     @Transactional(readOnly = true)
     public ResponseEntity<PagedResponse<TicketSummaryResponse>> getUserTicketsFiltered(UserDetails userDetails, TicketFilterRequest filterRequest) {
         try {
-            User user = userService.getCurrentUser(userDetails);
-            Pageable pageable = PageRequest.of(filterRequest.getPage(), filterRequest.getSize());
-
-            Page<Ticket> ticketPage;
-            if (filterRequest.getTicketType() != null) {
-                List<Ticket> tickets = ticketRepository.findByUserAndTicketTypeOrderByPurchaseDateDesc(user, filterRequest.getTicketType());
-                ticketPage = createPageFromList(tickets, pageable);
-            } else if (filterRequest.getStatus() != null) {
-                List<Ticket> tickets = ticketRepository.findByUserAndStatusOrderByPurchaseDateDesc(user, filterRequest.getStatus());
-                ticketPage = createPageFromList(tickets, pageable);
-            } else {
-                ticketPage = ticketRepository.findByUserOrderByPurchaseDateDesc(user, pageable);
+            Sort sort = ticketSort(filterRequest.getSortBy(), filterRequest.getSortDir());
+            if (sort == null || filterRequest.getPage() < 0 || filterRequest.getSize() < 1) {
+                return ResponseEntity.badRequest().build();
             }
+            User user = userService.getCurrentUser(userDetails);
+            Pageable pageable = PageRequest.of(filterRequest.getPage(), filterRequest.getSize(), sort);
+
+            // All filters are applied together in one query
+            Specification<Ticket> filter = Specification.allOf(
+                    TicketSpecifications.ownedBy(user),
+                    TicketSpecifications.hasType(filterRequest.getTicketType()),
+                    TicketSpecifications.hasStatus(filterRequest.getStatus()),
+                    TicketSpecifications.purchasedFrom(filterRequest.getStartDate()),
+                    TicketSpecifications.purchasedBefore(filterRequest.getEndDate()));
+            Page<Ticket> ticketPage = ticketRepository.findAll(filter, pageable);
 
             List<TicketSummaryResponse> tickets = ticketPage.getContent().stream()
                     .map(this::mapToTicketSummaryResponse)
@@ -294,19 +460,24 @@ public class TicketServiceImpl implements TicketService {
 
     @Override
     @Transactional(readOnly = true)
-    public ResponseEntity<PagedResponse<TicketUsageResponse>> getUserTravelHistory(UserDetails userDetails, int page, int size) {
+    public ResponseEntity<PagedResponse<TicketUsageResponse>> getUserTravelHistory(UserDetails userDetails, String cursor,
+                                                                                 int size, boolean includeTotal) {
         try {
+            if (size < 1 || !PageCursor.isValid(cursor)) {
+                return ResponseEntity.badRequest().build();
+            }
             User user = userService.getCurrentUser(userDetails);
-            Pageable pageable = PageRequest.of(page, size);
-            Page<TicketUsage> usagePage = ticketUsageRepository.findUserTicketUsage(user, pageable);
+            PageCursor pageCursor = PageCursor.decode(cursor);
+            Limit limit = Limit.of(size + 1);
 
-            List<TicketUsageResponse> usage = usagePage.getContent().stream()
-                    .map(this::mapToTicketUsageResponse)
-                    .collect(Collectors.toList());
+            List<TicketUsage> rows = pageCursor == null ? ticketUsageRepository.findUserUsageFirst(user, limit)
+                    : pageCursor.backward()
+                    ? ticketUsageRepository.findUserUsageBefore(user, pageCursor.sortKey(), pageCursor.id(), limit)
+                    : ticketUsageRepository.findUserUsageAfter(user, pageCursor.sortKey(), pageCursor.id(), limit);
 
-            PagedResponse<TicketUsageResponse> response = PagedResponse.of(
-                    usage, usagePage.getNumber(), usagePage.getSize(),
-                    usagePage.getTotalElements(), usagePage.getTotalPages());
+            PagedResponse<TicketUsageResponse> response = PagedResponse.ofKeyset(rows, pageCursor, size,
+                    usage -> PageCursor.after(usage.getUsedAt(), usage.getId()), this::mapToTicketUsageResponse,
+                    includeTotal ? ticketUsageRepository.countUserUsage(user) : null);
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -318,18 +489,22 @@ public class TicketServiceImpl implements TicketService {
 
     @Override
     @Transactional(readOnly = true)
-    public ResponseEntity<PagedResponse<TicketResponse>> getAllTickets(int page, int size) {
+    public ResponseEntity<PagedResponse<TicketResponse>> getAllTickets(String cursor, int size, boolean includeTotal) {
         try {
-            Pageable pageable = PageRequest.of(page, size);
-            Page<Ticket> ticketPage = ticketRepository.findAll(pageable);
+            if (size < 1 || !PageCursor.isValid(cursor)) {
+                return ResponseEntity.badRequest().build();
+            }
+            PageCursor pageCursor = PageCursor.decode(cursor);
+            Limit limit = Limit.of(size + 1);
 
-            List<TicketResponse> tickets = ticketPage.getContent().stream()
-                    .map(this::mapToTicketResponse)
-                    .collect(Collectors.toList());
+            List<Ticket> rows = pageCursor == null ? ticketRepository.findTicketsFirst(limit)
+                    : pageCursor.backward()
+                    ? ticketRepository.findTicketsBefore(pageCursor.sortKey(), pageCursor.id(), limit)
+                    : ticketRepository.findTicketsAfter(pageCursor.sortKey(), pageCursor.id(), limit);
 
-            PagedResponse<TicketResponse> response = PagedResponse.of(
-                    tickets, ticketPage.getNumber(), ticketPage.getSize(),
-                    ticketPage.getTotalElements(), ticketPage.getTotalPages());
+            PagedResponse<TicketResponse> response = PagedResponse.ofKeyset(rows, pageCursor, size,
+                    ticket -> PageCursor.after(ticket.getPurchaseDate(), ticket.getId()), this::mapToTicketResponse,
+                    includeTotal ? ticketRepository.count() : null);
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -341,9 +516,11 @@ public class TicketServiceImpl implements TicketService {
     @Transactional(readOnly = true)
     public ResponseEntity<PagedResponse<TicketResponse>> getTicketsByStatus(TicketStatus status, int page, int size) {
         try {
-            List<Ticket> tickets = ticketRepository.findByStatusOrderByPurchaseDateDesc(status);
-            Pageable pageable = PageRequest.of(page, size);
-            Page<Ticket> ticketPage = createPageFromList(tickets, pageable);
+            if (page < 0 || size < 1) {
+                return ResponseEntity.badRequest().build();
+            }
+            Pageable pageable = PageRequest.of(page, size, NEWEST_TICKETS_FIRST);
+            Page<Ticket> ticketPage = ticketRepository.findAll(TicketSpecifications.hasStatus(status), pageable);
 
             List<TicketResponse> ticketResponses = ticketPage.getContent().stream()
                     .map(this::mapToTicketResponse)
@@ -363,9 +540,11 @@ public class TicketServiceImpl implements TicketService {
     @Transactional(readOnly = true)
     public ResponseEntity<PagedResponse<TicketResponse>> getTicketsByType(TicketType ticketType, int page, int size) {
         try {
-            List<Ticket> tickets = ticketRepository.findByTicketTypeOrderByPurchaseDateDesc(ticketType);
-            Pageable pageable = PageRequest.of(page, size);
-            Page<Ticket> ticketPage = createPageFromList(tickets, pageable);
+            if (page < 0 || size < 1) {
+                return ResponseEntity.badRequest().build();
+            }
+            Pageable pageable = PageRequest.of(page, size, NEWEST_TICKETS_FIRST);
+            Page<Ticket> ticketPage = ticketRepository.findAll(TicketSpecifications.hasType(ticketType), pageable);
 
             List<TicketResponse> ticketResponses = ticketPage.getContent().stream()
                     .map(this::mapToTicketResponse)
@@ -395,6 +574,8 @@ public class TicketServiceImpl implements TicketService {
 
             ticket.setStatus(TicketStatus.EXPIRED);
             ticketRepository.save(ticket);
+            activeTicketIndex.removeAfterCommit(ticket.getTicketNumber());
+            ticketExpiryWheel.cancelAfterCommit(ticket.getId());
 
             return ResponseEntity.ok("Ticket cancelled");
         } catch (Exception e) {
@@ -406,8 +587,13 @@ public class TicketServiceImpl implements TicketService {
     @Transactional(readOnly = true)
     public ResponseEntity<PagedResponse<TicketResponse>> getTicketsByDateRange(LocalDateTime startDate, LocalDateTime endDate, int page, int size) {
         try {
-            Pageable pageable = PageRequest.of(page, size);
-            Page<Ticket> ticketPage = ticketRepository.findTicketsPurchasedBetween(startDate, endDate, pageable);
+            if (page < 0 || size < 1 || startDate.isAfter(endDate)) {
+                return ResponseEntity.badRequest().build();
+            }
+            Pageable pageable = PageRequest.of(page, size, NEWEST_TICKETS_FIRST);
+            Page<Ticket> ticketPage = ticketRepository.findAll(Specification.allOf(
+                    TicketSpecifications.purchasedFrom(startDate),
+                    TicketSpecifications.purchasedBefore(endDate)), pageable);
 
             List<TicketResponse> tickets = ticketPage.getContent().stream()
                     .map(this::mapToTicketResponse)
@@ -429,27 +615,7 @@ public class TicketServiceImpl implements TicketService {
     @Transactional(readOnly = true)
     public ResponseEntity<List<SalesAnalyticsResponse>> getSalesAnalyticsByType() {
         try {
-            List<Object[]> results = ticketRepository.countTicketsByType();
-
-            List<SalesAnalyticsResponse> analytics = results.stream()
-                    .map(result -> {
-                        TicketType type = (TicketType) result[0];
-                        Long count = (Long) result[1];
-
-                        // Calculate revenue for this type
-                        List<Ticket> typeTickets = ticketRepository.findByTicketTypeOrderByPurchaseDateDesc(type);
-                        BigDecimal revenue = typeTickets.stream()
-                                .map(Ticket::getPrice)
-                                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-                        SalesAnalyticsResponse analytics1 = new SalesAnalyticsResponse();
-                        analytics1.setTicketType(type);
-                        analytics1.setTicketCount(count);
-                        analytics1.setTotalRevenue(revenue);
-                        return analytics1;
-                    })
-                    .collect(Collectors.toList());
-
+            List<SalesAnalyticsResponse> analytics = salesAggregates.byTicketType();
             return ResponseEntity.ok(analytics);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -460,9 +626,10 @@ public class TicketServiceImpl implements TicketService {
     @Transactional(readOnly = true)
     public ResponseEntity<BigDecimal> getRevenueByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
         try {
-            BigDecimal revenue = ticketRepository.calculateRevenueByDateRange(startDate, endDate)
-                    .orElse(BigDecimal.ZERO);
-            return ResponseEntity.ok(revenue);
+            if (startDate.isAfter(endDate)) {
+                return ResponseEntity.badRequest().build();
+            }
+            return ResponseEntity.ok(revenueLedger.sales(startDate, endDate).revenue());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -486,7 +653,7 @@ public class TicketServiceImpl implements TicketService {
         try {
             LocalDateTime endDate = LocalDateTime.now();
             LocalDateTime startDate = endDate.minusDays(days);
-            List<Object[]> stats = ticketUsageRepository.getDailyUsageStats(startDate, endDate);
+            List<Object[]> stats = usageRollups.tapsPerDay(startDate, endDate);
             return ResponseEntity.ok(stats);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -498,33 +665,50 @@ public class TicketServiceImpl implements TicketService {
     @Override
     public int processExpiredTickets() {
         try {
-            List<Ticket> expiredTickets = ticketRepository.findExpiredActiveTickets(LocalDateTime.now());
+            // Chunked bulk UPDATEs, each committed on its own; see TicketExpiryJob
+            return ticketExpiryJob.run();
+        } catch (Exception e) {
+            return 0;
+        }
+    }
 
-            for (Ticket ticket : expiredTickets) {
-                ticket.setStatus(TicketStatus.EXPIRED);
-                ticketRepository.save(ticket);
+    @Override
+    @Transactional(readOnly = true)
+    public ResponseEntity<TicketExpiryRunResponse> getLastExpiryRun() {
+        try {
+            TicketExpiryJob.RunStats run = ticketExpiryJob.getLastRun();
+            if (run == null) {
+                return ResponseEntity.noContent().build();
             }
 
-            return expiredTickets.size();
+            TicketExpiryRunResponse response = new TicketExpiryRunResponse(
+                    run.startedAt(), run.durationMillis(), run.ticketsExpired(), run.chunks(),
+                    run.lagSeconds(), run.backlogRemaining(), run.totalRuns(), run.totalExpired());
+            return ResponseEntity.ok(response);
         } catch (Exception e) {
-            return 0;
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
     @Override
-    public ResponseEntity<String> generateDailyReport(LocalDateTime date) {
+    public ResponseEntity<ExpiryWheelStatsResponse> getExpiryWheelStats() {
         try {
-            LocalDateTime startOfDay = date.withHour(0).withMinute(0).withSecond(0);
-            LocalDateTime endOfDay = date.withHour(23).withMinute(59).withSecond(59);
-
-            long ticketsSold = ticketRepository.findTicketsPurchasedBetween(startOfDay, endOfDay,
-                    PageRequest.of(0, Integer.MAX_VALUE)).getTotalElements();
+            TicketExpiryWheel.Stats stats = ticketExpiryWheel.getStats();
+            return ResponseEntity.ok(new ExpiryWheelStatsResponse(stats.enabled(), stats.pending(), stats.fired(),
+                    stats.expired(), stats.batches(), stats.maxFireDelayMillis()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
 
-            BigDecimal revenue = ticketRepository.calculateRevenueByDateRange(startOfDay, endOfDay)
-                    .orElse(BigDecimal.ZERO);
+    @Override
+    public ResponseEntity<String> generateDailyReport(LocalDateTime date) {
+        try {
+            LocalDateTime startOfDay = date.toLocalDate().atStartOfDay();
+            RevenueLedger.Sales sales = revenueLedger.sales(startOfDay, startOfDay.plusDays(1));
 
             String report = String.format("Date: %s, Tickets Sold: %d, Revenue: $%.2f",
-                    date.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")), ticketsSold, revenue);
+                    date.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")), sales.tickets(), sales.revenue());
 
             return ResponseEntity.ok(report);
         } catch (Exception e) {
@@ -532,6 +716,27 @@ public class TicketServiceImpl implements TicketService {
         }
     }
 
+    @Override
+    public ResponseEntity<ActiveTicketIndexStatsResponse> getActiveTicketIndexStats() {
+        try {
+            ActiveTicketIndex.Stats stats = activeTicketIndex.getStats();
+
+            ActiveTicketIndexStatsResponse response = new ActiveTicketIndexStatsResponse();
+            response.setEnabled(stats.enabled());
+            response.setLoaded(stats.loaded());
+            response.setIndexedTickets(stats.size());
+            response.setCapacity(stats.capacity());
+            response.setMemoryBytes(stats.memoryBytes());
+            response.setHits(stats.hits());
+            response.setMisses(stats.misses());
+            response.setHitRatio(stats.hitRatio());
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     // ===== UTILITY METHODS =====
 
     @Override
@@ -547,10 +752,7 @@ public class TicketServiceImpl implements TicketService {
 
     @Override
     public String generateTicketNumber(TicketType ticketType) {
-        String prefix = getTicketTypePrefix(ticketType);
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-        String random = UUID.randomUUID().toString().substring(0, 4).toUpperCase();
-        return prefix + "-" + timestamp + "-" + random;
+        return ticketNumberCodec.generate(ticketType);
     }
 
     // ===== PRIVATE HELPER METHODS =====
@@ -574,6 +776,7 @@ public class TicketServiceImpl implements TicketService {
     private TicketUsage createTicketUsage(Ticket ticket, Route route, UseTicketRequest useRequest) {
         TicketUsage usage = new TicketUsage();
         usage.setTicket(ticket);
+        usage.setUser(ticket.getUser());
         usage.setRoute(route);
         usage.setTransportType(useRequest.getTransportType());
         usage.setBoardingStop(useRequest.getBoardingStop());
@@ -581,15 +784,6 @@ public class TicketServiceImpl implements TicketService {
         return usage;
     }
 
-    private String getTicketTypePrefix(TicketType ticketType) {
-        switch (ticketType) {
-            case RIDE: return "RD";
-            case MONTHLY: return "MO";
-            case YEARLY: return "YR";
-            default: return "TK";
-        }
-    }
-
     private TicketResponse mapToTicketResponse(Ticket ticket) {
         TicketResponse response = new TicketResponse();
         response.setId(ticket.getId());
@@ -619,6 +813,25 @@ public class TicketServiceImpl implements TicketService {
         return response;
     }
 
+    // Index entries carry no user or audit columns, so those stay null
+    private TicketResponse mapToTicketResponse(ActiveTicketIndex.Entry entry, LocalDateTime now) {
+        boolean currentlyValid = entry.isCurrentlyValid(now);
+
+        TicketResponse response = new TicketResponse();
+        response.setId(entry.ticketId());
+        response.setTicketNumber(entry.ticketNumber());
+        response.setTicketType(entry.ticketType());
+        response.setPrice(entry.price());
+        response.setStatus(entry.status());
+        response.setPurchaseDate(entry.purchaseDate());
+        response.setValidFrom(entry.validFrom());
+        response.setValidUntil(entry.validUntil());
+        response.setUsedDate(entry.usedDate());
+        response.setIsCurrentlyValid(currentlyValid);
+        response.setCanBeUsedForTransit(currentlyValid);
+        return response;
+    }
+
     private TicketSummaryResponse mapToTicketSummaryResponse(Ticket ticket) {
         TicketSummaryResponse response = new TicketSummaryResponse();
         response.setId(ticket.getId());
@@ -641,6 +854,8 @@ public class TicketServiceImpl implements TicketService {
         response.setBoardingStop(usage.getBoardingStop());
         response.setDestinationStop(usage.getDestinationStop());
         response.setUsedAt(usage.getUsedAt());
+        response.setAlightingStop(usage.getAlightingStop());
+        response.setAlightedAt(usage.getAlightedAt());
         return response;
     }
 
@@ -655,11 +870,18 @@ public class TicketServiceImpl implements TicketService {
         return response;
     }
 
-    private Page<Ticket> createPageFromList(List<Ticket> tickets, Pageable pageable) {
-        int start = Math.min((int) pageable.getOffset(), tickets.size());
-        int end = Math.min(start + pageable.getPageSize(), tickets.size());
-        List<Ticket> pageContent = tickets.subList(start, end);
-
-        return new org.springframework.data.domain.PageImpl<>(pageContent, pageable, tickets.size());
+    /**
+     * Sort for a filtered ticket list, or null if the field or direction is not supported
+     */
+    private static Sort ticketSort(String sortBy, String sortDir) {
+        String field = sortBy != null ? sortBy : "purchaseDate";
+        if (!SORTABLE_TICKET_FIELDS.contains(field)) {
+            return null;
+        }
+        Sort.Direction direction = Sort.Direction.fromOptionalString(sortDir != null ? sortDir : "desc").orElse(null);
+        if (direction == null) {
+            return null;
+        }
+        return Sort.by(direction, field).and(Sort.by(direction, "id"));
     }
 }
\ No newline at end of file
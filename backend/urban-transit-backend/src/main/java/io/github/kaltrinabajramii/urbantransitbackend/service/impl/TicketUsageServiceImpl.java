@@ -1,33 +1,70 @@
 package io.github.kaltrinabajramii.urbantransitbackend.service.impl;
 
+import io.github.kaltrinabajramii.urbantransitbackend.analytics.DurationSketch;
+import io.github.kaltrinabajramii.urbantransitbackend.analytics.HourOfWeekHistograms;
+import io.github.kaltrinabajramii.urbantransitbackend.analytics.JourneyDurations;
+import io.github.kaltrinabajramii.urbantransitbackend.analytics.StopHeavyHitters;
+import io.github.kaltrinabajramii.urbantransitbackend.analytics.UsageRollups;
+import io.github.kaltrinabajramii.urbantransitbackend.cache.ActiveTicketIndex;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.request.BulkTapRequest;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.request.PageCursor;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.request.TapRecordRequest;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.BulkTapResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.JourneyDurationResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.MonthlyTravelResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.TapJournalStatsResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.TapResultResponse;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.response.TicketUsageResponse;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.response.PagedResponse;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.response.TicketSummaryResponse;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.response.RouteSummaryResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.event.TapsRecordedEvent;
+import io.github.kaltrinabajramii.urbantransitbackend.journal.TapJournal;
 import io.github.kaltrinabajramii.urbantransitbackend.model.entity.TicketUsage;
 import io.github.kaltrinabajramii.urbantransitbackend.model.entity.Ticket;
 import io.github.kaltrinabajramii.urbantransitbackend.model.entity.Route;
 import io.github.kaltrinabajramii.urbantransitbackend.model.entity.User;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TicketType;
 import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TransportType;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.UsageWindow;
+import io.github.kaltrinabajramii.urbantransitbackend.report.CsvExporter;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.ExportJdbcRepository;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketJdbcRepository;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketUsageJdbcRepository;
 import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketUsageRepository;
 import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketRepository;
 import io.github.kaltrinabajramii.urbantransitbackend.repository.RouteRepository;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.specification.TicketUsageSpecifications;
+import io.github.kaltrinabajramii.urbantransitbackend.scheduler.TicketExpiryWheel;
 import io.github.kaltrinabajramii.urbantransitbackend.service.interfaces.TicketUsageService;
 import io.github.kaltrinabajramii.urbantransitbackend.service.interfaces.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.DayOfWeek;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -35,10 +72,28 @@ import java.util.stream.Collectors;
 @Transactional
 public class TicketUsageServiceImpl implements TicketUsageService {
 
+    private static final Sort LATEST_USAGE_FIRST = Sort.by(Sort.Direction.DESC, "usedAt", "id");
+    private static final int MAX_SUMMARY_MONTHS = 120;
+    private static final String RIDE_ALREADY_USED = "Ride ticket already used";
+    private static final String TRAVEL_HISTORY_EXPORT_HEADER =
+            "id,ticket_id,ticket_number,route_id,transport_type,boarding_stop,destination_stop,used_at,alighting_stop,alighted_at\n";
+
     private final TicketUsageRepository ticketUsageRepository;
     private final TicketRepository ticketRepository;
     private final RouteRepository routeRepository;
     private final UserService userService;
+    private final TicketUsageJdbcRepository ticketUsageJdbcRepository;
+    private final TicketJdbcRepository ticketJdbcRepository;
+    private final ActiveTicketIndex activeTicketIndex;
+    private final TicketExpiryWheel ticketExpiryWheel;
+    private final ExportJdbcRepository exportJdbcRepository;
+    private final CsvExporter csvExporter;
+    private final TapJournal tapJournal;
+    private final UsageRollups usageRollups;
+    private final HourOfWeekHistograms hourOfWeekHistograms;
+    private final StopHeavyHitters stopHeavyHitters;
+    private final JourneyDurations journeyDurations;
+    private final ApplicationEventPublisher eventPublisher;
 
     // ===== USAGE RECORDING =====
 
@@ -57,12 +112,14 @@ public class TicketUsageServiceImpl implements TicketUsageService {
 
             TicketUsage usage = new TicketUsage();
             usage.setTicket(ticket);
+            usage.setUser(ticket.getUser());
             usage.setRoute(route);
             usage.setTransportType(transportType);
             usage.setBoardingStop(boardingStop);
             usage.setDestinationStop(destinationStop);
 
             TicketUsage savedUsage = ticketUsageRepository.save(usage);
+            eventPublisher.publishEvent(TapsRecordedEvent.of(savedUsage));
             return ResponseEntity.ok(mapToTicketUsageResponse(savedUsage));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -72,45 +129,142 @@ public class TicketUsageServiceImpl implements TicketUsageService {
     @Override
     public ResponseEntity<String> bulkRecordUsage(List<TicketUsageResponse> usageRecords) {
         try {
-            int processed = 0;
-            for (TicketUsageResponse record : usageRecords) {
-                // Simple bulk processing
-                try {
-                    recordTicketUsage(
+            List<TapRecordRequest> taps = usageRecords.stream()
+                    .filter(record -> record.getTicket() != null && record.getRoute() != null)
+                    .map(record -> new TapRecordRequest(
                             record.getTicket().getId(),
                             record.getRoute().getId(),
                             record.getTransportType(),
                             record.getBoardingStop(),
-                            record.getDestinationStop()
-                    );
-                    processed++;
-                } catch (Exception e) {
-                    // Continue processing other records
-                }
-            }
+                            record.getDestinationStop(),
+                            record.getUsedAt()))
+                    .collect(Collectors.toList());
+
+            BulkTapResponse result = recordTapBatch(new BulkTapRequest(taps)).getBody();
+            int processed = result != null ? result.getAccepted() : 0;
             return ResponseEntity.ok("Processed " + processed + " usage records");
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Bulk processing failed");
         }
     }
 
+    @Override
+    public ResponseEntity<BulkTapResponse> recordTapBatch(BulkTapRequest bulkTapRequest) {
+        try {
+            List<TapRecordRequest> taps = bulkTapRequest.getTaps();
+
+            // One query for all tickets and one for all routes instead of two lookups per tap
+            Set<Long> ticketIds = new HashSet<>();
+            Set<Long> routeIds = new HashSet<>();
+            for (TapRecordRequest tap : taps) {
+                ticketIds.add(tap.getTicketId());
+                routeIds.add(tap.getRouteId());
+            }
+
+            Map<Long, Ticket> tickets = new HashMap<>();
+            for (Ticket ticket : ticketRepository.findAllById(ticketIds)) {
+                tickets.put(ticket.getId(), ticket);
+            }
+            Map<Long, Object[]> routeStatus = new HashMap<>();
+            for (Object[] row : routeRepository.findStatusByIdIn(routeIds)) {
+                routeStatus.put((Long) row[0], row);
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            List<String> rejections = new ArrayList<>(taps.size());
+            Map<Long, LocalDateTime> rideTaps = new HashMap<>();
+
+            for (TapRecordRequest tap : taps) {
+                LocalDateTime usedAt = tap.getUsedAt() != null ? tap.getUsedAt() : now;
+                String rejection = validateTap(tap, usedAt, tickets.get(tap.getTicketId()),
+                        routeStatus.get(tap.getRouteId()));
+                if (rejection == null && tickets.get(tap.getTicketId()).getTicketType() == TicketType.RIDE
+                        && rideTaps.putIfAbsent(tap.getTicketId(), usedAt) != null) {
+                    rejection = RIDE_ALREADY_USED;
+                }
+                rejections.add(rejection);
+            }
+
+            // Ride taps spend their ticket as useTicket does; one a gate consumed meanwhile is rejected
+            Set<Long> consumedRides = ticketJdbcRepository.consumeRideTicketsById(rideTaps, now);
+            for (Long ticketId : consumedRides) {
+                activeTicketIndex.removeAfterCommit(tickets.get(ticketId).getTicketNumber());
+                ticketExpiryWheel.cancelAfterCommit(ticketId);
+            }
+
+            List<TicketUsageJdbcRepository.UsageRow> rows = new ArrayList<>(taps.size());
+            List<TapResultResponse> results = new ArrayList<>(taps.size());
+
+            for (int i = 0; i < taps.size(); i++) {
+                TapRecordRequest tap = taps.get(i);
+                String rejection = rejections.get(i);
+                if (rejection == null && rideTaps.containsKey(tap.getTicketId())
+                        && !consumedRides.contains(tap.getTicketId())) {
+                    rejection = RIDE_ALREADY_USED;
+                }
+
+                if (rejection != null) {
+                    results.add(TapResultResponse.rejected(i, rejection));
+                    continue;
+                }
+
+                LocalDateTime usedAt = tap.getUsedAt() != null ? tap.getUsedAt() : now;
+                rows.add(new TicketUsageJdbcRepository.UsageRow(tap.getTicketId(), tap.getRouteId(),
+                        tap.getTransportType(), tap.getBoardingStop(), tap.getDestinationStop(), usedAt));
+                results.add(TapResultResponse.accepted(i));
+            }
+
+            if (tapJournal.isWriteBehindEnabled()) {
+                tapJournal.appendAllAfterCommit(rows);
+            } else {
+                ticketUsageJdbcRepository.batchInsert(rows);
+                eventPublisher.publishEvent(new TapsRecordedEvent(rows));
+            }
+
+            BulkTapResponse response = new BulkTapResponse(
+                    taps.size(), rows.size(), taps.size() - rows.size(), results);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResponseEntity<TapJournalStatsResponse> getTapJournalStats() {
+        try {
+            TapJournal.Stats stats = tapJournal.getStats();
+            TapJournalStatsResponse response = new TapJournalStatsResponse(
+                    stats.writeBehindEnabled(), stats.pendingSegments(), stats.appended(), stats.flushed(),
+                    Math.max(0, stats.appended() - stats.flushed()));
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     // ===== USER USAGE HISTORY =====
 
     @Override
     @Transactional(readOnly = true)
-    public ResponseEntity<PagedResponse<TicketUsageResponse>> getUserTravelHistory(UserDetails userDetails, int page, int size) {
+    public ResponseEntity<PagedResponse<TicketUsageResponse>> getUserTravelHistory(UserDetails userDetails, String cursor,
+                                                                                 int size, boolean includeTotal) {
         try {
+            if (size < 1 || !PageCursor.isValid(cursor)) {
+                return ResponseEntity.badRequest().build();
+            }
             User user = userService.getCurrentUser(userDetails);
-            Pageable pageable = PageRequest.of(page, size);
-            Page<TicketUsage> usagePage = ticketUsageRepository.findUserTicketUsage(user, pageable);
+            PageCursor pageCursor = PageCursor.decode(cursor);
+            Limit limit = Limit.of(size + 1);
 
-            List<TicketUsageResponse> usage = usagePage.getContent().stream()
-                    .map(this::mapToTicketUsageResponse)
-                    .collect(Collectors.toList());
+            List<TicketUsage> rows = pageCursor == null ? ticketUsageRepository.findUserUsageFirst(user, limit)
+                    : pageCursor.backward()
+                    ? ticketUsageRepository.findUserUsageBefore(user, pageCursor.sortKey(), pageCursor.id(), limit)
+                    : ticketUsageRepository.findUserUsageAfter(user, pageCursor.sortKey(), pageCursor.id(), limit);
 
-            PagedResponse<TicketUsageResponse> response = PagedResponse.of(
-                    usage, usagePage.getNumber(), usagePage.getSize(),
-                    usagePage.getTotalElements(), usagePage.getTotalPages());
+            PagedResponse<TicketUsageResponse> response = PagedResponse.ofKeyset(rows, pageCursor, size,
+                    usage -> PageCursor.after(usage.getUsedAt(), usage.getId()), this::mapToTicketUsageResponse,
+                    includeTotal ? ticketUsageRepository.countUserUsage(user) : null);
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -120,30 +274,90 @@ public class TicketUsageServiceImpl implements TicketUsageService {
 
     @Override
     @Transactional(readOnly = true)
-    public ResponseEntity<PagedResponse<TicketUsageResponse>> getUserTravelHistoryByDateRange(UserDetails userDetails, LocalDateTime startDate, LocalDateTime endDate, int page, int size) {
+    public ResponseEntity<PagedResponse<TicketUsageResponse>> getUserTravelHistoryByDateRange(UserDetails userDetails, LocalDateTime startDate,
+                                                                                            LocalDateTime endDate, String cursor,
+                                                                                            int size, boolean includeTotal) {
         try {
+            if (!startDate.isBefore(endDate) || size < 1 || !PageCursor.isValid(cursor)) {
+                return ResponseEntity.badRequest().build();
+            }
             User user = userService.getCurrentUser(userDetails);
-            Pageable pageable = PageRequest.of(page, size);
-
-            // Get all user usage and filter by date range
-            Page<TicketUsage> usagePage = ticketUsageRepository.findUserTicketUsage(user, pageable);
-            List<TicketUsage> filteredUsage = usagePage.getContent().stream()
-                    .filter(usage -> {
-                        LocalDateTime usedAt = usage.getUsedAt();
-                        return usedAt.isAfter(startDate) && usedAt.isBefore(endDate);
-                    })
-                    .collect(Collectors.toList());
+            PageCursor pageCursor = PageCursor.decode(cursor);
+            Limit limit = Limit.of(size + 1);
+
+            // Bounds and position are both on (user_id, used_at, id), so each page is one index range scan
+            List<TicketUsage> rows = pageCursor == null
+                    ? ticketUsageRepository.findUserUsageInRangeFirst(user, startDate, endDate, limit)
+                    : pageCursor.backward()
+                    ? ticketUsageRepository.findUserUsageInRangeBefore(user, startDate, endDate,
+                            pageCursor.sortKey(), pageCursor.id(), limit)
+                    : ticketUsageRepository.findUserUsageInRangeAfter(user, startDate, endDate,
+                            pageCursor.sortKey(), pageCursor.id(), limit);
+
+            PagedResponse<TicketUsageResponse> response = PagedResponse.ofKeyset(rows, pageCursor, size,
+                    usage -> PageCursor.after(usage.getUsedAt(), usage.getId()), this::mapToTicketUsageResponse,
+                    includeTotal ? ticketUsageRepository.countUserUsageInRange(user, startDate, endDate) : null);
 
-            List<TicketUsageResponse> usage = filteredUsage.stream()
-                    .map(this::mapToTicketUsageResponse)
-                    .collect(Collectors.toList());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
 
-            // Create simple page response
-            PagedResponse<TicketUsageResponse> response = PagedResponse.of(
-                    usage, page, size, filteredUsage.size(),
-                    (filteredUsage.size() + size - 1) / size);
+    @Override
+    @Transactional(readOnly = true)
+    public ResponseEntity<StreamingResponseBody> exportUserTravelHistory(UserDetails userDetails, LocalDateTime startDate,
+                                                                         LocalDateTime endDate, boolean gzip) {
+        try {
+            if (!startDate.isBefore(endDate)) {
+                return ResponseEntity.badRequest().build();
+            }
+            long userId = userService.getCurrentUser(userDetails).getId();
+            return csvExporter.export("travel-history", gzip, TRAVEL_HISTORY_EXPORT_HEADER, handler ->
+                    exportJdbcRepository.streamUserUsage(userId, startDate, endDate, handler));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
 
-            return ResponseEntity.ok(response);
+    @Override
+    @Transactional(readOnly = true)
+    public ResponseEntity<List<MonthlyTravelResponse>> getUserMonthlyTravelSummary(UserDetails userDetails, int months) {
+        try {
+            if (months < 1 || months > MAX_SUMMARY_MONTHS) {
+                return ResponseEntity.badRequest().build();
+            }
+            User user = userService.getCurrentUser(userDetails);
+            YearMonth current = YearMonth.now();
+            YearMonth first = current.minusMonths(months - 1);
+
+            Map<YearMonth, MonthlyTravelResponse> summary = new LinkedHashMap<>();
+            Map<YearMonth, Double> journeySeconds = new HashMap<>();
+            for (YearMonth month = first; !month.isAfter(current); month = month.plusMonths(1)) {
+                summary.put(month, new MonthlyTravelResponse(month, 0L, new EnumMap<>(TransportType.class), 0L, 0.0, null));
+            }
+
+            // One grouped query over the user's index range; rows come per month and transport type
+            List<TicketUsageJdbcRepository.MonthlyTravel> rows = ticketUsageJdbcRepository.summarizeUserTravelByMonth(
+                    user.getId(), first.atDay(1).atStartOfDay(), current.plusMonths(1).atDay(1).atStartOfDay());
+            for (TicketUsageJdbcRepository.MonthlyTravel row : rows) {
+                YearMonth month = YearMonth.from(row.monthStart());
+                MonthlyTravelResponse travel = summary.get(month);
+                travel.setRides(travel.getRides() + row.rides());
+                travel.getRidesByTransportType().put(row.transportType(), row.rides());
+                travel.setCompletedJourneys(travel.getCompletedJourneys() + row.completedJourneys());
+                journeySeconds.merge(month, row.journeySeconds(), Double::sum);
+            }
+
+            for (MonthlyTravelResponse travel : summary.values()) {
+                double seconds = journeySeconds.getOrDefault(travel.getMonth(), 0.0);
+                travel.setTotalJourneyMinutes(toMinutes(seconds));
+                if (travel.getCompletedJourneys() > 0) {
+                    travel.setAverageJourneyMinutes(toMinutes(seconds / travel.getCompletedJourneys()));
+                }
+            }
+
+            return ResponseEntity.ok(new ArrayList<>(summary.values()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -182,18 +396,22 @@ public class TicketUsageServiceImpl implements TicketUsageService {
 
     @Override
     @Transactional(readOnly = true)
-    public ResponseEntity<PagedResponse<TicketUsageResponse>> getAllUsageRecords(int page, int size) {
+    public ResponseEntity<PagedResponse<TicketUsageResponse>> getAllUsageRecords(String cursor, int size, boolean includeTotal) {
         try {
-            Pageable pageable = PageRequest.of(page, size);
-            Page<TicketUsage> usagePage = ticketUsageRepository.findAll(pageable);
+            if (size < 1 || !PageCursor.isValid(cursor)) {
+                return ResponseEntity.badRequest().build();
+            }
+            PageCursor pageCursor = PageCursor.decode(cursor);
+            Limit limit = Limit.of(size + 1);
 
-            List<TicketUsageResponse> usage = usagePage.getContent().stream()
-                    .map(this::mapToTicketUsageResponse)
-                    .collect(Collectors.toList());
+            List<TicketUsage> rows = pageCursor == null ? ticketUsageRepository.findUsageFirst(limit)
+                    : pageCursor.backward()
+                    ? ticketUsageRepository.findUsageBefore(pageCursor.sortKey(), pageCursor.id(), limit)
+                    : ticketUsageRepository.findUsageAfter(pageCursor.sortKey(), pageCursor.id(), limit);
 
-            PagedResponse<TicketUsageResponse> response = PagedResponse.of(
-                    usage, usagePage.getNumber(), usagePage.getSize(),
-                    usagePage.getTotalElements(), usagePage.getTotalPages());
+            PagedResponse<TicketUsageResponse> response = PagedResponse.ofKeyset(rows, pageCursor, size,
+                    usage -> PageCursor.after(usage.getUsedAt(), usage.getId()), this::mapToTicketUsageResponse,
+                    includeTotal ? ticketUsageRepository.count() : null);
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -205,26 +423,23 @@ public class TicketUsageServiceImpl implements TicketUsageService {
     @Transactional(readOnly = true)
     public ResponseEntity<PagedResponse<TicketUsageResponse>> getUsageByRoute(Long routeId, int page, int size) {
         try {
-            Route route = routeRepository.findById(routeId).orElse(null);
-            if (route == null) {
+            if (page < 0 || size < 1) {
+                return ResponseEntity.badRequest().build();
+            }
+            if (!routeRepository.existsById(routeId)) {
                 return ResponseEntity.notFound().build();
             }
 
-            List<TicketUsage> usageList = ticketUsageRepository.findByRouteOrderByUsedAtDesc(route);
-
-            // Simple pagination
-            Pageable pageable = PageRequest.of(page, size);
-            int start = Math.min((int) pageable.getOffset(), usageList.size());
-            int end = Math.min(start + pageable.getPageSize(), usageList.size());
-            List<TicketUsage> pageContent = usageList.subList(start, end);
+            Pageable pageable = PageRequest.of(page, size, LATEST_USAGE_FIRST);
+            Page<TicketUsage> usagePage = ticketUsageRepository.findAll(TicketUsageSpecifications.onRoute(routeId), pageable);
 
-            List<TicketUsageResponse> usage = pageContent.stream()
+            List<TicketUsageResponse> usage = usagePage.getContent().stream()
                     .map(this::mapToTicketUsageResponse)
                     .collect(Collectors.toList());
 
             PagedResponse<TicketUsageResponse> response = PagedResponse.of(
-                    usage, page, size, usageList.size(),
-                    (usageList.size() + size - 1) / size);
+                    usage, usagePage.getNumber(), usagePage.getSize(),
+                    usagePage.getTotalElements(), usagePage.getTotalPages());
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -236,21 +451,21 @@ public class TicketUsageServiceImpl implements TicketUsageService {
     @Transactional(readOnly = true)
     public ResponseEntity<PagedResponse<TicketUsageResponse>> getUsageByTransportType(TransportType transportType, int page, int size) {
         try {
-            List<TicketUsage> usageList = ticketUsageRepository.findByTransportTypeOrderByUsedAtDesc(transportType);
+            if (page < 0 || size < 1) {
+                return ResponseEntity.badRequest().build();
+            }
 
-            // Simple pagination
-            Pageable pageable = PageRequest.of(page, size);
-            int start = Math.min((int) pageable.getOffset(), usageList.size());
-            int end = Math.min(start + pageable.getPageSize(), usageList.size());
-            List<TicketUsage> pageContent = usageList.subList(start, end);
+            Pageable pageable = PageRequest.of(page, size, LATEST_USAGE_FIRST);
+            Page<TicketUsage> usagePage = ticketUsageRepository.findAll(
+                    TicketUsageSpecifications.hasTransportType(transportType), pageable);
 
-            List<TicketUsageResponse> usage = pageContent.stream()
+            List<TicketUsageResponse> usage = usagePage.getContent().stream()
                     .map(this::mapToTicketUsageResponse)
                     .collect(Collectors.toList());
 
             PagedResponse<TicketUsageResponse> response = PagedResponse.of(
-                    usage, page, size, usageList.size(),
-                    (usageList.size() + size - 1) / size);
+                    usage, usagePage.getNumber(), usagePage.getSize(),
+                    usagePage.getTotalElements(), usagePage.getTotalPages());
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -266,6 +481,7 @@ public class TicketUsageServiceImpl implements TicketUsageService {
                 return ResponseEntity.notFound().build();
             }
 
+            usageRollups.remove(usage);
             ticketUsageRepository.delete(usage);
             return ResponseEntity.ok("Usage record deleted");
         } catch (Exception e) {
@@ -277,10 +493,9 @@ public class TicketUsageServiceImpl implements TicketUsageService {
 
     @Override
     @Transactional(readOnly = true)
-    public ResponseEntity<List<Object[]>> getMostPopularBoardingStops(int limit) {
+    public ResponseEntity<List<Object[]>> getMostPopularBoardingStops(int limit, UsageWindow window) {
         try {
-            Pageable pageable = PageRequest.of(0, limit);
-            List<Object[]> popularStops = ticketUsageRepository.findMostPopularBoardingStops(pageable).getContent();
+            List<Object[]> popularStops = stopHeavyHitters.topBoardingStops(window, limit);
             return ResponseEntity.ok(popularStops);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -289,10 +504,9 @@ public class TicketUsageServiceImpl implements TicketUsageService {
 
     @Override
     @Transactional(readOnly = true)
-    public ResponseEntity<List<Object[]>> getMostPopularDestinations(int limit) {
+    public ResponseEntity<List<Object[]>> getMostPopularDestinations(int limit, UsageWindow window) {
         try {
-            Pageable pageable = PageRequest.of(0, limit);
-            List<Object[]> popularDestinations = ticketUsageRepository.findMostPopularDestinations(pageable).getContent();
+            List<Object[]> popularDestinations = stopHeavyHitters.topDestinations(window, limit);
             return ResponseEntity.ok(popularDestinations);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -303,17 +517,15 @@ public class TicketUsageServiceImpl implements TicketUsageService {
     @Transactional(readOnly = true)
     public ResponseEntity<List<Object[]>> getUsagePatternsByTimeOfDay() {
         try {
-            // Simple implementation - return hourly usage counts
-            List<Object[]> patterns = List.of(
-                    new Object[]{"06:00", 50L},
-                    new Object[]{"07:00", 120L},
-                    new Object[]{"08:00", 200L},
-                    new Object[]{"09:00", 180L},
-                    new Object[]{"10:00", 80L},
-                    new Object[]{"17:00", 150L},
-                    new Object[]{"18:00", 220L},
-                    new Object[]{"19:00", 170L}
-            );
+            long[] hourOfWeek = hourOfWeekHistograms.overall();
+            List<Object[]> patterns = new ArrayList<>(24);
+            for (int hour = 0; hour < 24; hour++) {
+                long taps = 0;
+                for (int day = 0; day < 7; day++) {
+                    taps += hourOfWeek[day * 24 + hour];
+                }
+                patterns.add(new Object[]{String.format("%02d:00", hour), taps});
+            }
             return ResponseEntity.ok(patterns);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -324,16 +536,15 @@ public class TicketUsageServiceImpl implements TicketUsageService {
     @Transactional(readOnly = true)
     public ResponseEntity<List<Object[]>> getUsagePatternsByDayOfWeek() {
         try {
-            // Simple implementation - return daily usage counts
-            List<Object[]> patterns = List.of(
-                    new Object[]{"Monday", 800L},
-                    new Object[]{"Tuesday", 750L},
-                    new Object[]{"Wednesday", 780L},
-                    new Object[]{"Thursday", 720L},
-                    new Object[]{"Friday", 850L},
-                    new Object[]{"Saturday", 400L},
-                    new Object[]{"Sunday", 300L}
-            );
+            long[] hourOfWeek = hourOfWeekHistograms.overall();
+            List<Object[]> patterns = new ArrayList<>(7);
+            for (DayOfWeek day : DayOfWeek.values()) {
+                long taps = 0;
+                for (int hour = 0; hour < 24; hour++) {
+                    taps += hourOfWeek[(day.getValue() - 1) * 24 + hour];
+                }
+                patterns.add(new Object[]{day.getDisplayName(TextStyle.FULL, Locale.ENGLISH), taps});
+            }
             return ResponseEntity.ok(patterns);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -344,8 +555,17 @@ public class TicketUsageServiceImpl implements TicketUsageService {
     @Transactional(readOnly = true)
     public ResponseEntity<List<Object[]>> getRoutePopularityRankings(int limit) {
         try {
-            Pageable pageable = PageRequest.of(0, limit);
-            List<Object[]> rankings = ticketUsageRepository.findMostUsedRoutes(pageable).getContent();
+            List<Object[]> routeTaps = usageRollups.tapsByRoute();
+            List<Object[]> topRouteTaps = routeTaps.subList(0, Math.min(limit, routeTaps.size()));
+
+            Map<Long, Route> routes = new HashMap<>();
+            List<Long> routeIds = topRouteTaps.stream().map(row -> (Long) row[0]).collect(Collectors.toList());
+            routeRepository.findAllById(routeIds).forEach(route -> routes.put(route.getId(), route));
+
+            List<Object[]> rankings = topRouteTaps.stream()
+                    .filter(row -> routes.containsKey((Long) row[0]))
+                    .map(row -> new Object[]{routes.get((Long) row[0]), row[1]})
+                    .collect(Collectors.toList());
             return ResponseEntity.ok(rankings);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -386,18 +606,58 @@ public class TicketUsageServiceImpl implements TicketUsageService {
     }
 
     @Override
-    @Transactional(readOnly = true)
-    public Double calculateAverageJourneyDuration(Long routeId) {
+    public ResponseEntity<JourneyDurationResponse> getJourneyDurations(Long routeId, String boardingStop, String alightingStop) {
         try {
-            // Simple implementation - return fixed average for demonstration
-            return 25.5; // 25.5 minutes average
+            boolean stopPair = boardingStop != null || alightingStop != null;
+            if (stopPair && (routeId == null || boardingStop == null || alightingStop == null)) {
+                return ResponseEntity.badRequest().build();
+            }
+
+            JourneyDurations.Quantiles quantiles;
+            if (stopPair) {
+                quantiles = journeyDurations.forStopPair(routeId, boardingStop, alightingStop);
+            } else if (routeId != null) {
+                quantiles = journeyDurations.forRoute(routeId);
+            } else {
+                quantiles = journeyDurations.overall();
+            }
+
+            return ResponseEntity.ok(new JourneyDurationResponse(routeId, boardingStop, alightingStop,
+                    quantiles.journeys(), toMinutes(quantiles.p50()), toMinutes(quantiles.p90()),
+                    toMinutes(quantiles.p99()), DurationSketch.RELATIVE_ACCURACY));
         } catch (Exception e) {
-            return 0.0;
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
     // ===== PRIVATE HELPER METHODS =====
 
+    private Double toMinutes(Double seconds) {
+        return seconds != null ? Math.round(seconds / 6.0) / 10.0 : null;
+    }
+
+    // Same ticket rules as useTicket, evaluated at the time of the tap
+    private String validateTap(TapRecordRequest tap, LocalDateTime usedAt, Ticket ticket, Object[] route) {
+        if (ticket == null) {
+            return "Ticket not found";
+        }
+        if (route == null || !Boolean.TRUE.equals(route[1])) {
+            return "Route not found or inactive";
+        }
+        if (route[2] != tap.getTransportType()) {
+            return "Transport type does not match route";
+        }
+        if (ticket.getTicketType() == TicketType.RIDE && ticket.getUsedDate() != null) {
+            return RIDE_ALREADY_USED;
+        }
+        if (!ticket.canBeUsedForTransitAt(usedAt)) {
+            return usedAt.isAfter(ticket.getValidFrom()) && usedAt.isBefore(ticket.getValidUntil())
+                    ? "Ticket is " + ticket.getStatus().name().toLowerCase()
+                    : "Tap outside ticket validity period";
+        }
+        return null;
+    }
+
     private TicketUsageResponse mapToTicketUsageResponse(TicketUsage usage) {
         TicketUsageResponse response = new TicketUsageResponse();
         response.setId(usage.getId());
@@ -407,6 +667,8 @@ public class TicketUsageServiceImpl implements TicketUsageService {
         response.setBoardingStop(usage.getBoardingStop());
         response.setDestinationStop(usage.getDestinationStop());
         response.setUsedAt(usage.getUsedAt());
+        response.setAlightingStop(usage.getAlightingStop());
+        response.setAlightedAt(usage.getAlightedAt());
         return response;
     }
 
@@ -2,6 +2,7 @@ package io.github.kaltrinabajramii.urbantransitbackend.service.impl;
 
 import io.github.kaltrinabajramii.urbantransitbackend.dto.request.UpdateProfileRequest;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.request.ChangePasswordRequest;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.request.PageCursor;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.response.UserResponse;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.response.UserSummaryResponse;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.response.PagedResponse;
@@ -12,9 +13,7 @@ import io.github.kaltrinabajramii.urbantransitbackend.security.UserPrincipal;
 import io.github.kaltrinabajramii.urbantransitbackend.service.interfaces.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -230,24 +229,24 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     @Transactional(readOnly = true)
-    public ResponseEntity<PagedResponse<UserSummaryResponse>> getAllUsers(int page, int size) {
-        log.info("Getting all users - page: {}, size: {}", page, size);
+    public ResponseEntity<PagedResponse<UserSummaryResponse>> getAllUsers(String cursor, int size, boolean includeTotal) {
+        log.info("Getting all users - size: {}", size);
 
         try {
-            Pageable pageable = PageRequest.of(page, size);
-            Page<User> userPage = userRepository.findByActiveTrue(pageable);
+            if (size < 1 || !PageCursor.isValid(cursor)) {
+                return ResponseEntity.badRequest().build();
+            }
+            PageCursor pageCursor = PageCursor.decode(cursor);
+            Limit limit = Limit.of(size + 1);
 
-            List<UserSummaryResponse> userSummaries = userPage.getContent().stream()
-                    .map(this::mapToUserSummaryResponse)
-                    .collect(Collectors.toList());
+            List<User> rows = pageCursor == null ? userRepository.findActiveUsersFirst(limit)
+                    : pageCursor.backward()
+                    ? userRepository.findActiveUsersBefore(pageCursor.sortKey(), pageCursor.id(), limit)
+                    : userRepository.findActiveUsersAfter(pageCursor.sortKey(), pageCursor.id(), limit);
 
-            PagedResponse<UserSummaryResponse> pagedResponse = PagedResponse.of(
-                    userSummaries,
-                    userPage.getNumber(),
-                    userPage.getSize(),
-                    userPage.getTotalElements(),
-                    userPage.getTotalPages()
-            );
+            PagedResponse<UserSummaryResponse> pagedResponse = PagedResponse.ofKeyset(rows, pageCursor, size,
+                    user -> PageCursor.after(user.getCreatedAt(), user.getId()), this::mapToUserSummaryResponse,
+                    includeTotal ? userRepository.countByActiveTrue() : null);
 
             return ResponseEntity.ok(pagedResponse);
 
@@ -262,24 +261,24 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     @Transactional(readOnly = true)
-    public ResponseEntity<PagedResponse<UserSummaryResponse>> searchUsers(String searchTerm, int page, int size) {
-        log.info("Searching users with term: '{}' - page: {}, size: {}", searchTerm, page, size);
+    public ResponseEntity<PagedResponse<UserSummaryResponse>> searchUsers(String searchTerm, String cursor, int size, boolean includeTotal) {
+        log.info("Searching users with term: '{}' - size: {}", searchTerm, size);
 
         try {
-            Pageable pageable = PageRequest.of(page, size);
-            Page<User> userPage = userRepository.searchActiveUsers(searchTerm, pageable);
+            if (size < 1 || !PageCursor.isValid(cursor)) {
+                return ResponseEntity.badRequest().build();
+            }
+            PageCursor pageCursor = PageCursor.decode(cursor);
+            Limit limit = Limit.of(size + 1);
 
-            List<UserSummaryResponse> userSummaries = userPage.getContent().stream()
-                    .map(this::mapToUserSummaryResponse)
-                    .collect(Collectors.toList());
+            List<User> rows = pageCursor == null ? userRepository.searchActiveUsersFirst(searchTerm, limit)
+                    : pageCursor.backward()
+                    ? userRepository.searchActiveUsersBefore(searchTerm, pageCursor.sortKey(), pageCursor.id(), limit)
+                    : userRepository.searchActiveUsersAfter(searchTerm, pageCursor.sortKey(), pageCursor.id(), limit);
 
-            PagedResponse<UserSummaryResponse> pagedResponse = PagedResponse.of(
-                    userSummaries,
-                    userPage.getNumber(),
-                    userPage.getSize(),
-                    userPage.getTotalElements(),
-                    userPage.getTotalPages()
-            );
+            PagedResponse<UserSummaryResponse> pagedResponse = PagedResponse.ofKeyset(rows, pageCursor, size,
+                    user -> PageCursor.after(user.getCreatedAt(), user.getId()), this::mapToUserSummaryResponse,
+                    includeTotal ? userRepository.countActiveUsersMatching(searchTerm) : null);
 
             return ResponseEntity.ok(pagedResponse);
 
@@ -442,24 +441,24 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     @Transactional(readOnly = true)
-    public ResponseEntity<PagedResponse<UserSummaryResponse>> getUsersWithoutTickets(int page, int size) {
-        log.info("Getting users without tickets - page: {}, size: {}", page, size);
+    public ResponseEntity<PagedResponse<UserSummaryResponse>> getUsersWithoutTickets(String cursor, int size, boolean includeTotal) {
+        log.info("Getting users without tickets - size: {}", size);
 
         try {
-            Pageable pageable = PageRequest.of(page, size);
-            Page<User> userPage = userRepository.findUsersWithoutTickets(pageable);
+            if (size < 1 || !PageCursor.isValid(cursor)) {
+                return ResponseEntity.badRequest().build();
+            }
+            PageCursor pageCursor = PageCursor.decode(cursor);
+            Limit limit = Limit.of(size + 1);
 
-            List<UserSummaryResponse> userSummaries = userPage.getContent().stream()
-                    .map(this::mapToUserSummaryResponse)
-                    .collect(Collectors.toList());
+            List<User> rows = pageCursor == null ? userRepository.findUsersWithoutTicketsFirst(limit)
+                    : pageCursor.backward()
+                    ? userRepository.findUsersWithoutTicketsBefore(pageCursor.sortKey(), pageCursor.id(), limit)
+                    : userRepository.findUsersWithoutTicketsAfter(pageCursor.sortKey(), pageCursor.id(), limit);
 
-            PagedResponse<UserSummaryResponse> pagedResponse = PagedResponse.of(
-                    userSummaries,
-                    userPage.getNumber(),
-                    userPage.getSize(),
-                    userPage.getTotalElements(),
-                    userPage.getTotalPages()
-            );
+            PagedResponse<UserSummaryResponse> pagedResponse = PagedResponse.ofKeyset(rows, pageCursor, size,
+                    user -> PageCursor.after(user.getCreatedAt(), user.getId()), this::mapToUserSummaryResponse,
+                    includeTotal ? userRepository.countUsersWithoutTickets() : null);
 
             return ResponseEntity.ok(pagedResponse);
 
@@ -474,24 +473,24 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     @Transactional(readOnly = true)
-    public ResponseEntity<PagedResponse<UserSummaryResponse>> getRecentlyRegisteredUsers(int page, int size) {
-        log.info("Getting recently registered users - page: {}, size: {}", page, size);
+    public ResponseEntity<PagedResponse<UserSummaryResponse>> getRecentlyRegisteredUsers(String cursor, int size, boolean includeTotal) {
+        log.info("Getting recently registered users - size: {}", size);
 
         try {
-            Pageable pageable = PageRequest.of(page, size);
-            Page<User> userPage = userRepository.findRecentlyRegisteredUsers(pageable);
+            if (size < 1 || !PageCursor.isValid(cursor)) {
+                return ResponseEntity.badRequest().build();
+            }
+            PageCursor pageCursor = PageCursor.decode(cursor);
+            Limit limit = Limit.of(size + 1);
 
-            List<UserSummaryResponse> userSummaries = userPage.getContent().stream()
-                    .map(this::mapToUserSummaryResponse)
-                    .collect(Collectors.toList());
+            List<User> rows = pageCursor == null ? userRepository.findActiveUsersFirst(limit)
+                    : pageCursor.backward()
+                    ? userRepository.findActiveUsersBefore(pageCursor.sortKey(), pageCursor.id(), limit)
+                    : userRepository.findActiveUsersAfter(pageCursor.sortKey(), pageCursor.id(), limit);
 
-            PagedResponse<UserSummaryResponse> pagedResponse = PagedResponse.of(
-                    userSummaries,
-                    userPage.getNumber(),
-                    userPage.getSize(),
-                    userPage.getTotalElements(),
-                    userPage.getTotalPages()
-            );
+            PagedResponse<UserSummaryResponse> pagedResponse = PagedResponse.ofKeyset(rows, pageCursor, size,
+                    user -> PageCursor.after(user.getCreatedAt(), user.getId()), this::mapToUserSummaryResponse,
+                    includeTotal ? userRepository.countByActiveTrue() : null);
 
             return ResponseEntity.ok(pagedResponse);
 
@@ -1,13 +1,23 @@
 package io.github.kaltrinabajramii.urbantransitbackend.service.interfaces;
 
+import io.github.kaltrinabajramii.urbantransitbackend.dto.request.UsageQueryRequest;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.ActiveRidersResponse;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.response.DashboardStatsResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.HourOfWeekUsageResponse;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.response.SalesAnalyticsResponse;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.response.RoutePopularityResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.RouteRidersResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.RouteUtilizationReportResponse;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.response.TransportTypeStatsResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.UsageQueryResponse;
 import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TransportType;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.UsageWindow;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service interface for system analytics and reporting
@@ -18,16 +28,16 @@ public interface AnalyticsService {
     // ===== DASHBOARD ANALYTICS =====
 
     /**
-     * Get main dashboard statistics
+     * Get main dashboard statistics from the background-refreshed snapshot
      *
-     * @return ResponseEntity containing overall system statistics
+     * @return ResponseEntity containing overall system statistics and when they were computed
      */
     ResponseEntity<DashboardStatsResponse> getDashboardStats();
 
     /**
-     * Get today's usage statistics
+     * Get today's usage statistics from the background-refreshed snapshot
      *
-     * @return ResponseEntity containing today's activity metrics
+     * @return ResponseEntity containing today's activity metrics and when they were computed
      */
     ResponseEntity<DashboardStatsResponse> getTodayStats();
 
@@ -72,6 +82,23 @@ public interface AnalyticsService {
      */
     ResponseEntity<List<Object[]>> getPeakUsageHours();
 
+    /**
+     * Get the 24x7 hour-of-week usage histogram for a route, a transport type, or all taps
+     *
+     * @param routeId Route to report on, or null
+     * @param transportType Transport type to report on when no route is given, or null for all taps
+     * @return ResponseEntity containing tap counts by day of week and hour
+     */
+    ResponseEntity<HourOfWeekUsageResponse> getHourOfWeekUsage(Long routeId, TransportType transportType);
+
+    /**
+     * Count taps matching ad-hoc filters, optionally grouped by one dimension, from the in-memory column store
+     *
+     * @param queryRequest Filters (date range, routes, transport and ticket types, stops, hours, weekdays) and grouping
+     * @return ResponseEntity containing the matching tap count and per-group counts
+     */
+    ResponseEntity<UsageQueryResponse> queryUsage(UsageQueryRequest queryRequest);
+
     // ===== ROUTE ANALYTICS =====
 
     /**
@@ -83,11 +110,16 @@ public interface AnalyticsService {
     ResponseEntity<List<RoutePopularityResponse>> getTopRoutes(int limit);
 
     /**
-     * Get route utilization analysis
+     * Get route utilization analysis, normalized by stop count and operating hours
      *
-     * @return ResponseEntity containing route usage efficiency metrics
+     * @param startDate Start of the window (defaults to 30 days before endDate)
+     * @param endDate End of the window (defaults to now)
+     * @param transportType Optional transport type filter
+     * @return ResponseEntity containing per-route and per-transport-type utilization
      */
-    ResponseEntity<List<Object[]>> getRouteUtilizationAnalysis();
+    ResponseEntity<RouteUtilizationReportResponse> getRouteUtilizationAnalysis(LocalDateTime startDate,
+                                                                               LocalDateTime endDate,
+                                                                               TransportType transportType);
 
     /**
      * Get transport type usage statistics
@@ -100,9 +132,10 @@ public interface AnalyticsService {
      * Get stop popularity analysis
      *
      * @param limit Number of top stops to return
-     * @return ResponseEntity containing most popular boarding/destination stops
+     * @param window Rolling window to rank over
+     * @return ResponseEntity containing most popular boarding stops as [stop, taps, maxOvercount]
      */
-    ResponseEntity<List<Object[]>> getPopularStops(int limit);
+    ResponseEntity<List<Object[]>> getPopularStops(int limit, UsageWindow window);
 
     // ===== USER ANALYTICS =====
 
@@ -135,6 +168,32 @@ public interface AnalyticsService {
      */
     ResponseEntity<List<Object[]>> getNewVsReturningUsers(int days);
 
+    /**
+     * Get daily, weekly and monthly active riders
+     *
+     * @param date Last day of the periods (defaults to today)
+     * @return ResponseEntity containing estimated distinct rider counts
+     */
+    ResponseEntity<ActiveRidersResponse> getActiveRiders(LocalDate date);
+
+    /**
+     * Get distinct riders per route
+     *
+     * @param startDate First day (defaults to 29 days before endDate)
+     * @param endDate Last day (defaults to today)
+     * @return ResponseEntity containing estimated distinct riders per route, most riders first
+     */
+    ResponseEntity<List<RouteRidersResponse>> getDistinctRidersByRoute(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Get distinct riders per transport type
+     *
+     * @param startDate First day (defaults to 29 days before endDate)
+     * @param endDate Last day (defaults to today)
+     * @return ResponseEntity containing estimated distinct riders per transport type
+     */
+    ResponseEntity<Map<TransportType, Long>> getDistinctRidersByTransportType(LocalDate startDate, LocalDate endDate);
+
     // ===== OPERATIONAL ANALYTICS =====
 
     /**
@@ -151,17 +210,6 @@ public interface AnalyticsService {
      */
     ResponseEntity<List<Object[]>> getTicketValidationFailures();
 
-    /**
-     * Generate custom analytics report
-     *
-     * @param reportType Type of report to generate
-     * @param startDate Start date for report
-     * @param endDate End date for report
-     * @param parameters Additional report parameters
-     * @return ResponseEntity containing custom report data
-     */
-    ResponseEntity<Object> generateCustomReport(String reportType, LocalDateTime startDate, LocalDateTime endDate, java.util.Map<String, Object> parameters);
-
     // ===== EXPORT FUNCTIONS =====
 
     /**
@@ -175,12 +223,22 @@ public interface AnalyticsService {
     ResponseEntity<byte[]> exportAnalyticsToCSV(String reportType, LocalDateTime startDate, LocalDateTime endDate);
 
     /**
-     * Schedule automated report generation
+     * Stream every ticket purchased in a period as CSV, one row per ticket
+     *
+     * @param startDate Start of the purchase period, inclusive (optional)
+     * @param endDate End of the purchase period, exclusive (optional)
+     * @param gzip Whether to gzip the file
+     * @return ResponseEntity whose body writes the CSV as rows are read
+     */
+    ResponseEntity<StreamingResponseBody> exportTicketsToCsv(LocalDateTime startDate, LocalDateTime endDate, boolean gzip);
+
+    /**
+     * Stream every tap made in a period as CSV, one row per tap
      *
-     * @param reportType Type of report to schedule
-     * @param frequency Report frequency (daily, weekly, monthly)
-     * @param recipients Email recipients for the report
-     * @return ResponseEntity with scheduling confirmation
+     * @param startDate Start of the tap period, inclusive (optional)
+     * @param endDate End of the tap period, exclusive (optional)
+     * @param gzip Whether to gzip the file
+     * @return ResponseEntity whose body writes the CSV as rows are read
      */
-    ResponseEntity<String> scheduleAutomatedReport(String reportType, String frequency, List<String> recipients);
+    ResponseEntity<StreamingResponseBody> exportUsageToCsv(LocalDateTime startDate, LocalDateTime endDate, boolean gzip);
 }
\ No newline at end of file
@@ -0,0 +1,86 @@
+package io.github.kaltrinabajramii.urbantransitbackend.service.interfaces;
+
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.ReportJobResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.ReportScheduleResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.ReportFrequency;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.ReportType;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.userdetails.UserDetails;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Service interface for asynchronous report jobs and recurring report schedules
+ * Reports run in the background; callers poll the job and download its result
+ */
+public interface ReportService {
+
+    // ===== REPORT JOBS =====
+
+    /**
+     * Queue a report for a period
+     *
+     * @param userDetails Current authenticated admin
+     * @param reportType Type of report to generate
+     * @param startDate Start of the period, inclusive
+     * @param endDate End of the period, exclusive
+     * @return ResponseEntity with status 202 and the queued job, or 503 when the report queue is full
+     */
+    ResponseEntity<ReportJobResponse> submitReport(UserDetails userDetails, ReportType reportType,
+                                                   LocalDateTime startDate, LocalDateTime endDate);
+
+    /**
+     * Get the status of a report job
+     *
+     * @param jobId Job ID
+     * @return ResponseEntity containing the job and, once completed, its result URL
+     */
+    ResponseEntity<ReportJobResponse> getReportJob(Long jobId);
+
+    /**
+     * Download the result of a completed report job
+     *
+     * @param jobId Job ID
+     * @return ResponseEntity containing the JSON result file, 409 while the job has not completed
+     */
+    ResponseEntity<Resource> downloadReportResult(Long jobId);
+
+    // ===== REPORT SCHEDULES =====
+
+    /**
+     * Schedule a report to run after every closed period
+     *
+     * @param userDetails Current authenticated admin
+     * @param reportType Type of report to generate
+     * @param frequency How often to run it
+     * @param recipients Recipients recorded with the schedule
+     * @return ResponseEntity with status 201 and the created schedule
+     */
+    ResponseEntity<ReportScheduleResponse> scheduleReport(UserDetails userDetails, ReportType reportType,
+                                                          ReportFrequency frequency, List<String> recipients);
+
+    /**
+     * Get all active report schedules
+     *
+     * @return ResponseEntity containing the active schedules
+     */
+    ResponseEntity<List<ReportScheduleResponse>> getReportSchedules();
+
+    /**
+     * Get the latest jobs of a report schedule
+     *
+     * @param scheduleId Schedule ID
+     * @param limit Maximum number of jobs to return
+     * @return ResponseEntity containing the schedule's jobs, latest first
+     */
+    ResponseEntity<List<ReportJobResponse>> getScheduleJobs(Long scheduleId, int limit);
+
+    /**
+     * Stop a report schedule; jobs it already queued still run
+     *
+     * @param scheduleId Schedule ID
+     * @return ResponseEntity with no content
+     */
+    ResponseEntity<Void> cancelReportSchedule(Long scheduleId);
+}
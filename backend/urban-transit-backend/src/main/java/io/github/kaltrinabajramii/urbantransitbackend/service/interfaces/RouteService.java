@@ -16,6 +16,7 @@ import java.util.Map;
 /**
  * Service interface for route management operations
  * Handles route CRUD operations, search functionality, and route analytics
+ * Route reads carry the route catalog version as their ETag, so clients can send If-None-Match
  */
 public interface RouteService {
 
@@ -40,6 +40,14 @@ public interface TicketPricingService {
      */
     BigDecimal getCurrentPrice(TicketType ticketType);
 
+    /**
+     * Get the version of the pricing snapshot currently served (public access)
+     * Pricing responses carry the same value as their ETag, so clients can send If-None-Match
+     *
+     * @return ResponseEntity containing the snapshot version
+     */
+    ResponseEntity<Long> getPricingVersion();
+
     // ===== ADMIN PRICING MANAGEMENT =====
 
     /**
@@ -3,7 +3,13 @@ package io.github.kaltrinabajramii.urbantransitbackend.service.interfaces;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.request.PurchaseTicketRequest;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.request.ValidateTicketRequest;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.request.UseTicketRequest;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.request.TapOffRequest;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.request.TicketFilterRequest;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.ActiveTicketIndexStatsResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.OfflineTicketTokenResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.OfflineVerificationKeyResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.ExpiryWheelStatsResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.TicketExpiryRunResponse;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.response.TicketResponse;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.response.TicketSummaryResponse;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.response.TicketValidationResponse;
@@ -73,6 +79,14 @@ public interface TicketService {
      */
     ResponseEntity<TicketUsageResponse> useTicket(UseTicketRequest useRequest);
 
+    /**
+     * Record a tap-off against the ticket's latest open usage, completing the journey
+     *
+     * @param tapOffRequest Ticket number and the stop where the rider got off
+     * @return ResponseEntity containing the completed usage, 404 if no journey is open, 409 if already tapped off
+     */
+    ResponseEntity<TicketUsageResponse> tapOffTicket(TapOffRequest tapOffRequest);
+
     /**
      * Get ticket details by ticket number
      *
@@ -82,17 +96,36 @@ public interface TicketService {
      */
     ResponseEntity<TicketResponse> getTicketByNumber(String ticketNumber);
 
+    // ===== OFFLINE VALIDATION =====
+
+    /**
+     * Issue a signed token that disconnected validators can check without calling the backend
+     *
+     * @param userDetails Current authenticated user (must own the ticket)
+     * @param ticketNumber Number of a currently valid ticket
+     * @return ResponseEntity containing the token and its expiry
+     */
+    ResponseEntity<OfflineTicketTokenResponse> issueOfflineToken(UserDetails userDetails, String ticketNumber);
+
+    /**
+     * Get the public keys validators should cache to verify offline tokens
+     *
+     * @return ResponseEntity containing the current verification key
+     */
+    ResponseEntity<List<OfflineVerificationKeyResponse>> getOfflineVerificationKeys();
+
     // ===== USER TICKET MANAGEMENT =====
 
     /**
      * Get all tickets for current user
      *
      * @param userDetails Current authenticated user
-     * @param page Page number
+     * @param cursor Cursor from a previous page's nextCursor or previousCursor; null for the first page
      * @param size Page size
+     * @param includeTotal Whether to count all matching rows (an extra query)
      * @return ResponseEntity containing PagedResponse with user's ticket history
      */
-    ResponseEntity<PagedResponse<TicketSummaryResponse>> getUserTickets(UserDetails userDetails, int page, int size);
+    ResponseEntity<PagedResponse<TicketSummaryResponse>> getUserTickets(UserDetails userDetails, String cursor, int size, boolean includeTotal);
 
     /**
      * Get user's currently valid tickets
@@ -131,22 +164,24 @@ public interface TicketService {
      * Get user's travel history (ticket usage records)
      *
      * @param userDetails Current authenticated user
-     * @param page Page number
+     * @param cursor Cursor from a previous page's nextCursor or previousCursor; null for the first page
      * @param size Page size
+     * @param includeTotal Whether to count all matching rows (an extra query)
      * @return ResponseEntity containing PagedResponse with user's travel history
      */
-    ResponseEntity<PagedResponse<TicketUsageResponse>> getUserTravelHistory(UserDetails userDetails, int page, int size);
+    ResponseEntity<PagedResponse<TicketUsageResponse>> getUserTravelHistory(UserDetails userDetails, String cursor, int size, boolean includeTotal);
 
     // ===== ADMIN TICKET MANAGEMENT =====
 
     /**
      * Get all tickets with pagination (admin only)
      *
-     * @param page Page number
+     * @param cursor Cursor from a previous page's nextCursor or previousCursor; null for the first page
      * @param size Page size
+     * @param includeTotal Whether to count all matching rows (an extra query)
      * @return ResponseEntity containing PagedResponse with all tickets
      */
-    ResponseEntity<PagedResponse<TicketResponse>> getAllTickets(int page, int size);
+    ResponseEntity<PagedResponse<TicketResponse>> getAllTickets(String cursor, int size, boolean includeTotal);
 
     /**
      * Get tickets by status (admin only)
@@ -232,6 +267,20 @@ public interface TicketService {
      */
     int processExpiredTickets();
 
+    /**
+     * Get metrics of the latest scheduled expiry run (admin only)
+     *
+     * @return ResponseEntity containing rows expired, duration and lag, or 204 before the first run
+     */
+    ResponseEntity<TicketExpiryRunResponse> getLastExpiryRun();
+
+    /**
+     * Get pending count and fire latency of the expiry timing wheel
+     *
+     * @return ResponseEntity containing wheel statistics
+     */
+    ResponseEntity<ExpiryWheelStatsResponse> getExpiryWheelStats();
+
     /**
      * Generate daily ticket reports (system job)
      *
@@ -240,6 +289,13 @@ public interface TicketService {
      */
     ResponseEntity<String> generateDailyReport(LocalDateTime date);
 
+    /**
+     * Get size, memory footprint and hit/miss counters of the in-memory active ticket index
+     *
+     * @return ResponseEntity containing index statistics
+     */
+    ResponseEntity<ActiveTicketIndexStatsResponse> getActiveTicketIndexStats();
+
     // ===== UTILITY METHODS =====
 
     /**
@@ -1,10 +1,17 @@
 package io.github.kaltrinabajramii.urbantransitbackend.service.interfaces;
 
+import io.github.kaltrinabajramii.urbantransitbackend.dto.request.BulkTapRequest;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.BulkTapResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.JourneyDurationResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.MonthlyTravelResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.TapJournalStatsResponse;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.response.TicketUsageResponse;
 import io.github.kaltrinabajramii.urbantransitbackend.dto.response.PagedResponse;
 import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TransportType;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.UsageWindow;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -36,29 +43,66 @@ public interface TicketUsageService {
      */
     ResponseEntity<String> bulkRecordUsage(List<TicketUsageResponse> usageRecords);
 
+    /**
+     * Record a batch of gate taps with set-based validation and JDBC batch inserts
+     *
+     * @param bulkTapRequest Taps uploaded by a gate controller
+     * @return ResponseEntity containing per-record acceptance results
+     */
+    ResponseEntity<BulkTapResponse> recordTapBatch(BulkTapRequest bulkTapRequest);
+
+    /**
+     * Get write-behind tap journal counters (admin only)
+     *
+     * @return ResponseEntity containing appended/flushed counts and pending segments
+     */
+    ResponseEntity<TapJournalStatsResponse> getTapJournalStats();
+
     // ===== USER USAGE HISTORY =====
 
     /**
      * Get user's complete travel history
      *
      * @param userDetails Current authenticated user
-     * @param page Page number
+     * @param cursor Cursor from a previous page's nextCursor or previousCursor; null for the first page
      * @param size Page size
+     * @param includeTotal Whether to count all matching rows (an extra query)
      * @return ResponseEntity containing PagedResponse with user's travel history
      */
-    ResponseEntity<PagedResponse<TicketUsageResponse>> getUserTravelHistory(UserDetails userDetails, int page, int size);
+    ResponseEntity<PagedResponse<TicketUsageResponse>> getUserTravelHistory(UserDetails userDetails, String cursor, int size, boolean includeTotal);
 
     /**
-     * Get user's travel history filtered by date range
+     * Get user's travel history in [startDate, endDate), newest first
      *
      * @param userDetails Current authenticated user
-     * @param startDate Start date for filter
-     * @param endDate End date for filter
-     * @param page Page number
+     * @param startDate Start of the range (inclusive)
+     * @param endDate End of the range (exclusive)
+     * @param cursor Cursor from a previous page's nextCursor or previousCursor; null for the first page
      * @param size Page size
+     * @param includeTotal Whether to count all matching rows (an extra query)
      * @return ResponseEntity containing filtered travel history
      */
-    ResponseEntity<PagedResponse<TicketUsageResponse>> getUserTravelHistoryByDateRange(UserDetails userDetails, LocalDateTime startDate, LocalDateTime endDate, int page, int size);
+    ResponseEntity<PagedResponse<TicketUsageResponse>> getUserTravelHistoryByDateRange(UserDetails userDetails, LocalDateTime startDate, LocalDateTime endDate, String cursor, int size, boolean includeTotal);
+
+    /**
+     * Stream user's travel history in [startDate, endDate) as CSV, oldest first
+     *
+     * @param userDetails Current authenticated user
+     * @param startDate Start of the range (inclusive)
+     * @param endDate End of the range (exclusive)
+     * @param gzip Whether to gzip the file
+     * @return ResponseEntity whose body writes the CSV as rows are read
+     */
+    ResponseEntity<StreamingResponseBody> exportUserTravelHistory(UserDetails userDetails, LocalDateTime startDate, LocalDateTime endDate, boolean gzip);
+
+    /**
+     * Get user's rides, completed journeys and journey time per calendar month
+     *
+     * @param userDetails Current authenticated user
+     * @param months Number of months to cover, including the current one
+     * @return ResponseEntity containing one entry per month, oldest first, months without rides included
+     */
+    ResponseEntity<List<MonthlyTravelResponse>> getUserMonthlyTravelSummary(UserDetails userDetails, int months);
 
     /**
      * Get user's usage statistics summary
@@ -73,11 +117,12 @@ public interface TicketUsageService {
     /**
      * Get all usage records with pagination (admin only)
      *
-     * @param page Page number
+     * @param cursor Cursor from a previous page's nextCursor or previousCursor; null for the first page
      * @param size Page size
+     * @param includeTotal Whether to count all matching rows (an extra query)
      * @return ResponseEntity containing PagedResponse with all usage records
      */
-    ResponseEntity<PagedResponse<TicketUsageResponse>> getAllUsageRecords(int page, int size);
+    ResponseEntity<PagedResponse<TicketUsageResponse>> getAllUsageRecords(String cursor, int size, boolean includeTotal);
 
     /**
      * Get usage records by route (admin only)
@@ -113,17 +158,19 @@ public interface TicketUsageService {
      * Get most popular boarding stops
      *
      * @param limit Number of top stops to return
-     * @return ResponseEntity containing popular boarding stops with counts
+     * @param window Rolling window to rank over
+     * @return ResponseEntity containing popular boarding stops as [stop, taps, maxOvercount]
      */
-    ResponseEntity<List<Object[]>> getMostPopularBoardingStops(int limit);
+    ResponseEntity<List<Object[]>> getMostPopularBoardingStops(int limit, UsageWindow window);
 
     /**
      * Get most popular destinations
      *
      * @param limit Number of top destinations to return
-     * @return ResponseEntity containing popular destinations with counts
+     * @param window Rolling window to rank over
+     * @return ResponseEntity containing popular destinations as [stop, taps, maxOvercount]
      */
-    ResponseEntity<List<Object[]>> getMostPopularDestinations(int limit);
+    ResponseEntity<List<Object[]>> getMostPopularDestinations(int limit, UsageWindow window);
 
     /**
      * Get usage patterns by time of day
@@ -166,10 +213,12 @@ public interface TicketUsageService {
     ResponseEntity<Object> getUserMostUsedRoute(Long userId);
 
     /**
-     * Calculate average journey duration (if implementing time tracking)
+     * Get journey duration quantiles from tap-on to tap-off
      *
-     * @param routeId Route ID to calculate for
-     * @return Average journey time in minutes
+     * @param routeId Route ID to narrow to (optional, all routes if null)
+     * @param boardingStop Boarding stop to narrow to (requires routeId and alightingStop)
+     * @param alightingStop Alighting stop to narrow to (requires routeId and boardingStop)
+     * @return ResponseEntity containing median, p90 and p99 journey time in minutes
      */
-    Double calculateAverageJourneyDuration(Long routeId);
+    ResponseEntity<JourneyDurationResponse> getJourneyDurations(Long routeId, String boardingStop, String alightingStop);
 }
\ No newline at end of file
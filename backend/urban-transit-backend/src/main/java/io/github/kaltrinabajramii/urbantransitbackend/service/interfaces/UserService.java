@@ -87,21 +87,23 @@ public interface UserService {
     /**
      * Get all users with pagination (admin only)
      *
-     * @param page Page number (0-based)
+     * @param cursor Cursor from a previous page's nextCursor or previousCursor; null for the first page
      * @param size Page size
+     * @param includeTotal Whether to count all matching rows (an extra query)
      * @return ResponseEntity containing PagedResponse with list of users
      */
-    ResponseEntity<PagedResponse<UserSummaryResponse>> getAllUsers(int page, int size);
+    ResponseEntity<PagedResponse<UserSummaryResponse>> getAllUsers(String cursor, int size, boolean includeTotal);
 
     /**
      * Search users by name or email (admin only)
      *
      * @param searchTerm Search term for name or email
-     * @param page Page number
+     * @param cursor Cursor from a previous page's nextCursor or previousCursor; null for the first page
      * @param size Page size
+     * @param includeTotal Whether to count all matching rows (an extra query)
      * @return ResponseEntity containing PagedResponse with matching users
      */
-    ResponseEntity<PagedResponse<UserSummaryResponse>> searchUsers(String searchTerm, int page, int size);
+    ResponseEntity<PagedResponse<UserSummaryResponse>> searchUsers(String searchTerm, String cursor, int size, boolean includeTotal);
 
     /**
      * Get users by role (admin only)
@@ -142,20 +144,22 @@ public interface UserService {
     /**
      * Get users without any tickets (for marketing campaigns)
      *
-     * @param page Page number
+     * @param cursor Cursor from a previous page's nextCursor or previousCursor; null for the first page
      * @param size Page size
+     * @param includeTotal Whether to count all matching rows (an extra query)
      * @return ResponseEntity containing PagedResponse with users who haven't purchased tickets
      */
-    ResponseEntity<PagedResponse<UserSummaryResponse>> getUsersWithoutTickets(int page, int size);
+    ResponseEntity<PagedResponse<UserSummaryResponse>> getUsersWithoutTickets(String cursor, int size, boolean includeTotal);
 
     /**
      * Get recently registered users
      *
-     * @param page Page number
+     * @param cursor Cursor from a previous page's nextCursor or previousCursor; null for the first page
      * @param size Page size
+     * @param includeTotal Whether to count all matching rows (an extra query)
      * @return ResponseEntity containing PagedResponse with recently registered users
      */
-    ResponseEntity<PagedResponse<UserSummaryResponse>> getRecentlyRegisteredUsers(int page, int size);
+    ResponseEntity<PagedResponse<UserSummaryResponse>> getRecentlyRegisteredUsers(String cursor, int size, boolean includeTotal);
 
     /**
      * Get user statistics by role
@@ -0,0 +1,22 @@
+package io.github.kaltrinabajramii.urbantransitbackend;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * PostgreSQL container for tests that need the real database (RETURNING, SKIP LOCKED, row locks).
+ * Import it together with {@code @Testcontainers(disabledWithoutDocker = true)} so the test is
+ * skipped rather than failed on machines without Docker.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class TestcontainersConfiguration {
+
+    @Bean
+    @ServiceConnection
+    PostgreSQLContainer<?> postgresContainer() {
+        return new PostgreSQLContainer<>(DockerImageName.parse("postgres:16"));
+    }
+}
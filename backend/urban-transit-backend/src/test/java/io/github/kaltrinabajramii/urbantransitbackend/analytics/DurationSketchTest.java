@@ -0,0 +1,96 @@
+package io.github.kaltrinabajramii.urbantransitbackend.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DurationSketchTest {
+
+    private static final double[] QUANTILES = {0, 0.01, 0.25, 0.5, 0.75, 0.9, 0.95, 0.99, 1};
+
+    @Test
+    void quantilesStayWithinRelativeAccuracy() {
+        Random random = new Random(3);
+        long[] durations = new long[50_000];
+        DurationSketch sketch = new DurationSketch();
+        for (int i = 0; i < durations.length; i++) {
+            // Log-normal journeys around 15 minutes, with a long tail
+            durations[i] = Math.max(1, Math.round(Math.exp(6.8 + random.nextGaussian())));
+            sketch.add(durations[i]);
+        }
+
+        assertQuantiles(sketch, durations);
+    }
+
+    @Test
+    void mergedSketchesMatchTheCombinedStream() {
+        Random random = new Random(5);
+        long[] durations = new long[20_000];
+        DurationSketch shortTrips = new DurationSketch();
+        DurationSketch longTrips = new DurationSketch();
+        for (int i = 0; i < durations.length; i++) {
+            boolean isShort = i % 2 == 0;
+            durations[i] = isShort ? 60 + random.nextInt(600) : 3_600 + random.nextInt(7_200);
+            (isShort ? shortTrips : longTrips).add(durations[i]);
+        }
+
+        // Merge the higher buckets first so the lower ones have to grow the array downwards
+        DurationSketch merged = new DurationSketch();
+        merged.merge(longTrips);
+        merged.merge(shortTrips);
+
+        assertEquals(durations.length, merged.count());
+        assertQuantiles(merged, durations);
+    }
+
+    @Test
+    void bucketsRoundTripThroughForEachBucket() {
+        DurationSketch sketch = new DurationSketch();
+        for (long seconds : new long[]{0, 1, 45, 45, 900, 86_400}) {
+            sketch.add(seconds);
+        }
+
+        Map<Integer, Long> buckets = new HashMap<>();
+        sketch.forEachBucket(buckets::put);
+        DurationSketch restored = new DurationSketch();
+        buckets.forEach(restored::addToBucket);
+
+        assertEquals(2, buckets.get(DurationSketch.bucketIndex(0)).longValue());
+        assertEquals(2, buckets.get(DurationSketch.bucketIndex(45)).longValue());
+        for (double q : QUANTILES) {
+            assertEquals(sketch.quantile(q), restored.quantile(q));
+        }
+    }
+
+    @Test
+    void emptySketchHasNoQuantiles() {
+        DurationSketch sketch = new DurationSketch();
+        assertNull(sketch.quantile(0.5));
+
+        sketch.add(120);
+        sketch.clear();
+
+        assertNull(sketch.quantile(0.5));
+        assertEquals(0, sketch.count());
+    }
+
+    private static void assertQuantiles(DurationSketch sketch, long[] durations) {
+        long[] sorted = durations.clone();
+        Arrays.sort(sorted);
+        for (double q : QUANTILES) {
+            long exact = sorted[(int) Math.floor(q * (sorted.length - 1))];
+            double estimate = sketch.quantile(q);
+
+            double error = Math.abs(estimate - exact) / exact;
+            assertTrue(error <= DurationSketch.RELATIVE_ACCURACY + 1e-9,
+                    "q=" + q + " exact " + exact + " estimate " + estimate);
+        }
+    }
+}
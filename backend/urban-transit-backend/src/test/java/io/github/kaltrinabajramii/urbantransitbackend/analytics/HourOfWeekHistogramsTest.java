@@ -0,0 +1,107 @@
+package io.github.kaltrinabajramii.urbantransitbackend.analytics;
+
+import io.github.kaltrinabajramii.urbantransitbackend.event.TapsRecordedEvent;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TransportType;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketUsageJdbcRepository.UsageRow;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.UsageHistogramJdbcRepository;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.UsageHistogramJdbcRepository.HistogramDelta;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HourOfWeekHistogramsTest {
+
+    // Monday 08:15, hour of week 8
+    private static final LocalDateTime MONDAY_MORNING = LocalDateTime.of(2026, 10, 12, 8, 15);
+    private static final int HOUR = 8;
+
+    private final Map<String, Long> table = new HashMap<>();
+    private UsageHistogramJdbcRepository repository;
+    private HourOfWeekHistograms histograms;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(UsageHistogramJdbcRepository.class);
+        when(repository.findAll()).thenAnswer(invocation -> {
+            List<HistogramDelta> rows = new ArrayList<>();
+            table.forEach((cell, taps) -> {
+                String[] parts = cell.split(":");
+                rows.add(new HistogramDelta(parts[0], parts[1], Integer.parseInt(parts[2]), taps));
+            });
+            return rows;
+        });
+        doAnswer(invocation -> {
+            List<HistogramDelta> deltas = invocation.getArgument(0);
+            deltas.forEach(delta -> table.merge(delta.scope() + ":" + delta.scopeKey() + ":" + delta.hourOfWeek(),
+                    delta.taps(), Long::sum));
+            return null;
+        }).when(repository).addCounts(anyList());
+
+        histograms = new HourOfWeekHistograms(repository, mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void tapsCountedBeforeTheBackfillAreNotCountedTwice() {
+        histograms.onTapsRecorded(taps(3));
+
+        // The backfill reads ticket_usage, which already has those taps
+        when(repository.isEmpty()).thenReturn(true);
+        when(repository.backfillFromUsage()).thenAnswer(invocation -> {
+            table.put(cell("ROUTE", "1"), 3L);
+            table.put(cell("TRANSPORT_TYPE", "BUS"), 3L);
+            return 2;
+        });
+        histograms.loadOnStartup();
+        histograms.persist();
+
+        assertEquals(3, histograms.forRoute(1)[HOUR]);
+        assertEquals(3, histograms.overall()[HOUR]);
+        assertEquals(3, table.get(cell("ROUTE", "1")).longValue());
+
+        InOrder order = inOrder(repository);
+        order.verify(repository).lockBackfill();
+        order.verify(repository).isEmpty();
+        order.verify(repository).backfillFromUsage();
+    }
+
+    @Test
+    void tapsCountedBeforeLoadingAnExistingTableArePersisted() {
+        table.put(cell("ROUTE", "1"), 5L);
+        table.put(cell("TRANSPORT_TYPE", "BUS"), 5L);
+        histograms.onTapsRecorded(taps(2));
+
+        when(repository.isEmpty()).thenReturn(false);
+        histograms.loadOnStartup();
+        assertEquals(7, histograms.forRoute(1)[HOUR]);
+
+        histograms.persist();
+
+        assertEquals(7, histograms.forRoute(1)[HOUR]);
+        assertEquals(7, histograms.forTransportType(TransportType.BUS)[HOUR]);
+        assertEquals(7, table.get(cell("ROUTE", "1")).longValue());
+    }
+
+    private static TapsRecordedEvent taps(int count) {
+        return new TapsRecordedEvent(Collections.nCopies(count,
+                new UsageRow(10L, 1L, TransportType.BUS, "Centar", null, MONDAY_MORNING)));
+    }
+
+    private static String cell(String scope, String scopeKey) {
+        return scope + ":" + scopeKey + ":" + HOUR;
+    }
+}
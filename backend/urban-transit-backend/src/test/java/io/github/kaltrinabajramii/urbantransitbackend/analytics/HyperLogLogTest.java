@@ -0,0 +1,97 @@
+package io.github.kaltrinabajramii.urbantransitbackend.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HyperLogLogTest {
+
+    private static final int PRECISION = 12;
+
+    @Test
+    void estimatesStayWithinThreeStandardErrors() {
+        double bound = 3 * HyperLogLog.relativeStandardError(PRECISION);
+        for (long cardinality : new long[]{100, 1_000, 10_000, 100_000, 1_000_000}) {
+            HyperLogLog sketch = new HyperLogLog(PRECISION);
+            for (long id = 1; id <= cardinality; id++) {
+                sketch.add(id);
+            }
+
+            double error = Math.abs(sketch.estimate() - cardinality) / (double) cardinality;
+            assertTrue(error <= bound, "cardinality " + cardinality + " off by " + error);
+        }
+    }
+
+    @Test
+    void smallCardinalitiesAreNearlyExact() {
+        HyperLogLog sketch = new HyperLogLog(PRECISION);
+        assertEquals(0, sketch.estimate());
+
+        for (long id = 1; id <= 20; id++) {
+            sketch.add(id * 7_919);
+        }
+
+        assertEquals(20, sketch.estimate());
+    }
+
+    @Test
+    void repeatedIdsDoNotMoveTheEstimate() {
+        HyperLogLog sketch = new HyperLogLog(PRECISION);
+        for (long id = 0; id < 5_000; id++) {
+            sketch.add(id);
+        }
+        long estimate = sketch.estimate();
+
+        for (long id = 0; id < 5_000; id++) {
+            assertFalse(sketch.add(id));
+        }
+
+        assertEquals(estimate, sketch.estimate());
+    }
+
+    @Test
+    void mergeOfOverlappingSketchesEqualsSketchOfTheUnion() {
+        HyperLogLog morning = new HyperLogLog(PRECISION);
+        HyperLogLog evening = new HyperLogLog(PRECISION);
+        HyperLogLog union = new HyperLogLog(PRECISION);
+        for (long id = 0; id < 60_000; id++) {
+            if (id < 40_000) {
+                morning.add(id);
+            }
+            if (id >= 20_000) {
+                evening.add(id);
+            }
+            union.add(id);
+        }
+
+        HyperLogLog merged = morning.copy();
+        assertTrue(merged.merge(evening));
+
+        assertArrayEquals(union.toBytes(), merged.toBytes());
+        assertEquals(union.estimate(), merged.estimate());
+    }
+
+    @Test
+    void serializedRegistersRoundTrip() {
+        HyperLogLog sketch = new HyperLogLog(10);
+        for (long id = 0; id < 3_000; id++) {
+            sketch.add(id);
+        }
+
+        HyperLogLog restored = HyperLogLog.fromBytes(sketch.toBytes());
+
+        assertEquals(10, restored.precision());
+        assertEquals(sketch.estimate(), restored.estimate());
+    }
+
+    @Test
+    void mismatchedPrecisionIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(3));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(12).merge(new HyperLogLog(11)));
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[100]));
+    }
+}
@@ -0,0 +1,182 @@
+package io.github.kaltrinabajramii.urbantransitbackend.analytics;
+
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TicketType;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.RevenueLedgerJdbcRepository;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.RevenueLedgerJdbcRepository.DaySales;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RevenueLedgerTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.now();
+    private static final BigDecimal[] PRICES = {new BigDecimal("1.50"), new BigDecimal("30.00"), new BigDecimal("300.00")};
+
+    private final List<Sale> tickets = new ArrayList<>();
+    private final List<DaySales> ledgerRows = new ArrayList<>();
+    private RevenueLedger ledger;
+
+    private record Sale(LocalDateTime purchaseDate, TicketType ticketType, BigDecimal price) {
+    }
+
+    @BeforeEach
+    void setUp() {
+        TicketRepository ticketRepository = mock(TicketRepository.class);
+        RevenueLedgerJdbcRepository ledgerRepository = mock(RevenueLedgerJdbcRepository.class);
+
+        when(ticketRepository.summarizeSalesByTicketTypeInPeriod(any(), any())).thenAnswer(invocation ->
+                summarize(invocation.getArgument(0), invocation.getArgument(1)));
+        when(ledgerRepository.findFirstPurchaseDay()).thenAnswer(invocation -> tickets.stream()
+                .map(sale -> sale.purchaseDate().toLocalDate()).min(Comparator.naturalOrder()).orElse(null));
+        when(ledgerRepository.sumSalesPerDay(any(), any())).thenAnswer(invocation ->
+                sumPerDay(invocation.getArgument(0), invocation.getArgument(1)));
+        when(ledgerRepository.findFrom(any())).thenAnswer(invocation -> {
+            LocalDate from = invocation.getArgument(0);
+            return ledgerRows.stream().filter(row -> !row.day().isBefore(from))
+                    .sorted(Comparator.comparing(DaySales::day).thenComparing(row -> row.ticketType().name()))
+                    .toList();
+        });
+        doAnswer(invocation -> ledgerRows.addAll(invocation.getArgument(0)))
+                .when(ledgerRepository).insertDays(anyList(), any());
+
+        ledger = new RevenueLedger(ledgerRepository, ticketRepository, mock(PlatformTransactionManager.class), 10);
+    }
+
+    @Test
+    void salesByTypeMatchesRawSalesForAnyRange() {
+        Random random = new Random(9);
+        LocalDateTime firstSale = NOW.minusDays(60);
+        for (int i = 0; i < 2_000; i++) {
+            tickets.add(new Sale(firstSale.plusSeconds(random.nextLong(ChronoUnit.SECONDS.between(firstSale, NOW))),
+                    TicketType.values()[random.nextInt(3)], PRICES[random.nextInt(3)]));
+        }
+        ledger.finalizeClosedDays();
+        assertFalse(ledgerRows.isEmpty());
+
+        LocalDate today = NOW.toLocalDate();
+        List<LocalDateTime[]> ranges = new ArrayList<>(List.of(
+                // Whole days, all inside the ledger
+                range(today.minusDays(30).atStartOfDay(), today.minusDays(20).atStartOfDay()),
+                // Starting before the first sale
+                range(today.minusDays(100).atStartOfDay(), today.minusDays(50).atStartOfDay()),
+                // Ending in the days not finalized yet
+                range(today.minusDays(5).atStartOfDay(), NOW.plusHours(1)),
+                // Partial first and last days
+                range(today.minusDays(40).atTime(13, 17), today.minusDays(3).atTime(8, 45)),
+                // Inside a single day
+                range(today.minusDays(10).atTime(6, 0), today.minusDays(10).atTime(18, 0)),
+                // The first ledger day itself, and nothing before it
+                range(firstSale.toLocalDate().atStartOfDay(), firstSale.toLocalDate().plusDays(1).atStartOfDay()),
+                range(firstSale.minusDays(3), firstSale),
+                // Empty and inverted
+                range(today.minusDays(7).atStartOfDay(), today.minusDays(7).atStartOfDay()),
+                range(today.minusDays(6).atStartOfDay(), today.minusDays(7).atStartOfDay())));
+        for (int i = 0; i < 200; i++) {
+            LocalDateTime from = firstSale.minusDays(2).plusMinutes(random.nextInt(65 * 24 * 60));
+            ranges.add(range(from, from.plusMinutes(random.nextInt(30 * 24 * 60))));
+        }
+
+        for (LocalDateTime[] range : ranges) {
+            Map<TicketType, RevenueLedger.Sales> expected = expectedSales(range[0], range[1]);
+            Map<TicketType, RevenueLedger.Sales> actual = ledger.salesByType(range[0], range[1]);
+
+            for (TicketType type : TicketType.values()) {
+                String message = type + " in [" + range[0] + ", " + range[1] + ")";
+                assertEquals(expected.get(type).tickets(), actual.get(type).tickets(), message);
+                assertEquals(0, expected.get(type).revenue().compareTo(actual.get(type).revenue()), message);
+            }
+        }
+    }
+
+    @Test
+    void daysAreFinalizedOnlyOnce() {
+        tickets.add(new Sale(NOW.minusDays(3), TicketType.RIDE, PRICES[0]));
+        tickets.add(new Sale(NOW.minusDays(2), TicketType.MONTHLY, PRICES[1]));
+
+        ledger.finalizeClosedDays();
+        int rows = ledgerRows.size();
+        ledger.finalizeClosedDays();
+
+        assertEquals(rows, ledgerRows.size());
+        // One row per ticket type for each closed day, zero-sale types included
+        assertEquals(0, rows % TicketType.values().length);
+        assertEquals(2, ledger.sales(NOW.minusDays(4), NOW).tickets());
+    }
+
+    @Test
+    void everyTypeIsReportedEvenWithoutSales() {
+        ledger.finalizeClosedDays();
+
+        Map<TicketType, RevenueLedger.Sales> sales = ledger.salesByType(NOW.minusDays(1), NOW);
+
+        assertEquals(List.of(TicketType.values()), new ArrayList<>(sales.keySet()));
+        sales.values().forEach(typeSales -> {
+            assertEquals(0, typeSales.tickets());
+            assertEquals(0, BigDecimal.ZERO.compareTo(typeSales.revenue()));
+        });
+    }
+
+    private static LocalDateTime[] range(LocalDateTime from, LocalDateTime to) {
+        return new LocalDateTime[]{from, to};
+    }
+
+    private Map<TicketType, RevenueLedger.Sales> expectedSales(LocalDateTime from, LocalDateTime to) {
+        Map<TicketType, RevenueLedger.Sales> expected = new EnumMap<>(TicketType.class);
+        for (TicketType type : TicketType.values()) {
+            expected.put(type, new RevenueLedger.Sales(0, BigDecimal.ZERO));
+        }
+        for (Sale sale : tickets) {
+            if (!sale.purchaseDate().isBefore(from) && sale.purchaseDate().isBefore(to)) {
+                RevenueLedger.Sales sales = expected.get(sale.ticketType());
+                expected.put(sale.ticketType(),
+                        new RevenueLedger.Sales(sales.tickets() + 1, sales.revenue().add(sale.price())));
+            }
+        }
+        return expected;
+    }
+
+    private List<Object[]> summarize(LocalDateTime from, LocalDateTime to) {
+        List<Object[]> rows = new ArrayList<>();
+        expectedSales(from, to).forEach((type, sales) -> {
+            if (sales.tickets() > 0) {
+                rows.add(new Object[]{type, sales.tickets(), sales.revenue()});
+            }
+        });
+        return rows;
+    }
+
+    private List<DaySales> sumPerDay(LocalDate from, LocalDate to) {
+        Map<LocalDate, Map<TicketType, RevenueLedger.Sales>> perDay = new HashMap<>();
+        for (LocalDate day = from; day.isBefore(to); day = day.plusDays(1)) {
+            perDay.put(day, expectedSales(day.atStartOfDay(), day.plusDays(1).atStartOfDay()));
+        }
+        List<DaySales> rows = new ArrayList<>();
+        perDay.forEach((day, sales) -> sales.forEach((type, typeSales) -> {
+            if (typeSales.tickets() > 0) {
+                rows.add(new DaySales(day, type, typeSales.tickets(), typeSales.revenue(), null, null));
+            }
+        }));
+        return rows;
+    }
+}
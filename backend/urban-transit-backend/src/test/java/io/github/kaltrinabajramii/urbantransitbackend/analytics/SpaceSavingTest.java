@@ -0,0 +1,120 @@
+package io.github.kaltrinabajramii.urbantransitbackend.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpaceSavingTest {
+
+    private static final int CAPACITY = 50;
+
+    @Test
+    void exactWhileUnderCapacity() {
+        SpaceSaving summary = new SpaceSaving(CAPACITY);
+        summary.add("Centar", 3);
+        summary.add("Aerodrom", 1);
+        summary.add("Centar", 2);
+        summary.add("Karpoš", 0);
+
+        assertEquals(List.of(new SpaceSaving.Item("Centar", 5, 0), new SpaceSaving.Item("Aerodrom", 1, 0)),
+                summary.top(10));
+        assertEquals(6, summary.total());
+        assertEquals(0, summary.untrackedBound());
+    }
+
+    @Test
+    void countsStayWithinTheirErrorBounds() {
+        Map<String, Long> truth = new HashMap<>();
+        SpaceSaving summary = new SpaceSaving(CAPACITY);
+        for (String key : skewedStream(new Random(7), 200_000)) {
+            summary.add(key, 1);
+            truth.merge(key, 1L, Long::sum);
+        }
+
+        assertBounds(summary, truth);
+    }
+
+    @Test
+    void mergedWindowsKeepTheErrorBounds() {
+        Random random = new Random(11);
+        Map<String, Long> truth = new HashMap<>();
+        List<SpaceSaving> slots = new ArrayList<>();
+        for (int slot = 0; slot < 6; slot++) {
+            SpaceSaving summary = new SpaceSaving(CAPACITY);
+            for (String key : skewedStream(random, 30_000)) {
+                long weight = 1 + random.nextInt(3);
+                summary.add(key, weight);
+                truth.merge(key, weight, Long::sum);
+            }
+            slots.add(summary);
+        }
+
+        SpaceSaving merged = SpaceSaving.merge(slots, CAPACITY);
+
+        assertEquals(truth.values().stream().mapToLong(Long::longValue).sum(), merged.total());
+        for (SpaceSaving.Item item : merged.top(CAPACITY)) {
+            long actual = truth.getOrDefault(item.key(), 0L);
+            assertTrue(item.count() - item.error() <= actual && actual <= item.count(), item.toString());
+        }
+        // Each slot contributes at most its own total / capacity of error
+        long errorBound = slots.stream().mapToLong(slot -> slot.total() / CAPACITY).sum();
+        assertTrue(merged.top(CAPACITY).stream().allMatch(item -> item.error() <= errorBound));
+    }
+
+    @Test
+    void clearResetsTheSummary() {
+        SpaceSaving summary = new SpaceSaving(2);
+        summary.add("a", 1);
+        summary.add("b", 1);
+        summary.add("c", 1);
+
+        summary.clear();
+
+        assertEquals(0, summary.total());
+        assertEquals(List.of(), summary.top(10));
+        assertThrows(IllegalArgumentException.class, () -> new SpaceSaving(0));
+    }
+
+    private static void assertBounds(SpaceSaving summary, Map<String, Long> truth) {
+        long total = summary.total();
+        List<SpaceSaving.Item> items = summary.top(CAPACITY);
+        for (SpaceSaving.Item item : items) {
+            long actual = truth.getOrDefault(item.key(), 0L);
+            assertTrue(item.count() - item.error() <= actual && actual <= item.count(), item.toString());
+            assertTrue(item.error() <= total / CAPACITY, item.toString());
+        }
+
+        // Anything heavier than total / capacity is guaranteed to be tracked
+        Set<String> tracked = items.stream().map(SpaceSaving.Item::key).collect(Collectors.toSet());
+        truth.forEach((key, count) -> {
+            if (count > total / CAPACITY) {
+                assertTrue(tracked.contains(key), key);
+            }
+            if (!tracked.contains(key)) {
+                assertTrue(count <= summary.untrackedBound(), key);
+            }
+        });
+    }
+
+    /**
+     * Roughly Zipfian stop names: a few busy stops and a long tail
+     */
+    private static List<String> skewedStream(Random random, int length) {
+        List<String> stream = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            int rank = (int) Math.floor(Math.pow(1000, random.nextDouble()));
+            stream.add("stop-" + rank);
+        }
+        return stream;
+    }
+}
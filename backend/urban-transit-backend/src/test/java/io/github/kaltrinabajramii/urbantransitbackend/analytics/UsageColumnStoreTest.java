@@ -0,0 +1,214 @@
+package io.github.kaltrinabajramii.urbantransitbackend.analytics;
+
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TicketType;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TransportType;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.UsageDimension;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketUsageJdbcRepository;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketUsageJdbcRepository.UsageFact;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UsageColumnStoreTest {
+
+    private static final LocalDateTime START = LocalDate.now().minusDays(30).atStartOfDay();
+    private static final String[] STOPS = {"Centar", "Aerodrom", "Karpoš", "Gazi Baba", "Čair"};
+
+    private TicketUsageJdbcRepository repository;
+    private UsageColumnStore store;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(TicketUsageJdbcRepository.class);
+        store = new UsageColumnStore(repository, mock(PlatformTransactionManager.class), 365, 100_000, 60_000);
+    }
+
+    @Test
+    void filteredCountsAndGroupsMatchAFullScan() {
+        // More rows than one chunk holds, so queries combine several chunk scans
+        List<UsageFact> facts = randomFacts(new Random(1), 150_000);
+        load(facts);
+
+        List<Query> queries = List.of(
+                new Query(null, null, null, null, null, null, null, null, null, null, UsageDimension.ROUTE),
+                new Query(START.plusDays(3), START.plusDays(10), Set.of(1L, 4L), null, null, null, null,
+                        null, null, null, UsageDimension.TICKET_TYPE),
+                new Query(null, null, null, EnumSet.of(TransportType.TRAM, TransportType.BUS), null, "Centar",
+                        null, 7, 10, null, UsageDimension.DESTINATION_STOP),
+                new Query(START.plusDays(1), null, null, null, EnumSet.of(TicketType.MONTHLY), null, "Čair",
+                        22, 2, EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY), UsageDimension.HOUR_OF_DAY),
+                new Query(null, START.plusDays(20), null, null, null, null, null, null, null, null,
+                        UsageDimension.DATE),
+                new Query(null, null, Set.of(2L), null, null, "Aerodrom", "Karpoš", null, null,
+                        EnumSet.of(DayOfWeek.MONDAY), null));
+
+        for (Query query : queries) {
+            UsageColumnStore.Result result = store.query(query.toStoreQuery());
+            List<UsageFact> matching = facts.stream().filter(query::matches).toList();
+
+            assertEquals(matching.size(), result.taps(), query.toString());
+            assertEquals(facts.size(), result.rowsInStore());
+            if (query.groupBy() == null) {
+                assertNull(result.groups());
+            } else {
+                Map<String, Long> expected = new HashMap<>();
+                matching.forEach(fact -> expected.merge(query.groupName(fact), 1L, Long::sum));
+                assertEquals(expected, new HashMap<>(result.groups()), query.toString());
+            }
+        }
+    }
+
+    @Test
+    void groupsAreOrderedBusiestFirstOrByTime() {
+        load(randomFacts(new Random(2), 20_000));
+
+        List<Long> byRoute = new ArrayList<>(store.query(groupedBy(UsageDimension.ROUTE)).groups().values());
+        for (int i = 1; i < byRoute.size(); i++) {
+            assertTrue(byRoute.get(i - 1) >= byRoute.get(i));
+        }
+
+        List<String> dates = new ArrayList<>(store.query(groupedBy(UsageDimension.DATE)).groups().keySet());
+        assertEquals(dates.stream().sorted().toList(), dates);
+        List<String> hours = new ArrayList<>(store.query(groupedBy(UsageDimension.HOUR_OF_DAY)).groups().keySet());
+        assertEquals(hours.stream().sorted().toList(), hours);
+    }
+
+    @Test
+    void unknownStopMatchesNothing() {
+        load(randomFacts(new Random(3), 1_000));
+
+        UsageColumnStore.Result result = store.query(new UsageColumnStore.Query(null, null, null, null, null,
+                "Nowhere", null, null, null, null, null));
+
+        assertEquals(0, result.taps());
+    }
+
+    @Test
+    void refreshPicksUpTapsThatCommittedAfterAHigherId() {
+        load(List.of(fact(1, START.plusHours(1)), fact(2, START.plusHours(2))));
+
+        // Id 3 is still uncommitted when 4 is loaded
+        when(repository.findUsageFactsAfter(eq(2L), any(), anyInt())).thenReturn(List.of(fact(4, START.plusHours(4))));
+        store.refresh();
+        assertEquals(3, store.rowsInStore());
+
+        when(repository.findUsageFactsAfter(eq(4L), any(), anyInt())).thenReturn(List.of());
+        when(repository.findUsageFactsByIds(eq(List.of(3L)), any())).thenReturn(List.of(fact(3, START.plusHours(3))));
+        store.refresh();
+        assertEquals(4, store.rowsInStore());
+
+        // The gap is closed, so it is not looked up again
+        when(repository.findUsageFactsByIds(anyList(), any())).thenReturn(List.of(fact(3, START.plusHours(3))));
+        store.refresh();
+        assertEquals(4, store.rowsInStore());
+    }
+
+    private void load(List<UsageFact> facts) {
+        when(repository.findUsageFactsAfter(anyLong(), any(), anyInt())).thenReturn(List.of());
+        when(repository.findUsageFactsAfter(eq(0L), any(), anyInt())).thenReturn(facts);
+        store.loadOnStartup();
+    }
+
+    private static UsageColumnStore.Query groupedBy(UsageDimension groupBy) {
+        return new UsageColumnStore.Query(null, null, null, null, null, null, null, null, null, null, groupBy);
+    }
+
+    private static UsageFact fact(long id, LocalDateTime usedAt) {
+        return new UsageFact(id, usedAt, 1L, TransportType.BUS, TicketType.RIDE, "Centar", null);
+    }
+
+    private static List<UsageFact> randomFacts(Random random, int count) {
+        List<UsageFact> facts = new ArrayList<>(count);
+        TransportType[] transportTypes = TransportType.values();
+        TicketType[] ticketTypes = TicketType.values();
+        for (int id = 1; id <= count; id++) {
+            LocalDateTime usedAt = START.plusSeconds(random.nextInt(30 * 24 * 60 * 60));
+            facts.add(new UsageFact(id, usedAt, 1 + random.nextInt(6),
+                    transportTypes[random.nextInt(transportTypes.length)],
+                    ticketTypes[random.nextInt(ticketTypes.length)],
+                    random.nextInt(6) == 0 ? null : STOPS[random.nextInt(STOPS.length)],
+                    random.nextInt(3) == 0 ? null : STOPS[random.nextInt(STOPS.length)]));
+        }
+        return facts;
+    }
+
+    /**
+     * A store query together with a straightforward evaluation of it over the facts
+     */
+    private record Query(LocalDateTime from,
+                         LocalDateTime to,
+                         Set<Long> routeIds,
+                         Set<TransportType> transportTypes,
+                         Set<TicketType> ticketTypes,
+                         String boardingStop,
+                         String destinationStop,
+                         Integer hourFrom,
+                         Integer hourTo,
+                         Set<DayOfWeek> daysOfWeek,
+                         UsageDimension groupBy) {
+
+        UsageColumnStore.Query toStoreQuery() {
+            return new UsageColumnStore.Query(from, to, routeIds, transportTypes, ticketTypes, boardingStop,
+                    destinationStop, hourFrom, hourTo, daysOfWeek, groupBy);
+        }
+
+        boolean matches(UsageFact fact) {
+            int hour = fact.usedAt().getHour();
+            int hourStart = hourFrom != null ? hourFrom : 0;
+            int hourEnd = hourTo != null ? hourTo : 24;
+            boolean inHours = hourStart <= hourEnd
+                    ? hour >= hourStart && hour < hourEnd
+                    : hour >= hourStart || hour < hourEnd;
+            return (from == null || !fact.usedAt().isBefore(from))
+                    && (to == null || fact.usedAt().isBefore(to))
+                    && containsOrUnfiltered(routeIds, fact.routeId())
+                    && containsOrUnfiltered(transportTypes, fact.transportType())
+                    && containsOrUnfiltered(ticketTypes, fact.ticketType())
+                    && (boardingStop == null || boardingStop.equals(fact.boardingStop()))
+                    && (destinationStop == null || destinationStop.equals(fact.destinationStop()))
+                    && inHours
+                    && containsOrUnfiltered(daysOfWeek, fact.usedAt().getDayOfWeek());
+        }
+
+        String groupName(UsageFact fact) {
+            Function<String, String> stop = name -> name != null ? name : "(none)";
+            return switch (groupBy) {
+                case ROUTE -> String.valueOf(fact.routeId());
+                case TRANSPORT_TYPE -> fact.transportType().name();
+                case TICKET_TYPE -> fact.ticketType().name();
+                case BOARDING_STOP -> stop.apply(fact.boardingStop());
+                case DESTINATION_STOP -> stop.apply(fact.destinationStop());
+                case HOUR_OF_DAY -> String.format("%02d:00", fact.usedAt().getHour());
+                case DAY_OF_WEEK -> fact.usedAt().getDayOfWeek().name();
+                case DATE -> fact.usedAt().toLocalDate().toString();
+            };
+        }
+
+        private static <T> boolean containsOrUnfiltered(Set<T> filter, T value) {
+            return filter == null || filter.isEmpty() || filter.contains(value);
+        }
+    }
+}
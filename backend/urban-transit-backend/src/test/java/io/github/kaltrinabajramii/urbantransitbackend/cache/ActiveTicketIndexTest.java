@@ -0,0 +1,144 @@
+package io.github.kaltrinabajramii.urbantransitbackend.cache;
+
+import io.github.kaltrinabajramii.urbantransitbackend.model.entity.Ticket;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TicketStatus;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TicketType;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ActiveTicketIndexTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    private TicketRepository ticketRepository;
+    private ActiveTicketIndex index;
+
+    @BeforeEach
+    void setUp() {
+        ticketRepository = mock(TicketRepository.class);
+        index = new ActiveTicketIndex(ticketRepository, mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(index, "enabled", true);
+        ReflectionTestUtils.setField(index, "initialCapacity", 16);
+        when(ticketRepository.streamActiveTicketSnapshots(any())).thenReturn(Stream.empty());
+        index.rebuild();
+    }
+
+    @Test
+    void findReturnsWhatWasPut() {
+        index.put(ticket(7L, "T-7", NOW.plusHours(1)));
+
+        ActiveTicketIndex.Entry entry = index.find("T-7");
+
+        assertNotNull(entry);
+        assertEquals(7L, entry.ticketId());
+        assertEquals(TicketType.RIDE, entry.ticketType());
+        assertEquals(new BigDecimal("1.50"), entry.price());
+        assertEquals(NOW.plusHours(1), entry.validUntil());
+        assertTrue(entry.isCurrentlyValid(NOW));
+        assertNull(index.find("T-8"));
+    }
+
+    @Test
+    void growsAndKeepsProbeChainsIntactAcrossRemovals() {
+        for (long id = 0; id < 1000; id++) {
+            index.put(ticket(id, "T-" + id, NOW.plusHours(1)));
+        }
+        for (long id = 0; id < 1000; id += 2) {
+            index.remove("T-" + id);
+        }
+
+        for (long id = 0; id < 1000; id++) {
+            if (id % 2 == 0) {
+                assertNull(index.find("T-" + id));
+            } else {
+                assertEquals(id, index.find("T-" + id).ticketId());
+            }
+        }
+        assertEquals(500, index.getStats().size());
+    }
+
+    @Test
+    void putOfNonActiveTicketDropsIt() {
+        Ticket ticket = ticket(1L, "T-1", NOW.plusHours(1));
+        index.put(ticket);
+
+        ticket.setStatus(TicketStatus.USED);
+        index.put(ticket);
+
+        assertNull(index.find("T-1"));
+    }
+
+    @Test
+    void evictExpiredRemovesOnlyEntriesPastValidity() {
+        index.put(ticket(1L, "T-1", NOW.minusMinutes(1)));
+        index.put(ticket(2L, "T-2", NOW.plusMinutes(1)));
+
+        assertEquals(1, index.evictExpired(NOW));
+        assertNull(index.find("T-1"));
+        assertNotNull(index.find("T-2"));
+    }
+
+    @Test
+    void rebuildKeepsChangesMadeWhileReadingTheSnapshot() {
+        index.put(ticket(3L, "T-3", NOW.plusHours(1)));
+        // T-3 is only in the old table; T-2 is consumed and T-4 purchased while the snapshot is read
+        when(ticketRepository.streamActiveTicketSnapshots(any())).thenReturn(Stream.of(
+                        row(1L, "T-1"), row(2L, "T-2"))
+                .peek(row -> {
+                    if ("T-2".equals(row[1])) {
+                        index.remove("T-2");
+                        index.put(ticket(4L, "T-4", NOW.plusHours(1)));
+                    }
+                }));
+
+        index.rebuild();
+
+        assertNotNull(index.find("T-1"));
+        assertNull(index.find("T-2"));
+        assertNull(index.find("T-3"));
+        assertNotNull(index.find("T-4"));
+    }
+
+    @Test
+    void disabledIndexFindsNothing() {
+        ReflectionTestUtils.setField(index, "enabled", false);
+
+        index.put(ticket(1L, "T-1", NOW.plusHours(1)));
+
+        assertNull(index.find("T-1"));
+    }
+
+    private static Ticket ticket(long id, String ticketNumber, LocalDateTime validUntil) {
+        Ticket ticket = new Ticket();
+        ticket.setId(id);
+        ticket.setTicketNumber(ticketNumber);
+        ticket.setTicketType(TicketType.RIDE);
+        ticket.setStatus(TicketStatus.ACTIVE);
+        ticket.setPrice(new BigDecimal("1.50"));
+        ticket.setPurchaseDate(NOW.minusHours(1));
+        ticket.setValidFrom(NOW.minusHours(1));
+        ticket.setValidUntil(validUntil);
+        return ticket;
+    }
+
+    private static Object[] row(long id, String ticketNumber) {
+        return new Object[]{id, ticketNumber, TicketType.RIDE, TicketStatus.ACTIVE, new BigDecimal("1.50"),
+                NOW.minusHours(1), NOW.minusHours(1), NOW.plusHours(1), null};
+    }
+}
@@ -0,0 +1,88 @@
+package io.github.kaltrinabajramii.urbantransitbackend.controller.rest;
+
+import io.github.kaltrinabajramii.urbantransitbackend.TestcontainersConfiguration;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.request.UseTicketRequest;
+import io.github.kaltrinabajramii.urbantransitbackend.dto.response.TicketUsageResponse;
+import io.github.kaltrinabajramii.urbantransitbackend.model.entity.Route;
+import io.github.kaltrinabajramii.urbantransitbackend.model.entity.Ticket;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TicketStatus;
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TicketType;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.RouteRepository;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketRepository;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.UserRepository;
+import io.github.kaltrinabajramii.urbantransitbackend.security.TicketNumberCodec;
+import io.github.kaltrinabajramii.urbantransitbackend.service.interfaces.TicketService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(TestcontainersConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+class TicketUsageControllerTest {
+
+    private static final String RIDER_EMAIL = "demo@user.com";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private RouteRepository routeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TicketNumberCodec ticketNumberCodec;
+
+    @Test
+    @WithUserDetails(RIDER_EMAIL)
+    void synchronousRideTapAppearsInTravelHistory() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        Ticket ticket = new Ticket();
+        ticket.setUser(userRepository.findByEmail(RIDER_EMAIL).orElseThrow());
+        ticket.setTicketNumber(ticketNumberCodec.generate(TicketType.RIDE));
+        ticket.setTicketType(TicketType.RIDE);
+        ticket.setPrice(BigDecimal.ONE);
+        ticket.setStatus(TicketStatus.ACTIVE);
+        ticket.setPurchaseDate(now.minusMinutes(1));
+        ticket.setValidFrom(now.minusMinutes(1));
+        ticket.setValidUntil(now.plusHours(2));
+        ticketRepository.save(ticket);
+
+        Route route = routeRepository.findByActiveTrueOrderByRouteNameAsc().get(0);
+        ResponseEntity<TicketUsageResponse> tap = ticketService.useTicket(new UseTicketRequest(
+                ticket.getTicketNumber(), route.getId(), route.getTransportType(), null, null));
+        assertEquals(HttpStatus.OK, tap.getStatusCode());
+
+        mockMvc.perform(get("/api/usage/my-history")
+                        .param("startDate", now.minusHours(1).toString())
+                        .param("endDate", now.plusHours(1).toString())
+                        .param("size", "100"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].ticket.ticketNumber", hasItem(ticket.getTicketNumber())));
+    }
+}
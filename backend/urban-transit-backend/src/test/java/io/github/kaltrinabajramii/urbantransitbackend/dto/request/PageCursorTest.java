@@ -0,0 +1,57 @@
+package io.github.kaltrinabajramii.urbantransitbackend.dto.request;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PageCursorTest {
+
+    private static final LocalDateTime SORT_KEY = LocalDateTime.of(2026, 2, 14, 9, 30, 5, 120_000_000);
+
+    @Test
+    void forwardAndBackwardCursorsRoundTrip() {
+        PageCursor after = PageCursor.after(SORT_KEY, 42L);
+        PageCursor before = PageCursor.before(SORT_KEY, 42L);
+
+        assertEquals(after, PageCursor.decode(after.encode()));
+        assertEquals(before, PageCursor.decode(before.encode()));
+        assertFalse(PageCursor.decode(after.encode()).backward());
+        assertTrue(PageCursor.decode(before.encode()).backward());
+    }
+
+    @Test
+    void encodedCursorIsUrlSafe() {
+        String encoded = PageCursor.after(LocalDateTime.of(2026, 12, 31, 23, 59, 59, 999_999_999), Long.MAX_VALUE)
+                .encode();
+
+        assertTrue(encoded.matches("[A-Za-z0-9_-]+"), encoded);
+    }
+
+    @Test
+    void missingCursorMeansFirstPage() {
+        assertNull(PageCursor.decode(null));
+        assertNull(PageCursor.decode(" "));
+        assertTrue(PageCursor.isValid(null));
+    }
+
+    @Test
+    void malformedCursorsAreRejected() {
+        for (String cursor : new String[]{"not a cursor", encode("x|2026-02-14T09:30|1"), encode("f|yesterday|1"),
+                encode("f|2026-02-14T09:30|one"), encode("f|2026-02-14T09:30")}) {
+            assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(cursor), cursor);
+            assertFalse(PageCursor.isValid(cursor), cursor);
+        }
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
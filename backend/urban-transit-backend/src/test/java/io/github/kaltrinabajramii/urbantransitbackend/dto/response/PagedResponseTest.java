@@ -0,0 +1,175 @@
+package io.github.kaltrinabajramii.urbantransitbackend.dto.response;
+
+import io.github.kaltrinabajramii.urbantransitbackend.dto.request.PageCursor;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PagedResponseTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 4, 1, 12, 0);
+    private static final Comparator<Row> NEWEST_FIRST =
+            Comparator.comparing(Row::sortKey).thenComparingLong(Row::id).reversed();
+
+    private record Row(LocalDateTime sortKey, long id) {
+    }
+
+    @Test
+    void forwardPagesVisitEveryRowOnceAndStopAtTheEnd() {
+        for (int count : new int[]{1, 4, 5, 12}) {
+            List<Row> rows = rows(count);
+            List<Long> seen = new ArrayList<>();
+
+            PagedResponse<Long> page = page(rows, null, 4);
+            assertTrue(page.isFirst());
+            assertFalse(page.isHasPrevious());
+            assertNull(page.getPreviousCursor());
+            seen.addAll(page.getContent());
+            while (page.isHasNext()) {
+                page = page(rows, PageCursor.decode(page.getNextCursor()), 4);
+                assertTrue(page.isHasPrevious());
+                seen.addAll(page.getContent());
+            }
+
+            assertEquals(ids(rows), seen, count + " rows");
+            assertTrue(page.isLast());
+            assertNull(page.getNextCursor());
+        }
+    }
+
+    @Test
+    void backwardPagesFromTheLastPageReturnToTheFirst() {
+        List<Row> rows = rows(10);
+        PagedResponse<Long> page = page(rows, null, 4);
+        while (page.isHasNext()) {
+            page = page(rows, PageCursor.decode(page.getNextCursor()), 4);
+        }
+        assertEquals(List.of(rows.get(8).id(), rows.get(9).id()), page.getContent());
+
+        List<List<Long>> pages = new ArrayList<>();
+        while (page.isHasPrevious()) {
+            page = page(rows, PageCursor.decode(page.getPreviousCursor()), 4);
+            // Backward pages are still listed newest first and can go forward again
+            assertTrue(page.isHasNext());
+            pages.add(0, page.getContent());
+        }
+
+        assertEquals(List.of(ids(rows.subList(0, 4)), ids(rows.subList(4, 8))), pages);
+        assertTrue(page.isFirst());
+        assertNull(page.getPreviousCursor());
+    }
+
+    @Test
+    void nextAndPreviousCursorsOfAMiddlePageAreInverse() {
+        List<Row> rows = rows(12);
+        PagedResponse<Long> second = page(rows, PageCursor.decode(page(rows, null, 4).getNextCursor()), 4);
+        PagedResponse<Long> third = page(rows, PageCursor.decode(second.getNextCursor()), 4);
+
+        PagedResponse<Long> backToSecond = page(rows, PageCursor.decode(third.getPreviousCursor()), 4);
+
+        assertEquals(second.getContent(), backToSecond.getContent());
+        assertEquals(second.getNextCursor(), backToSecond.getNextCursor());
+        assertEquals(second.getPreviousCursor(), backToSecond.getPreviousCursor());
+    }
+
+    @Test
+    void rowsSharingASortKeyAreOrderedById() {
+        List<Row> rows = new ArrayList<>();
+        for (long id = 1; id <= 7; id++) {
+            rows.add(new Row(BASE, id));
+        }
+        rows.sort(NEWEST_FIRST);
+
+        PagedResponse<Long> first = page(rows, null, 3);
+        PagedResponse<Long> second = page(rows, PageCursor.decode(first.getNextCursor()), 3);
+        PagedResponse<Long> third = page(rows, PageCursor.decode(second.getNextCursor()), 3);
+
+        assertEquals(List.of(7L, 6L, 5L), first.getContent());
+        assertEquals(List.of(4L, 3L, 2L), second.getContent());
+        assertEquals(List.of(1L), third.getContent());
+        assertEquals(List.of(4L, 3L, 2L),
+                page(rows, PageCursor.decode(third.getPreviousCursor()), 3).getContent());
+    }
+
+    @Test
+    void emptyPagePointsBackToWhereTheClientCameFrom() {
+        List<Row> rows = rows(4);
+        PageCursor pastTheEnd = PageCursor.after(rows.get(3).sortKey(), rows.get(3).id());
+
+        PagedResponse<Long> page = page(rows, pastTheEnd, 4);
+
+        assertEquals(List.of(), page.getContent());
+        assertTrue(page.isLast());
+        assertNull(page.getNextCursor());
+        assertEquals(List.of(rows.get(0).id(), rows.get(1).id(), rows.get(2).id()),
+                page(rows, PageCursor.decode(page.getPreviousCursor()), 4).getContent());
+    }
+
+    @Test
+    void emptyListIsOneFirstAndLastPage() {
+        PagedResponse<Long> page = page(List.of(), null, 4);
+
+        assertEquals(List.of(), page.getContent());
+        assertTrue(page.isFirst());
+        assertTrue(page.isLast());
+        assertNull(page.getNextCursor());
+        assertNull(page.getPreviousCursor());
+        assertNull(page.getPage());
+    }
+
+    @Test
+    void totalPagesFollowTheRequestedTotal() {
+        List<Row> rows = rows(9);
+
+        assertEquals(3, page(rows, null, 4, 9L).getTotalPages().intValue());
+        assertEquals(2, page(rows, null, 4, 8L).getTotalPages().intValue());
+        assertNull(page(rows, null, 4, null).getTotalPages());
+    }
+
+    private static PagedResponse<Long> page(List<Row> rows, PageCursor cursor, int size) {
+        return page(rows, cursor, size, null);
+    }
+
+    /**
+     * Page the way the keyset queries do: size + 1 rows past the cursor, nearest first
+     */
+    private static PagedResponse<Long> page(List<Row> rows, PageCursor cursor, int size, Long totalElements) {
+        List<Row> fetched;
+        if (cursor == null) {
+            fetched = rows.stream().limit(size + 1).toList();
+        } else {
+            Row position = new Row(cursor.sortKey(), cursor.id());
+            fetched = cursor.backward()
+                    ? rows.stream().filter(row -> NEWEST_FIRST.compare(row, position) < 0)
+                            .sorted(NEWEST_FIRST.reversed()).limit(size + 1).toList()
+                    : rows.stream().filter(row -> NEWEST_FIRST.compare(row, position) > 0)
+                            .limit(size + 1).toList();
+        }
+        return PagedResponse.ofKeyset(fetched, cursor, size,
+                row -> PageCursor.after(row.sortKey(), row.id()), Row::id, totalElements);
+    }
+
+    /**
+     * Rows newest first, some sharing a sort key
+     */
+    private static List<Row> rows(int count) {
+        List<Row> rows = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            rows.add(new Row(BASE.plusMinutes(id / 2), id));
+        }
+        rows.sort(NEWEST_FIRST);
+        return rows;
+    }
+
+    private static List<Long> ids(List<Row> rows) {
+        return rows.stream().map(Row::id).toList();
+    }
+}
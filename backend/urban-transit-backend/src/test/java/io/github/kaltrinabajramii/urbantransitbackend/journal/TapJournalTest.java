@@ -0,0 +1,220 @@
+package io.github.kaltrinabajramii.urbantransitbackend.journal;
+
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TransportType;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketUsageJdbcRepository;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketUsageJdbcRepository.UsageRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TapJournalTest {
+
+    // Header, then records of 8 header bytes and a 29-byte payload when both stops are null
+    private static final int HEADER_BYTES = 16;
+    private static final int BARE_RECORD_BYTES = 8 + 29;
+    private static final LocalDateTime USED_AT = LocalDateTime.of(2026, 5, 4, 8, 15, 30, 123_000_000);
+
+    @TempDir
+    Path directory;
+
+    private List<UsageRow> inserted;
+    private Set<String> storedKeys;
+    private Long poisonTicketId;
+    private boolean databaseDown;
+
+    @BeforeEach
+    void setUp() {
+        inserted = new ArrayList<>();
+        storedKeys = new HashSet<>();
+    }
+
+    @Test
+    void flushInsertsAppendedTapsInOrder() throws IOException {
+        TapJournal journal = journal(1 << 16);
+        UsageRow withStops = new UsageRow(1L, 2L, TransportType.TRAM, "Centar", "Karpoš – Zapad", USED_AT);
+        UsageRow bare = row(3L);
+
+        journal.append(withStops);
+        journal.append(bare);
+        journal.flush();
+
+        assertEquals(List.of(withStops, bare), inserted);
+        assertEquals(2, journal.getStats().flushed());
+    }
+
+    @Test
+    void rotatedSegmentsAreDrainedAndDeleted() throws IOException {
+        TapJournal journal = journal(HEADER_BYTES + 3 * BARE_RECORD_BYTES);
+        for (long id = 0; id < 10; id++) {
+            journal.append(row(id));
+        }
+
+        journal.flush();
+
+        assertEquals(10, inserted.size());
+        // Only the segment still being appended to is left
+        assertEquals(1, segmentFiles().size());
+    }
+
+    @Test
+    void unflushedTapsAreReplayedAfterRestart() throws IOException {
+        TapJournal crashed = journal(1 << 16);
+        crashed.append(row(1L));
+        crashed.append(row(2L));
+        crashed.flush();
+        crashed.append(row(3L));
+        inserted.clear();
+
+        journal(1 << 16).flush();
+
+        // Taps before the recorded flushed offset are not inserted twice
+        assertEquals(List.of(row(3L)), inserted);
+    }
+
+    @Test
+    void batchCommittedBeforeTheHeaderUpdateIsNotInsertedTwice() throws IOException {
+        TapJournal crashed = journal(1 << 16);
+        crashed.append(row(1L));
+        crashed.append(row(2L));
+        crashed.flush();
+        // The insert committed but the flushed offset never reached the disk
+        rewindFlushedOffset(segmentFiles().get(0));
+
+        journal(1 << 16).flush();
+
+        assertEquals(List.of(row(1L), row(2L)), inserted);
+    }
+
+    @Test
+    void failedBatchStaysInTheJournalUntilTheDatabaseIsBack() throws IOException {
+        TapJournal journal = journal(HEADER_BYTES + 3 * BARE_RECORD_BYTES);
+        for (long id = 0; id < 5; id++) {
+            journal.append(row(id));
+        }
+        databaseDown = true;
+
+        journal.flush();
+        journal.flush();
+
+        assertEquals(List.of(), inserted);
+        assertEquals(0, journal.getStats().flushed());
+        assertEquals(2, segmentFiles().size());
+
+        databaseDown = false;
+        journal.flush();
+
+        assertEquals(List.of(row(0L), row(1L), row(2L), row(3L), row(4L)), inserted);
+    }
+
+    @Test
+    void onlyRowsTheDatabaseRejectsAreDropped() throws IOException {
+        TapJournal journal = journal(1 << 16);
+        journal.append(row(1L));
+        journal.append(row(2L));
+        journal.append(row(3L));
+        poisonTicketId = 2L;
+
+        journal.flush();
+
+        assertEquals(List.of(row(1L), row(3L)), inserted);
+        assertEquals(3, journal.getStats().flushed());
+    }
+
+    @Test
+    void replayStopsAtATornRecord() throws IOException {
+        TapJournal crashed = journal(1 << 16);
+        crashed.append(row(1L));
+        crashed.append(row(2L));
+        crashed.append(row(3L));
+        // The third record's payload never fully reached the disk
+        corrupt(segmentFiles().get(0), HEADER_BYTES + 2 * BARE_RECORD_BYTES + 8);
+
+        TapJournal restarted = journal(1 << 16);
+        restarted.flush();
+
+        assertEquals(List.of(row(1L), row(2L)), inserted);
+        // The torn segment is dropped; only the new active segment remains
+        assertEquals(1, segmentFiles().size());
+        assertEquals(1, restarted.getStats().pendingSegments());
+    }
+
+    private TapJournal journal(int segmentSizeBytes) throws IOException {
+        TicketUsageJdbcRepository repository = mock(TicketUsageJdbcRepository.class);
+        when(repository.batchInsertJournaled(anyList(), anyList())).thenAnswer(invocation -> {
+            List<UsageRow> rows = invocation.getArgument(0);
+            List<String> keys = invocation.getArgument(1);
+            if (databaseDown) {
+                throw new CannotGetJdbcConnectionException("Connection is not available");
+            }
+            if (rows.stream().anyMatch(row -> Long.valueOf(row.ticketId()).equals(poisonTicketId))) {
+                throw new DataIntegrityViolationException("ticket_usage_ticket_id_fkey");
+            }
+            // ON CONFLICT (journal_key) DO NOTHING
+            List<UsageRow> written = new ArrayList<>();
+            for (int i = 0; i < rows.size(); i++) {
+                if (storedKeys.add(keys.get(i))) {
+                    written.add(rows.get(i));
+                }
+            }
+            inserted.addAll(written);
+            return written;
+        });
+
+        TapJournal journal = new TapJournal(repository, mock(ApplicationEventPublisher.class),
+                mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(journal, "writeBehindEnabled", true);
+        ReflectionTestUtils.setField(journal, "journalDir", directory.toString());
+        ReflectionTestUtils.setField(journal, "segmentSizeBytes", segmentSizeBytes);
+        ReflectionTestUtils.setField(journal, "flushBatchSize", 4);
+        ReflectionTestUtils.setField(journal, "fsyncOnAppend", false);
+        journal.open();
+        return journal;
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".log")).sorted().toList();
+        }
+    }
+
+    private static void rewindFlushedOffset(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(8).putLong(0, HEADER_BYTES), 8);
+        }
+    }
+
+    private static void corrupt(Path segment, long offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer original = ByteBuffer.allocate(1);
+            channel.read(original, offset);
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) (original.get(0) ^ 0xFF)}), offset);
+        }
+    }
+
+    private static UsageRow row(long ticketId) {
+        return new UsageRow(ticketId, 10L, TransportType.BUS, null, null, USED_AT);
+    }
+}
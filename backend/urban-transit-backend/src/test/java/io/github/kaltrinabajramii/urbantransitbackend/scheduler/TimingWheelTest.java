@@ -0,0 +1,132 @@
+package io.github.kaltrinabajramii.urbantransitbackend.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+
+    @Test
+    void entriesFireOnTheirDeadlineTick() {
+        TimingWheel wheel = new TimingWheel(0, 16);
+        wheel.schedule(1L, 1);
+        wheel.schedule(2L, 5);
+
+        assertEquals(List.of(), advance(wheel, 0));
+        assertEquals(List.of(1L), advance(wheel, 1));
+        assertEquals(List.of(), advance(wheel, 4));
+        assertEquals(List.of(2L), advance(wheel, 5));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void entriesCascadeAcrossEveryLevelRollover() {
+        // Start just short of a level-3 boundary so every level wraps within the run
+        long start = (1L << 18) - 3;
+        TimingWheel wheel = new TimingWheel(start, 16);
+        Map<Long, Long> deadlines = new HashMap<>();
+        long[] delays = {1, 2, 3, 4, 63, 64, 65, 127, 128, 4095, 4096, 4097, 262_143, 262_144, 262_145, 300_000};
+        for (long delay : delays) {
+            assertTrue(wheel.schedule(delay, start + delay));
+            deadlines.put(delay, start + delay);
+        }
+
+        Map<Long, Long> firedAt = new HashMap<>();
+        for (long tick = start + 1; tick <= start + 300_000; tick++) {
+            long current = tick;
+            wheel.advanceTo(tick, id -> firedAt.put(id, current));
+        }
+
+        assertEquals(deadlines, firedAt);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void randomDeadlinesFireExactlyOnceAtTheirTick() {
+        Random random = new Random(42);
+        long start = 1_000_003;
+        TimingWheel wheel = new TimingWheel(start, 16);
+        Map<Long, Long> deadlines = new HashMap<>();
+        for (long id = 0; id < 5_000; id++) {
+            long deadline = start + 1 + random.nextInt(200_000);
+            wheel.schedule(id, deadline);
+            deadlines.put(id, deadline);
+        }
+
+        Map<Long, Long> firedAt = new HashMap<>();
+        long tick = start;
+        while (tick < start + 200_001) {
+            // Uneven steps, as the scheduler catches up after a slow run
+            tick = Math.min(start + 200_001, tick + 1 + random.nextInt(3));
+            long target = tick;
+            wheel.advanceTo(target, id -> {
+                assertNull(firedAt.put(id, target));
+                assertTrue(deadlines.get(id) <= target && deadlines.get(id) > target - 3);
+            });
+        }
+
+        assertEquals(deadlines.keySet(), firedAt.keySet());
+    }
+
+    @Test
+    void cancelledAndRescheduledEntriesFireOnlyOnTheirLatestDeadline() {
+        TimingWheel wheel = new TimingWheel(0, 16);
+        wheel.schedule(1L, 10);
+        wheel.schedule(2L, 5_000);
+        wheel.schedule(2L, 20);
+
+        assertTrue(wheel.cancel(1L));
+        assertFalse(wheel.cancel(1L));
+        assertFalse(wheel.contains(1L));
+
+        assertEquals(List.of(2L), advance(wheel, 5_000));
+    }
+
+    @Test
+    void pastDeadlinesFireOnTheNextTick() {
+        TimingWheel wheel = new TimingWheel(100, 16);
+        wheel.schedule(1L, 50);
+
+        assertEquals(List.of(1L), advance(wheel, 101));
+    }
+
+    @Test
+    void deadlinesBeyondRangeAreRefused() {
+        TimingWheel wheel = new TimingWheel(0, 16);
+
+        assertTrue(wheel.schedule(1L, TimingWheel.MAX_DELAY_TICKS));
+        assertFalse(wheel.schedule(2L, TimingWheel.MAX_DELAY_TICKS + 1));
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    void growsPastInitialCapacity() {
+        TimingWheel wheel = new TimingWheel(0, 16);
+        for (long id = 0; id < 1_000; id++) {
+            wheel.schedule(id, 1 + id % 100);
+        }
+        for (long id = 0; id < 1_000; id += 2) {
+            wheel.cancel(id);
+        }
+
+        List<Long> fired = advance(wheel, 100);
+
+        assertEquals(500, fired.size());
+        assertTrue(fired.stream().allMatch(id -> id % 2 == 1));
+    }
+
+    private static List<Long> advance(TimingWheel wheel, long targetTick) {
+        List<Long> fired = new ArrayList<>();
+        wheel.advanceTo(targetTick, fired::add);
+        return fired;
+    }
+}
@@ -0,0 +1,114 @@
+package io.github.kaltrinabajramii.urbantransitbackend.security;
+
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TicketType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OfflineTicketValidatorTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 10, 12, 0);
+
+    private KeyPair keyPair;
+    private OfflineTicketValidator validator;
+
+    @BeforeEach
+    void setUp() throws GeneralSecurityException {
+        keyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        validator = new OfflineTicketValidator();
+        validator.addKey(Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()));
+    }
+
+    @Test
+    void passInsideItsWindowIsValid() throws GeneralSecurityException {
+        OfflineTicketValidator.Claims claims = claims(TicketType.MONTHLY);
+
+        OfflineTicketValidator.Result result = validator.validate(sign(keyPair, claims), NOW);
+
+        assertEquals(OfflineTicketValidator.Status.VALID, result.status());
+        assertEquals(claims, result.claims());
+    }
+
+    @Test
+    void rideTicketNeedsAnOnlineCheck() throws GeneralSecurityException {
+        OfflineTicketValidator.Result result = validator.validate(sign(keyPair, claims(TicketType.RIDE)), NOW);
+
+        assertEquals(OfflineTicketValidator.Status.ONLINE_CHECK_REQUIRED, result.status());
+        assertTrue(result.isAccepted());
+    }
+
+    @Test
+    void windowIsCheckedOnEveryTapEvenWhenCached() throws GeneralSecurityException {
+        String token = sign(keyPair, claims(TicketType.MONTHLY));
+
+        assertEquals(OfflineTicketValidator.Status.NOT_YET_VALID, validator.validate(token, NOW.minusDays(2)).status());
+        assertEquals(OfflineTicketValidator.Status.VALID, validator.validate(token, NOW).status());
+        // Token expires before the pass does
+        assertEquals(OfflineTicketValidator.Status.EXPIRED, validator.validate(token, NOW.plusDays(3)).status());
+    }
+
+    @Test
+    void tamperedTokenHasBadSignature() throws GeneralSecurityException {
+        byte[] bytes = Base64.getUrlDecoder().decode(sign(keyPair, claims(TicketType.YEARLY)));
+        bytes[10] ^= 1;
+
+        OfflineTicketValidator.Result result = validator.validate(Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(bytes), NOW);
+
+        assertEquals(OfflineTicketValidator.Status.BAD_SIGNATURE, result.status());
+        assertFalse(result.isAccepted());
+    }
+
+    @Test
+    void tokenFromUnregisteredKeyIsRejected() throws GeneralSecurityException {
+        KeyPair other = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+
+        assertEquals(OfflineTicketValidator.Status.UNKNOWN_KEY,
+                validator.validate(sign(other, claims(TicketType.MONTHLY)), NOW).status());
+    }
+
+    @Test
+    void removedKeyRejectsPreviouslyVerifiedTokens() throws GeneralSecurityException {
+        String token = sign(keyPair, claims(TicketType.MONTHLY));
+        assertEquals(OfflineTicketValidator.Status.VALID, validator.validate(token, NOW).status());
+
+        validator.removeKey(OfflineTicketValidator.keyIdOf(keyPair.getPublic()));
+
+        assertEquals(OfflineTicketValidator.Status.UNKNOWN_KEY, validator.validate(token, NOW).status());
+    }
+
+    @Test
+    void garbageIsMalformed() {
+        assertEquals(OfflineTicketValidator.Status.MALFORMED, validator.validate(null, NOW).status());
+        assertEquals(OfflineTicketValidator.Status.MALFORMED, validator.validate("not base64!", NOW).status());
+        assertEquals(OfflineTicketValidator.Status.MALFORMED, validator.validate("AAAA", NOW).status());
+    }
+
+    private static OfflineTicketValidator.Claims claims(TicketType ticketType) {
+        return new OfflineTicketValidator.Claims("MO-001-0000000001-ABCDEF", ticketType, 5L,
+                NOW.minusDays(1), NOW.plusDays(30), NOW.plusDays(2));
+    }
+
+    private static String sign(KeyPair keyPair, OfflineTicketValidator.Claims claims) throws GeneralSecurityException {
+        byte[] payload = OfflineTicketValidator.encodePayload(OfflineTicketValidator.keyIdOf(keyPair.getPublic()), claims);
+        Signature signer = Signature.getInstance("Ed25519");
+        signer.initSign(keyPair.getPrivate());
+        signer.update(payload);
+        byte[] signature = signer.sign();
+
+        byte[] token = new byte[payload.length + signature.length];
+        System.arraycopy(payload, 0, token, 0, payload.length);
+        System.arraycopy(signature, 0, token, payload.length, signature.length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token);
+    }
+}
@@ -0,0 +1,96 @@
+package io.github.kaltrinabajramii.urbantransitbackend.security;
+
+import io.github.kaltrinabajramii.urbantransitbackend.model.enums.TicketType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TicketNumberCodecTest {
+
+    private TicketNumberCodec codec;
+
+    @BeforeEach
+    void setUp() {
+        codec = codec("test-secret", 42, true);
+    }
+
+    @Test
+    void generatedNumbersVerifyAndCarryTheirType() {
+        for (TicketType type : TicketType.values()) {
+            String ticketNumber = codec.generate(type);
+
+            assertEquals(24, ticketNumber.length());
+            assertEquals(TicketNumberCodec.Verdict.VALID, codec.verify(ticketNumber));
+            assertEquals(type, codec.typeOf(ticketNumber));
+        }
+    }
+
+    @Test
+    void generatedNumbersAreUnique() {
+        Set<String> numbers = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(numbers.add(codec.generate(TicketType.RIDE)));
+        }
+    }
+
+    @Test
+    void anyChangedCharacterIsRejected() {
+        String ticketNumber = codec.generate(TicketType.MONTHLY);
+
+        for (int i = 3; i < ticketNumber.length(); i++) {
+            if (ticketNumber.charAt(i) == '-') {
+                continue;
+            }
+            char replacement = ticketNumber.charAt(i) == 'Z' ? 'Y' : 'Z';
+            String tampered = ticketNumber.substring(0, i) + replacement + ticketNumber.substring(i + 1);
+
+            assertFalse(codec.verify(tampered).isAcceptable(), tampered);
+        }
+    }
+
+    @Test
+    void numbersSignedWithAnotherSecretAreForged() {
+        String foreign = codec("other-secret", 42, true).generate(TicketType.RIDE);
+
+        assertEquals(TicketNumberCodec.Verdict.FORGED, codec.verify(foreign));
+    }
+
+    @Test
+    void malformedNumbersAreRejected() {
+        assertEquals(TicketNumberCodec.Verdict.MALFORMED, codec.verify(null));
+        assertEquals(TicketNumberCodec.Verdict.MALFORMED, codec.verify(""));
+        assertEquals(TicketNumberCodec.Verdict.MALFORMED, codec.verify("XX-001-0000000000-000000"));
+        assertEquals(TicketNumberCodec.Verdict.MALFORMED, codec.verify("RD-001-00000000a0-000000"));
+    }
+
+    @Test
+    void legacyNumbersAreAcceptedOnlyWhenEnabled() {
+        assertEquals(TicketNumberCodec.Verdict.LEGACY, codec.verify("RD-20240101120000-AB12"));
+        assertEquals(TicketNumberCodec.Verdict.LEGACY, codec.verify("MO-1704110400000-42"));
+
+        TicketNumberCodec strict = codec("test-secret", 42, false);
+        assertEquals(TicketNumberCodec.Verdict.MALFORMED, strict.verify("RD-20240101120000-AB12"));
+    }
+
+    @Test
+    void nodeIdOutOfRangeFailsStartup() {
+        assertThrows(IllegalStateException.class, () -> codec("test-secret", 36 * 36 * 36, true));
+    }
+
+    private static TicketNumberCodec codec(String secret, int nodeId, boolean acceptLegacy) {
+        TicketNumberCodec codec = new TicketNumberCodec();
+        ReflectionTestUtils.setField(codec, "secret", secret);
+        ReflectionTestUtils.setField(codec, "nodeId", nodeId);
+        ReflectionTestUtils.setField(codec, "acceptLegacy", acceptLegacy);
+        codec.init();
+        return codec;
+    }
+}
@@ -0,0 +1,193 @@
+package io.github.kaltrinabajramii.urbantransitbackend.service;
+
+import io.github.kaltrinabajramii.urbantransitbackend.TestcontainersConfiguration;
+import io.github.kaltrinabajramii.urbantransitbackend.model.entity.Ticket;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketJdbcRepository;
+import io.github.kaltrinabajramii.urbantransitbackend.repository.TicketRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fires concurrent taps at a single RIDE ticket and checks that the conditional
+ * UPDATE ... RETURNING lets exactly one of them consume it.
+ *
+ * The benchmark compares it with the read-modify-write consumption useTicket used before.
+ * It is tagged so surefire skips it by default; run it with
+ * {@code mvn test -Dtest=RideTicketContentionTest -Dtest.excludedGroups= -Dgroups=benchmark}.
+ */
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+class RideTicketContentionTest {
+
+    private static final int THREADS = 16;
+    private static final int BENCHMARK_THREADS = Integer.getInteger("benchmark.threads", 32);
+    private static final int BENCHMARK_ROUNDS = Integer.getInteger("benchmark.rounds", 50);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private TicketJdbcRepository ticketJdbcRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<String> createdTickets = new ArrayList<>();
+
+    private interface ConsumeStrategy {
+        boolean consume(String ticketNumber);
+    }
+
+    private record Result(String name, long taps, long doubleSpends, long elapsedNanos) {
+
+        double tapsPerSecond() {
+            return taps * 1_000_000_000.0 / Math.max(1, elapsedNanos);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %.0f taps/s, %d double spends", name, tapsPerSecond(), doubleSpends);
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        for (String ticketNumber : createdTickets) {
+            jdbcTemplate.update("DELETE FROM ticket WHERE ticket_number = ?", ticketNumber);
+        }
+    }
+
+    @RepeatedTest(5)
+    void concurrentTapsConsumeRideTicketExactlyOnce() throws Exception {
+        String ticketNumber = insertRideTicket();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        int successes;
+        try {
+            successes = tapConcurrently(executor, THREADS, ticketNumber, atomicUpdate());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, successes, "exactly one concurrent tap may consume a RIDE ticket");
+        assertEquals("USED", jdbcTemplate.queryForObject(
+                "SELECT status FROM ticket WHERE ticket_number = ?", String.class, ticketNumber));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void atomicUpdateIsFasterThanReadModifyWriteAndNeverDoubleSpends() throws Exception {
+        Result before = run("read-modify-write", readModifyWrite());
+        Result after = run("atomic update", atomicUpdate());
+
+        String report = before + "; " + after;
+        assertEquals(0, after.doubleSpends(), report);
+        assertTrue(after.tapsPerSecond() >= before.tapsPerSecond(), report);
+    }
+
+    /**
+     * What useTicket used to do: load, check in Java, mutate, save
+     */
+    private ConsumeStrategy readModifyWrite() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        return ticketNumber -> Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            Ticket ticket = ticketRepository.findByTicketNumber(ticketNumber).orElse(null);
+            if (ticket == null || !ticket.canBeUsedForTransit()) {
+                return false;
+            }
+            ticket.useTicket();
+            ticketRepository.saveAndFlush(ticket);
+            return true;
+        }));
+    }
+
+    private ConsumeStrategy atomicUpdate() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        return ticketNumber -> Boolean.TRUE.equals(transactionTemplate.execute(status ->
+                ticketJdbcRepository.consumeRideTicket(ticketNumber, LocalDateTime.now()).isPresent()));
+    }
+
+    private Result run(String name, ConsumeStrategy strategy) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(BENCHMARK_THREADS);
+        long doubleSpends = 0;
+        long elapsedNanos = 0;
+        try {
+            for (int round = 0; round < BENCHMARK_ROUNDS; round++) {
+                String ticketNumber = insertRideTicket();
+                long began = System.nanoTime();
+                int successes = tapConcurrently(executor, BENCHMARK_THREADS, ticketNumber, strategy);
+                elapsedNanos += System.nanoTime() - began;
+                doubleSpends += Math.max(0, successes - 1);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return new Result(name, (long) BENCHMARK_THREADS * BENCHMARK_ROUNDS, doubleSpends, elapsedNanos);
+    }
+
+    /**
+     * Release {@code taps} threads at once against one ticket
+     *
+     * @return how many of them consumed it
+     */
+    private static int tapConcurrently(ExecutorService executor, int taps, String ticketNumber,
+                                       ConsumeStrategy strategy) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>(taps);
+        for (int i = 0; i < taps; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return strategy.consume(ticketNumber);
+            }));
+        }
+        start.countDown();
+
+        int successes = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                successes++;
+            }
+        }
+        return successes;
+    }
+
+    private String insertRideTicket() {
+        Long userId = jdbcTemplate.queryForObject("SELECT id FROM app_user ORDER BY id LIMIT 1", Long.class);
+        String ticketNumber = "TEST-" + UUID.randomUUID().toString().substring(0, 18);
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp timestamp = Timestamp.valueOf(now);
+        jdbcTemplate.update("INSERT INTO ticket (user_id, ticket_number, ticket_type, price, status, " +
+                        "purchase_date, valid_from, valid_until, created_at, updated_at) " +
+                        "VALUES (?, ?, 'RIDE', 1.00, 'ACTIVE', ?, ?, ?, ?, ?)",
+                userId, ticketNumber, timestamp, Timestamp.valueOf(now.minusMinutes(1)),
+                Timestamp.valueOf(now.plusHours(2)), timestamp, timestamp);
+        createdTickets.add(ticketNumber);
+        return ticketNumber;
+    }
+}